@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others
+ * Copyright (c) 2007, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,8 @@ package org.eclipse.equinox.cm.test;
 
 import static org.junit.Assert.*;
 
-import java.io.IOException;
+import java.io.*;
+import java.util.*;
 import org.junit.Test;
 import org.osgi.framework.Constants;
 import org.osgi.service.cm.Configuration;
@@ -155,6 +156,34 @@ public class ConfigurationAdminTest extends AbstractCMTest {
 		assertTrue(configs.length > 0);
 	}
 
+	@Test
+	public void testListConfigurationAfterLocationChange() throws Exception {
+		Configuration config1 = cm.createFactoryConfiguration("test1", null);
+		Configuration config2 = cm.createFactoryConfiguration("test2", null);
+		try {
+			config1.update(dictionaryOf("key", "value1"));
+			config2.update(dictionaryOf("key", "value2"));
+			Configuration[] configs = cm.listConfigurations("(" + ConfigurationAdmin.SERVICE_FACTORYPID + "=test1)");
+			assertNotNull(configs);
+			assertEquals(1, configs.length);
+			assertEquals(config1, configs[0]);
+
+			String locationFilter = "(" + ConfigurationAdmin.SERVICE_BUNDLELOCATION + "=loc)";
+			assertNull(cm.listConfigurations(locationFilter));
+			config2.setBundleLocation("loc");
+			configs = cm.listConfigurations(locationFilter);
+			assertNotNull(configs);
+			assertEquals(1, configs.length);
+			assertEquals(config2, configs[0]);
+			config2.setBundleLocation(null);
+			assertNull(cm.listConfigurations(locationFilter));
+		} finally {
+			config1.delete();
+			config2.delete();
+		}
+		assertNull(cm.listConfigurations("(" + ConfigurationAdmin.SERVICE_FACTORYPID + "=test1)"));
+	}
+
 	@Test
 	public void testPersistentConfig() throws Exception {
 		Configuration config = cm.getConfiguration("test");
@@ -192,6 +221,76 @@ public class ConfigurationAdminTest extends AbstractCMTest {
 		assertNull(config.getProperties());
 	}
 
+	@Test
+	public void testPersistentConfigPropertyTypes() throws Exception {
+		Configuration config = cm.getConfiguration("test");
+		Hashtable<String, Object> properties = new Hashtable<>();
+		properties.put("string", "value");
+		properties.put("int", Integer.valueOf(1));
+		properties.put("long", Long.valueOf(2));
+		properties.put("double", Double.valueOf(3.5));
+		properties.put("char", Character.valueOf('c'));
+		properties.put("boolean", Boolean.TRUE);
+		properties.put("intArray", new int[] { 1, 2, 3 });
+		properties.put("stringArray", new String[] { "a", "b" });
+		properties.put("longObjectArray", new Long[] { Long.valueOf(4), null });
+		properties.put("collection", new ArrayList<>(Arrays.asList("x", "y")));
+		config.update(properties);
+		tearDown();
+		setUp();
+		config = cm.getConfiguration("test");
+		Dictionary<String, Object> restored = config.getProperties();
+		assertEquals("value", restored.get("string"));
+		assertEquals(Integer.valueOf(1), restored.get("int"));
+		assertEquals(Long.valueOf(2), restored.get("long"));
+		assertEquals(Double.valueOf(3.5), restored.get("double"));
+		assertEquals(Character.valueOf('c'), restored.get("char"));
+		assertEquals(Boolean.TRUE, restored.get("boolean"));
+		assertArrayEquals(new int[] { 1, 2, 3 }, (int[]) restored.get("intArray"));
+		assertArrayEquals(new String[] { "a", "b" }, (String[]) restored.get("stringArray"));
+		assertArrayEquals(new Long[] { Long.valueOf(4), null }, (Long[]) restored.get("longObjectArray"));
+		assertEquals(Arrays.asList("x", "y"), new ArrayList<>((Collection<?>) restored.get("collection")));
+		assertEquals(1, config.getChangeCount());
+		config.delete();
+	}
+
+	@Test
+	public void testMigrateConfigurationFiles() throws Exception {
+		Configuration config = cm.getConfiguration("test.leftover");
+		config.update(dictionaryOf("value", "journal"));
+		File store = getBundle("org.eclipse.equinox.cm").getBundleContext().getDataFile("store");
+		tearDown();
+
+		// files of the previous store, the second one is left over from an
+		// interrupted migration and older than the journal
+		File migratedFile = new File(store, "data1.cfg");
+		File leftoverFile = new File(store, "data2.cfg");
+		writeConfigurationFile(migratedFile, "test.migrated", "file");
+		writeConfigurationFile(leftoverFile, "test.leftover", "stale");
+		setUp();
+		assertEquals("file", cm.getConfiguration("test.migrated").getProperties().get("value"));
+		assertEquals("journal", cm.getConfiguration("test.leftover").getProperties().get("value"));
+		assertFalse("Migrated file was not deleted", migratedFile.exists());
+		assertFalse("Left over file was not deleted", leftoverFile.exists());
+
+		// the migrated configuration is read from the journal from now on
+		tearDown();
+		setUp();
+		config = cm.getConfiguration("test.migrated");
+		assertEquals("file", config.getProperties().get("value"));
+		config.delete();
+		cm.getConfiguration("test.leftover").delete();
+	}
+
+	private static void writeConfigurationFile(File file, String pid, String value) throws IOException {
+		Hashtable<String, Object> properties = new Hashtable<>();
+		properties.put(Constants.SERVICE_PID, pid);
+		properties.put("value", value);
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+			out.writeObject(properties);
+		}
+	}
+
 	private static String getBundleLocation() {
 		return getBundleContext().getBundle().getLocation();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others
+ * Copyright (c) 2007, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,9 @@ package org.eclipse.equinox.cm.test;
 
 import static org.junit.Assert.*;
 
-import java.util.Dictionary;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
@@ -165,4 +167,66 @@ public class ManagedServiceFactoryTest extends AbstractCMTest {
 		}
 		reg.unregister();
 	}
+
+	@Test
+	public void testDeleteAndRecreateNotCoalesced() throws Exception {
+		Configuration blocker = cm.getFactoryConfiguration("coalesce", "blocker", null);
+		blocker.update(dictionaryOf("value", "blocker"));
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> received = Collections.synchronizedList(new ArrayList<>());
+		ManagedServiceFactory msf = new ManagedServiceFactory() {
+
+			@Override
+			public void deleted(String pid) {
+				received.add("deleted " + pid);
+			}
+
+			@Override
+			public String getName() {
+				return null;
+			}
+
+			@Override
+			public void updated(String pid, Dictionary<String, ?> properties) {
+				received.add("updated " + properties.get("value"));
+				if (pid.equals(blocker.getPid())) {
+					blocked.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		};
+
+		ServiceRegistration<ManagedServiceFactory> reg = registerService(ManagedServiceFactory.class, msf,
+				dictionaryOf(Constants.SERVICE_PID, "coalesce"));
+		Configuration config = null;
+		try {
+			assertTrue("should have updated", blocked.await(5, TimeUnit.SECONDS));
+			// queued behind the blocked update
+			config = cm.getFactoryConfiguration("coalesce", "instance", null);
+			config.update(dictionaryOf("value", "first"));
+			String pid = config.getPid();
+			config.delete();
+			config = cm.getFactoryConfiguration("coalesce", "instance", null);
+			assertEquals(pid, config.getPid());
+			config.update(dictionaryOf("value", "second"));
+			release.countDown();
+			long end = System.currentTimeMillis() + 5000;
+			while (!received.contains("updated second") && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+			assertEquals(Arrays.asList("updated blocker", "deleted " + pid, "updated second"), received);
+		} finally {
+			release.countDown();
+			reg.unregister();
+			blocker.delete();
+			if (config != null) {
+				config.delete();
+			}
+		}
+	}
 }
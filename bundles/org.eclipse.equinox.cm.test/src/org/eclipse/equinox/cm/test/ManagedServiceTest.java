@@ -15,7 +15,9 @@ package org.eclipse.equinox.cm.test;
 
 import static org.junit.Assert.*;
 
-import java.util.Dictionary;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.equinox.log.ExtendedLogReaderService;
 import org.junit.Test;
 import org.osgi.framework.*;
@@ -197,4 +199,40 @@ public class ManagedServiceTest extends AbstractCMTest {
 		}
 		reg.unregister();
 	}
+
+	@Test
+	public void testPendingUpdatesCoalesced() throws Exception {
+		CountDownLatch firstUpdate = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Object> received = Collections.synchronizedList(new ArrayList<>());
+		ManagedService ms = properties -> {
+			received.add(properties == null ? null : properties.get("value"));
+			firstUpdate.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		Configuration config = cm.getConfiguration("coalesce");
+		ServiceRegistration<ManagedService> reg = registerService(ManagedService.class, ms,
+				dictionaryOf(Constants.SERVICE_PID, "coalesce"));
+		try {
+			assertTrue("should have updated", firstUpdate.await(5, TimeUnit.SECONDS));
+			for (int i = 1; i <= 10; i++) {
+				config.update(dictionaryOf("value", Integer.valueOf(i)));
+			}
+			release.countDown();
+			long end = System.currentTimeMillis() + 5000;
+			while (!received.contains(Integer.valueOf(10)) && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+			assertEquals(Integer.valueOf(10), received.get(received.size() - 1));
+			assertTrue("pending updates should be coalesced: " + received, received.size() < 11);
+		} finally {
+			reg.unregister();
+			config.delete();
+		}
+	}
 }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CoalescingTaskQueue is a utility class that allows asynchronous execution of
+ * tasks on a shared pool of threads. Tasks put for the same target are executed
+ * serially in order, tasks for different targets may run in parallel. A task
+ * put with the same kind and coalesce key as a task of the same target which
+ * has not started yet replaces that task, so only the latest update is
+ * delivered. Tasks of different kinds never replace each other.
+ * <p>
+ * Tasks running longer than the configured threshold are reported as slow,
+ * they are not interrupted.
+ */
+public class CoalescingTaskQueue {
+
+	private static final int MAX_WAIT = 5000;
+
+	private final String queueName;
+	private final long slowThreshold;
+	private final LogTracker log;
+	private final ThreadPoolExecutor executor;
+	/** @GuardedBy targets */
+	private final Map<Object, TargetQueue> targets = new IdentityHashMap<>();
+
+	/**
+	 * @param queueName     the name prefix for the pool threads
+	 * @param threads       the maximum number of tasks executed in parallel
+	 * @param slowThreshold the time in milliseconds after which a finished task
+	 *                      is reported as slow, or <code>0</code> to not report
+	 *                      slow tasks
+	 * @param log           the log for slow task reports
+	 */
+	public CoalescingTaskQueue(String queueName, int threads, long slowThreshold, LogTracker log) {
+		this.queueName = queueName;
+		this.slowThreshold = slowThreshold;
+		this.log = log;
+		AtomicInteger count = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, MAX_WAIT, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), r -> new Thread(r, queueName + " " + count.incrementAndGet())); //$NON-NLS-1$
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Queues a task for the target.
+	 *
+	 * @param target      the target the task is executed for, compared by
+	 *                    identity
+	 * @param kind        the kind of the task, for example the method called on
+	 *                    the target
+	 * @param coalesceKey the key identifying tasks of the same kind that
+	 *                    supersede each other, or <code>null</code> if the task
+	 *                    must always be executed
+	 * @param task        the task
+	 */
+	public void put(Object target, Object kind, Object coalesceKey, Runnable task) {
+		TargetQueue queue;
+		boolean schedule;
+		synchronized (targets) {
+			if (executor.isShutdown()) {
+				return;
+			}
+			queue = targets.get(target);
+			if (queue == null) {
+				queue = new TargetQueue(target);
+				targets.put(target, queue);
+			}
+			Object key = coalesceKey == null ? new Object() : Arrays.asList(kind, coalesceKey);
+			queue.tasks.remove(key);
+			queue.tasks.put(key, task);
+			schedule = !queue.scheduled;
+			queue.scheduled = true;
+		}
+		if (schedule) {
+			queue.schedule();
+		}
+	}
+
+	/**
+	 * Stops the pool threads once the running tasks have finished. Tasks that
+	 * have not started yet are discarded and new tasks are ignored.
+	 */
+	public void shutdown() {
+		synchronized (targets) {
+			executor.shutdown();
+			targets.clear();
+		}
+	}
+
+	private class TargetQueue implements Runnable {
+		final Object target;
+		/** @GuardedBy targets */
+		final LinkedHashMap<Object, Runnable> tasks = new LinkedHashMap<>();
+		/** @GuardedBy targets */
+		boolean scheduled;
+
+		TargetQueue(Object target) {
+			this.target = target;
+		}
+
+		void schedule() {
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				// the queue has been shut down
+			}
+		}
+
+		@Override
+		public void run() {
+			Runnable task;
+			synchronized (targets) {
+				Iterator<Runnable> iterator = tasks.values().iterator();
+				if (!iterator.hasNext()) {
+					// discarded by shutdown
+					return;
+				}
+				task = iterator.next();
+				iterator.remove();
+			}
+			long start = System.nanoTime();
+			try {
+				task.run();
+			} finally {
+				long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				if (slowThreshold > 0 && duration > slowThreshold) {
+					log.warn(queueName + ": update of " + target + " took " + duration + " ms (threshold " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ slowThreshold + " ms)"); //$NON-NLS-1$
+				}
+				boolean reschedule;
+				synchronized (targets) {
+					reschedule = !tasks.isEmpty();
+					if (!reschedule) {
+						scheduled = false;
+						targets.remove(target);
+					}
+				}
+				// run the next task of this target behind the tasks of other targets
+				if (reschedule) {
+					schedule();
+				}
+			}
+		}
+	}
+}
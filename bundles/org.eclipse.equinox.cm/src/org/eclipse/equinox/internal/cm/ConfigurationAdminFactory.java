@@ -35,6 +35,9 @@ public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAd
 			ConfigurationPermission.CONFIGURE);
 	static private final Permission allAttributePermission = new ConfigurationPermission("*", //$NON-NLS-1$
 			ConfigurationPermission.ATTRIBUTE);
+	static final String UPDATE_THREADS = "equinox.cm.update.threads"; //$NON-NLS-1$
+	static final String UPDATE_SLOW_THRESHOLD = "equinox.cm.update.slowThreshold"; //$NON-NLS-1$
+	private static final long DEFAULT_UPDATE_SLOW_THRESHOLD = 10000;
 	private final EventDispatcher eventDispatcher;
 	private final PluginManager pluginManager;
 	private final LogTracker log;
@@ -42,17 +45,36 @@ public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAd
 	private final ManagedServiceFactoryTracker managedServiceFactoryTracker;
 	private final ConfigurationStore configurationStore;
 	private final ServiceTracker<Coordinator, Coordinator> coordinationServiceTracker;
+	private final CoalescingTaskQueue updateQueue;
 
 	public ConfigurationAdminFactory(BundleContext context, LogTracker log) {
 		this.log = log;
 		configurationStore = new ConfigurationStore(this, context);
 		eventDispatcher = new EventDispatcher(context, log, this);
 		pluginManager = new PluginManager(context);
-		managedServiceTracker = new ManagedServiceTracker(this, configurationStore, context);
-		managedServiceFactoryTracker = new ManagedServiceFactoryTracker(this, configurationStore, context);
+		int threads = (int) getLongProperty(context, UPDATE_THREADS,
+				Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+		long slowThreshold = getLongProperty(context, UPDATE_SLOW_THRESHOLD, DEFAULT_UPDATE_SLOW_THRESHOLD);
+		updateQueue = new CoalescingTaskQueue("Configuration Update Queue", Math.max(1, threads), //$NON-NLS-1$
+				slowThreshold, log);
+		managedServiceTracker = new ManagedServiceTracker(this, configurationStore, updateQueue, context);
+		managedServiceFactoryTracker = new ManagedServiceFactoryTracker(this, configurationStore, updateQueue,
+				context);
 		coordinationServiceTracker = new ServiceTracker<>(context, Coordinator.class, null);
 	}
 
+	private long getLongProperty(BundleContext context, String key, long defaultValue) {
+		String value = context.getProperty(key);
+		if (value != null) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				log.warn("Invalid value for " + key + ": " + value); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return defaultValue;
+	}
+
 	void start() {
 		coordinationServiceTracker.open();
 		eventDispatcher.start();
@@ -64,9 +86,11 @@ public class ConfigurationAdminFactory implements ServiceFactory<ConfigurationAd
 	void stop() {
 		managedServiceTracker.close();
 		managedServiceFactoryTracker.close();
+		updateQueue.shutdown();
 		eventDispatcher.stop();
 		pluginManager.stop();
 		coordinationServiceTracker.close();
+		configurationStore.close();
 	}
 
 	@Override
@@ -164,7 +164,7 @@ class ConfigurationImpl implements Configuration {
 		} finally {
 			unlock();
 		}
-		configurationStore.removeConfiguration(pid, deleteToken);
+		configurationStore.removeConfiguration(pid, this, deleteToken);
 	}
 
 	private void checkDeleted() {
@@ -274,6 +274,15 @@ class ConfigurationImpl implements Configuration {
 		}
 	}
 
+	/**
+	 * Returns the raw value of a property for indexing without copying the
+	 * dictionary. The caller must hold the lock.
+	 */
+	Object getPropertyValue(String key) {
+		checkLocked();
+		return dictionary == null ? null : dictionary.get(key);
+	}
+
 	static void fileAutoProperties(Dictionary<String, Object> dictionary, ConfigurationImpl config, boolean includeLoc,
 			boolean includeStorageKey) {
 		dictionary.put(Constants.SERVICE_PID, config.getPid(false));
@@ -517,6 +526,9 @@ class ConfigurationImpl implements Configuration {
 
 	private void save() throws IOException {
 		checkLocked();
+		if (!deleted) {
+			configurationStore.updateIndex(this);
+		}
 		storageToken = configurationStore.saveConfiguration(pid, this, this.storageToken);
 	}
 
@@ -550,7 +562,7 @@ class ConfigurationImpl implements Configuration {
 
 	@Override
 	public boolean equals(Object obj) {
-		return (obj instanceof ConfigurationImpl) && pid.equals(((ConfigurationImpl) obj).getPid());
+		return (obj instanceof ConfigurationImpl) && pid.equals(((ConfigurationImpl) obj).pid);
 	}
 
 	@Override
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.osgi.framework.Constants;
+import org.osgi.framework.Filter;
+import org.osgi.service.cm.ConfigurationAdmin;
+
+/**
+ * ConfigurationIndex maintains secondary indexes over the configurations of a
+ * {@link ConfigurationStore} so that filters with an equality term on an
+ * indexed property only need to be evaluated against the matching
+ * configurations. The <code>service.factoryPid</code> and
+ * <code>service.bundleLocation</code> properties are always indexed, additional
+ * properties can be declared with the {@link #INDEXED_PROPERTIES} framework
+ * property. The <code>service.pid</code> lookup is served by the store itself.
+ * <p>
+ * Updates for a configuration are done while holding the configuration lock,
+ * reads do not lock at all. An update adds the new postings of a configuration
+ * before it removes the stale ones, so a reader never misses a configuration
+ * that matches both before and after the update. Candidates returned by the
+ * index are a superset of the matching configurations, callers must still
+ * evaluate the filter.
+ */
+class ConfigurationIndex {
+	static final String INDEXED_PROPERTIES = "equinox.cm.index.properties"; //$NON-NLS-1$
+
+	private static final String PID_KEY = Constants.SERVICE_PID.toLowerCase();
+	private static final String FACTORY_PID_KEY = ConfigurationAdmin.SERVICE_FACTORYPID.toLowerCase();
+	private static final String LOCATION_KEY = ConfigurationAdmin.SERVICE_BUNDLELOCATION.toLowerCase();
+
+	private final Set<String> indexedProperties;
+	/** index name -> property value -> configurations */
+	private final Map<String, Map<String, Set<ConfigurationImpl>>> indexes = new ConcurrentHashMap<>();
+	/** index name -> configurations with values that cannot be indexed */
+	private final Map<String, Set<ConfigurationImpl>> unindexed = new ConcurrentHashMap<>();
+	/** configuration -> index name -> indexed values */
+	private final Map<ConfigurationImpl, Map<String, Collection<String>>> entries = new ConcurrentHashMap<>();
+
+	ConfigurationIndex(String indexedPropertiesSpec) {
+		Set<String> properties = new HashSet<>();
+		if (indexedPropertiesSpec != null) {
+			for (String property : indexedPropertiesSpec.split(",")) { //$NON-NLS-1$
+				property = property.trim().toLowerCase();
+				if (!property.isEmpty() && !property.equals(PID_KEY)) {
+					properties.add(property);
+				}
+			}
+		}
+		properties.add(FACTORY_PID_KEY);
+		properties.add(LOCATION_KEY);
+		this.indexedProperties = Collections.unmodifiableSet(properties);
+		for (String property : indexedProperties) {
+			indexes.put(property, new ConcurrentHashMap<>());
+			unindexed.put(property, ConcurrentHashMap.newKeySet());
+		}
+	}
+
+	/**
+	 * Re-indexes the configuration. The caller must hold the configuration lock.
+	 */
+	void update(ConfigurationImpl config) {
+		config.checkLocked();
+		Map<String, Collection<String>> newEntry = new HashMap<>();
+		List<String> indexedNow = new ArrayList<>();
+		for (String property : indexedProperties) {
+			Object value;
+			if (property.equals(FACTORY_PID_KEY)) {
+				value = config.getFactoryPid(false);
+			} else if (property.equals(LOCATION_KEY)) {
+				value = config.getLocation();
+			} else {
+				value = config.getPropertyValue(property);
+			}
+			Collection<String> keys = indexKeys(value);
+			if (keys == null) {
+				unindexed.get(property).add(config);
+			} else {
+				indexedNow.add(property);
+				if (!keys.isEmpty()) {
+					newEntry.put(property, keys);
+				}
+			}
+		}
+		for (Map.Entry<String, Collection<String>> entry : newEntry.entrySet()) {
+			Map<String, Set<ConfigurationImpl>> index = indexes.get(entry.getKey());
+			for (String key : entry.getValue()) {
+				addToIndex(index, key, config);
+			}
+		}
+		// only now that the new postings are visible
+		for (String property : indexedNow) {
+			unindexed.get(property).remove(config);
+		}
+		Map<String, Collection<String>> oldEntry = entries.put(config, newEntry);
+		if (oldEntry != null) {
+			for (Map.Entry<String, Collection<String>> old : oldEntry.entrySet()) {
+				Collection<String> current = newEntry.get(old.getKey());
+				for (String key : old.getValue()) {
+					if (current == null || !current.contains(key)) {
+						removeFromIndex(old.getKey(), key, config);
+					}
+				}
+			}
+		}
+	}
+
+	void remove(ConfigurationImpl config) {
+		Map<String, Collection<String>> oldEntry = entries.remove(config);
+		if (oldEntry != null) {
+			for (Map.Entry<String, Collection<String>> old : oldEntry.entrySet()) {
+				for (String key : old.getValue()) {
+					removeFromIndex(old.getKey(), key, config);
+				}
+			}
+		}
+		for (Set<ConfigurationImpl> configs : unindexed.values()) {
+			configs.remove(config);
+		}
+	}
+
+	/**
+	 * Adds the configuration within the update of the mapping, so a concurrent
+	 * {@link #removeFromIndex(String, String, ConfigurationImpl)} cannot drop the
+	 * set before the configuration is added to it.
+	 */
+	private static void addToIndex(Map<String, Set<ConfigurationImpl>> index, String key, ConfigurationImpl config) {
+		index.compute(key, (k, configs) -> {
+			Set<ConfigurationImpl> result = configs == null ? ConcurrentHashMap.newKeySet() : configs;
+			result.add(config);
+			return result;
+		});
+	}
+
+	private void removeFromIndex(String property, String key, ConfigurationImpl config) {
+		indexes.get(property).computeIfPresent(key, (k, configs) -> {
+			configs.remove(config);
+			return configs.isEmpty() ? null : configs;
+		});
+	}
+
+	/**
+	 * Returns the configurations with the given value for the indexed property.
+	 */
+	Collection<ConfigurationImpl> get(String property, String value) {
+		String indexName = property.toLowerCase();
+		Map<String, Set<ConfigurationImpl>> index = indexes.get(indexName);
+		if (index == null) {
+			return null;
+		}
+		Set<ConfigurationImpl> configs = index.get(value);
+		Set<ConfigurationImpl> others = unindexed.get(indexName);
+		if (others.isEmpty()) {
+			return configs == null ? Collections.emptySet() : configs;
+		}
+		List<ConfigurationImpl> result = new ArrayList<>(others);
+		if (configs != null) {
+			result.addAll(configs);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the candidates for the filter, or <code>null</code> if the filter
+	 * contains no equality term on the pid or an indexed property.
+	 */
+	Collection<ConfigurationImpl> candidates(Filter filter, Function<String, ConfigurationImpl> pidLookup) {
+		Collection<ConfigurationImpl> best = null;
+		for (Map.Entry<String, String> term : equalityTerms(filter.toString())) {
+			String property = term.getKey().toLowerCase();
+			if (property.equals(PID_KEY)) {
+				// a pid selects at most one configuration, nothing can beat that
+				ConfigurationImpl config = pidLookup.apply(term.getValue());
+				return config == null ? Collections.emptySet() : Collections.singleton(config);
+			}
+			Collection<ConfigurationImpl> configs = get(property, term.getValue());
+			if (configs != null && (best == null || configs.size() < best.size())) {
+				best = configs;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the index keys for a property value, an empty collection if the
+	 * value is absent and <code>null</code> if the value cannot be indexed. Only
+	 * strings are indexed because the filter converts its operand to the type of
+	 * the property value for all other types.
+	 */
+	private static Collection<String> indexKeys(Object value) {
+		if (value == null) {
+			return Collections.emptySet();
+		}
+		if (value instanceof String) {
+			return Collections.singleton((String) value);
+		}
+		if (value instanceof String[]) {
+			Set<String> keys = new HashSet<>();
+			for (String element : (String[]) value) {
+				if (element != null) {
+					keys.add(element);
+				}
+			}
+			return keys;
+		}
+		if (value instanceof Collection) {
+			Set<String> keys = new HashSet<>();
+			for (Object element : (Collection<?>) value) {
+				if (!(element instanceof String)) {
+					return null;
+				}
+				keys.add((String) element);
+			}
+			return keys;
+		}
+		return null;
+	}
+
+	/**
+	 * Parses the simple equality terms of a normalized filter string which are
+	 * either the whole filter or direct operands of a top level and.
+	 */
+	static List<Map.Entry<String, String>> equalityTerms(String filter) {
+		List<Map.Entry<String, String>> terms = new ArrayList<>();
+		if (filter.startsWith("(&")) { //$NON-NLS-1$
+			int pos = 2;
+			while (pos < filter.length() && filter.charAt(pos) == '(') {
+				int end = endOfTerm(filter, pos);
+				if (end < 0) {
+					break;
+				}
+				Map.Entry<String, String> term = equalityTerm(filter, pos, end);
+				if (term != null) {
+					terms.add(term);
+				}
+				pos = end + 1;
+			}
+		} else {
+			int end = endOfTerm(filter, 0);
+			if (end == filter.length() - 1) {
+				Map.Entry<String, String> term = equalityTerm(filter, 0, end);
+				if (term != null) {
+					terms.add(term);
+				}
+			}
+		}
+		return terms;
+	}
+
+	private static int endOfTerm(String filter, int start) {
+		int depth = 0;
+		for (int i = start; i < filter.length(); i++) {
+			char c = filter.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static Map.Entry<String, String> equalityTerm(String filter, int start, int end) {
+		char first = filter.charAt(start + 1);
+		if (first == '&' || first == '|' || first == '!' || first == '(') {
+			return null;
+		}
+		int eq = filter.indexOf('=', start);
+		if (eq < 0 || eq > end) {
+			return null;
+		}
+		char op = filter.charAt(eq - 1);
+		if (op == '~' || op == '<' || op == '>') {
+			return null;
+		}
+		StringBuilder value = new StringBuilder(end - eq);
+		for (int i = eq + 1; i < end; i++) {
+			char c = filter.charAt(i);
+			if (c == '*') {
+				// substring or presence
+				return null;
+			}
+			if (c == '\\') {
+				c = filter.charAt(++i);
+			}
+			value.append(c);
+		}
+		return new AbstractMap.SimpleEntry<>(filter.substring(start + 1, eq), value.toString());
+	}
+}
@@ -0,0 +1,747 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.cm;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * ConfigurationJournal persists configuration dictionaries in a log structured
+ * form. All updates are appended to a single journal file as typed property
+ * records. Concurrent updates are group committed so that a single
+ * <code>fsync</code> covers all records written by the committing thread. Once
+ * the journal grows large compared to the number of live configurations it is
+ * compacted into a snapshot file which is replaced atomically.
+ */
+class ConfigurationJournal {
+	static final String SNAPSHOT_FILE = "configurations.snapshot"; //$NON-NLS-1$
+	static final String JOURNAL_FILE = "configurations.journal"; //$NON-NLS-1$
+	private static final String TMP_EXT = ".tmp"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x45434D4A;
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 8;
+	private static final byte RECORD_PUT = 1;
+	private static final byte RECORD_DELETE = 2;
+
+	private static final int COMPACT_MIN_RECORDS = 1024;
+
+	// value type tags
+	private static final byte T_NULL = 0;
+	private static final byte T_STRING = 1;
+	private static final byte T_INTEGER = 2;
+	private static final byte T_LONG = 3;
+	private static final byte T_FLOAT = 4;
+	private static final byte T_DOUBLE = 5;
+	private static final byte T_BYTE = 6;
+	private static final byte T_SHORT = 7;
+	private static final byte T_CHARACTER = 8;
+	private static final byte T_BOOLEAN = 9;
+	// values of other types are stored with Java serialization
+	private static final byte T_SERIALIZED = 10;
+	private static final byte T_PRIMITIVE_ARRAY = 0x20;
+	private static final byte T_ARRAY = 0x40;
+	private static final byte T_COLLECTION = 0x60;
+
+	private final File snapshotFile;
+	private final File journalFile;
+	private final ConfigurationAdminFactory configurationAdminFactory;
+
+	private final Object monitor = new Object();
+	/** @GuardedBy monitor */
+	private Map<String, byte[]> entries = new HashMap<>();
+	/** @GuardedBy monitor */
+	private final List<Update> pending = new ArrayList<>();
+	/** @GuardedBy monitor */
+	private long enqueued = 0;
+	/** @GuardedBy monitor */
+	private long committed = 0;
+	/** @GuardedBy monitor */
+	private boolean committing = false;
+	/** @GuardedBy monitor */
+	private long failedFrom = -1;
+	/** @GuardedBy monitor */
+	private long failedTo = -1;
+	/** @GuardedBy monitor */
+	private IOException failure;
+	/** @GuardedBy monitor */
+	private boolean closed = false;
+
+	// only accessed by the committing thread
+	private FileOutputStream journalOut;
+	private int journalRecords;
+	// the length of the records written successfully
+	private long journalLength;
+
+	/**
+	 * A change of a single pid together with its encoded journal record.
+	 */
+	private static final class Update {
+		final String pid;
+		// null for a removal
+		final byte[] properties;
+		final byte[] record;
+
+		Update(String pid, byte[] properties, byte[] record) {
+			this.pid = pid;
+			this.properties = properties;
+			this.record = record;
+		}
+	}
+
+	ConfigurationJournal(ConfigurationAdminFactory configurationAdminFactory, File storeDir) {
+		this.configurationAdminFactory = configurationAdminFactory;
+		this.snapshotFile = new File(storeDir, SNAPSHOT_FILE);
+		this.journalFile = new File(storeDir, JOURNAL_FILE);
+	}
+
+	/**
+	 * Reads the snapshot and replays the journal on top of it. Must be called
+	 * once before any other method.
+	 *
+	 * @return the restored dictionaries keyed by pid
+	 */
+	Map<String, Dictionary<String, Object>> open() throws IOException {
+		Map<String, byte[]> restored = new LinkedHashMap<>();
+		if (snapshotFile.isFile()) {
+			try {
+				readRecords(snapshotFile, restored, false);
+			} catch (IOException e) {
+				configurationAdminFactory.error("{Configuration Admin} could not read " + snapshotFile, e); //$NON-NLS-1$
+				restored.clear();
+			}
+		}
+		long validLength = HEADER_LENGTH;
+		if (journalFile.isFile()) {
+			try {
+				validLength = readRecords(journalFile, restored, true);
+			} catch (IOException e) {
+				configurationAdminFactory.error("{Configuration Admin} could not read " + journalFile, e); //$NON-NLS-1$
+				validLength = 0;
+			}
+		}
+		Map<String, Dictionary<String, Object>> result = new LinkedHashMap<>();
+		for (Iterator<Map.Entry<String, byte[]>> it = restored.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<String, byte[]> entry = it.next();
+			try {
+				result.put(entry.getKey(), decodeProperties(entry.getValue()));
+			} catch (IOException e) {
+				configurationAdminFactory.error("{Configuration Admin - pid = " + entry.getKey() //$NON-NLS-1$
+						+ "} could not be restored. " + e.getMessage()); //$NON-NLS-1$
+				it.remove();
+			}
+		}
+		synchronized (monitor) {
+			entries.putAll(restored);
+		}
+		openJournal(validLength);
+		compactIfNeeded();
+		return result;
+	}
+
+	/**
+	 * Persists the given properties for the pid. Returns once the record is
+	 * durably stored.
+	 */
+	void put(String pid, Dictionary<String, Object> properties) throws IOException {
+		byte[] encoded = encodeProperties(properties);
+		commit(Collections.singletonList(new Update(pid, encoded, encodeRecord(RECORD_PUT, pid, encoded))));
+	}
+
+	/**
+	 * Persists all given properties keyed by pid with a single commit.
+	 */
+	void putAll(Map<String, Dictionary<String, Object>> properties) throws IOException {
+		if (properties.isEmpty()) {
+			return;
+		}
+		List<Update> updates = new ArrayList<>(properties.size());
+		for (Map.Entry<String, Dictionary<String, Object>> entry : properties.entrySet()) {
+			byte[] encoded = encodeProperties(entry.getValue());
+			updates.add(new Update(entry.getKey(), encoded, encodeRecord(RECORD_PUT, entry.getKey(), encoded)));
+		}
+		commit(updates);
+	}
+
+	/**
+	 * Removes the pid from the store. Returns once the removal is durably
+	 * stored.
+	 */
+	void remove(String pid) throws IOException {
+		commit(Collections.singletonList(new Update(pid, null, encodeRecord(RECORD_DELETE, pid, null))));
+	}
+
+	/**
+	 * Compacts the journal if it contains any records and closes it. Any later
+	 * update fails with an {@link IOException}.
+	 */
+	void close() {
+		long batchEnd;
+		List<Update> batch;
+		Map<String, byte[]> live;
+		synchronized (monitor) {
+			while (committing) {
+				try {
+					monitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if (closed) {
+				return;
+			}
+			closed = true;
+			// records still pending are persisted with the final snapshot
+			committing = true;
+			batchEnd = enqueued;
+			batch = new ArrayList<>(pending);
+			pending.clear();
+			live = new HashMap<>(entries);
+		}
+		apply(live, batch);
+		IOException closeFailure = null;
+		try {
+			if (journalRecords > 0 || !batch.isEmpty()) {
+				compact(live);
+			}
+		} catch (IOException e) {
+			closeFailure = e;
+			configurationAdminFactory.error("{Configuration Admin} could not compact " + journalFile, e); //$NON-NLS-1$
+		} finally {
+			closeJournal();
+		}
+		synchronized (monitor) {
+			if (closeFailure == null) {
+				entries = live;
+			} else if (!batch.isEmpty()) {
+				failedFrom = batchEnd - batch.size() + 1;
+				failedTo = batchEnd;
+				failure = closeFailure;
+			}
+			committed = batchEnd;
+			committing = false;
+			monitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Appends the updates to the pending batch and waits until they are
+	 * durably stored. The first waiting thread writes all pending records of
+	 * all threads and syncs them with a single call. The live entries only
+	 * reflect updates whose records have been written successfully.
+	 */
+	private void commit(List<Update> updates) throws IOException {
+		long seq;
+		List<Update> batch;
+		long batchEnd;
+		synchronized (monitor) {
+			if (closed) {
+				throw new IOException("Configuration store is closed"); //$NON-NLS-1$
+			}
+			pending.addAll(updates);
+			enqueued += updates.size();
+			seq = enqueued;
+			while (committing && committed < seq) {
+				try {
+					monitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			if (committed >= seq) {
+				// another thread committed our record as part of its batch
+				checkFailure(seq);
+				return;
+			}
+			committing = true;
+			batch = new ArrayList<>(pending);
+			pending.clear();
+			batchEnd = enqueued;
+		}
+
+		IOException batchFailure = null;
+		try {
+			writeBatch(batch);
+		} catch (IOException e) {
+			batchFailure = e;
+		}
+		if (batchFailure == null) {
+			synchronized (monitor) {
+				apply(entries, batch);
+			}
+			compactIfNeeded();
+		}
+
+		synchronized (monitor) {
+			if (batchFailure != null) {
+				failedFrom = batchEnd - batch.size() + 1;
+				failedTo = batchEnd;
+				failure = batchFailure;
+			}
+			committed = batchEnd;
+			committing = false;
+			monitor.notifyAll();
+			checkFailure(seq);
+		}
+	}
+
+	private void checkFailure(long seq) throws IOException {
+		if (failure != null && seq >= failedFrom && seq <= failedTo) {
+			throw new IOException(failure.getMessage(), failure);
+		}
+	}
+
+	private static void apply(Map<String, byte[]> target, List<Update> updates) {
+		for (Update update : updates) {
+			if (update.properties == null) {
+				target.remove(update.pid);
+			} else {
+				target.put(update.pid, update.properties);
+			}
+		}
+	}
+
+	private void writeBatch(List<Update> batch) throws IOException {
+		if (journalOut == null) {
+			openJournal(journalLength);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (Update update : batch) {
+			bytes.write(update.record);
+		}
+		try {
+			journalOut.write(bytes.toByteArray());
+			journalOut.flush();
+			journalOut.getFD().sync();
+		} catch (IOException e) {
+			// drop a partially written batch so that it is not replayed on the
+			// next start or followed by later records
+			closeJournal();
+			throw e;
+		}
+		journalRecords += batch.size();
+		journalLength += bytes.size();
+	}
+
+	private void compactIfNeeded() {
+		Map<String, byte[]> live;
+		synchronized (monitor) {
+			if (journalRecords <= COMPACT_MIN_RECORDS || journalRecords <= 2 * entries.size()) {
+				return;
+			}
+			live = new HashMap<>(entries);
+		}
+		try {
+			compact(live);
+		} catch (IOException e) {
+			// the journal is still intact; try again with the next batch
+			configurationAdminFactory.error("{Configuration Admin} could not compact " + journalFile, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes the given live entries to a new snapshot, atomically replaces the
+	 * old snapshot and truncates the journal. Only called by the committing
+	 * thread.
+	 */
+	private void compact(Map<String, byte[]> live) throws IOException {
+		File tmpFile = new File(snapshotFile.getPath() + TMP_EXT);
+		try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+			DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+			writeHeader(dos);
+			for (Map.Entry<String, byte[]> entry : live.entrySet()) {
+				dos.write(encodeRecord(RECORD_PUT, entry.getKey(), entry.getValue()));
+			}
+			dos.flush();
+			out.getFD().sync();
+		}
+		replace(tmpFile, snapshotFile);
+		// the records of the old journal are part of the snapshot, replaying
+		// them again after a failed reset restores the same entries
+		closeJournal();
+		openJournal(0);
+	}
+
+	private void openJournal(long validLength) throws IOException {
+		if (validLength < HEADER_LENGTH || !journalFile.isFile()) {
+			// an empty journal replaces the old one atomically, so a failure
+			// never leaves a journal without a header
+			File tmpFile = new File(journalFile.getPath() + TMP_EXT);
+			try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+				DataOutputStream dos = new DataOutputStream(out);
+				writeHeader(dos);
+				dos.flush();
+				out.getFD().sync();
+			}
+			replace(tmpFile, journalFile);
+			journalRecords = 0;
+			journalLength = HEADER_LENGTH;
+		} else {
+			if (journalFile.length() > validLength) {
+				// drop a torn record from an interrupted write
+				try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) { //$NON-NLS-1$
+					raf.setLength(validLength);
+				}
+			}
+			journalLength = validLength;
+		}
+		journalOut = new FileOutputStream(journalFile, true);
+	}
+
+	private static void replace(File source, File target) throws IOException {
+		try {
+			try {
+				Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			// nothing to do if the source was moved
+			Files.deleteIfExists(source.toPath());
+		}
+	}
+
+	private void closeJournal() {
+		if (journalOut != null) {
+			try {
+				journalOut.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			journalOut = null;
+		}
+	}
+
+	private static void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+	}
+
+	/**
+	 * Reads all records of the file into the given map. A truncated or corrupt
+	 * tail is tolerated for the journal.
+	 *
+	 * @return the length of the valid portion of the file
+	 */
+	private long readRecords(File file, Map<String, byte[]> result, boolean journal) throws IOException {
+		long fileLength = file.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported store format: " + file); //$NON-NLS-1$
+			}
+			long position = HEADER_LENGTH;
+			CRC32 crc = new CRC32();
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					return position;
+				}
+				byte[] payload;
+				long checksum;
+				try {
+					// a torn or corrupt length must not be trusted for the allocation
+					if (length < 0 || length > fileLength - position - 4 - 8) {
+						throw new IOException("Invalid record length: " + length); //$NON-NLS-1$
+					}
+					payload = new byte[length];
+					in.readFully(payload);
+					checksum = in.readLong();
+				} catch (IOException e) {
+					if (journal) {
+						return position;
+					}
+					throw e;
+				}
+				crc.reset();
+				crc.update(payload);
+				if (crc.getValue() != checksum) {
+					if (journal) {
+						return position;
+					}
+					throw new IOException("Corrupt record in " + file); //$NON-NLS-1$
+				}
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+				byte type = record.readByte();
+				String pid = readString(record);
+				if (type == RECORD_PUT) {
+					result.put(pid, Arrays.copyOfRange(payload, payload.length - record.available(), payload.length));
+				} else {
+					result.remove(pid);
+				}
+				position += 4 + length + 8;
+				if (journal) {
+					journalRecords++;
+				}
+			}
+		}
+	}
+
+	private static byte[] encodeRecord(byte type, String pid, byte[] properties) throws IOException {
+		ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+		DataOutputStream payload = new DataOutputStream(payloadBytes);
+		payload.writeByte(type);
+		writeString(payload, pid);
+		if (properties != null) {
+			payload.write(properties);
+		}
+		payload.flush();
+		byte[] bytes = payloadBytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(bytes.length + 12);
+		DataOutputStream record = new DataOutputStream(recordBytes);
+		record.writeInt(bytes.length);
+		record.write(bytes);
+		record.writeLong(crc.getValue());
+		record.flush();
+		return recordBytes.toByteArray();
+	}
+
+	static byte[] encodeProperties(Dictionary<String, Object> properties) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(properties.size());
+		for (Enumeration<String> keys = properties.keys(); keys.hasMoreElements();) {
+			String key = keys.nextElement();
+			writeString(out, key);
+			writeValue(out, properties.get(key));
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static Dictionary<String, Object> decodeProperties(byte[] encoded) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+		ConfigurationDictionary properties = new ConfigurationDictionary();
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String key = readString(in);
+			Object value = readValue(in);
+			if (value == null) {
+				throw new IOException("Null value for key " + key); //$NON-NLS-1$
+			}
+			// like deserialized dictionaries, stored values are not validated again
+			properties.configurationProperties.put(key, value);
+		}
+		return properties;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte tagOf(Class<?> clazz) {
+		if (clazz == String.class) {
+			return T_STRING;
+		} else if (clazz == Integer.class || clazz == int.class) {
+			return T_INTEGER;
+		} else if (clazz == Long.class || clazz == long.class) {
+			return T_LONG;
+		} else if (clazz == Float.class || clazz == float.class) {
+			return T_FLOAT;
+		} else if (clazz == Double.class || clazz == double.class) {
+			return T_DOUBLE;
+		} else if (clazz == Byte.class || clazz == byte.class) {
+			return T_BYTE;
+		} else if (clazz == Short.class || clazz == short.class) {
+			return T_SHORT;
+		} else if (clazz == Character.class || clazz == char.class) {
+			return T_CHARACTER;
+		} else if (clazz == Boolean.class || clazz == boolean.class) {
+			return T_BOOLEAN;
+		}
+		return T_SERIALIZED;
+	}
+
+	private static Class<?> typeOf(byte tag, boolean primitive) throws IOException {
+		switch (tag) {
+		case T_STRING:
+			return String.class;
+		case T_INTEGER:
+			return primitive ? int.class : Integer.class;
+		case T_LONG:
+			return primitive ? long.class : Long.class;
+		case T_FLOAT:
+			return primitive ? float.class : Float.class;
+		case T_DOUBLE:
+			return primitive ? double.class : Double.class;
+		case T_BYTE:
+			return primitive ? byte.class : Byte.class;
+		case T_SHORT:
+			return primitive ? short.class : Short.class;
+		case T_CHARACTER:
+			return primitive ? char.class : Character.class;
+		case T_BOOLEAN:
+			return primitive ? boolean.class : Boolean.class;
+		default:
+			throw new IOException("Unknown value type: " + tag); //$NON-NLS-1$
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(T_NULL);
+			return;
+		}
+		Class<?> clazz = value.getClass();
+		if (clazz.isArray() && tagOf(clazz.getComponentType()) != T_SERIALIZED) {
+			Class<?> componentType = clazz.getComponentType();
+			byte componentTag = tagOf(componentType);
+			int length = Array.getLength(value);
+			if (componentType.isPrimitive()) {
+				out.writeByte(T_PRIMITIVE_ARRAY | componentTag);
+				out.writeInt(length);
+				for (int i = 0; i < length; i++) {
+					writeSimple(out, componentTag, Array.get(value, i));
+				}
+			} else {
+				out.writeByte(T_ARRAY | componentTag);
+				out.writeInt(length);
+				for (int i = 0; i < length; i++) {
+					writeValue(out, Array.get(value, i));
+				}
+			}
+		} else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			out.writeByte(T_COLLECTION);
+			out.writeInt(collection.size());
+			for (Object element : collection) {
+				writeValue(out, element);
+			}
+		} else {
+			byte tag = clazz.isArray() ? T_SERIALIZED : tagOf(clazz);
+			out.writeByte(tag);
+			writeSimple(out, tag, value);
+		}
+	}
+
+	private static void writeSimple(DataOutputStream out, byte tag, Object value) throws IOException {
+		switch (tag) {
+		case T_STRING:
+			writeString(out, (String) value);
+			break;
+		case T_INTEGER:
+			out.writeInt((Integer) value);
+			break;
+		case T_LONG:
+			out.writeLong((Long) value);
+			break;
+		case T_FLOAT:
+			out.writeFloat((Float) value);
+			break;
+		case T_DOUBLE:
+			out.writeDouble((Double) value);
+			break;
+		case T_BYTE:
+			out.writeByte((Byte) value);
+			break;
+		case T_SHORT:
+			out.writeShort((Short) value);
+			break;
+		case T_CHARACTER:
+			out.writeChar((Character) value);
+			break;
+		case T_BOOLEAN:
+			out.writeBoolean((Boolean) value);
+			break;
+		case T_SERIALIZED:
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+				oos.writeObject(value);
+			}
+			out.writeInt(bytes.size());
+			bytes.writeTo(out);
+			break;
+		default:
+			throw new IOException("Unknown value type: " + tag); //$NON-NLS-1$
+		}
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		if (tag == T_NULL) {
+			return null;
+		}
+		if ((tag & 0x60) == T_COLLECTION) {
+			int size = in.readInt();
+			List<Object> collection = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				collection.add(readValue(in));
+			}
+			return collection;
+		}
+		if ((tag & 0x60) == T_PRIMITIVE_ARRAY || (tag & 0x60) == T_ARRAY) {
+			boolean primitive = (tag & 0x60) == T_PRIMITIVE_ARRAY;
+			byte componentTag = (byte) (tag & 0x1F);
+			int length = in.readInt();
+			Object array = Array.newInstance(typeOf(componentTag, primitive), length);
+			for (int i = 0; i < length; i++) {
+				Array.set(array, i, primitive ? readSimple(in, componentTag) : readValue(in));
+			}
+			return array;
+		}
+		return readSimple(in, tag);
+	}
+
+	private static Object readSimple(DataInputStream in, byte tag) throws IOException {
+		switch (tag) {
+		case T_STRING:
+			return readString(in);
+		case T_INTEGER:
+			return in.readInt();
+		case T_LONG:
+			return in.readLong();
+		case T_FLOAT:
+			return in.readFloat();
+		case T_DOUBLE:
+			return in.readDouble();
+		case T_BYTE:
+			return in.readByte();
+		case T_SHORT:
+			return in.readShort();
+		case T_CHARACTER:
+			return in.readChar();
+		case T_BOOLEAN:
+			return in.readBoolean();
+		case T_SERIALIZED:
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+				return ois.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		default:
+			throw new IOException("Unknown value type: " + tag); //$NON-NLS-1$
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 Cognos Incorporated, IBM Corporation and others.
+ * Copyright (c) 2005, 2026 Cognos Incorporated, IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,35 +17,76 @@ package org.eclipse.equinox.internal.cm;
 import java.io.*;
 import java.security.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.equinox.internal.cm.reliablefile.*;
 import org.osgi.framework.*;
 import org.osgi.service.cm.ConfigurationAdmin;
 
 /**
  * ConfigurationStore manages all active configurations along with persistence.
- * The current implementation uses a filestore and serialization of the
- * configuration dictionaries to files identified by their pid. Persistence
- * details are in the constructor, saveConfiguration, and deleteConfiguration
- * and can be factored out separately if required.
+ * The current implementation uses a {@link ConfigurationJournal} to persist
+ * the configuration dictionaries. Configurations stored by older versions as
+ * serialized dictionaries in one file per pid are migrated into the journal on
+ * startup. Persistence details are in the constructor, saveConfiguration, and
+ * removeConfiguration and can be factored out separately if required.
  */
 class ConfigurationStore {
 
 	private final ConfigurationAdminFactory configurationAdminFactory;
 	private static final String STORE_DIR = "store"; //$NON-NLS-1$
-	private static final String DATA_PRE = "data"; //$NON-NLS-1$
 	private static final String CFG_EXT = ".cfg"; //$NON-NLS-1$
-	private final Map<String, ConfigurationImpl> configurations = new HashMap<>();
+	/** Reads do not lock, creating configurations is guarded by this store */
+	private final Map<String, ConfigurationImpl> configurations = new ConcurrentHashMap<>();
+	private final ConfigurationIndex index;
 	private int createdPidCount = 0;
 	private final File store;
+	private final ConfigurationJournal journal;
 
 	public ConfigurationStore(ConfigurationAdminFactory configurationAdminFactory, BundleContext context) {
 		this.configurationAdminFactory = configurationAdminFactory;
+		index = new ConfigurationIndex(context.getProperty(ConfigurationIndex.INDEXED_PROPERTIES));
 		store = context.getDataFile(STORE_DIR);
 		if (store == null) {
+			journal = null;
 			return; // no persistent store
 		}
 
 		store.mkdir();
+		journal = new ConfigurationJournal(configurationAdminFactory, store);
+		Map<String, Dictionary<String, Object>> dictionaries;
+		try {
+			dictionaries = journal.open();
+		} catch (IOException e) {
+			configurationAdminFactory.error("{Configuration Admin} could not open the configuration store.", e); //$NON-NLS-1$
+			dictionaries = new LinkedHashMap<>();
+		}
+		migrateConfigurationFiles(dictionaries);
+
+		for (Dictionary<String, Object> dictionary : dictionaries.values()) {
+			// before adding, make sure the bundle exists if the location is set
+			String location = (String) dictionary.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
+			if (location != null && context.getBundle(location) == null) {
+				Boolean boundProp = (Boolean) dictionary.remove(ConfigurationImpl.LOCATION_BOUND);
+				if (boundProp != null && boundProp.booleanValue()) {
+					dictionary.remove(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
+				}
+			}
+			ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, dictionary,
+					dictionary.get(Constants.SERVICE_PID));
+			addConfiguration(config);
+		}
+	}
+
+	/**
+	 * Moves configurations persisted as one serialized dictionary per file into
+	 * the journal. A file is only deleted once its content is stored in the
+	 * journal. Files of pids already in the journal are left over from an
+	 * interrupted migration and are deleted without being imported, the journal
+	 * holds the newer data.
+	 */
+	private void migrateConfigurationFiles(Map<String, Dictionary<String, Object>> dictionaries) {
+		Map<String, Dictionary<String, Object>> migrated = new LinkedHashMap<>();
+		List<File> migratedFiles = new ArrayList<>();
 		for (File configurationFile : store.listFiles()) {
 			String configurationFileName = configurationFile.getName();
 			if (!configurationFileName.endsWith(CFG_EXT)) {
@@ -60,17 +101,11 @@ class ConfigurationStore {
 				ois = new ObjectInputStream(ris);
 				@SuppressWarnings("unchecked")
 				Dictionary<String, Object> dictionary = (Dictionary<String, Object>) ois.readObject();
-				// before adding, make sure the bundle exists if the location is set
-				String location = (String) dictionary.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
-				if (location != null && context.getBundle(location) == null) {
-					Boolean boundProp = (Boolean) dictionary.remove(ConfigurationImpl.LOCATION_BOUND);
-					if (boundProp != null && boundProp.booleanValue()) {
-						dictionary.remove(ConfigurationAdmin.SERVICE_BUNDLELOCATION);
-					}
+				String pid = (String) dictionary.get(Constants.SERVICE_PID);
+				if (!dictionaries.containsKey(pid)) {
+					migrated.put(pid, dictionary);
 				}
-				ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, dictionary,
-						configurationFile);
-				configurations.put(config.getPid(), config);
+				migratedFiles.add(configurationFile);
 			} catch (IOException e) {
 				String message = e.getMessage();
 				String pid = configurationFileName.substring(0, configurationFileName.length() - 4);
@@ -97,13 +132,31 @@ class ConfigurationStore {
 				}
 			}
 			if (deleteFile) {
-				ReliableFile.delete(configurationFile);
-				configurationFile.delete();
+				deleteConfigurationFile(configurationFile);
+			}
+		}
+		if (!migrated.isEmpty()) {
+			try {
+				journal.putAll(migrated);
+			} catch (IOException e) {
+				// keep the old files so the migration is retried on the next start
+				configurationAdminFactory.error("{Configuration Admin} could not migrate configurations.", e); //$NON-NLS-1$
+				dictionaries.putAll(migrated);
+				return;
 			}
+			dictionaries.putAll(migrated);
+		}
+		for (File configurationFile : migratedFiles) {
+			deleteConfigurationFile(configurationFile);
 		}
 	}
 
-	public Object saveConfiguration(String pid, ConfigurationImpl config, final Object token) throws IOException {
+	private void deleteConfigurationFile(File configFile) {
+		ReliableFile.delete(configFile);
+		configFile.delete();
+	}
+
+	public Object saveConfiguration(final String pid, ConfigurationImpl config, final Object token) throws IOException {
 		if (store == null) {
 			return null; // no persistent store
 		}
@@ -114,13 +167,11 @@ class ConfigurationStore {
 			return null;
 		}
 		try {
-			final File storeCopy = store;
-			return AccessController.doPrivileged(new PrivilegedExceptionAction<File>() {
+			return AccessController.doPrivileged(new PrivilegedExceptionAction<String>() {
 				@Override
-				public File run() throws Exception {
-					File toFile = token == null ? File.createTempFile(DATA_PRE, CFG_EXT, storeCopy) : (File) token;
-					writeConfigurationFile(toFile, configProperties);
-					return toFile;
+				public String run() throws Exception {
+					journal.put(pid, configProperties);
+					return pid;
 				}
 			});
 		} catch (PrivilegedActionException e) {
@@ -128,56 +179,59 @@ class ConfigurationStore {
 		}
 	}
 
-	void writeConfigurationFile(File configFile, Dictionary<String, Object> configProperties) throws IOException {
-		OutputStream ros = null;
-		ObjectOutputStream oos = null;
-		try {
-			configFile.createNewFile();
-			ros = new ReliableFileOutputStream(configFile);
-			oos = new ObjectOutputStream(ros);
-			oos.writeObject(configProperties);
-		} finally {
-			if (oos != null) {
-				try {
-					oos.close();
-				} catch (IOException e) {
-					// ignore
-				}
-			}
-			if (ros != null) {
-				try {
-					ros.close();
-				} catch (IOException e) {
-					// ignore
-				}
-			}
-		}
-	}
-
-	public synchronized void removeConfiguration(String pid, final Object token) {
-		configurations.remove(pid);
+	/**
+	 * Removes the configuration. Holding the store lock until the removal is
+	 * stored keeps a configuration created again for the same pid from being
+	 * saved before the removal, which would then delete it from the journal.
+	 */
+	public synchronized void removeConfiguration(final String pid, ConfigurationImpl config, final Object token) {
+		configurations.remove(pid, config);
+		index.remove(config);
 		if (store == null || token == null) {
 			return; // no persistent store
 		}
 		AccessController.doPrivileged(new PrivilegedAction<>() {
 			@Override
 			public Object run() {
-				deleteConfigurationFile((File) token);
+				try {
+					journal.remove(pid);
+				} catch (IOException e) {
+					configurationAdminFactory.error("{Configuration Admin - pid = " + pid + "} could not be removed.", e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
 				return null;
 			}
 		});
 	}
 
-	void deleteConfigurationFile(File configFile) {
-		ReliableFile.delete(configFile);
-		configFile.delete();
+	void close() {
+		if (journal != null) {
+			journal.close();
+		}
+	}
+
+	/**
+	 * Re-indexes the configuration after its location or properties changed. The
+	 * caller must hold the configuration lock.
+	 */
+	void updateIndex(ConfigurationImpl config) {
+		index.update(config);
+	}
+
+	private void addConfiguration(ConfigurationImpl config) {
+		config.lock();
+		try {
+			configurations.put(config.getPid(false), config);
+			index.update(config);
+		} finally {
+			config.unlock();
+		}
 	}
 
 	public synchronized ConfigurationImpl getConfiguration(String pid, String location, boolean bind) {
 		ConfigurationImpl config = configurations.get(pid);
 		if (config == null) {
 			config = new ConfigurationImpl(configurationAdminFactory, this, null, pid, location, bind);
-			configurations.put(pid, config);
+			addConfiguration(config);
 		}
 		return config;
 	}
@@ -197,22 +251,20 @@ class ConfigurationStore {
 
 		ConfigurationImpl config = new ConfigurationImpl(configurationAdminFactory, this, factoryPid, pid, location,
 				bind);
-		configurations.put(pid, config);
+		addConfiguration(config);
 		return config;
 	}
 
-	public synchronized ConfigurationImpl findConfiguration(String pid) {
+	public ConfigurationImpl findConfiguration(String pid) {
 		return configurations.get(pid);
 	}
 
 	public ConfigurationImpl[] getFactoryConfigurations(String factoryPid) {
-		List<ConfigurationImpl> resultList = new ArrayList<>();
-		synchronized (this) {
-			resultList.addAll(configurations.values());
-		}
+		List<ConfigurationImpl> resultList = new ArrayList<>(
+				index.get(ConfigurationAdmin.SERVICE_FACTORYPID, factoryPid));
 		for (Iterator<ConfigurationImpl> it = resultList.iterator(); it.hasNext();) {
 			ConfigurationImpl config = it.next();
-			String otherFactoryPid = config.getFactoryPid();
+			String otherFactoryPid = config.getFactoryPid(false);
 			if (otherFactoryPid == null || !otherFactoryPid.equals(factoryPid)) {
 				it.remove();
 			}
@@ -221,10 +273,9 @@ class ConfigurationStore {
 	}
 
 	public ConfigurationImpl[] listConfigurations(Filter filter) {
-		List<ConfigurationImpl> resultList = new ArrayList<>();
-		synchronized (this) {
-			resultList.addAll(configurations.values());
-		}
+		Collection<ConfigurationImpl> candidates = index.candidates(filter, configurations::get);
+		List<ConfigurationImpl> resultList = new ArrayList<>(
+				candidates == null ? configurations.values() : candidates);
 		for (Iterator<ConfigurationImpl> it = resultList.iterator(); it.hasNext();) {
 			ConfigurationImpl config = it.next();
 			Dictionary<String, Object> properties = config.getAllProperties(false);
@@ -237,11 +288,9 @@ class ConfigurationStore {
 	}
 
 	public void unbindConfigurations(Bundle bundle) {
-		ConfigurationImpl[] copy;
-		synchronized (this) {
-			copy = configurations.values().toArray(new ConfigurationImpl[configurations.size()]);
-		}
-		for (ConfigurationImpl config : copy) {
+		Collection<ConfigurationImpl> bound = index.get(ConfigurationAdmin.SERVICE_BUNDLELOCATION,
+				ConfigurationAdminImpl.getLocation(bundle));
+		for (ConfigurationImpl config : bound.toArray(new ConfigurationImpl[0])) {
 			config.unbind(bundle);
 		}
 	}
@@ -33,13 +33,14 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 	/** @GuardedBy targets */
 	private final TargetMap targets = new TargetMap();
 
-	private final SerializedTaskQueue queue = new SerializedTaskQueue("ManagedServiceFactory Update Queue"); //$NON-NLS-1$
+	private final CoalescingTaskQueue queue;
 
 	public ManagedServiceFactoryTracker(ConfigurationAdminFactory configurationAdminFactory,
-			ConfigurationStore configurationStore, BundleContext context) {
+			ConfigurationStore configurationStore, CoalescingTaskQueue queue, BundleContext context) {
 		super(context, ManagedServiceFactory.class.getName(), null);
 		this.configurationAdminFactory = configurationAdminFactory;
 		this.configurationStore = configurationStore;
+		this.queue = queue;
 	}
 
 	void notifyDeleted(ConfigurationImpl config) {
@@ -275,7 +276,7 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 	}
 
 	private void asynchDeleted(final ManagedServiceFactory service, final String pid) {
-		queue.put(new Runnable() {
+		queue.put(service, "deleted", pid, new Runnable() { //$NON-NLS-1$
 			@Override
 			public void run() {
 				try {
@@ -294,7 +295,8 @@ class ManagedServiceFactoryTracker extends ServiceTracker<ManagedServiceFactory,
 			return;
 		}
 		configurationAdminFactory.executeCoordinated(service, () -> {
-			queue.put(() -> {
+			// a newer dictionary for the same pid supersedes one that is not delivered yet
+			queue.put(service, "updated", pid, () -> { //$NON-NLS-1$
 				try {
 					service.updated(pid, properties);
 				} catch (ConfigurationException e) {
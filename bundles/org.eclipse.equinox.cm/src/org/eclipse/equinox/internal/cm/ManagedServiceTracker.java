@@ -32,13 +32,14 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 	/** @GuardedBy targets */
 	private final TargetMap targets = new TargetMap();
 
-	private final SerializedTaskQueue queue = new SerializedTaskQueue("ManagedService Update Queue"); //$NON-NLS-1$
+	private final CoalescingTaskQueue queue;
 
 	public ManagedServiceTracker(ConfigurationAdminFactory configurationAdminFactory,
-			ConfigurationStore configurationStore, BundleContext context) {
+			ConfigurationStore configurationStore, CoalescingTaskQueue queue, BundleContext context) {
 		super(context, ManagedService.class.getName(), null);
 		this.configurationAdminFactory = configurationAdminFactory;
 		this.configurationStore = configurationStore;
+		this.queue = queue;
 	}
 
 	void notifyDeleted(ConfigurationImpl config) {
@@ -287,7 +288,9 @@ class ManagedServiceTracker extends ServiceTracker<ManagedService, ManagedServic
 
 	private void asynchUpdated(final ManagedService service, final Dictionary<String, ?> properties) {
 		configurationAdminFactory.cancelExecuteCoordinated(service);
-		configurationAdminFactory.executeCoordinated(service, () -> queue.put(() -> {
+		// a newer dictionary for the same pid supersedes one that is not delivered yet
+		Object pid = properties == null ? null : properties.get(Constants.SERVICE_PID);
+		configurationAdminFactory.executeCoordinated(service, () -> queue.put(service, "updated", pid, () -> { //$NON-NLS-1$
 			try {
 				service.updated(properties);
 			} catch (ConfigurationException e) {
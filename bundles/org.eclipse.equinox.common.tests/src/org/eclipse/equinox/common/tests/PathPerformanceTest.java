@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+/**
+ * Builds a large synthetic tree of paths, like the resource tree of a
+ * workspace, and measures the time of common path operations.
+ */
+public class PathPerformanceTest {
+	@Rule
+	public TestName testName = new TestName();
+
+	private static final int WIDTH = 16;
+	private static final int DEPTH = 5;
+
+	private static void appendTree(IPath parent, int depth, List<IPath> paths) {
+		if (depth == DEPTH) {
+			return;
+		}
+		for (int i = 0; i < WIDTH; i++) {
+			IPath child = parent.append("folder" + i);
+			paths.add(child);
+			appendTree(child, depth + 1, paths);
+		}
+	}
+
+	private static List<IPath> createTree() {
+		List<IPath> paths = new ArrayList<>();
+		appendTree(IPath.fromPortableString("/workspace"), 0, paths);
+		return paths;
+	}
+
+	@Test
+	public void testAppend() throws Exception {
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				createTree();
+			}
+		}.run(getClass(), testName.getMethodName(), 5, 1);
+	}
+
+	@Test
+	public void testParse() throws Exception {
+		List<String> strings = new ArrayList<>();
+		for (IPath path : createTree()) {
+			strings.add(path.toString());
+		}
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				for (String string : strings) {
+					IPath.fromOSString(string);
+				}
+			}
+		}.run(getClass(), testName.getMethodName(), 5, 1);
+	}
+
+	@Test
+	public void testParentOperations() throws Exception {
+		List<IPath> paths = createTree();
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				for (IPath path : paths) {
+					IPath parent = path.removeLastSegments(1);
+					parent.isPrefixOf(path);
+					parent.append(path.lastSegment()).equals(path);
+				}
+			}
+		}.run(getClass(), testName.getMethodName(), 5, 1);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2022 IBM Corporation and others.
+ *  Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -18,11 +18,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -1130,6 +1132,64 @@ public class PathTest {
 		assertEquals("5.4", new Path("//"), anyPath.uptoSegment(0));
 	}
 
+	@Test
+	public void testDerivedPaths() {
+		IPath child = new Path("/first/second/third");
+		IPath parent = child.removeLastSegments(1);
+		IPath sibling = parent.append("other");
+
+		assertEquals("1.0", new Path("/first/second"), parent);
+		assertEquals("1.1", 2, parent.segmentCount());
+		assertEquals("1.2", "second", parent.lastSegment());
+		assertNull("1.3", parent.segment(2));
+		assertEquals("1.4", "/first/second", parent.toString());
+		assertEquals("1.5", 2, parent.segments().length);
+		assertEquals("1.6", new Path("/first/second").hashCode(), parent.hashCode());
+
+		assertEquals("2.0", child, parent.append("third"));
+		assertEquals("2.1", new Path("/first/second/other"), sibling);
+		assertEquals("2.2", "third", child.lastSegment());
+		assertTrue("2.3", parent.isPrefixOf(child));
+		assertTrue("2.4", parent.isPrefixOf(sibling));
+		assertFalse("2.5", child.isPrefixOf(parent));
+		assertFalse("2.6", child.isPrefixOf(sibling));
+		assertEquals("2.7", 2, child.matchingFirstSegments(sibling));
+		assertEquals("2.8", 2, parent.matchingFirstSegments(child));
+		assertNotEquals("2.9", child, sibling);
+
+		assertEquals("3.0", new Path("first"), child.uptoSegment(1).makeRelative());
+		assertEquals("3.1", new Path("/first/second.txt"), parent.addFileExtension("txt"));
+		assertEquals("3.2", new Path("/first/second/"), parent.addTrailingSeparator());
+		assertEquals("3.3", new Path("/first/second/third"), child.uptoSegment(2).append(new Path("third")));
+		assertEquals("3.4", new Path("second/third"), child.removeFirstSegments(1));
+	}
+
+	/**
+	 * Parents and ancestors of a path share its segments array, unless they use
+	 * less than half of it.
+	 */
+	@Test
+	public void testSharedSegments() throws ReflectiveOperationException {
+		IPath child = new Path("/first/second/third/fourth");
+		String[] segments = getSegments(child);
+
+		assertSame("1.0", segments, getSegments(child.removeLastSegments(1)));
+		assertSame("1.1", segments, getSegments(child.removeLastSegments(2)));
+		assertSame("1.2", segments, getSegments(child.uptoSegment(3)));
+		assertSame("1.3", segments, getSegments(child.uptoSegment(2)));
+		assertSame("1.4", segments, getSegments(child.removeLastSegments(1).append("fourth")));
+
+		assertNotSame("2.0", segments, getSegments(child.removeLastSegments(3)));
+		assertNotSame("2.1", segments, getSegments(child.uptoSegment(1)));
+		assertEquals("2.2", 1, getSegments(child.uptoSegment(1)).length);
+	}
+
+	private static String[] getSegments(IPath path) throws ReflectiveOperationException {
+		Field field = Path.class.getDeclaredField("segments");
+		field.setAccessible(true);
+		return (String[]) field.get(path);
+	}
+
 	@Test
 	public void testToPath() {
 
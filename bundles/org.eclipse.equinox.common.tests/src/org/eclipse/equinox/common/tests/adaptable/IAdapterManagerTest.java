@@ -69,6 +69,12 @@ public class IAdapterManagerTest {
 	class X extends Y implements A, B {
 	}
 
+	interface P {
+	}
+
+	class Z implements P {
+	}
+
 	private static final String NON_EXISTING = "com.does.not.Exist";
 	private static final String TEST_ADAPTER = "org.eclipse.equinox.common.tests.adaptable.TestAdapter";
 	private static final String TEST_ADAPTER_CL = "testAdapter.testUnknown";
@@ -360,6 +366,37 @@ public class IAdapterManagerTest {
 		}
 	}
 
+	/**
+	 * Tests that a cached lookup sees factories registered later for the class or
+	 * one of its super types
+	 */
+	@Test
+	public void testGetAdapterAfterRegisteringFactory() {
+		Z zAdaptable = new Z();
+		GenericToStringAdapterFactory pFactory = new GenericToStringAdapterFactory(P.class);
+		GenericToStringAdapterFactory zFactory = new GenericToStringAdapterFactory(Z.class) {
+			@Override
+			public <T> T getAdapter(Object adaptableObject, Class<T> adapterType) {
+				return adapterType.cast("Z adapted");
+			}
+		};
+		assertNull(manager.getAdapter(zAdaptable, String.class));
+		manager.registerAdapters(pFactory, P.class);
+		try {
+			assertTrue(manager.getAdapter(zAdaptable, String.class)
+					.endsWith(" adapted by " + GenericToStringAdapterFactory.class.getSimpleName()));
+			manager.registerAdapters(zFactory, Z.class);
+			assertEquals("Z adapted", manager.getAdapter(zAdaptable, String.class));
+			manager.unregisterAdapters(zFactory);
+			assertTrue(manager.getAdapter(zAdaptable, String.class)
+					.endsWith(" adapted by " + GenericToStringAdapterFactory.class.getSimpleName()));
+		} finally {
+			manager.unregisterAdapters(pFactory);
+			manager.unregisterAdapters(zFactory);
+		}
+		assertNull(manager.getAdapter(zAdaptable, String.class));
+	}
+
 	public static class GenericToStringAdapterFactory implements IAdapterFactory, IAdapterFactoryExt {
 
 		public boolean loaded = true;
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.registry;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.core.internal.registry.ExtensionRegistry;
+import org.eclipse.core.internal.registry.ICacheReconciler;
+import org.eclipse.core.internal.registry.osgi.RegistryStrategyOSGI;
+import org.eclipse.core.internal.runtime.MetaDataKeeper;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.RegistryFactory;
+import org.eclipse.core.tests.harness.BundleTestingHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Tests that a registry loaded from a stale cache is brought up to date
+ * contribution by contribution.
+ */
+public class RegistryCacheReconcileTest {
+
+	private static final String CACHED_POINT = "org.eclipse.equinox.common.tests.factoryLoaderTest";
+	private static final String ADDED_POINT = "bundle01.xp1";
+
+	/**
+	 * Reconciles a stale cache. The container time stamp stands in for the
+	 * state of the installed bundles.
+	 */
+	private static final class ReconcilingStrategy extends RegistryStrategyOSGI implements ICacheReconciler {
+		private final long containerTimestamp;
+
+		ReconcilingStrategy(File storageDir, Object key, long containerTimestamp) {
+			super(new File[] { storageDir }, new boolean[] { false }, key);
+			this.containerTimestamp = containerTimestamp;
+		}
+
+		@Override
+		public long getContainerTimestamp() {
+			return containerTimestamp;
+		}
+	}
+
+	private final Object masterToken = new Object();
+	private File cacheDir;
+	private IExtensionRegistry registry;
+
+	@Before
+	public void setUp() {
+		Bundle testBundle = FrameworkUtil.getBundle(getClass());
+		cacheDir = MetaDataKeeper.getMetaArea().getStateLocation(testBundle).append(getClass().getName()).toFile();
+		deleteRecursively(cacheDir);
+	}
+
+	@After
+	public void tearDown() {
+		stopRegistry();
+		deleteRecursively(cacheDir);
+	}
+
+	@Test
+	public void testReconcileBundles() throws IOException, BundleException {
+		startRegistry(1);
+		assertFalse(((ExtensionRegistry) registry).isCacheStale());
+		assertNotNull(registry.getExtensionPoint(CACHED_POINT));
+		assertNull(registry.getExtensionPoint(ADDED_POINT));
+		stopRegistry();
+
+		BundleContext context = FrameworkUtil.getBundle(getClass()).getBundleContext();
+		Bundle bundle01 = BundleTestingHelper.installBundle("0.1", context, "Plugin_Testing/registryEvents/bundle01");
+		String contributorId = Long.toString(bundle01.getBundleId());
+		try {
+			BundleTestingHelper.refreshPackages(context, new Bundle[] { bundle01 });
+
+			// the cache does not know the new bundle
+			startRegistry(2);
+			assertTrue(((ExtensionRegistry) registry).isCacheStale());
+			assertNotNull(registry.getExtensionPoint(CACHED_POINT));
+			assertNotNull(registry.getExtensionPoint(ADDED_POINT));
+			assertNotNull(((ExtensionRegistry) registry).getContributionTimestamp(contributorId));
+			stopRegistry();
+
+			// the reconciled cache is current
+			startRegistry(2);
+			assertFalse(((ExtensionRegistry) registry).isCacheStale());
+			assertNotNull(registry.getExtensionPoint(ADDED_POINT));
+			Long timestamp = ((ExtensionRegistry) registry).getContributionTimestamp(contributorId);
+			stopRegistry();
+
+			// an update in place does not touch plugin.xml, the contribution is still
+			// replaced
+			bundle01.update();
+			BundleTestingHelper.refreshPackages(context, new Bundle[] { bundle01 });
+			startRegistry(3);
+			assertTrue(((ExtensionRegistry) registry).isCacheStale());
+			assertNotNull(registry.getExtensionPoint(ADDED_POINT));
+			assertNotEquals(timestamp, ((ExtensionRegistry) registry).getContributionTimestamp(contributorId));
+			stopRegistry();
+		} finally {
+			bundle01.uninstall();
+		}
+
+		// the cache still contains the uninstalled bundle
+		startRegistry(4);
+		assertTrue(((ExtensionRegistry) registry).isCacheStale());
+		assertNotNull(registry.getExtensionPoint(CACHED_POINT));
+		assertNull(registry.getExtensionPoint(ADDED_POINT));
+		assertNull(((ExtensionRegistry) registry).getContributionTimestamp(contributorId));
+	}
+
+	private void startRegistry(long containerTimestamp) {
+		registry = RegistryFactory.createRegistry(new ReconcilingStrategy(cacheDir, masterToken, containerTimestamp),
+				masterToken, null);
+	}
+
+	private void stopRegistry() {
+		if (registry != null) {
+			registry.stop(masterToken);
+			registry = null;
+		}
+	}
+
+	private static void deleteRecursively(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
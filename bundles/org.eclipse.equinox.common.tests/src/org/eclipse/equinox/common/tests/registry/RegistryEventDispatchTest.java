@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.internal.registry.ExtensionRegistry;
+import org.eclipse.core.internal.registry.osgi.ExtensionEventDispatcherJob;
+import org.eclipse.core.runtime.ContributorFactoryOSGi;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.eclipse.core.runtime.RegistryFactory;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.junit.Test;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Tests the delivery of registry change events by the event dispatcher job of
+ * the Eclipse registry.
+ */
+public class RegistryEventDispatchTest {
+
+	final private static int MAX_TIME = 10000; // maximum time to wait for events in milliseconds
+	final private static int EVENTS = 10;
+
+	/**
+	 * While a listener is busy with one event, the following events are queued
+	 * and delivered in order by the same job.
+	 */
+	@Test
+	public void testOrderAndCoalescing() throws InterruptedException {
+		IExtensionRegistry registry = RegistryFactory.getRegistry();
+		Object userToken = ((ExtensionRegistry) registry).getTemporaryUserToken();
+		IContributor contributor = ContributorFactoryOSGi.createContributor(FrameworkUtil.getBundle(getClass()));
+		String prefix = contributor.getName() + ".dispatch"; //$NON-NLS-1$
+
+		CountDownLatch firstReceived = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch allReceived = new CountDownLatch(EVENTS);
+		List<String> received = Collections.synchronizedList(new ArrayList<>());
+		IRegistryEventListener listener = new IRegistryEventListener() {
+			@Override
+			public void added(IExtensionPoint[] extensionPoints) {
+				for (IExtensionPoint extensionPoint : extensionPoints) {
+					String id = extensionPoint.getUniqueIdentifier();
+					if (!id.startsWith(prefix)) {
+						continue;
+					}
+					received.add(id);
+					if (id.equals(prefix + 0)) {
+						firstReceived.countDown();
+						try {
+							release.await(MAX_TIME, TimeUnit.MILLISECONDS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					allReceived.countDown();
+				}
+			}
+
+			@Override
+			public void removed(IExtensionPoint[] extensionPoints) {
+				// nothing to do
+			}
+
+			@Override
+			public void added(IExtension[] extensions) {
+				// nothing to do
+			}
+
+			@Override
+			public void removed(IExtension[] extensions) {
+				// nothing to do
+			}
+		};
+		Set<Job> dispatchers = ConcurrentHashMap.newKeySet();
+		List<Job> runs = Collections.synchronizedList(new ArrayList<>());
+		IJobChangeListener jobListener = new JobChangeAdapter() {
+			@Override
+			public void aboutToRun(IJobChangeEvent event) {
+				if (event.getJob() instanceof ExtensionEventDispatcherJob) {
+					dispatchers.add(event.getJob());
+					runs.add(event.getJob());
+				}
+			}
+		};
+		registry.addListener(listener);
+		Job.getJobManager().addJobChangeListener(jobListener);
+		try {
+			addExtensionPoint(registry, contributor, userToken, prefix + 0);
+			assertTrue(firstReceived.await(MAX_TIME, TimeUnit.MILLISECONDS));
+			int runsBefore = runs.size();
+			// queued while the dispatcher is busy with the first event
+			for (int i = 1; i < EVENTS; i++) {
+				addExtensionPoint(registry, contributor, userToken, prefix + i);
+			}
+			release.countDown();
+			assertTrue(allReceived.await(MAX_TIME, TimeUnit.MILLISECONDS));
+
+			List<String> expected = new ArrayList<>();
+			for (int i = 0; i < EVENTS; i++) {
+				expected.add(prefix + i);
+			}
+			assertEquals(expected, received);
+			assertEquals(1, dispatchers.size());
+			// the queued events are delivered by at most one more run of the job
+			assertTrue(runs.size() - runsBefore <= 1);
+		} finally {
+			release.countDown();
+			Job.getJobManager().removeJobChangeListener(jobListener);
+			registry.removeListener(listener);
+			for (int i = 0; i < EVENTS; i++) {
+				IExtensionPoint extensionPoint = registry.getExtensionPoint(prefix + i);
+				if (extensionPoint != null) {
+					registry.removeExtensionPoint(extensionPoint, userToken);
+				}
+			}
+		}
+	}
+
+	private static void addExtensionPoint(IExtensionRegistry registry, IContributor contributor, Object userToken,
+			String id) {
+		String simpleId = id.substring(contributor.getName().length() + 1);
+		String xml = "<plugin><extension-point id=\"" + simpleId + "\" name=\"" + simpleId + "\"/></plugin>"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertTrue(registry.addContribution(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+				contributor, false, simpleId, null, userToken));
+	}
+}
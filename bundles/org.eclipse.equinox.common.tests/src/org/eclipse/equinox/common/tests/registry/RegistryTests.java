@@ -19,7 +19,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ ContributorsTest.class, ExtensionRegistryDynamicTest.class, ExtensionRegistryStaticTest.class,
-		InputErrorTest.class, MultiLanguageTest.class, NamespaceTest.class, RegistryListenerTest.class })
+		InputErrorTest.class, MultiLanguageTest.class, NamespaceTest.class, RegistryListenerTest.class,
+		RegistryCacheReconcileTest.class, RegistryEventDispatchTest.class })
 public class RegistryTests {
 	// intentionally left blank
 }
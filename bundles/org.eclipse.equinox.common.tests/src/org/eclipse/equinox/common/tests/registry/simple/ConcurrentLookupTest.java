@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.registry.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.internal.registry.ExtensionRegistry;
+import org.eclipse.core.runtime.ContributorFactorySimple;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.junit.Test;
+
+/**
+ * Tests extension point look-ups that do not take the registry lock.
+ */
+public class ConcurrentLookupTest extends BaseExtensionRegistryRun {
+
+	@Test
+	public void testLookupsDuringChanges() throws Exception {
+		IContributor contributor = ContributorFactorySimple.createContributor("ConcurrentLookup"); //$NON-NLS-1$
+		String namespace = contributor.getName();
+		ExtensionRegistry registry = (ExtensionRegistry) simpleRegistry;
+		assertTrue(registry.addExtensionPoint("Stable", contributor, false, "Stable", null, userToken)); //$NON-NLS-1$ //$NON-NLS-2$
+		String stableId = qualifiedName(namespace, "Stable"); //$NON-NLS-1$
+
+		AtomicBoolean done = new AtomicBoolean();
+		List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Thread reader = new Thread(() -> {
+				try {
+					while (!done.get()) {
+						IExtensionPoint stable = simpleRegistry.getExtensionPoint(stableId);
+						assertNotNull(stable);
+						assertEquals("Stable", stable.getLabel()); //$NON-NLS-1$
+						simpleRegistry.getExtensionPoint(qualifiedName(namespace, "Dynamic")); //$NON-NLS-1$
+						simpleRegistry.getConfigurationElementsFor(stableId);
+					}
+				} catch (Throwable t) {
+					failures.add(t);
+				}
+			});
+			reader.start();
+			readers.add(reader);
+		}
+		try {
+			String dynamicId = qualifiedName(namespace, "Dynamic"); //$NON-NLS-1$
+			for (int i = 0; i < 200; i++) {
+				assertTrue(registry.addExtensionPoint("Dynamic", contributor, false, "Dynamic", null, userToken)); //$NON-NLS-1$ //$NON-NLS-2$
+				IExtensionPoint dynamic = simpleRegistry.getExtensionPoint(dynamicId);
+				assertNotNull(dynamic);
+				assertTrue(simpleRegistry.removeExtensionPoint(dynamic, userToken));
+				assertNull(simpleRegistry.getExtensionPoint(dynamicId));
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+		assertEquals(Collections.emptyList(), failures);
+	}
+
+	@Test
+	public void testLookupsFromCache() throws Exception {
+		String subDir = getClass().getName() + ".cache"; //$NON-NLS-1$
+		stopRegistry();
+		deleteRecursively(getStateLocation().append(subDir).toFile());
+		simpleRegistry = startRegistry(subDir);
+
+		IContributor contributor = ContributorFactorySimple.createContributor("CachedLookup"); //$NON-NLS-1$
+		String pointId = qualifiedName(contributor.getName(), "Cached"); //$NON-NLS-1$
+		assertTrue(((ExtensionRegistry) simpleRegistry).addExtensionPoint("Cached", contributor, true, "Cached", null, //$NON-NLS-1$ //$NON-NLS-2$
+				masterToken));
+		stopRegistry();
+
+		// the extension point is only known from the cache written on stop
+		simpleRegistry = startRegistry(subDir);
+		IExtensionPoint point = simpleRegistry.getExtensionPoint(pointId);
+		assertNotNull(point);
+		assertEquals("Cached", point.getLabel()); //$NON-NLS-1$
+		assertNull(simpleRegistry.getExtensionPoint(pointId + "Missing")); //$NON-NLS-1$
+	}
+
+	private static void deleteRecursively(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteRecursively(child);
+			}
+		}
+		file.delete();
+	}
+}
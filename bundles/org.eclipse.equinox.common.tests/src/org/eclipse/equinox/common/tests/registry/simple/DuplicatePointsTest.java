@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2018 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,7 +19,10 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 
+import org.eclipse.core.internal.registry.DetachedContribution;
+import org.eclipse.core.internal.registry.ExtensionRegistry;
 import org.eclipse.core.runtime.ContributorFactorySimple;
 import org.eclipse.core.runtime.IContributor;
 import org.eclipse.core.runtime.IExtension;
@@ -78,6 +81,26 @@ public class DuplicatePointsTest extends BaseExtensionRegistryRun {
 		checkRegistrySame("testSame"); //$NON-NLS-1$
 	}
 
+	@Test
+	public void testDuplicatesParsedOutOfOrder() throws Exception {
+		HiddenLogRegistryStrategy.output = ""; //$NON-NLS-1$
+		ExtensionRegistry registry = (ExtensionRegistry) simpleRegistry;
+		// the second contribution is parsed first, the first one still wins
+		DetachedContribution contribution2 = parse(registry, "2", getXML("DuplicatePoints2.xml")); //$NON-NLS-1$ //$NON-NLS-2$
+		DetachedContribution contribution1 = parse(registry, "1", getXML("DuplicatePoints1.xml")); //$NON-NLS-1$ //$NON-NLS-2$
+		registry.addContributions(new DetachedContribution[] { contribution1, contribution2 }, userToken);
+
+		checkRegistryDifferent("testDuplicates"); //$NON-NLS-1$
+	}
+
+	private DetachedContribution parse(ExtensionRegistry registry, String contributorName, URL url)
+			throws Exception {
+		IContributor contributor = ContributorFactorySimple.createContributor(contributorName);
+		DetachedContribution contribution = new DetachedContribution(contributor, false, url.getFile(), null, 0);
+		contribution.parse(url.openStream(), registry.createParser());
+		return contribution;
+	}
+
 	private void checkRegistryDifferent(String namespace) {
 		assertTrue(errMsg1.equals(HiddenLogRegistryStrategy.output));
 
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.registry.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.ContributorFactorySimple;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionDelta;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IRegistryChangeListener;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.eclipse.core.runtime.IThreadSafeRegistryListener;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that registry change events queued while listeners are busy are
+ * delivered as one event, and that thread safe listeners are notified
+ * concurrently with other listeners.
+ */
+public class EventCoalescingTest extends BaseExtensionRegistryRun {
+
+	private final static int MAX_TIME = 10000; // maximum time to wait for events in milliseconds
+	private final static int EVENTS = 10;
+	private final static String NAMESPACE = "Coalescing"; //$NON-NLS-1$
+
+	private String pointId;
+
+	private static class ListenerAdapter implements IRegistryEventListener {
+		@Override
+		public void added(IExtension[] extensions) {
+			// nothing to do
+		}
+
+		@Override
+		public void removed(IExtension[] extensions) {
+			// nothing to do
+		}
+
+		@Override
+		public void added(IExtensionPoint[] extensionPoints) {
+			// nothing to do
+		}
+
+		@Override
+		public void removed(IExtensionPoint[] extensionPoints) {
+			// nothing to do
+		}
+	}
+
+	/**
+	 * Blocks the event dispatching in the first event until released.
+	 */
+	private static class BlockingListener extends ListenerAdapter {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public void added(IExtension[] extensions) {
+			blocked.countDown();
+			try {
+				release.await(MAX_TIME, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		IContributor contributor = ContributorFactorySimple.createContributor(NAMESPACE);
+		addContribution(contributor, "<extension-point id=\"point\" name=\"point\"/>"); //$NON-NLS-1$
+		pointId = qualifiedName(NAMESPACE, "point"); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testQueuedEventsMerged() throws InterruptedException {
+		BlockingListener blocker = new BlockingListener();
+		List<String> calls = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch allReceived = new CountDownLatch(EVENTS);
+		IRegistryEventListener listener = new ListenerAdapter() {
+			@Override
+			public void added(IExtension[] extensions) {
+				calls.add(toString(extensions));
+				for (int i = 0; i < extensions.length; i++) {
+					allReceived.countDown();
+				}
+			}
+
+			private String toString(IExtension[] extensions) {
+				StringBuilder result = new StringBuilder();
+				for (IExtension extension : extensions) {
+					result.append(extension.getSimpleIdentifier()).append(' ');
+				}
+				return result.toString().trim();
+			}
+		};
+		List<Integer> deltaCounts = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch allDeltas = new CountDownLatch(EVENTS);
+		IRegistryChangeListener changeListener = event -> {
+			IExtensionDelta[] deltas = event.getExtensionDeltas(NAMESPACE);
+			for (IExtensionDelta delta : deltas) {
+				// the combined deltas still resolve their extensions
+				assertTrue(delta.getExtension().getSimpleIdentifier().startsWith("ext")); //$NON-NLS-1$
+				allDeltas.countDown();
+			}
+			deltaCounts.add(Integer.valueOf(deltas.length));
+		};
+		simpleRegistry.addListener(blocker, pointId);
+		simpleRegistry.addListener(listener, pointId);
+		simpleRegistry.addRegistryChangeListener(changeListener, NAMESPACE);
+		try {
+			addExtension(0);
+			assertTrue(blocker.blocked.await(MAX_TIME, TimeUnit.MILLISECONDS));
+			// queued while the listeners are busy with the first event
+			for (int i = 1; i < EVENTS; i++) {
+				addExtension(i);
+			}
+			blocker.release.countDown();
+			assertTrue(allReceived.await(MAX_TIME, TimeUnit.MILLISECONDS));
+			assertTrue(allDeltas.await(MAX_TIME, TimeUnit.MILLISECONDS));
+
+			StringBuilder queued = new StringBuilder();
+			for (int i = 1; i < EVENTS; i++) {
+				queued.append(" ext").append(i); //$NON-NLS-1$
+			}
+			assertEquals(List.of("ext0", queued.toString().trim()), calls); //$NON-NLS-1$
+			assertEquals(List.of(Integer.valueOf(1), Integer.valueOf(EVENTS - 1)), deltaCounts);
+		} finally {
+			blocker.release.countDown();
+			simpleRegistry.removeListener(blocker);
+			simpleRegistry.removeListener(listener);
+			simpleRegistry.removeRegistryChangeListener(changeListener);
+		}
+	}
+
+	@Test
+	public void testAdditionsAndRemovalsNotMerged() throws InterruptedException {
+		BlockingListener blocker = new BlockingListener();
+		List<String> calls = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch removed = new CountDownLatch(1);
+		IRegistryEventListener listener = new ListenerAdapter() {
+			@Override
+			public void added(IExtension[] extensions) {
+				calls.add("added " + extensions.length); //$NON-NLS-1$
+			}
+
+			@Override
+			public void removed(IExtension[] extensions) {
+				calls.add("removed " + extensions.length); //$NON-NLS-1$
+				removed.countDown();
+			}
+		};
+		simpleRegistry.addListener(blocker, pointId);
+		simpleRegistry.addListener(listener, pointId);
+		try {
+			addExtension(0);
+			assertTrue(blocker.blocked.await(MAX_TIME, TimeUnit.MILLISECONDS));
+			addExtension(1);
+			addExtension(2);
+			assertTrue(simpleRegistry.removeExtension(
+					simpleRegistry.getExtension(qualifiedName(NAMESPACE + 1, "ext1")), userToken)); //$NON-NLS-1$
+			addExtension(3);
+			blocker.release.countDown();
+			assertTrue(removed.await(MAX_TIME, TimeUnit.MILLISECONDS));
+			// the last addition may still be on its way
+			for (int i = 0; i < MAX_TIME / 10 && calls.size() < 4; i++) {
+				Thread.sleep(10);
+			}
+			assertEquals(List.of("added 1", "added 2", "removed 1", "added 1"), calls); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		} finally {
+			blocker.release.countDown();
+			simpleRegistry.removeListener(blocker);
+			simpleRegistry.removeListener(listener);
+		}
+	}
+
+	@Test
+	public void testThreadSafeListenerNotifiedConcurrently() throws InterruptedException {
+		CountDownLatch serialNotified = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		AtomicBoolean concurrent = new AtomicBoolean();
+		class ThreadSafeListener extends ListenerAdapter implements IThreadSafeRegistryListener {
+			@Override
+			public void added(IExtension[] extensions) {
+				try {
+					// only released if the other listener is notified meanwhile
+					concurrent.set(serialNotified.await(MAX_TIME, TimeUnit.MILLISECONDS));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			}
+		}
+		IRegistryEventListener threadSafe = new ThreadSafeListener();
+		IRegistryEventListener serial = new ListenerAdapter() {
+			@Override
+			public void added(IExtension[] extensions) {
+				serialNotified.countDown();
+			}
+		};
+		simpleRegistry.addListener(threadSafe, pointId);
+		simpleRegistry.addListener(serial, pointId);
+		try {
+			addExtension(0);
+			assertTrue(done.await(2 * MAX_TIME, TimeUnit.MILLISECONDS));
+			assertTrue(concurrent.get());
+		} finally {
+			simpleRegistry.removeListener(threadSafe);
+			simpleRegistry.removeListener(serial);
+		}
+	}
+
+	private void addExtension(int i) {
+		IContributor contributor = ContributorFactorySimple.createContributor(NAMESPACE + i);
+		addContribution(contributor, "<extension point=\"" + pointId + "\" id=\"ext" + i + "\"/>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private void addContribution(IContributor contributor, String content) {
+		String xml = "<plugin>" + content + "</plugin>"; //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(simpleRegistry.addContribution(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+				contributor, false, contributor.getName(), null, userToken));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2018 Julian Honnen
+ *  Copyright (c) 2018, 2026 Julian Honnen
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ XMLExtensionCreateTest.class, DirectExtensionCreateTest.class, XMLExecutableExtensionTest.class,
 		DirectExtensionCreateTwoRegistriesTest.class, TokenAccessTest.class, XMLExtensionCreateEclipseTest.class,
-		DirectExtensionRemoveTest.class, MergeContributionTest.class, DuplicatePointsTest.class })
+		DirectExtensionRemoveTest.class, MergeContributionTest.class, DuplicatePointsTest.class,
+		ConcurrentLookupTest.class, EventCoalescingTest.class })
 public class SimpleRegistryTests {
 	// intentionally left blank
 }
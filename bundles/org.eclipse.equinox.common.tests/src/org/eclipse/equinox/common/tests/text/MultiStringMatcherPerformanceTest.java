@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.tests.harness.PerformanceTestRunner;
+import org.eclipse.core.text.MultiStringMatcher;
+import org.eclipse.core.text.StringMatcher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+/**
+ * Compares matching names against many patterns with a
+ * {@link MultiStringMatcher} to matching them with one {@link StringMatcher}
+ * per pattern.
+ */
+public class MultiStringMatcherPerformanceTest {
+	@Rule
+	public TestName testName = new TestName();
+
+	private static final List<String> PATTERNS = new ArrayList<>();
+	private static final List<String> NAMES = new ArrayList<>();
+	static {
+		for (int i = 0; i < 500; i++) {
+			PATTERNS.add("*Filter" + i + "?.java");
+			PATTERNS.add("resource" + i + ".*");
+		}
+		for (int i = 0; i < 5000; i++) {
+			NAMES.add("org/eclipse/core/internal/Resource" + i + "Impl.class");
+		}
+	}
+
+	@Test
+	public void testStringMatcherLoop() throws Exception {
+		List<StringMatcher> matchers = new ArrayList<>();
+		for (String pattern : PATTERNS) {
+			matchers.add(new StringMatcher(pattern, true, false));
+		}
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				for (String name : NAMES) {
+					for (StringMatcher matcher : matchers) {
+						if (matcher.match(name)) {
+							break;
+						}
+					}
+				}
+			}
+		}.run(getClass(), testName.getMethodName(), 10, 5);
+	}
+
+	@Test
+	public void testMultiStringMatcher() throws Exception {
+		MultiStringMatcher matcher = new MultiStringMatcher(PATTERNS, true, false);
+		new PerformanceTestRunner() {
+			@Override
+			protected void test() {
+				for (String name : NAMES) {
+					matcher.matchAny(name);
+				}
+			}
+		}.run(getClass(), testName.getMethodName(), 10, 5);
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.common.tests.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.text.MultiStringMatcher;
+import org.eclipse.core.text.StringMatcher;
+import org.junit.Test;
+
+public class MultiStringMatcherTest {
+
+	@Test
+	public void testMatchingPatterns() {
+		MultiStringMatcher m = new MultiStringMatcher(
+				Arrays.asList("*.java", "Foo*", "*Bar*", "?oo.txt", "*", "", "a\\*b"), false, false);
+		assertEquals(7, m.size());
+		assertArrayEquals(new int[] { 0, 1, 4 }, m.matchingPatterns("Foo.java"));
+		assertArrayEquals(new int[] { 2, 4 }, m.matchingPatterns("xBary"));
+		assertArrayEquals(new int[] { 3, 4 }, m.matchingPatterns("zoo.txt"));
+		assertArrayEquals(new int[] { 4, 5 }, m.matchingPatterns(""));
+		assertArrayEquals(new int[] { 4, 6 }, m.matchingPatterns("a*b"));
+		assertArrayEquals(new int[] { 4 }, m.matchingPatterns("axb"));
+	}
+
+	@Test
+	public void testMatchAny() {
+		MultiStringMatcher m = new MultiStringMatcher(Arrays.asList("*.java", "foo?", "bar*baz"), true, false);
+		assertTrue(m.matchAny("Test.JAVA"));
+		assertTrue(m.matchAny("FOOx"));
+		assertTrue(m.matchAny("barxBAZ"));
+		assertFalse(m.matchAny("Test.class"));
+		assertFalse(m.matchAny("foo"));
+		assertFalse(m.matchAny("barbazx"));
+		assertFalse(new MultiStringMatcher(List.of(), false, false).matchAny("foo"));
+	}
+
+	@Test
+	public void testIgnoreWildCards() {
+		MultiStringMatcher m = new MultiStringMatcher(Arrays.asList("*.java", "foo?"), false, true);
+		assertArrayEquals(new int[] { 0 }, m.matchingPatterns("*.java"));
+		assertArrayEquals(new int[0], m.matchingPatterns("Test.java"));
+		assertArrayEquals(new int[] { 1 }, m.matchingPatterns("foo?"));
+	}
+
+	@Test
+	public void testSameAsStringMatcher() {
+		Random random = new Random(4711);
+		String patternChars = "abAB*?\\xİi";
+		String textChars = "abABxİiIı*?";
+		for (int round = 0; round < 500; round++) {
+			boolean ignoreCase = random.nextBoolean();
+			boolean ignoreWildCards = random.nextInt(4) == 0;
+			List<String> patterns = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				patterns.add(randomString(random, patternChars, 6));
+			}
+			MultiStringMatcher m = new MultiStringMatcher(patterns, ignoreCase, ignoreWildCards);
+			for (int t = 0; t < 20; t++) {
+				String text = randomString(random, textChars, 10);
+				List<Integer> expected = new ArrayList<>();
+				for (int i = 0; i < patterns.size(); i++) {
+					if (new StringMatcher(patterns.get(i), ignoreCase, ignoreWildCards).match(text)) {
+						expected.add(i);
+					}
+				}
+				String message = patterns + " ignoreCase=" + ignoreCase + " ignoreWildCards=" + ignoreWildCards
+						+ " text=" + text;
+				assertArrayEquals(message, expected.stream().mapToInt(Integer::intValue).toArray(),
+						m.matchingPatterns(text));
+				assertEquals(message, !expected.isEmpty(), m.matchAny(text));
+			}
+		}
+	}
+
+	private static String randomString(Random random, String chars, int maxLength) {
+		StringBuilder result = new StringBuilder();
+		for (int i = random.nextInt(maxLength); i > 0; i--) {
+			result.append(chars.charAt(random.nextInt(chars.length())));
+		}
+		return result.toString();
+	}
+}
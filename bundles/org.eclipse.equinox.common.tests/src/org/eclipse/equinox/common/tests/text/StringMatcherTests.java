@@ -16,7 +16,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ StringMatcherFindTest.class, StringMatcherPlainTest.class, StringMatcherWildcardTest.class,
-		StringMatcherPrefixTest.class, StringMatcherOtherTest.class, TextMatcherTest.class })
+		StringMatcherPrefixTest.class, StringMatcherOtherTest.class, TextMatcherTest.class,
+		MultiStringMatcherTest.class })
 public class StringMatcherTests {
 	// empty
 }
@@ -45,8 +45,8 @@ public class AdapterFactoryBridge
 		AdapterManager manager = AdapterManager.getDefault();
 		for (String adaptableClass : adaptableClasses) {
 			manager.registerFactory(proxy, adaptableClass);
+			manager.flushLookup(adaptableClass);
 		}
-		manager.flushLookup();
 		return proxy;
 	}
 
@@ -74,8 +74,8 @@ public class AdapterFactoryBridge
 		}
 		for (String adaptableClass : adaptableClasses) {
 			manager.registerFactory(proxy, adaptableClass);
+			manager.flushLookup(adaptableClass);
 		}
-		manager.flushLookup();
 	}
 
 	@Override
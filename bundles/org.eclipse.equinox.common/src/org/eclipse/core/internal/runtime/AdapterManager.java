@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,10 +18,7 @@
 package org.eclipse.core.internal.runtime;
 
 import java.util.*;
-import java.util.AbstractMap.SimpleEntry;
-import java.util.Map.Entry;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 import org.eclipse.core.runtime.*;
 
 /**
@@ -47,13 +44,15 @@ import org.eclipse.core.runtime.*;
  * @see IAdapterManager
  */
 public final class AdapterManager implements IAdapterManager {
+	private static final IAdapterFactory[] NO_FACTORIES = new IAdapterFactory[0];
+
 	/**
-	 * Cache of adapters for a given adaptable class. Maps String -> Map (adaptable
-	 * class name -> (adapter class name -> factory instance)) <b>Thread safety
-	 * note</b>: always use the compute methods to update the map and make sure the
-	 * values (inner map) are never modified but replaced if necessary.
+	 * Cache of adapters for a given adaptable class. Maps Class -> AdapterLookup
+	 * (adaptable class -> (adapter class name -> factory instance)) <b>Thread
+	 * safety note</b>: always use the compute methods to update the map and make
+	 * sure the values (inner map) are never modified but replaced if necessary.
 	 */
-	private final ConcurrentMap<String, AdapterLookup> adapterLookup;
+	private final ConcurrentMap<Class<?>, AdapterLookup> adapterLookup;
 
 	/**
 	 * Cache of classes for a given type name. Avoids too many loadClass calls.
@@ -174,8 +173,15 @@ public final class AdapterManager implements IAdapterManager {
 	 */
 	private Map<String, List<IAdapterFactory>> getFactories(Class<? extends Object> adaptable) {
 		// cache reference to lookup to protect against concurrent flush
-		return adapterLookup.computeIfAbsent(adaptable.getName(), adaptableType -> new AdapterLookup(adaptable, this))
-				.getMap();
+		return getAdapterLookup(adaptable).getMap();
+	}
+
+	private AdapterLookup getAdapterLookup(Class<?> adaptable) {
+		AdapterLookup lookup = adapterLookup.get(adaptable);
+		if (lookup == null) {
+			lookup = adapterLookup.computeIfAbsent(adaptable, adaptableType -> new AdapterLookup(adaptableType, this));
+		}
+		return lookup;
 	}
 
 	/**
@@ -231,11 +237,9 @@ public final class AdapterManager implements IAdapterManager {
 
 	/**
 	 * Flushes the cache of adapter search paths. This is generally required
-	 * whenever an adapter is added or removed.
-	 * <p>
-	 * It is likely easier to just toss the whole cache rather than trying to be
-	 * smart and remove only those entries affected.
-	 * </p>
+	 * whenever an adapter is removed, it also releases the cached classes of
+	 * bundles which are no longer used. After adding factories for an adaptable
+	 * type it is sufficient to call {@link #flushLookup(String)}.
 	 */
 	public void flushLookup() {
 		adapterLookup.clear();
@@ -243,41 +247,48 @@ public final class AdapterManager implements IAdapterManager {
 		classSearchOrderLookup.clear();
 	}
 
+	/**
+	 * Flushes the cached adapter search paths of all adaptable classes which have
+	 * the given type in their search order. This is sufficient after factories
+	 * have been added for the given adaptable type.
+	 *
+	 * @param adaptableTypeName the fully qualified name of the adaptable type
+	 */
+	public void flushLookup(String adaptableTypeName) {
+		adapterLookup.values().removeIf(lookup -> lookup.isAffectedBy(adaptableTypeName));
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T> T getAdapter(Object adaptable, Class<T> adapterType) {
 		Assert.isNotNull(adaptable);
 		Assert.isNotNull(adapterType);
-		List<Entry<IAdapterFactory, Class<?>>> incorrectAdapters = new ArrayList<>();
-		T adapterObject = getFactories(adaptable.getClass())
-				.getOrDefault(adapterType.getName(), Collections.emptyList()) //
-				.stream() //
-				.map(factory -> new SimpleEntry<>(factory, factory.getAdapter(adaptable, adapterType))) //
-				.filter(entry -> {
-					Object adapter = entry.getValue();
-					if (adapter == null) {
-						return false;
-					}
-					boolean res = adapterType.isInstance(adapter);
-					if (!res) {
-						IAdapterFactory factory = entry.getKey();
-						incorrectAdapters.add(new SimpleEntry<>(factory, adapter.getClass()));
-					}
-					return res;
-				}).map(Entry::getValue) //
-				.findFirst() //
-				.orElse(null);
-		if (adapterObject == null) {
-			if (!incorrectAdapters.isEmpty()) {
-				throw new AssertionFailedException(incorrectAdapters.stream().map(entry -> "Adapter factory " //$NON-NLS-1$
-						+ entry.getKey() + " returned " + entry.getValue().getName() //$NON-NLS-1$
-						+ " that is not an instance of " + adapterType.getName()).collect(Collectors.joining("\n"))); //$NON-NLS-1$ //$NON-NLS-2$
+		IAdapterFactory[] eligibleFactories = getAdapterLookup(adaptable.getClass()).getFactories(adapterType);
+		StringBuilder incorrectAdapters = null;
+		for (IAdapterFactory factory : eligibleFactories) {
+			Object adapter = factory.getAdapter(adaptable, adapterType);
+			if (adapter == null) {
+				continue;
+			}
+			if (adapterType.isInstance(adapter)) {
+				return (T) adapter;
 			}
-			if (adapterType.isInstance(adaptable)) {
-				return (T) adaptable;
+			if (incorrectAdapters == null) {
+				incorrectAdapters = new StringBuilder();
+			} else {
+				incorrectAdapters.append('\n');
 			}
+			incorrectAdapters.append("Adapter factory ").append(factory).append(" returned ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append(adapter.getClass().getName()).append(" that is not an instance of ") //$NON-NLS-1$
+					.append(adapterType.getName());
 		}
-		return adapterObject;
+		if (incorrectAdapters != null) {
+			throw new AssertionFailedException(incorrectAdapters.toString());
+		}
+		if (adapterType.isInstance(adaptable)) {
+			return (T) adaptable;
+		}
+		return null;
 	}
 
 	@Override
@@ -344,7 +355,7 @@ public final class AdapterManager implements IAdapterManager {
 	@Override
 	public void registerAdapters(IAdapterFactory factory, Class<?> adaptable) {
 		registerFactory(factory, adaptable.getName());
-		flushLookup();
+		flushLookup(adaptable.getName());
 	}
 
 	/*
@@ -359,10 +370,12 @@ public final class AdapterManager implements IAdapterManager {
 	 */
 	@Override
 	public void unregisterAdapters(IAdapterFactory factory) {
+		boolean removed = false;
 		for (List<IAdapterFactory> list : factories.values()) {
-			if (list.remove(factory)) {
-				flushLookup();
-			}
+			removed |= list.remove(factory);
+		}
+		if (removed) {
+			flushLookup();
 		}
 	}
 
@@ -428,6 +441,12 @@ public final class AdapterManager implements IAdapterManager {
 		private final AdapterManager manager;
 		private Map<String, List<IAdapterFactory>> map;
 
+		/**
+		 * The factories of the map by adapter type, never modified but replaced if
+		 * necessary.
+		 */
+		private final ConcurrentMap<Class<?>, IAdapterFactory[]> factoriesByType = new ConcurrentHashMap<>();
+
 		AdapterLookup(Class<?> adaptable, AdapterManager manager) {
 			this.adaptable = adaptable;
 			this.manager = manager;
@@ -437,12 +456,31 @@ public final class AdapterManager implements IAdapterManager {
 			if (map == null) {
 				// calculate adapters for the class
 				Map<String, List<IAdapterFactory>> table = new HashMap<>(4);
-				for (Class<?> cl : manager.computeClassOrder(adaptable)) {
+				for (Class<?> cl : manager.getClassOrder(adaptable)) {
 					manager.addFactoriesFor(cl.getName(), table);
 				}
 				map = Collections.unmodifiableMap(table);
 			}
 			return map;
 		}
+
+		IAdapterFactory[] getFactories(Class<?> adapterType) {
+			IAdapterFactory[] factories = factoriesByType.get(adapterType);
+			if (factories == null) {
+				List<IAdapterFactory> factoryList = getMap().get(adapterType.getName());
+				factories = factoryList == null ? NO_FACTORIES : factoryList.toArray(NO_FACTORIES);
+				factoriesByType.putIfAbsent(adapterType, factories);
+			}
+			return factories;
+		}
+
+		boolean isAffectedBy(String adaptableTypeName) {
+			for (Class<?> cl : manager.getClassOrder(adaptable)) {
+				if (cl.getName().equals(adaptableTypeName)) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2025 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -66,6 +66,12 @@ public final class Path implements IPath, Cloneable {
 		/** Constant value indicating no segments */
 		static final String[] NO_SEGMENTS = new String[0];
 
+		/**
+		 * Lossy cache of segments, so that equal segments of different paths share
+		 * one string. Races are harmless as strings are immutable.
+		 */
+		static final String[] SEGMENTS_CACHE = new String[8192];
+
 		/**
 		 * We have cycle : Path implements IPath and IPath uses Path object instances in
 		 * interface constants.
@@ -121,11 +127,17 @@ public final class Path implements IPath, Cloneable {
 	private final String device;
 
 	// Private implementation note: the segments array and flag bitmap
-	// are never modified, so that they can be shared between path instances
+	// are never modified, so that they can be shared between path instances.
+	// A path uses the first segmentCount segments of the array only, so that
+	// a parent path shares the array of its child and vice versa. Equal
+	// segments are shared between paths as far as possible, see intern(String).
 
-	/** The path segments */
+	/** The path segments, may contain more segments than the path */
 	private final String[] segments;
 
+	/** The number of segments of the array which belong to this path */
+	private final int segmentCount;
+
 	/** cached hash code */
 	private int hash;
 
@@ -340,6 +352,7 @@ public final class Path implements IPath, Cloneable {
 		}
 		this.device = devicePart;
 		this.segments = canonicalSegments;
+		this.segmentCount = canonicalSegments.length;
 		this.flags = (byte) flag;
 	}
 
@@ -347,13 +360,22 @@ public final class Path implements IPath, Cloneable {
 	 * (Intentionally not included in javadoc) Private constructor.
 	 */
 	private Path(String device, String[] segments, int flags) {
+		this(device, segments, segments.length, flags);
+	}
+
+	/*
+	 * (Intentionally not included in javadoc) Private constructor for a path of the
+	 * first segmentCount segments of the given array.
+	 */
+	private Path(String device, String[] segments, int segmentCount, int flags) {
 		int flag = flags;
-		if (segments.length == 0) {
+		if (segmentCount == 0) {
 			// paths of length 0 have no trailing separator
 			flag &= ~HAS_TRAILING;
 		}
 		// no segment validations are done for performance reasons
 		this.segments = segments;
+		this.segmentCount = segmentCount;
 		this.device = device;
 		this.flags = (byte) flag;
 	}
@@ -369,7 +391,7 @@ public final class Path implements IPath, Cloneable {
 			return this;
 		}
 		String[] s = getSegments();
-		int len = s.length;
+		int len = segmentCount;
 		String[] newSegments = Arrays.copyOf(s, len);
 		newSegments[len - 1] = s[len - 1] + '.' + extension;
 		return new Path(device, newSegments, flags);
@@ -388,9 +410,9 @@ public final class Path implements IPath, Cloneable {
 		// XXX workaround, see 1GIGQ9V
 		String[] s = getSegments();
 		if (isEmpty()) {
-			return new Path(device, s, (flags & IS_FOR_WINDOWS) | HAS_LEADING);
+			return new Path(device, s, segmentCount, (flags & IS_FOR_WINDOWS) | HAS_LEADING);
 		}
-		return new Path(device, s, flags | HAS_TRAILING);
+		return new Path(device, s, segmentCount, flags | HAS_TRAILING);
 	}
 
 	/*
@@ -415,7 +437,7 @@ public final class Path implements IPath, Cloneable {
 
 		// concatenate the two segment arrays
 		String[] s = getSegments();
-		int myLen = s.length;
+		int myLen = segmentCount;
 		int tailLen = tail.segmentCount();
 		String[] newSegments = Arrays.copyOf(s, myLen + tailLen);
 		for (int i = 0; i < tailLen; i++) {
@@ -451,9 +473,13 @@ public final class Path implements IPath, Cloneable {
 			}
 			// just add the segment
 			String[] s = getSegments();
-			int myLen = s.length;
+			int myLen = segmentCount;
+			if (myLen < s.length && s[myLen].equals(tail)) {
+				// the array of a child path we were derived from already has the segment
+				return new Path(device, s, myLen + 1, flags & ~HAS_TRAILING);
+			}
 			String[] newSegments = Arrays.copyOf(s, myLen + 1);
-			newSegments[myLen] = tail;
+			newSegments[myLen] = intern(tail);
 			return new Path(device, newSegments, flags & ~HAS_TRAILING);
 		}
 		// go with easy implementation
@@ -583,9 +609,8 @@ public final class Path implements IPath, Cloneable {
 	 * (Intentionally not included in javadoc) Computes the hash code for this
 	 * object.
 	 */
-	private static int computeHashCode(String device, String[] segments) {
+	private static int computeHashCode(String device, String[] segments, int segmentCount) {
 		int hash = device == null ? 17 : device.hashCode();
-		int segmentCount = segments.length;
 		for (int i = 0; i < segmentCount; i++) {
 			// this function tends to given a fairly even distribution
 			hash = hash * 37 + segments[i].hashCode();
@@ -610,7 +635,7 @@ public final class Path implements IPath, Cloneable {
 		}
 		// add the segment lengths
 		String[] s = getSegments();
-		int max = s.length;
+		int max = segmentCount;
 		if (max > 0) {
 			for (int i = 0; i < max; i++) {
 				length += s[i].length();
@@ -648,6 +673,22 @@ public final class Path implements IPath, Cloneable {
 		return count;
 	}
 
+	/**
+	 * Returns a previously used segment equal to the given one if it is still
+	 * cached, otherwise caches the given segment.
+	 */
+	private static String intern(String segment) {
+		String[] cache = Constants.SEGMENTS_CACHE;
+		int h = segment.hashCode();
+		int index = (h ^ (h >>> 16)) & (cache.length - 1);
+		String cached = cache[index];
+		if (segment.equals(cached)) {
+			return cached;
+		}
+		cache[index] = segment;
+		return segment;
+	}
+
 	/**
 	 * Computes the segment array for the given canonicalized path.
 	 */
@@ -674,9 +715,9 @@ public final class Path implements IPath, Cloneable {
 			int start = next;
 			int end = path.indexOf(SEPARATOR, next);
 			if (end == -1) {
-				newSegments[i] = path.substring(start, lastPosition + 1);
+				newSegments[i] = intern(path.substring(start, lastPosition + 1));
 			} else {
-				newSegments[i] = path.substring(start, end);
+				newSegments[i] = intern(path.substring(start, end));
 			}
 			next = end + 1;
 		}
@@ -715,11 +756,15 @@ public final class Path implements IPath, Cloneable {
 		}
 		String[] targetSegments = target.getSegments();
 		String[] s = getSegments();
-		int i = s.length;
+		int i = segmentCount;
 		// check segment count
-		if (i != targetSegments.length) {
+		if (i != target.segmentCount) {
 			return false;
 		}
+		if (s == targetSegments) {
+			// sharing the segments array
+			i = 0;
+		}
 		// check segments in reverse order - later segments more likely to differ
 		while (--i >= 0) {
 			if (!s[i].equals(targetSegments[i])) {
@@ -769,7 +814,7 @@ public final class Path implements IPath, Cloneable {
 	public int hashCode() {
 		int h = hash;
 		if (h == 0) {
-			hash = h = computeHashCode(device, getSegments());
+			hash = h = computeHashCode(device, getSegments(), segmentCount);
 		}
 		return h;
 	}
@@ -800,6 +845,7 @@ public final class Path implements IPath, Cloneable {
 		}
 		this.device = deviceString;
 		this.segments = canonicalSegments;
+		this.segmentCount = canonicalSegments.length;
 		this.flags = (byte) flag;
 	}
 
@@ -851,7 +897,7 @@ public final class Path implements IPath, Cloneable {
 	@Override
 	public boolean isEmpty() {
 		// true if no segments and no leading prefix
-		return getSegments().length == 0 && ((flags & ALL_SEPARATORS) != HAS_LEADING);
+		return segmentCount == 0 && ((flags & ALL_SEPARATORS) != HAS_LEADING);
 	}
 
 	/*
@@ -874,10 +920,14 @@ public final class Path implements IPath, Cloneable {
 			return true;
 		}
 		String[] s = getSegments();
-		int len = s.length;
+		int len = segmentCount;
 		if (len > anotherPath.segmentCount()) {
 			return false;
 		}
+		if (anotherPath instanceof Path other && other.segments == s) {
+			// sharing the segments array
+			return true;
+		}
 		for (int i = 0; i < len; i++) {
 			if (!s[i].equals(anotherPath.segment(i))) {
 				return false;
@@ -894,7 +944,7 @@ public final class Path implements IPath, Cloneable {
 	@Override
 	public boolean isRoot() {
 		// must have no segments, a leading separator, and not be a UNC path.
-		return this == ROOT || (getSegments().length == 0 && ((flags & ALL_SEPARATORS) == HAS_LEADING));
+		return this == ROOT || (segmentCount == 0 && ((flags & ALL_SEPARATORS) == HAS_LEADING));
 	}
 
 	/*
@@ -1067,9 +1117,8 @@ public final class Path implements IPath, Cloneable {
 	 */
 	@Override
 	public String lastSegment() {
-		String[] s = getSegments();
-		int len = s.length;
-		return len == 0 ? null : s[len - 1];
+		int len = segmentCount;
+		return len == 0 ? null : getSegments()[len - 1];
 	}
 
 	/*
@@ -1084,13 +1133,14 @@ public final class Path implements IPath, Cloneable {
 		}
 		String[] newSegments = getSegments();
 		// may need canonicalizing if it has leading ".." or "." segments
-		if (newSegments.length > 0) {
+		if (segmentCount > 0) {
 			String first = newSegments[0];
 			if (first.equals("..") || first.equals(".")) { //$NON-NLS-1$ //$NON-NLS-2$
-				newSegments = canonicalize(true, newSegments);
+				newSegments = canonicalize(true, Arrays.copyOf(newSegments, segmentCount));
+				return new Path(device, newSegments, flags | HAS_LEADING);
 			}
 		}
-		return new Path(device, newSegments, flags | HAS_LEADING);
+		return new Path(device, newSegments, segmentCount, flags | HAS_LEADING);
 	}
 
 	/*
@@ -1103,7 +1153,7 @@ public final class Path implements IPath, Cloneable {
 		if (!isAbsolute()) {
 			return this;
 		}
-		return new Path(device, getSegments(), flags & (HAS_TRAILING | IS_FOR_WINDOWS));
+		return new Path(device, getSegments(), segmentCount, flags & (HAS_TRAILING | IS_FOR_WINDOWS));
 	}
 
 	/**
@@ -1150,7 +1200,7 @@ public final class Path implements IPath, Cloneable {
 			// mask out the UNC bit
 			newSeparators &= HAS_LEADING | HAS_TRAILING | IS_FOR_WINDOWS;
 		}
-		return new Path(toUNC ? null : device, getSegments(), newSeparators);
+		return new Path(toUNC ? null : device, getSegments(), segmentCount, newSeparators);
 	}
 
 	/*
@@ -1163,7 +1213,11 @@ public final class Path implements IPath, Cloneable {
 		Assert.isNotNull(anotherPath);
 		int anotherPathLen = anotherPath.segmentCount();
 		String[] s = getSegments();
-		int max = Math.min(s.length, anotherPathLen);
+		int max = Math.min(segmentCount, anotherPathLen);
+		if (anotherPath instanceof Path other && other.segments == s) {
+			// sharing the segments array
+			return max;
+		}
 		int count = 0;
 		for (int i = 0; i < max; i++) {
 			if (!s[i].equals(anotherPath.segment(i))) {
@@ -1201,11 +1255,11 @@ public final class Path implements IPath, Cloneable {
 			return this;
 		}
 		String[] s = getSegments();
-		if (count >= s.length) {
+		if (count >= segmentCount) {
 			return new Path(device, Constants.NO_SEGMENTS, flags & IS_FOR_WINDOWS);
 		}
 		Assert.isLegal(count > 0);
-		int newSize = s.length - count;
+		int newSize = segmentCount - count;
 		String[] newSegments = Arrays.copyOfRange(s, count, newSize + count);
 
 		// result is always a relative path
@@ -1222,15 +1276,22 @@ public final class Path implements IPath, Cloneable {
 		if (count == 0) {
 			return this;
 		}
-		String[] s = getSegments();
-		if (count >= s.length) {
+		if (count >= segmentCount) {
 			// result will have no trailing separator
 			return new Path(device, Constants.NO_SEGMENTS, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
 		}
 		Assert.isLegal(count > 0);
-		int newSize = s.length - count;
-		String[] newSegments = Arrays.copyOf(s, newSize);
-		return new Path(device, newSegments, flags);
+		return new Path(device, prefixSegments(segmentCount - count), segmentCount - count, flags);
+	}
+
+	/*
+	 * Returns the segments array for the prefix of this path with the given number
+	 * of segments. The array is shared unless the prefix uses less than half of it,
+	 * so that a short ancestor does not retain the segments of a deep descendant.
+	 */
+	private String[] prefixSegments(int count) {
+		String[] s = getSegments();
+		return count < s.length >> 1 ? Arrays.copyOf(s, count) : s;
 	}
 
 	/*
@@ -1243,7 +1304,7 @@ public final class Path implements IPath, Cloneable {
 		if (!hasTrailingSeparator()) {
 			return this;
 		}
-		return new Path(device, getSegments(), flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
+		return new Path(device, getSegments(), segmentCount, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
 	}
 
 	/*
@@ -1253,11 +1314,10 @@ public final class Path implements IPath, Cloneable {
 	 */
 	@Override
 	public String segment(int index) {
-		String[] s = getSegments();
-		if (index >= s.length) {
+		if (index >= segmentCount) {
 			return null;
 		}
-		return s[index];
+		return getSegments()[index];
 	}
 
 	private String[] getSegments() {
@@ -1271,7 +1331,7 @@ public final class Path implements IPath, Cloneable {
 	 */
 	@Override
 	public int segmentCount() {
-		return getSegments().length;
+		return segmentCount;
 	}
 
 	/*
@@ -1281,8 +1341,7 @@ public final class Path implements IPath, Cloneable {
 	 */
 	@Override
 	public String[] segments() {
-		String[] s = getSegments();
-		return Arrays.copyOf(s, s.length);
+		return Arrays.copyOf(getSegments(), segmentCount);
 	}
 
 	/*
@@ -1301,7 +1360,7 @@ public final class Path implements IPath, Cloneable {
 			return this;
 		}
 
-		return new Path(value, getSegments(), flags);
+		return new Path(value, getSegments(), segmentCount, flags);
 	}
 
 	/*
@@ -1342,7 +1401,7 @@ public final class Path implements IPath, Cloneable {
 			result[offset++] = FILE_SEPARATOR;
 		}
 		String[] s = getSegments();
-		int len = s.length - 1;
+		int len = segmentCount - 1;
 		if (len >= 0) {
 			// append all but the last segment, with file separators
 			for (int i = 0; i < len; i++) {
@@ -1384,7 +1443,7 @@ public final class Path implements IPath, Cloneable {
 			result.append(SEPARATOR);
 		}
 		String[] s = getSegments();
-		int len = s.length;
+		int len = segmentCount;
 		// append all segments with separators
 		for (int i = 0; i < len; i++) {
 			if (s[i].indexOf(DEVICE_SEPARATOR) >= 0) {
@@ -1424,7 +1483,7 @@ public final class Path implements IPath, Cloneable {
 			result[offset++] = SEPARATOR;
 		}
 		String[] s = getSegments();
-		int len = s.length - 1;
+		int len = segmentCount - 1;
 		if (len >= 0) {
 			// append all but the last segment, with separators
 			for (int i = 0; i < len; i++) {
@@ -1454,12 +1513,10 @@ public final class Path implements IPath, Cloneable {
 		if (count == 0) {
 			return new Path(device, Constants.NO_SEGMENTS, flags & (HAS_LEADING | IS_UNC | IS_FOR_WINDOWS));
 		}
-		String[] s = getSegments();
-		if (count >= s.length) {
+		if (count >= segmentCount) {
 			return this;
 		}
 		Assert.isTrue(count > 0, "Invalid parameter to Path.uptoSegment"); //$NON-NLS-1$
-		String[] newSegments = Arrays.copyOf(s, count);
-		return new Path(device, newSegments, flags);
+		return new Path(device, prefixSegments(count), count, flags);
 	}
 }
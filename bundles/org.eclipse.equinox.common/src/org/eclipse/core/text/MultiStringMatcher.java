@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.text;
+
+import java.util.*;
+
+/**
+ * Matches texts against a set of {@link StringMatcher} patterns at once. A
+ * pattern matches a text if and only if {@link StringMatcher#match(String)} of
+ * a {@link StringMatcher} created with the same arguments returns
+ * {@code true}.
+ * <p>
+ * The longest literal part of each pattern is entered into an Aho-Corasick
+ * automaton. A text is scanned once, and only the patterns whose literal part
+ * occurs in the text are verified with their {@link StringMatcher}. Patterns
+ * without any literal character, for example "*" or "???", are always
+ * verified. Matching many patterns against a text is therefore much faster
+ * than matching each pattern separately, in particular if few of them match.
+ * </p>
+ * <p>
+ * Instances are immutable and may be used by multiple threads concurrently.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class MultiStringMatcher {
+
+	private static final int[] NO_PATTERNS = new int[0];
+
+	private final StringMatcher[] fMatchers;
+
+	private final boolean fIgnoreCase;
+
+	/* Patterns without literal characters which are always verified. */
+	private final int[] fUnkeyed;
+
+	/* The automaton, node 0 is the root. */
+	private final char[][] fLabels; // sorted transition characters per node
+
+	private final int[][] fTargets; // transition targets per node
+
+	private final int[] fFail; // failure link per node
+
+	private final int[][] fOutputs; // patterns whose literal part ends at the node
+
+	private final int[] fOutputLink; // next node on the failure path with outputs, or 0
+
+	/**
+	 * Creates a matcher for the given patterns. See
+	 * {@link StringMatcher#StringMatcher(String, boolean, boolean)} for the pattern
+	 * syntax.
+	 *
+	 * @param patterns        the patterns to match texts against, must not be
+	 *                        {@code null} or contain {@code null}
+	 * @param ignoreCase      if true, case is ignored
+	 * @param ignoreWildCards if true, wild cards and their escape sequences are
+	 *                        ignored (everything is taken literally).
+	 * @throws IllegalArgumentException if {@code patterns} is {@code null} or
+	 *                                  contains {@code null}
+	 */
+	public MultiStringMatcher(Collection<String> patterns, boolean ignoreCase, boolean ignoreWildCards) {
+		if (patterns == null) {
+			throw new IllegalArgumentException();
+		}
+		fIgnoreCase = ignoreCase;
+		fMatchers = new StringMatcher[patterns.size()];
+		List<Integer> unkeyed = new ArrayList<>();
+		Trie trie = new Trie();
+		int index = 0;
+		for (String pattern : patterns) {
+			StringMatcher matcher = new StringMatcher(pattern, ignoreCase, ignoreWildCards);
+			fMatchers[index] = matcher;
+			String key = getKey(matcher);
+			if (key.isEmpty()) {
+				unkeyed.add(index);
+			} else {
+				trie.add(key, index);
+			}
+			index++;
+		}
+		fUnkeyed = unkeyed.stream().mapToInt(Integer::intValue).toArray();
+
+		int size = trie.size();
+		fLabels = new char[size][];
+		fTargets = new int[size][];
+		fFail = new int[size];
+		fOutputs = new int[size][];
+		fOutputLink = new int[size];
+		trie.compile(this);
+	}
+
+	/**
+	 * Returns the longest run of literal characters in the segments of the
+	 * pattern, folded if case is ignored.
+	 */
+	private String getKey(StringMatcher matcher) {
+		String key = ""; //$NON-NLS-1$
+		for (String segment : matcher.getSegments()) {
+			int start = 0;
+			while (start <= segment.length()) {
+				int end = segment.indexOf(StringMatcher.fSingleWildCard, start);
+				if (end < 0) {
+					end = segment.length();
+				}
+				if (end - start > key.length()) {
+					key = segment.substring(start, end);
+				}
+				start = end + 1;
+			}
+		}
+		if (!fIgnoreCase) {
+			return key;
+		}
+		char[] folded = key.toCharArray();
+		for (int i = 0; i < folded.length; i++) {
+			folded[i] = fold(folded[i]);
+		}
+		return new String(folded);
+	}
+
+	/**
+	 * Maps characters considered equal by {@link StringMatcher} when ignoring case
+	 * to the same character: those whose upper case or lower case variants are
+	 * equal.
+	 */
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * Returns the number of patterns of this matcher.
+	 *
+	 * @return the number of patterns
+	 */
+	public int size() {
+		return fMatchers.length;
+	}
+
+	/**
+	 * Determines whether the given {@code text} matches any of the patterns.
+	 *
+	 * @param text String to match; must not be {@code null}
+	 * @return {@code true} if the whole {@code text} matches at least one pattern;
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if {@code text == null}
+	 */
+	public boolean matchAny(String text) {
+		if (text == null) {
+			throw new IllegalArgumentException();
+		}
+		for (int pattern : fUnkeyed) {
+			if (fMatchers[pattern].match(text)) {
+				return true;
+			}
+		}
+		return scan(text, new long[(fMatchers.length + 63) >>> 6], true);
+	}
+
+	/**
+	 * Determines the patterns the given {@code text} matches.
+	 *
+	 * @param text String to match; must not be {@code null}
+	 * @return the indices of the matching patterns in the iteration order of the
+	 *         collection this matcher was created with, in ascending order
+	 * @throws IllegalArgumentException if {@code text == null}
+	 */
+	public int[] matchingPatterns(String text) {
+		if (text == null) {
+			throw new IllegalArgumentException();
+		}
+		long[] candidates = new long[(fMatchers.length + 63) >>> 6];
+		for (int pattern : fUnkeyed) {
+			candidates[pattern >>> 6] |= 1L << pattern;
+		}
+		scan(text, candidates, false);
+		int[] result = NO_PATTERNS;
+		int count = 0;
+		for (int word = 0; word < candidates.length; word++) {
+			long bits = candidates[word];
+			while (bits != 0) {
+				int pattern = (word << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if (fMatchers[pattern].match(text)) {
+					if (count == result.length) {
+						result = Arrays.copyOf(result, Math.max(4, count * 2));
+					}
+					result[count++] = pattern;
+				}
+			}
+		}
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Scans the text with the automaton and marks the patterns whose literal part
+	 * occurs in the text as candidates.
+	 *
+	 * @param verify whether to match new candidates immediately
+	 * @return {@code true} if a candidate has been verified to match
+	 */
+	private boolean scan(String text, long[] candidates, boolean verify) {
+		int state = 0;
+		for (int i = 0, length = text.length(); i < length; i++) {
+			char c = fIgnoreCase ? fold(text.charAt(i)) : text.charAt(i);
+			int next;
+			while ((next = transition(state, c)) < 0 && state != 0) {
+				state = fFail[state];
+			}
+			state = next < 0 ? 0 : next;
+			for (int node = fOutputs[state].length > 0 ? state : fOutputLink[state]; node != 0; node = fOutputLink[node]) {
+				for (int pattern : fOutputs[node]) {
+					long bit = 1L << pattern;
+					if ((candidates[pattern >>> 6] & bit) == 0) {
+						candidates[pattern >>> 6] |= bit;
+						if (verify && fMatchers[pattern].match(text)) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private int transition(int state, char c) {
+		char[] labels = fLabels[state];
+		int low = 0;
+		int high = labels.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char label = labels[mid];
+			if (label < c) {
+				low = mid + 1;
+			} else if (label > c) {
+				high = mid - 1;
+			} else {
+				return fTargets[state][mid];
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(fMatchers);
+	}
+
+	/**
+	 * The trie of the literal parts, compiled into the automaton of a
+	 * {@link MultiStringMatcher}.
+	 */
+	private static final class Trie {
+
+		private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+
+		private final List<List<Integer>> outputs = new ArrayList<>();
+
+		Trie() {
+			addNode();
+		}
+
+		private int addNode() {
+			children.add(new TreeMap<>());
+			outputs.add(new ArrayList<>(1));
+			return children.size() - 1;
+		}
+
+		int size() {
+			return children.size();
+		}
+
+		void add(String key, int pattern) {
+			int node = 0;
+			for (int i = 0; i < key.length(); i++) {
+				Integer child = children.get(node).get(key.charAt(i));
+				if (child == null) {
+					child = addNode();
+					children.get(node).put(key.charAt(i), child);
+				}
+				node = child;
+			}
+			outputs.get(node).add(pattern);
+		}
+
+		void compile(MultiStringMatcher matcher) {
+			for (int node = 0; node < size(); node++) {
+				TreeMap<Character, Integer> nodeChildren = children.get(node);
+				char[] labels = new char[nodeChildren.size()];
+				int[] targets = new int[labels.length];
+				int i = 0;
+				for (Map.Entry<Character, Integer> child : nodeChildren.entrySet()) {
+					labels[i] = child.getKey();
+					targets[i++] = child.getValue();
+				}
+				matcher.fLabels[node] = labels;
+				matcher.fTargets[node] = targets;
+				matcher.fOutputs[node] = outputs.get(node).stream().mapToInt(Integer::intValue).toArray();
+			}
+			// compute the failure links breadth first, a node's failure target is
+			// always closer to the root than the node itself
+			Deque<Integer> queue = new ArrayDeque<>();
+			for (int child : matcher.fTargets[0]) {
+				queue.add(child);
+			}
+			while (!queue.isEmpty()) {
+				int node = queue.poll();
+				char[] labels = matcher.fLabels[node];
+				for (int i = 0; i < labels.length; i++) {
+					int child = matcher.fTargets[node][i];
+					int fail = matcher.fFail[node];
+					int next;
+					while ((next = matcher.transition(fail, labels[i])) < 0 && fail != 0) {
+						fail = matcher.fFail[fail];
+					}
+					fail = next < 0 || next == child ? 0 : next;
+					matcher.fFail[child] = fail;
+					matcher.fOutputLink[child] = matcher.fOutputs[fail].length > 0 ? fail : matcher.fOutputLink[fail];
+					queue.add(child);
+				}
+			}
+		}
+	}
+}
@@ -47,7 +47,7 @@ public final class StringMatcher {
 	/* Minimum length required for a match: shorter texts cannot possibly match. */
 	private int fBound = 0;
 
-	private static final char fSingleWildCard = '\u0000';
+	static final char fSingleWildCard = '\u0000';
 
 	/**
 	 * Start and end positions of a shortest match found by
@@ -459,6 +459,15 @@ public final class StringMatcher {
 		return NON_WORD.split(text);
 	}
 
+	/**
+	 * Returns the segments of the pattern, '?' wildcards are represented by
+	 * {@link #fSingleWildCard}. Used by {@link MultiStringMatcher} to find the
+	 * literal text a matching text must contain.
+	 */
+	String[] getSegments() {
+		return fSegments;
+	}
+
 	/**
 	 * Returns the single segment for a matcher ignoring wildcards.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2013 IBM Corporation and others
+ * Copyright (c) 2011, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ CoordinationMaxTimeoutTest.class, ReverseParticipantOrderNotifyTest.class, BugTests.class })
+@SuiteClasses({ CoordinationMaxTimeoutTest.class, ReverseParticipantOrderNotifyTest.class, BugTests.class,
+		CoordinationTimerTest.class })
 public class AllTests {
 	// see @SuiteClasses
 }
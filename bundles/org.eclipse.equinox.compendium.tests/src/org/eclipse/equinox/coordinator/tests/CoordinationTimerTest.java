@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.coordinator.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.equinox.coordinator.CoordinationTimer;
+import org.junit.*;
+
+/*
+ * Ensures the timer used for coordination timeouts runs tasks in the order of
+ * their deadlines, never before their deadline, and not at all once canceled.
+ */
+public class CoordinationTimerTest {
+	private static final long MAX_WAIT = 10000;
+	// One revolution of the wheel takes 512 ticks.
+	private static final long TICK = 2;
+	private static final long REVOLUTION = 512 * TICK;
+
+	private CoordinationTimer timer;
+	private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+	@Before
+	public void setUp() {
+		timer = new CoordinationTimer(TICK, TimeUnit.MILLISECONDS);
+	}
+
+	@After
+	public void tearDown() {
+		timer.cancel();
+	}
+
+	@Test
+	public void testOrder() throws Exception {
+		long now = System.currentTimeMillis();
+		CountDownLatch done = new CountDownLatch(4);
+		List<TestTask> tasks = new ArrayList<>();
+		// scheduled out of order
+		for (long delay : new long[] { 150, 50, 200, 100 }) {
+			TestTask task = new TestTask("task" + delay, now + delay, done); //$NON-NLS-1$
+			tasks.add(task);
+			timer.schedule(task, task.deadline);
+		}
+		assertTrue("Tasks did not run", done.await(MAX_WAIT, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertEquals(List.of("task50", "task100", "task150", "task200"), ran); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		for (TestTask task : tasks) {
+			task.assertNotEarly();
+		}
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		long now = System.currentTimeMillis();
+		CountDownLatch done = new CountDownLatch(1);
+		CountDownLatch canceledDone = new CountDownLatch(1);
+		TestTask canceled = new TestTask("canceled", now + 50, canceledDone); //$NON-NLS-1$
+		TestTask task = new TestTask("task", now + 100, done); //$NON-NLS-1$
+		assertFalse("Unscheduled task was canceled", canceled.cancel()); //$NON-NLS-1$
+		timer.schedule(canceled, canceled.deadline);
+		timer.schedule(task, task.deadline);
+		assertTrue("Scheduled task was not canceled", canceled.cancel()); //$NON-NLS-1$
+		assertFalse("Task was canceled twice", canceled.cancel()); //$NON-NLS-1$
+
+		assertTrue("Task did not run", done.await(MAX_WAIT, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertEquals(List.of("task"), ran); //$NON-NLS-1$
+		assertFalse("Task was canceled after it ran", task.cancel()); //$NON-NLS-1$
+
+		// a canceled task may be scheduled again
+		canceled.deadline = System.currentTimeMillis() + 50;
+		timer.schedule(canceled, canceled.deadline);
+		assertTrue("Rescheduled task did not run", canceledDone.await(MAX_WAIT, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertEquals(List.of("task", "canceled"), ran); //$NON-NLS-1$ //$NON-NLS-2$
+		canceled.assertNotEarly();
+	}
+
+	@Test
+	public void testRollover() throws Exception {
+		long now = System.currentTimeMillis();
+		CountDownLatch done = new CountDownLatch(3);
+		// the same bucket as the first task, one and two revolutions later
+		TestTask first = new TestTask("first", now + 100, done); //$NON-NLS-1$
+		TestTask second = new TestTask("second", now + 100 + REVOLUTION, done); //$NON-NLS-1$
+		TestTask third = new TestTask("third", now + 100 + 2 * REVOLUTION, done); //$NON-NLS-1$
+		timer.schedule(third, third.deadline);
+		timer.schedule(second, second.deadline);
+		timer.schedule(first, first.deadline);
+		assertTrue("Tasks did not run", done.await(MAX_WAIT, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertEquals(List.of("first", "second", "third"), ran); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		first.assertNotEarly();
+		second.assertNotEarly();
+		third.assertNotEarly();
+	}
+
+	@Test
+	public void testIdleTimer() throws Exception {
+		// the timer falls behind by more than one revolution while idle
+		Thread.sleep(2 * REVOLUTION);
+		CountDownLatch done = new CountDownLatch(2);
+		long now = System.currentTimeMillis();
+		TestTask task = new TestTask("task", now + 50, done); //$NON-NLS-1$
+		TestTask later = new TestTask("later", now + 50 + REVOLUTION, done); //$NON-NLS-1$
+		timer.schedule(later, later.deadline);
+		timer.schedule(task, task.deadline);
+		assertTrue("Tasks did not run", done.await(MAX_WAIT, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertEquals(List.of("task", "later"), ran); //$NON-NLS-1$ //$NON-NLS-2$
+		task.assertNotEarly();
+		later.assertNotEarly();
+	}
+
+	@Test
+	public void testCanceledTimer() {
+		timer.cancel();
+		try {
+			timer.schedule(new TestTask("task", System.currentTimeMillis(), new CountDownLatch(1)), 0); //$NON-NLS-1$
+			fail("Canceled timer accepted a task"); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	private class TestTask extends CoordinationTimer.Task {
+		private final String name;
+		private final CountDownLatch done;
+		volatile long deadline;
+		private volatile long ranAt;
+
+		TestTask(String name, long deadline, CountDownLatch done) {
+			this.name = name;
+			this.deadline = deadline;
+			this.done = done;
+		}
+
+		@Override
+		public void run() {
+			ranAt = System.currentTimeMillis();
+			ran.add(name);
+			done.countDown();
+		}
+
+		void assertNotEarly() {
+			assertTrue(name + " ran " + (deadline - ranAt) + " ms early", ranAt >= deadline); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
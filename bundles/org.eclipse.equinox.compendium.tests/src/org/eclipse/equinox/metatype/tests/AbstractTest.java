@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 IBM Corporation and others
+ * Copyright (c) 2011, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -155,7 +155,7 @@ public abstract class AbstractTest {
 		bundleInstaller = new BundleInstaller("bundle_tests/metatype", Activator.getBundleContext()); //$NON-NLS-1$
 	}
 
-	private void startMetatype() throws Exception {
+	protected void startMetatype() throws Exception {
 		Activator.getBundle(Activator.BUNDLE_METATYPE).start();
 		metaTypeReference = Activator.getBundleContext().getServiceReference(EquinoxMetaTypeService.class);
 		Assert.assertNotNull("Metatype service reference not found", metaTypeReference); //$NON-NLS-1$
@@ -169,7 +169,7 @@ public abstract class AbstractTest {
 		stopMetatype();
 	}
 
-	private void stopMetatype() throws Exception {
+	protected void stopMetatype() throws Exception {
 		Activator.getBundleContext().ungetService(metaTypeReference);
 		Activator.getBundle(Activator.BUNDLE_METATYPE).stop();
 	}
@@ -20,7 +20,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ AttributeTypePasswordTest.class, Bug332161Test.class, Bug340899Test.class, BugTests.class,
 		SameOcdPidFactoryPidTest.class, ExtendableTest.class, Bug358969Test.class, UnresolvedBundleTest.class,
-		GetDefaultValueTest.class, IconTest.class, Bug395196Test.class, NoADTest.class, GetMinMaxTest.class })
+		GetDefaultValueTest.class, IconTest.class, Bug395196Test.class, NoADTest.class, GetMinMaxTest.class,
+		FragmentCacheTest.class })
 public class AllTests {
 	// see @SuiteClasses
 }
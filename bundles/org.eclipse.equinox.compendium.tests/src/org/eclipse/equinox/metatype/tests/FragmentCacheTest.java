@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.metatype.tests;
+
+import java.io.*;
+import java.util.Arrays;
+import org.eclipse.equinox.metatype.impl.Persistence;
+import org.junit.*;
+import org.osgi.framework.Bundle;
+import org.osgi.service.metatype.MetaTypeInformation;
+
+/*
+ * Ensure the cached metadata of a bundle is dropped when fragments are attached
+ * to it, and that caches written with another persistence version are ignored.
+ */
+public class FragmentCacheTest extends AbstractTest {
+	private static final String HOST_PID = "org.eclipse.equinox.metatype.tests.tb11"; //$NON-NLS-1$
+	private static final String FRAGMENT_PID = "org.eclipse.equinox.metatype.tests.tb12"; //$NON-NLS-1$
+
+	private Bundle host;
+
+	@Before
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		host = bundleInstaller.installBundle("tb11"); //$NON-NLS-1$
+		Assert.assertTrue("Host was not resolved", bundleInstaller.resolveBundles(new Bundle[] { host })); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testAttachedFragmentInvalidatesCache() throws Exception {
+		assertPids(HOST_PID);
+		// the metadata of the host is written to the cache
+		restartMetatype();
+		assertPids(HOST_PID);
+
+		// attach the fragment while the metatype service is not running; the last
+		// modified time of the host stays the same
+		stopMetatype();
+		long lastModified = host.getLastModified();
+		bundleInstaller.installBundle("tb12"); //$NON-NLS-1$
+		bundleInstaller.refreshPackages(new Bundle[] { host });
+		Assert.assertTrue("Host was not resolved", bundleInstaller.resolveBundles(new Bundle[] { host })); //$NON-NLS-1$
+		Assert.assertEquals("Host was modified", lastModified, host.getLastModified()); //$NON-NLS-1$
+		startMetatype();
+
+		assertPids(FRAGMENT_PID, HOST_PID);
+		restartMetatype();
+		assertPids(FRAGMENT_PID, HOST_PID);
+	}
+
+	@Test
+	public void testPersistenceVersion() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Persistence.Writer writer = new Persistence.Writer(new DataOutputStream(bytes))) {
+			writer.writePersistenceVersion();
+		}
+		try (Persistence.Reader reader = new Persistence.Reader(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))) {
+			Assert.assertTrue("Current version was rejected", reader.isValidPersistenceVersion()); //$NON-NLS-1$
+		}
+
+		// version 0 caches were keyed on the last modified time of the host only
+		bytes.reset();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0);
+		}
+		try (Persistence.Reader reader = new Persistence.Reader(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))) {
+			Assert.assertFalse("Old version was accepted", reader.isValidPersistenceVersion()); //$NON-NLS-1$
+		}
+	}
+
+	private void assertPids(String... expected) {
+		MetaTypeInformation mti = metatype.getMetaTypeInformation(host);
+		assertNotNull(mti);
+		String[] pids = mti.getPids();
+		Arrays.sort(pids);
+		Assert.assertArrayEquals("Wrong pids", expected, pids); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others
+ * Copyright (c) 2008, 2026 IBM Corporation and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ UserTest.class, GroupTest.class, UserAdminEventAdapterTest.class })
+@SuiteClasses({ UserTest.class, GroupTest.class, AuthorizationTest.class, CoordinationTest.class,
+		UserAdminEventAdapterTest.class })
 public class AllTests {
 	// See @SuiteClasses
 }
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.useradmin.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.junit.*;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.useradmin.*;
+
+public class AuthorizationTest {
+
+	private UserAdmin userAdmin;
+	private ServiceReference<UserAdmin> userAdminReference;
+
+	@Before
+	public void setUp() throws Exception {
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).start();
+		userAdminReference = Activator.getBundleContext().getServiceReference(UserAdmin.class);
+		userAdmin = Activator.getBundleContext().getService(userAdminReference);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (String name : new String[] { "testAuthAlice", "testAuthBob", "testAuthMarketing", "testAuthFoo", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"testAuthVoter", "testAuthAdult" }) { //$NON-NLS-1$ //$NON-NLS-2$
+			userAdmin.removeRole(name);
+		}
+		Activator.getBundleContext().ungetService(userAdminReference);
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).stop();
+	}
+
+	private static String[] sorted(String[] names) {
+		if (names != null) {
+			Arrays.sort(names);
+		}
+		return names;
+	}
+
+	@Test
+	public void testRequiredAndBasicMembers() throws Exception {
+		User alice = (User) userAdmin.createRole("testAuthAlice", Role.USER); //$NON-NLS-1$
+		User bob = (User) userAdmin.createRole("testAuthBob", Role.USER); //$NON-NLS-1$
+		Group marketing = (Group) userAdmin.createRole("testAuthMarketing", Role.GROUP); //$NON-NLS-1$
+		Group foo = (Group) userAdmin.createRole("testAuthFoo", Role.GROUP); //$NON-NLS-1$
+		marketing.addMember(alice);
+		foo.addRequiredMember(marketing);
+		foo.addMember(alice);
+		foo.addMember(bob);
+
+		Authorization aliceAuth = userAdmin.getAuthorization(alice);
+		assertTrue(aliceAuth.hasRole("testAuthAlice")); //$NON-NLS-1$
+		assertTrue(aliceAuth.hasRole("testAuthMarketing")); //$NON-NLS-1$
+		assertTrue(aliceAuth.hasRole("testAuthFoo")); //$NON-NLS-1$
+		assertTrue(aliceAuth.hasRole(Role.USER_ANYONE));
+		assertFalse(aliceAuth.hasRole("testAuthBob")); //$NON-NLS-1$
+		assertArrayEquals(new String[] { "testAuthAlice", "testAuthFoo", "testAuthMarketing" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				sorted(aliceAuth.getRoles()));
+
+		// bob is a basic member of foo but not in marketing
+		Authorization bobAuth = userAdmin.getAuthorization(bob);
+		assertFalse(bobAuth.hasRole("testAuthFoo")); //$NON-NLS-1$
+		assertArrayEquals(new String[] { "testAuthBob" }, bobAuth.getRoles()); //$NON-NLS-1$
+
+		// changes of the groups are reflected by existing authorizations
+		marketing.addMember(bob);
+		assertTrue(bobAuth.hasRole("testAuthFoo")); //$NON-NLS-1$
+		marketing.removeMember(alice);
+		assertFalse(aliceAuth.hasRole("testAuthMarketing")); //$NON-NLS-1$
+		assertFalse(aliceAuth.hasRole("testAuthFoo")); //$NON-NLS-1$
+		userAdmin.removeRole("testAuthMarketing"); //$NON-NLS-1$
+		assertFalse(bobAuth.hasRole("testAuthMarketing")); //$NON-NLS-1$
+		// removing a role removes it from the required members of foo
+		assertTrue(bobAuth.hasRole("testAuthFoo")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testAnyoneMember() throws Exception {
+		User alice = (User) userAdmin.createRole("testAuthAlice", Role.USER); //$NON-NLS-1$
+		Group adult = (Group) userAdmin.createRole("testAuthAdult", Role.GROUP); //$NON-NLS-1$
+		Group voter = (Group) userAdmin.createRole("testAuthVoter", Role.GROUP); //$NON-NLS-1$
+		adult.addMember(alice);
+		voter.addRequiredMember(adult);
+		voter.addMember(userAdmin.getRole(Role.USER_ANYONE));
+
+		assertTrue(userAdmin.getAuthorization(alice).hasRole("testAuthVoter")); //$NON-NLS-1$
+		Authorization anonymous = userAdmin.getAuthorization(null);
+		assertNull(anonymous.getName());
+		assertTrue(anonymous.hasRole(Role.USER_ANYONE));
+		assertFalse(anonymous.hasRole("testAuthVoter")); //$NON-NLS-1$
+		assertFalse(anonymous.hasRole("testAuthAlice")); //$NON-NLS-1$
+		assertFalse(anonymous.hasRole(null));
+	}
+
+	@Test
+	public void testGetUser() throws Exception {
+		User alice = (User) userAdmin.createRole("testAuthAlice", Role.USER); //$NON-NLS-1$
+		User bob = (User) userAdmin.createRole("testAuthBob", Role.USER); //$NON-NLS-1$
+		alice.getProperties().put("testAuthMail", "alice@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+		bob.getProperties().put("testAuthMail", "bob@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals(alice, userAdmin.getUser("testAuthMail", "alice@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(bob, userAdmin.getUser("testAuthMail", "bob@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(userAdmin.getUser("testAuthMail", "carol@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		// the lookup is updated when the property changes
+		bob.getProperties().put("testAuthMail", "alice@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("more than one match", userAdmin.getUser("testAuthMail", "alice@example.org")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertNull(userAdmin.getUser("testAuthMail", "bob@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+		bob.getProperties().remove("testAuthMail"); //$NON-NLS-1$
+		assertEquals(alice, userAdmin.getUser("testAuthMail", "alice@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		userAdmin.removeRole("testAuthAlice"); //$NON-NLS-1$
+		assertNull(userAdmin.getUser("testAuthMail", "alice@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testGetUserWithManyKeys() throws Exception {
+		User alice = (User) userAdmin.createRole("testAuthAlice", Role.USER); //$NON-NLS-1$
+		User bob = (User) userAdmin.createRole("testAuthBob", Role.USER); //$NON-NLS-1$
+		// more keys than are indexed, the other keys are looked up without an index
+		for (int i = 0; i < 40; i++) {
+			alice.getProperties().put("testAuthKey" + i, "alice" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			bob.getProperties().put("testAuthKey" + i, "bob" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(alice, userAdmin.getUser("testAuthKey" + i, "alice" + i)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(bob, userAdmin.getUser("testAuthKey" + i, "bob" + i)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < 40; i++) {
+			bob.getProperties().put("testAuthKey" + i, "alice" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			assertNull("more than one match", userAdmin.getUser("testAuthKey" + i, "alice" + i)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertNull(userAdmin.getUser("testAuthKey" + i, "bob" + i)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		userAdmin.removeRole("testAuthBob"); //$NON-NLS-1$
+		for (int i = 0; i < 40; i++) {
+			assertEquals(alice, userAdmin.getUser("testAuthKey" + i, "alice" + i)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.useradmin.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.equinox.compendium.tests.Activator;
+import org.junit.*;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.coordinator.*;
+import org.osgi.service.useradmin.*;
+
+public class CoordinationTest {
+
+	private UserAdmin userAdmin;
+	private ServiceReference<UserAdmin> userAdminReference;
+	private Coordinator coordinator;
+	private ServiceReference<Coordinator> coordinatorReference;
+
+	@Before
+	public void setUp() throws Exception {
+		Activator.getBundle(Activator.BUNDLE_COORDINATOR).start();
+		coordinatorReference = Activator.getBundleContext().getServiceReference(Coordinator.class);
+		coordinator = Activator.getBundleContext().getService(coordinatorReference);
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).start();
+		userAdminReference = Activator.getBundleContext().getServiceReference(UserAdmin.class);
+		userAdmin = Activator.getBundleContext().getService(userAdminReference);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (String name : new String[] { "testCoordAlice", "testCoordBob", "testCoordCarol", "testCoordGroup" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			userAdmin.removeRole(name);
+		}
+		Activator.getBundleContext().ungetService(userAdminReference);
+		Activator.getBundle(Activator.BUNDLE_USERADMIN).stop();
+		Activator.getBundleContext().ungetService(coordinatorReference);
+		Activator.getBundle(Activator.BUNDLE_COORDINATOR).stop();
+	}
+
+	@Test
+	public void testEndedCoordinationKeepsChanges() throws Exception {
+		Coordination coordination = coordinator.begin("testEndedCoordination", 0); //$NON-NLS-1$
+		try {
+			User alice = (User) userAdmin.createRole("testCoordAlice", Role.USER); //$NON-NLS-1$
+			alice.getProperties().put("testCoordMail", "alice@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+			alice.getCredentials().put("testCoordPassword", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+			Group group = (Group) userAdmin.createRole("testCoordGroup", Role.GROUP); //$NON-NLS-1$
+			group.addMember(alice);
+		} finally {
+			coordination.end();
+		}
+
+		User alice = (User) userAdmin.getRole("testCoordAlice"); //$NON-NLS-1$
+		assertNotNull(alice);
+		assertEquals("alice@example.org", alice.getProperties().get("testCoordMail")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(alice.hasCredential("testCoordPassword", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertArrayEquals(new Role[] { alice }, ((Group) userAdmin.getRole("testCoordGroup")).getMembers()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testFailedCoordinationRevertsChanges() throws Exception {
+		User alice = (User) userAdmin.createRole("testCoordAlice", Role.USER); //$NON-NLS-1$
+		alice.getProperties().put("testCoordMail", "alice@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+		alice.getCredentials().put("testCoordPassword", "secret"); //$NON-NLS-1$ //$NON-NLS-2$
+		User bob = (User) userAdmin.createRole("testCoordBob", Role.USER); //$NON-NLS-1$
+		Group group = (Group) userAdmin.createRole("testCoordGroup", Role.GROUP); //$NON-NLS-1$
+		group.addMember(alice);
+		group.addRequiredMember(bob);
+
+		Coordination coordination = coordinator.begin("testFailedCoordination", 0); //$NON-NLS-1$
+		try {
+			alice.getProperties().put("testCoordMail", "changed@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+			alice.getProperties().put("testCoordPhone", "12345"); //$NON-NLS-1$ //$NON-NLS-2$
+			alice.getCredentials().remove("testCoordPassword"); //$NON-NLS-1$
+			User carol = (User) userAdmin.createRole("testCoordCarol", Role.USER); //$NON-NLS-1$
+			group.addMember(carol);
+			group.addMember(bob);
+			userAdmin.removeRole("testCoordAlice"); //$NON-NLS-1$
+			coordination.fail(new Exception("test failure")); //$NON-NLS-1$
+		} finally {
+			try {
+				coordination.end();
+				fail("The coordination did not fail."); //$NON-NLS-1$
+			} catch (CoordinationException e) {
+				assertEquals(CoordinationException.FAILED, e.getType());
+			}
+		}
+
+		assertNull(userAdmin.getRole("testCoordCarol")); //$NON-NLS-1$
+		alice = (User) userAdmin.getRole("testCoordAlice"); //$NON-NLS-1$
+		assertNotNull("The removed role was not created again.", alice); //$NON-NLS-1$
+		assertEquals("alice@example.org", alice.getProperties().get("testCoordMail")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(alice.getProperties().get("testCoordPhone")); //$NON-NLS-1$
+		assertTrue(alice.hasCredential("testCoordPassword", "secret")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(alice, userAdmin.getUser("testCoordMail", "alice@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertArrayEquals(new Role[] { alice }, group.getMembers());
+		assertArrayEquals(new Role[] { bob }, group.getRequiredMembers());
+	}
+
+	@Test
+	public void testOtherThreadsAreNotCoordinated() throws Exception {
+		AtomicReference<Role> created = new AtomicReference<>();
+		Coordination coordination = coordinator.begin("testOtherThreads", 0); //$NON-NLS-1$
+		try {
+			userAdmin.createRole("testCoordAlice", Role.USER); //$NON-NLS-1$
+			Thread thread = new Thread(() -> created.set(userAdmin.createRole("testCoordBob", Role.USER))); //$NON-NLS-1$
+			thread.start();
+			thread.join();
+			coordination.fail(new Exception("test failure")); //$NON-NLS-1$
+		} finally {
+			try {
+				coordination.end();
+				fail("The coordination did not fail."); //$NON-NLS-1$
+			} catch (CoordinationException e) {
+				assertEquals(CoordinationException.FAILED, e.getType());
+			}
+		}
+
+		assertNull(userAdmin.getRole("testCoordAlice")); //$NON-NLS-1$
+		assertNotNull(created.get());
+		assertEquals(created.get(), userAdmin.getRole("testCoordBob")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testFailedCoordinationKeepsChangesOfOtherThreads() throws Exception {
+		User alice = (User) userAdmin.createRole("testCoordAlice", Role.USER); //$NON-NLS-1$
+		alice.getProperties().put("testCoordMail", "alice@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+		alice.getProperties().put("testCoordPhone", "12345"); //$NON-NLS-1$ //$NON-NLS-2$
+		Coordination coordination = coordinator.begin("testOtherThreadsChanges", 0); //$NON-NLS-1$
+		try {
+			alice.getProperties().put("testCoordMail", "changed@example.org"); //$NON-NLS-1$ //$NON-NLS-2$
+			alice.getProperties().put("testCoordPhone", "67890"); //$NON-NLS-1$ //$NON-NLS-2$
+			Thread thread = new Thread(() -> alice.getProperties().put("testCoordMail", "other@example.org")); //$NON-NLS-1$ //$NON-NLS-2$
+			thread.start();
+			thread.join();
+			coordination.fail(new Exception("test failure")); //$NON-NLS-1$
+		} finally {
+			try {
+				coordination.end();
+				fail("The coordination did not fail."); //$NON-NLS-1$
+			} catch (CoordinationException e) {
+				assertEquals(CoordinationException.FAILED, e.getType());
+			}
+		}
+
+		assertEquals("other@example.org", alice.getProperties().get("testCoordMail")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("12345", alice.getProperties().get("testCoordPhone")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2017 IBM Corporation and others.
+ * Copyright (c) 2010, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,11 +15,9 @@ package org.eclipse.equinox.coordinator;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TimerTask;
 
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.Bundle;
@@ -37,11 +35,11 @@ public class CoordinationImpl {
 	private volatile boolean terminated;
 	private volatile boolean ending = false;
 
-	private Date deadline;
+	private long deadline;
 	private CoordinationImpl enclosingCoordination;
 	private Thread thread;
 	private long totalTimeout;
-	private TimerTask timerTask;
+	private CoordinationTimerTask timerTask;
 
 	private final CoordinatorImpl coordinator;
 	private final long id;
@@ -223,9 +221,9 @@ public class CoordinationImpl {
 				return 0;
 			}
 			// Passing anything less than zero as well as zero itself will return the
-			// existing deadline. The deadline will not be null if timerTask is not null.
+			// existing deadline. The deadline is set if timerTask is not null.
 			if (timeInMillis == 0) {
-				return deadline.getTime();
+				return deadline;
 			}
 			long maxTimeout = coordinator.getMaxTimeout();
 			long newTotalTimeout = totalTimeout + timeInMillis;
@@ -264,14 +262,12 @@ public class CoordinationImpl {
 							getName(), getId(), timeInMillis), referent, CoordinationException.UNKNOWN, e);
 				}
 			}
-			// Create the new timeout.
-			timerTask = new CoordinationTimerTask(this);
 			// Extend the current deadline.
-			deadline = new Date(deadline.getTime() + timeInMillis);
-			// Schedule the new timeout.
+			deadline += timeInMillis;
+			// Schedule the canceled task again with the new timeout.
 			coordinator.schedule(timerTask, deadline);
 			// Return the new deadline.
-			return deadline.getTime();
+			return deadline;
 		}
 	}
 
@@ -410,9 +406,9 @@ public class CoordinationImpl {
 		return referent;
 	}
 
-	synchronized void setTimerTask(TimerTask timerTask) {
+	synchronized void setTimerTask(CoordinationTimerTask timerTask) {
 		this.timerTask = timerTask;
-		deadline = new Date(System.currentTimeMillis() + totalTimeout);
+		deadline = System.currentTimeMillis() + totalTimeout;
 		coordinator.schedule(timerTask, deadline);
 	}
 
@@ -442,9 +438,9 @@ public class CoordinationImpl {
 	private void terminate() throws CoordinationException {
 		checkTerminated();
 		terminated = true;
-		// Cancel the timeout. Purge the task if it was, in fact, canceled.
-		if (timerTask != null && timerTask.cancel()) {
-			coordinator.purge();
+		// Cancel the timeout. This removes the task from the timer.
+		if (timerTask != null) {
+			timerTask.cancel();
 		}
 		coordinator.terminate(this, participants);
 	}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.coordinator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed wheel timer for coordination timeouts.
+ * <p>
+ * Time is divided into ticks, and a task is kept in the bucket of the tick its
+ * deadline falls into. Scheduling and canceling a task only lock a single
+ * bucket and take constant time, so coordinations created and ended
+ * concurrently do not contend on a global queue. Tasks run on a single timer
+ * thread up to one tick after their deadline. The timer thread is idle while
+ * no task is scheduled.
+ * </p>
+ */
+public class CoordinationTimer {
+	// Must be a power of two.
+	private static final int WHEEL_SIZE = 512;
+
+	private final long tickNanos;
+	private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+	private final AtomicInteger pending = new AtomicInteger();
+	private final long start = System.nanoTime();
+	private final Thread thread;
+
+	private volatile boolean canceled;
+	// The next tick to process. Only advanced by the timer thread while holding
+	// the lock of the bucket being processed.
+	private volatile long tick;
+
+	public CoordinationTimer() {
+		this(10, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a timer with the given tick length. One revolution of the wheel
+	 * takes 512 ticks.
+	 *
+	 * @param tick the length of a tick
+	 * @param unit the unit of the tick length
+	 */
+	public CoordinationTimer(long tick, TimeUnit unit) {
+		tickNanos = unit.toNanos(tick);
+		if (tickNanos <= 0) {
+			throw new IllegalArgumentException(String.valueOf(tick));
+		}
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			wheel[i] = new Bucket();
+		}
+		thread = new Thread(this::run, "Coordination Timer"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public void cancel() {
+		canceled = true;
+		thread.interrupt();
+	}
+
+	/**
+	 * Schedules a task to run at the given time. The task must not be scheduled
+	 * already.
+	 *
+	 * @param task     the task to run
+	 * @param deadline the time to run the task at, in milliseconds since the epoch
+	 * @throws IllegalStateException if the timer has been canceled
+	 */
+	public void schedule(Task task, long deadline) {
+		if (canceled) {
+			throw new IllegalStateException(Messages.TimerCanceled);
+		}
+		long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadline - System.currentTimeMillis()));
+		long target = (System.nanoTime() - start + delay + tickNanos - 1) / tickNanos;
+		if (pending.getAndIncrement() == 0) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+		while (true) {
+			// Never add a task to a tick that has already been processed.
+			target = Math.max(target, tick);
+			Bucket bucket = wheel[(int) target & (WHEEL_SIZE - 1)];
+			synchronized (bucket) {
+				if (target >= tick) {
+					bucket.add(task, target);
+					return;
+				}
+			}
+		}
+	}
+
+	private void run() {
+		List<Task> expired = new ArrayList<>();
+		try {
+			while (!canceled) {
+				synchronized (this) {
+					while (pending.get() == 0) {
+						wait();
+					}
+				}
+				long now = (System.nanoTime() - start) / tickNanos;
+				if (now < tick) {
+					TimeUnit.NANOSECONDS.sleep(tick * tickNanos - (System.nanoTime() - start));
+					continue;
+				}
+				expire(now, expired);
+				for (Task task : expired) {
+					task.run();
+				}
+				expired.clear();
+			}
+		} catch (InterruptedException e) {
+			// The timer has been canceled.
+		}
+	}
+
+	private void expire(long now, List<Task> expired) {
+		long t = tick;
+		if (now - t >= WHEEL_SIZE) {
+			// Fell behind by more than one revolution, for example after being idle.
+			// Processing the last revolution visits every bucket.
+			t = now - WHEEL_SIZE + 1;
+			tick = t;
+		}
+		for (; t <= now; t++) {
+			Bucket bucket = wheel[(int) t & (WHEEL_SIZE - 1)];
+			synchronized (bucket) {
+				bucket.expire(now, expired);
+				tick = t + 1;
+			}
+		}
+	}
+
+	/**
+	 * A task run by the timer. A task is a node of the list of the bucket it is
+	 * scheduled in, so scheduling and canceling it does not allocate.
+	 */
+	public abstract static class Task implements Runnable {
+		// The bucket this task is scheduled in, or null if the task is not
+		// scheduled. The other fields are guarded by the lock of the bucket.
+		volatile Bucket bucket;
+		long deadlineTick;
+		Task next;
+		Task previous;
+
+		/**
+		 * Cancels this task. A canceled task may be scheduled again.
+		 *
+		 * @return {@code true} if the task was scheduled and will not run,
+		 *         {@code false} if it was not scheduled or has already run
+		 */
+		public boolean cancel() {
+			Bucket b = bucket;
+			return b != null && b.remove(this);
+		}
+	}
+
+	final class Bucket {
+		private Task head;
+
+		// Must be called while holding the lock of this bucket.
+		void add(Task task, long deadlineTick) {
+			task.deadlineTick = deadlineTick;
+			task.next = head;
+			if (head != null) {
+				head.previous = task;
+			}
+			head = task;
+			task.bucket = this;
+		}
+
+		synchronized boolean remove(Task task) {
+			if (task.bucket != this) {
+				// The task has already run.
+				return false;
+			}
+			unlink(task);
+			return true;
+		}
+
+		// Must be called while holding the lock of this bucket.
+		void expire(long now, List<Task> expired) {
+			Task task = head;
+			while (task != null) {
+				Task next = task.next;
+				// Tasks more than one revolution ahead stay in the bucket.
+				if (task.deadlineTick <= now) {
+					unlink(task);
+					expired.add(task);
+				}
+				task = next;
+			}
+		}
+
+		private void unlink(Task task) {
+			if (task.previous == null) {
+				head = task.next;
+			} else {
+				task.previous.next = task.next;
+			}
+			if (task.next != null) {
+				task.next.previous = task.previous;
+			}
+			task.next = null;
+			task.previous = null;
+			task.bucket = null;
+			pending.decrementAndGet();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,10 @@
  *******************************************************************************/
 package org.eclipse.equinox.coordinator;
 
-import java.util.TimerTask;
-
 import org.eclipse.osgi.util.NLS;
 import org.osgi.service.coordinator.Coordination;
 
-public class CoordinationTimerTask extends TimerTask {
+public class CoordinationTimerTask extends CoordinationTimer.Task {
 	private final CoordinationImpl coordination;
 
 	public CoordinationTimerTask(CoordinationImpl coordination) {
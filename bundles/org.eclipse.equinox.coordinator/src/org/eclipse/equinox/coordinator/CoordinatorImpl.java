@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2017 IBM Corporation and others.
+ * Copyright (c) 2010, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,16 +15,14 @@ package org.eclipse.equinox.coordinator;
 
 import java.security.Permission;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.IdentityHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.Bundle;
@@ -36,54 +34,60 @@ import org.osgi.service.coordinator.Participant;
 
 public class CoordinatorImpl implements Coordinator {
 	// IDs must be positive integers and monotonically increasing.
-	private static long lastId;
-
-	private synchronized static long getNextId() {
-		if (Long.MAX_VALUE == lastId) {
-			throw new IllegalStateException(NLS.bind(Messages.MaxCoordinationIdExceeded, lastId));
-		}
+	private static final AtomicLong lastId = new AtomicLong();
+
+	private static long getNextId() {
+		long id;
+		do {
+			id = lastId.get();
+			if (Long.MAX_VALUE == id) {
+				throw new IllegalStateException(NLS.bind(Messages.MaxCoordinationIdExceeded, id));
+			}
+		} while (!lastId.compareAndSet(id, id + 1));
 		// First ID will be 1.
-		return ++lastId;
+		return id + 1;
 	}
 
 	// Coordination IDs must be unique across all using bundles.
-	private static final Map<Long, CoordinationImpl> idToCoordination = new HashMap<>();
+	private static final Map<Long, CoordinationImpl> idToCoordination = new ConcurrentHashMap<>();
 	// Coordination participation must be tracked across all using bundles.
-	private static final Map<Participant, CoordinationImpl> participantToCoordination = Collections
-			.synchronizedMap(new IdentityHashMap<Participant, CoordinationImpl>());
+	private static final Map<ParticipantKey, CoordinationImpl> participantToCoordination = new ConcurrentHashMap<>();
 
-	private static ThreadLocal<WeakCoordinationStack> coordinationStack = new ThreadLocal<WeakCoordinationStack>() {
-		@Override
-		protected WeakCoordinationStack initialValue() {
-			return new WeakCoordinationStack();
-		}
-	};
+	private static final ThreadLocal<WeakCoordinationStack> coordinationStack = ThreadLocal
+			.withInitial(WeakCoordinationStack::new);
 
+	// The stack is only used by its own thread and needs no guarding.
 	private static class WeakCoordinationStack {
-		private final LinkedList<CoordinationImpl> coordinations = new LinkedList<>();
+		// The top of the stack is at the end.
+		private CoordinationImpl[] coordinations = new CoordinationImpl[4];
+		private int size;
 
 		public WeakCoordinationStack() {
 		}
 
 		public boolean contains(CoordinationImpl c) {
-			return coordinations.contains(c);
+			for (int i = 0; i < size; i++) {
+				if (coordinations[i] == c) {
+					return true;
+				}
+			}
+			return false;
 		}
 
 		public CoordinationImpl peek() {
-			if (coordinations.isEmpty()) {
+			if (size == 0) {
 				return null;
 			}
-			return coordinations.getFirst();
+			return coordinations[size - 1];
 		}
 
 		public CoordinationImpl pop() {
-			if (coordinations.isEmpty()) {
+			if (size == 0) {
 				return null;
 			}
-			CoordinationImpl c = coordinations.removeFirst();
-			if (c != null) {
-				c.setThreadAndEnclosingCoordination(null, null);
-			}
+			CoordinationImpl c = coordinations[--size];
+			coordinations[size] = null;
+			c.setThreadAndEnclosingCoordination(null, null);
 			return c;
 		}
 
@@ -93,25 +97,46 @@ public class CoordinatorImpl implements Coordinator {
 						NLS.bind(Messages.CoordinationAlreadyExists, c.getName(), c.getId(), Thread.currentThread()),
 						c.getReferent(), CoordinationException.ALREADY_PUSHED);
 			}
-			c.setThreadAndEnclosingCoordination(Thread.currentThread(),
-					coordinations.isEmpty() ? null : coordinations.getFirst());
-			coordinations.addFirst(c);
+			c.setThreadAndEnclosingCoordination(Thread.currentThread(), peek());
+			if (size == coordinations.length) {
+				coordinations = Arrays.copyOf(coordinations, size * 2);
+			}
+			coordinations[size++] = c;
+		}
+	}
+
+	// Participants are tracked by identity.
+	private static final class ParticipantKey {
+		private final Participant participant;
+
+		ParticipantKey(Participant participant) {
+			this.participant = participant;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof ParticipantKey && ((ParticipantKey) object).participant == participant;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(participant);
 		}
 	}
 
 	private final Bundle bundle;
-	private final List<CoordinationImpl> coordinations;
+	private final Set<CoordinationImpl> coordinations;
 	private final LogTracker logTracker;
 	private final long maxTimeout;
-	private final Timer timer;
+	private final CoordinationTimer timer;
 
-	private boolean shutdown;
+	private volatile boolean shutdown;
 
-	public CoordinatorImpl(Bundle bundle, LogTracker logService, Timer timer, long maxTimeout) {
+	public CoordinatorImpl(Bundle bundle, LogTracker logService, CoordinationTimer timer, long maxTimeout) {
 		this.bundle = bundle;
 		this.logTracker = logService;
 		this.timer = timer;
-		coordinations = new ArrayList<>();
+		coordinations = ConcurrentHashMap.newKeySet();
 		if (maxTimeout < 0) {
 			throw new IllegalArgumentException(NLS.bind(Messages.InvalidTimeInterval, maxTimeout));
 		}
@@ -160,17 +185,19 @@ public class CoordinatorImpl implements Coordinator {
 		// by the coordination in order to avoid garbage collection. It serves no other
 		// purpose. Just "set it and forget it".
 		coordination.reference = new CoordinationWeakReference(referent, coordination);
-		synchronized (this) {
-			if (shutdown) {
-				throw new IllegalStateException(NLS.bind(Messages.CoordinatorShutdown, name, timeout));
-			}
-			synchronized (CoordinatorImpl.class) {
-				coordinations.add(coordination);
-				idToCoordination.put(Long.valueOf(coordination.getId()), coordination);
-			}
+		if (shutdown) {
+			throw new IllegalStateException(NLS.bind(Messages.CoordinatorShutdown, name, timeout));
+		}
+		idToCoordination.put(Long.valueOf(coordination.getId()), coordination);
+		coordinations.add(coordination);
+		// Check again in case shutdown took its copy of the coordinations before
+		// this one was added.
+		if (shutdown) {
+			terminate(coordination, Collections.<Participant> emptyList());
+			throw new IllegalStateException(NLS.bind(Messages.CoordinatorShutdown, name, timeout));
 		}
 		if (timeout > 0) {
-			TimerTask timerTask = new CoordinationTimerTask(coordination);
+			CoordinationTimerTask timerTask = new CoordinationTimerTask(coordination);
 			coordination.setTimerTask(timerTask);
 		}
 		// Make sure to return the referent targeted towards the initiator here.
@@ -191,11 +218,9 @@ public class CoordinatorImpl implements Coordinator {
 	public Coordination getCoordination(long id) {
 		CoordinationWeakReference.processOrphanedCoordinations();
 		CoordinationReferent result = null;
-		synchronized (CoordinatorImpl.class) {
-			CoordinationImpl c = idToCoordination.get(Long.valueOf(id));
-			if (c != null) {
-				result = c.getReferent();
-			}
+		CoordinationImpl c = idToCoordination.get(Long.valueOf(id));
+		if (c != null) {
+			result = c.getReferent();
 		}
 		if (result != null && !result.isTerminated()) {
 			try {
@@ -212,22 +237,19 @@ public class CoordinatorImpl implements Coordinator {
 	@Override
 	public Collection<Coordination> getCoordinations() {
 		CoordinationWeakReference.processOrphanedCoordinations();
-		ArrayList<Coordination> result;
-		synchronized (CoordinatorImpl.class) {
-			result = new ArrayList<>(idToCoordination.size());
-			for (CoordinationImpl coordination : idToCoordination.values()) {
-				// Ideally, we're only interested in coordinations that have not terminated.
-				// It's okay, however, if the coordination terminates from this point forward.
-				if (coordination.isTerminated()) {
-					continue;
-				}
-				try {
-					checkPermission(CoordinationPermission.ADMIN, coordination.getName());
-					result.add(coordination.getReferent());
-				} catch (SecurityException e) {
-					logTracker.debug(NLS.bind(Messages.GetCoordinationNotPermitted, Thread.currentThread(),
-							coordination.getName(), coordination.getId()), e);
-				}
+		ArrayList<Coordination> result = new ArrayList<>(idToCoordination.size());
+		for (CoordinationImpl coordination : idToCoordination.values()) {
+			// Ideally, we're only interested in coordinations that have not terminated.
+			// It's okay, however, if the coordination terminates from this point forward.
+			if (coordination.isTerminated()) {
+				continue;
+			}
+			try {
+				checkPermission(CoordinationPermission.ADMIN, coordination.getName());
+				result.add(coordination.getReferent());
+			} catch (SecurityException e) {
+				logTracker.debug(NLS.bind(Messages.GetCoordinationNotPermitted, Thread.currentThread(),
+						coordination.getName(), coordination.getId()), e);
 			}
 		}
 		result.trimToSize();
@@ -247,23 +269,17 @@ public class CoordinatorImpl implements Coordinator {
 	@Override
 	public Coordination pop() {
 		CoordinationWeakReference.processOrphanedCoordinations();
-		CoordinationImpl c = coordinationStack.get().peek();
+		WeakCoordinationStack stack = coordinationStack.get();
+		CoordinationImpl c = stack.peek();
 		if (c == null) {
 			return null;
 		}
 		checkPermission(CoordinationPermission.INITIATE, c.getName());
-		return coordinationStack.get().pop().getReferent();
+		return stack.pop().getReferent();
 	}
 
 	CoordinationImpl addParticipant(Participant participant, CoordinationImpl coordination) {
-		CoordinationImpl result = null;
-		synchronized (participantToCoordination) {
-			result = participantToCoordination.get(participant);
-			if (result == null) {
-				participantToCoordination.put(participant, coordination);
-			}
-		}
-		return result;
+		return participantToCoordination.putIfAbsent(new ParticipantKey(participant), coordination);
 	}
 
 	void checkPermission(String permissionType, String coordinationName) {
@@ -290,32 +306,20 @@ public class CoordinatorImpl implements Coordinator {
 		return maxTimeout;
 	}
 
-	void purge() {
-		// Purge the timer of all canceled tasks if we're running on a supportive JCL.
-		try {
-			Timer.class.getMethod("purge", (Class<?>[]) null).invoke(timer, (Object[]) null); //$NON-NLS-1$
-		} catch (Exception e) {
-			logTracker.debug(Messages.CanceledTaskNotPurged, e);
-		}
-	}
-
 	void push(CoordinationImpl coordination) throws CoordinationException {
 		coordinationStack.get().push(coordination);
 	}
 
-	void schedule(TimerTask task, Date deadline) {
+	void schedule(CoordinationTimerTask task, long deadline) {
 		timer.schedule(task, deadline);
 	}
 
 	void shutdown() {
 		CoordinationWeakReference.processOrphanedCoordinations();
-		List<CoordinationImpl> coords;
-		synchronized (this) {
-			shutdown = true;
-			// Make a copy so the removal of the coordination from the list during
-			// termination does not interfere with the iteration.
-			coords = new ArrayList<>(this.coordinations);
-		}
+		shutdown = true;
+		// Make a copy so the removal of the coordination from the set during
+		// termination does not interfere with the iteration.
+		List<CoordinationImpl> coords = new ArrayList<>(this.coordinations);
 		for (CoordinationImpl coordination : coords) {
 			coordination.fail(Coordination.RELEASED);
 		}
@@ -327,11 +331,11 @@ public class CoordinatorImpl implements Coordinator {
 	void terminate(CoordinationImpl coordination, List<Participant> participants) {
 		// A coordination has been terminated and needs to be removed from the thread
 		// local stack.
-		synchronized (this) {
-			synchronized (CoordinatorImpl.class) {
-				this.coordinations.remove(coordination);
-				idToCoordination.remove(Long.valueOf(coordination.getId()));
-				participantToCoordination.keySet().removeAll(participants);
+		this.coordinations.remove(coordination);
+		idToCoordination.remove(Long.valueOf(coordination.getId()));
+		synchronized (participants) {
+			for (Participant participant : participants) {
+				participantToCoordination.remove(new ParticipantKey(participant), coordination);
 			}
 		}
 	}
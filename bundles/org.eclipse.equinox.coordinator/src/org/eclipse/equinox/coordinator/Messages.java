@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2011 IBM Corporation and others.
+ * Copyright (c) 2010, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,7 +35,7 @@ public class Messages extends NLS {
 	public static String GetCoordinationNotPermitted;
 	public static String CoordinatorShutdown;
 	public static String CoordinationAlreadyExists;
-	public static String CanceledTaskNotPurged;
+	public static String TimerCanceled;
 	public static String OrphanedCoordinationError;
 	public static String MaximumTimeout;
 
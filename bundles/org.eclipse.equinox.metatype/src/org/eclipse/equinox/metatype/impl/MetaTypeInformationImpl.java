@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import javax.xml.parsers.SAXParser;
 import org.eclipse.equinox.metatype.EquinoxMetaTypeInformation;
 import org.eclipse.equinox.metatype.impl.Persistence.Writer;
 import org.osgi.framework.*;
+import org.osgi.framework.wiring.*;
 
 /**
  * Implementation of MetaTypeProvider
@@ -38,16 +39,44 @@ import org.osgi.framework.*;
 public class MetaTypeInformationImpl extends MetaTypeProviderImpl implements EquinoxMetaTypeInformation {
 	static final String[] emptyStringArray = new String[0];
 
+	// the generation of the bundle content the metadata was read from
+	private final long generation;
+
 	/**
 	 * Constructor of class MetaTypeInformationImpl.
 	 */
-	MetaTypeInformationImpl(Bundle bundle, SAXParser parser, LogTracker logger) {
+	MetaTypeInformationImpl(Bundle bundle, SAXParser parser, LogTracker logger, long generation) {
 		super(bundle, parser, logger);
+		this.generation = generation;
 	}
 
 	public MetaTypeInformationImpl(Bundle bundle, LogTracker logger, Map<String, ObjectClassDefinitionImpl> pidOCDs,
 			Map<String, ObjectClassDefinitionImpl> fPidOCDs) {
+		this(bundle, logger, pidOCDs, fPidOCDs, getGeneration(bundle));
+	}
+
+	private MetaTypeInformationImpl(Bundle bundle, LogTracker logger, Map<String, ObjectClassDefinitionImpl> pidOCDs,
+			Map<String, ObjectClassDefinitionImpl> fPidOCDs, long generation) {
 		super(bundle, logger, pidOCDs, fPidOCDs);
+		this.generation = generation;
+	}
+
+	/**
+	 * Returns a value which changes whenever the metadata of the bundle may have
+	 * changed: when the bundle is updated or fragments are attached to or detached
+	 * from it.
+	 */
+	static long getGeneration(Bundle bundle) {
+		long generation = bundle.getLastModified();
+		BundleWiring wiring = bundle.adapt(BundleWiring.class);
+		if (wiring != null) {
+			for (BundleWire wire : wiring.getProvidedWires(BundleRevision.HOST_NAMESPACE)) {
+				Bundle fragment = wire.getRequirer().getBundle();
+				generation = 31 * generation + fragment.getBundleId();
+				generation = 31 * generation + fragment.getLastModified();
+			}
+		}
+		return generation;
 	}
 
 	/*
@@ -98,8 +127,8 @@ public class MetaTypeInformationImpl extends MetaTypeProviderImpl implements Equ
 			b = systemContext.getBundle(Constants.SYSTEM_BUNDLE_LOCATION);
 		}
 
-		long lastModified = reader.readLong();
-		if (lastModified != b.getLastModified()) {
+		long generation = reader.readLong();
+		if (generation != getGeneration(b)) {
 			valid = false;
 		}
 		Map<String, ObjectClassDefinitionImpl> allPidOCDs = new HashMap<>();
@@ -117,12 +146,12 @@ public class MetaTypeInformationImpl extends MetaTypeProviderImpl implements Equ
 			allFPidOCDs.put(key, ocd);
 		}
 
-		return !valid ? null : new MetaTypeInformationImpl(b, log, allPidOCDs, allFPidOCDs);
+		return !valid ? null : new MetaTypeInformationImpl(b, log, allPidOCDs, allFPidOCDs, generation);
 	}
 
 	void write(Writer writer) throws IOException {
 		writer.writeLong(getBundle().getBundleId());
-		writer.writeLong(getBundle().getLastModified());
+		writer.writeLong(generation);
 
 		writer.writeInt(_allPidOCDs.size());
 		for (Entry<String, ObjectClassDefinitionImpl> entry : _allPidOCDs.entrySet()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,8 @@ import java.io.*;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.parsers.*;
 import org.eclipse.equinox.metatype.EquinoxMetaTypeInformation;
 import org.eclipse.equinox.metatype.EquinoxMetaTypeService;
@@ -34,7 +36,9 @@ import org.xml.sax.SAXException;
 public class MetaTypeServiceImpl implements EquinoxMetaTypeService, SynchronousBundleListener {
 	private static String CACHE_FILE = "metaTypeCache"; //$NON-NLS-1$
 	SAXParserFactory _parserFactory;
-	private final Hashtable<Long, EquinoxMetaTypeInformation> _mtps = new Hashtable<>(7);
+	private final Map<Long, EquinoxMetaTypeInformation> _mtps = new ConcurrentHashMap<>();
+	// incremented before cached metadata is evicted, see bundleChanged
+	private final AtomicLong _evictions = new AtomicLong();
 
 	private final LogTracker logger;
 	private final ServiceTracker<Object, Object> metaTypeProviderTracker;
@@ -63,39 +67,52 @@ public class MetaTypeServiceImpl implements EquinoxMetaTypeService, SynchronousB
 
 	/**
 	 * Internal Method - to get MetaTypeProvider object.
+	 * <p>
+	 * Lookups do not lock. Different bundles are parsed concurrently, a bundle
+	 * requested by several threads at once may be parsed more than once but only
+	 * one result is kept. A result is not kept if metadata was evicted while it was
+	 * parsed, as the eviction may have missed it.
+	 * </p>
 	 */
 	private EquinoxMetaTypeInformation getMetaTypeProvider(final Bundle b) {
+		Long bID = Long.valueOf(b.getBundleId());
+		EquinoxMetaTypeInformation mti = _mtps.get(bID);
+		if (mti != null) {
+			return mti;
+		}
 		// Avoid synthetic accessor method warnings.
 		final LogTracker loggerTemp = this.logger;
 		final ServiceTracker<Object, Object> tracker = this.metaTypeProviderTracker;
-		Long bID = Long.valueOf(b.getBundleId());
-		synchronized (_mtps) {
-			if (_mtps.containsKey(bID)) {
-				return _mtps.get(bID);
+		final long evictions = _evictions.get();
+		final long generation = MetaTypeInformationImpl.getGeneration(b);
+		mti = AccessController.doPrivileged(new PrivilegedAction<EquinoxMetaTypeInformation>() {
+			@Override
+			public EquinoxMetaTypeInformation run() {
+				MetaTypeInformationImpl impl = null;
+				try {
+					impl = new MetaTypeInformationImpl(b, newParser(), loggerTemp, generation);
+				} catch (Exception e) {
+					loggerTemp.log(LogTracker.LOG_ERROR,
+							NLS.bind(MetaTypeMsg.METADATA_PARSE_ERROR, b.getBundleId(), b.getSymbolicName()), e);
+				}
+				if (impl == null || !impl._isThereMeta) {
+					return new MetaTypeProviderTracker(b, loggerTemp, tracker);
+				}
+				return impl;
 			}
-			EquinoxMetaTypeInformation mti = AccessController
-					.doPrivileged(new PrivilegedAction<EquinoxMetaTypeInformation>() {
-						@Override
-						public EquinoxMetaTypeInformation run() {
-							MetaTypeInformationImpl impl = null;
-							try {
-								impl = new MetaTypeInformationImpl(b, newParser(), loggerTemp);
-							} catch (Exception e) {
-								loggerTemp.log(LogTracker.LOG_ERROR, NLS.bind(MetaTypeMsg.METADATA_PARSE_ERROR,
-										b.getBundleId(), b.getSymbolicName()), e);
-							}
-							if (impl == null || !impl._isThereMeta) {
-								return new MetaTypeProviderTracker(b, loggerTemp, tracker);
-							}
-							return impl;
-						}
-					});
-			_mtps.put(bID, mti);
-			return mti;
+		});
+		EquinoxMetaTypeInformation existing = _mtps.putIfAbsent(bID, mti);
+		if (existing != null) {
+			return existing;
 		}
+		if (evictions != _evictions.get() || generation != MetaTypeInformationImpl.getGeneration(b)) {
+			// the bundle changed while it was parsed, do not keep the result
+			_mtps.remove(bID, mti);
+		}
+		return mti;
 	}
 
-	SAXParser newParser() throws ParserConfigurationException, SAXException {
+	synchronized SAXParser newParser() throws ParserConfigurationException, SAXException {
 		boolean namespaceAware = _parserFactory.isNamespaceAware();
 		boolean validating = _parserFactory.isValidating();
 		// Always want a non-validating parser.
@@ -140,13 +157,16 @@ public class MetaTypeServiceImpl implements EquinoxMetaTypeService, SynchronousB
 		switch (type) {
 		case BundleEvent.UPDATED:
 		case BundleEvent.UNINSTALLED:
+		case BundleEvent.UNRESOLVED:
+		case BundleEvent.RESOLVED:
+			// fragments are attached when a bundle is resolved, metadata read before
+			// may lack theirs
+			_evictions.incrementAndGet();
 			_mtps.remove(bID);
 			break;
 		case BundleEvent.INSTALLED:
-		case BundleEvent.RESOLVED:
 		case BundleEvent.STARTED:
 		case BundleEvent.STOPPED:
-		case BundleEvent.UNRESOLVED:
 		default:
 			break;
 		}
@@ -190,13 +210,11 @@ public class MetaTypeServiceImpl implements EquinoxMetaTypeService, SynchronousB
 			writer.writePersistenceVersion();
 			List<MetaTypeInformation> serviceInfos = new ArrayList<>();
 			List<MetaTypeInformationImpl> xmlInfos = new ArrayList<>();
-			synchronized (_mtps) {
-				for (MetaTypeInformation info : _mtps.values()) {
-					if (info instanceof MetaTypeInformationImpl) {
-						xmlInfos.add((MetaTypeInformationImpl) info);
-					} else {
-						serviceInfos.add(info);
-					}
+			for (MetaTypeInformation info : _mtps.values()) {
+				if (info instanceof MetaTypeInformationImpl) {
+					xmlInfos.add((MetaTypeInformationImpl) info);
+				} else {
+					serviceInfos.add(info);
 				}
 			}
 
@@ -5,7 +5,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /*******************************************************************************
- * Copyright (c) 2019 IBM Corporation.
+ * Copyright (c) 2019, 2026 IBM Corporation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which accompanies this distribution,
@@ -17,7 +17,7 @@ import java.util.*;
  *******************************************************************************/
 
 public class Persistence {
-	private static final int PERSISTENCE_VERSION = 0;
+	private static final int PERSISTENCE_VERSION = 1;
 	private static final byte NULL = 0;
 	private static final byte OBJECT = 1;
 	private static final byte INDEX = 2;
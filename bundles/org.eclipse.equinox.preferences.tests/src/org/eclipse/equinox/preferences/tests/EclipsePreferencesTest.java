@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 InterSystems Corporation and others.
+ * Copyright (c) 2018, 2026 InterSystems Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,23 +14,34 @@
 package org.eclipse.equinox.preferences.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.core.internal.preferences.PreferencesService;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ICoreRunnable;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.ConfigurationScope;
+import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.INodeChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.osgi.service.datalocation.Location;
@@ -148,6 +159,166 @@ public class EclipsePreferencesTest {
 		});
 	}
 
+	/**
+	 * Repeated look-ups are cached, they must still see every change.
+	 */
+	@Test
+	public void testLookupSeesChanges() throws BackingStoreException {
+		IPreferencesService service = Platform.getPreferencesService();
+		String qualifier = getUniqueString();
+		IEclipsePreferences defaults = DefaultScope.INSTANCE.getNode(qualifier);
+		IEclipsePreferences configuration = ConfigurationScope.INSTANCE.getNode(qualifier);
+		try {
+			assertEquals("none", service.getString(qualifier, "key", "none", null));
+			defaults.put("key", "default");
+			assertEquals("default", service.getString(qualifier, "key", "none", null));
+			assertEquals("default", service.getString(qualifier, "key", "none", null));
+			configuration.put("key", "configuration");
+			assertEquals("configuration", service.getString(qualifier, "key", "none", null));
+			service.setDefaultLookupOrder(qualifier, "key", new String[] { DefaultScope.SCOPE });
+			assertEquals("default", service.getString(qualifier, "key", "none", null));
+			service.setDefaultLookupOrder(qualifier, "key", null);
+			assertEquals("configuration", service.getString(qualifier, "key", "none", null));
+			configuration.remove("key");
+			assertEquals("default", service.getString(qualifier, "key", "none", null));
+			defaults.node("child").putInt("number", 1);
+			assertEquals(1, service.getInt(qualifier, "child/number", 0, null));
+			defaults.node("child").removeNode();
+			assertEquals(0, service.getInt(qualifier, "child/number", 0, null));
+		} finally {
+			defaults.removeNode();
+			configuration.removeNode();
+		}
+	}
+
+	/**
+	 * Cached look-ups are shared by scope contexts resolving to the same nodes
+	 * only.
+	 */
+	@Test
+	public void testLookupDistinguishesScopeNodes() throws BackingStoreException {
+		IPreferencesService service = Platform.getPreferencesService();
+		String qualifier = getUniqueString();
+		IEclipsePreferences configuration = ConfigurationScope.INSTANCE.getNode(qualifier);
+		IEclipsePreferences other = ConfigurationScope.INSTANCE.getNode(qualifier + ".other");
+		IScopeContext otherScope = new IScopeContext() {
+			@Override
+			public String getName() {
+				return ConfigurationScope.SCOPE;
+			}
+
+			@Override
+			public IEclipsePreferences getNode(String q) {
+				return ConfigurationScope.INSTANCE.getNode(q + ".other");
+			}
+
+			@Override
+			public IPath getLocation() {
+				return null;
+			}
+		};
+		try {
+			configuration.put("key", "configuration");
+			other.put("key", "other");
+			assertEquals("configuration",
+					service.getString(qualifier, "key", "none", new IScopeContext[] { ConfigurationScope.INSTANCE }));
+			assertEquals("other", service.getString(qualifier, "key", "none", new IScopeContext[] { otherScope }));
+			other.put("key", "changed");
+			assertEquals("changed", service.getString(qualifier, "key", "none", new IScopeContext[] { otherScope }));
+			assertEquals("configuration",
+					service.getString(qualifier, "key", "none", new IScopeContext[] { ConfigurationScope.INSTANCE }));
+		} finally {
+			configuration.removeNode();
+			other.removeNode();
+		}
+	}
+
+	/**
+	 * Flushes of a node are coalesced into one write in the background.
+	 */
+	@Test
+	public void testWriteBehindCoalescesFlushes() throws BackingStoreException, IOException {
+		PreferencesService service = PreferencesService.getDefault();
+		String qualifier = getUniqueString();
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(qualifier);
+		Path file = getPreferenceFile(qualifier);
+		service.setWriteBehindDelay(TimeUnit.HOURS.toMillis(1));
+		try {
+			node.put("key", "1");
+			node.flush();
+			node.put("key", "2");
+			node.flush();
+			assertFalse(Files.exists(file));
+			service.flushPendingWrites();
+			assertEquals("2", readPreferenceFile(file).getProperty("key"));
+		} finally {
+			service.setWriteBehindDelay(0);
+			node.removeNode();
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * A flushed node is written in the background after the delay.
+	 */
+	@Test
+	public void testWriteBehindWritesAfterDelay() throws BackingStoreException, IOException, InterruptedException {
+		PreferencesService service = PreferencesService.getDefault();
+		String qualifier = getUniqueString();
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(qualifier);
+		Path file = getPreferenceFile(qualifier);
+		service.setWriteBehindDelay(10);
+		try {
+			node.put("key", "value");
+			node.flush();
+			long deadline = System.currentTimeMillis() + 10000;
+			while (!Files.exists(file) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals("value", readPreferenceFile(file).getProperty("key"));
+		} finally {
+			service.setWriteBehindDelay(0);
+			node.removeNode();
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * sync() writes a pending flush before the node is loaded again, so the
+	 * flushed values are neither lost in memory nor on disk.
+	 */
+	@Test
+	public void testSyncWhileWriteIsPending() throws BackingStoreException, IOException {
+		PreferencesService service = PreferencesService.getDefault();
+		String qualifier = getUniqueString();
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(qualifier);
+		Path file = getPreferenceFile(qualifier);
+		service.setWriteBehindDelay(TimeUnit.HOURS.toMillis(1));
+		try {
+			node.put("key", "1");
+			node.flush();
+			node.sync();
+			assertEquals("1", node.get("key", null));
+			assertEquals("1", readPreferenceFile(file).getProperty("key"));
+		} finally {
+			service.setWriteBehindDelay(0);
+			node.removeNode();
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static Path getPreferenceFile(String qualifier) {
+		return InstanceScope.INSTANCE.getLocation().append(".settings").append(qualifier + ".prefs").toPath();
+	}
+
+	private static Properties readPreferenceFile(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream input = Files.newInputStream(file)) {
+			properties.load(input);
+		}
+		return properties;
+	}
+
 	private static void executeInTwoThreads(final ICoreRunnable runnable) throws InterruptedException, CoreException {
 		final CountDownLatch latch = new CountDownLatch(1);
 		Job job = Job.create("", (ICoreRunnable) monitor -> {
@@ -23,6 +23,7 @@ import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.osgi.service.environment.EnvironmentInfo;
 import org.osgi.framework.*;
+import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.util.tracker.ServiceTracker;
 import org.osgi.util.tracker.ServiceTrackerCustomizer;
 
@@ -71,6 +72,8 @@ public class Activator implements BundleActivator, ServiceTrackerCustomizer<Obje
 		// important! (Bug 150288)
 		PreferencesOSGiUtils.getDefault().openServices();
 		processCommandLine();
+		EclipsePreferences.setWriteBehindFlusher(
+				WriteBehindFlusher.create(context.getProperty(WriteBehindFlusher.PROP_WRITE_BEHIND_DELAY)));
 
 		boolean shouldRegister = !"false".equalsIgnoreCase(context.getProperty(PROP_REGISTER_PERF_SERVICE)); //$NON-NLS-1$
 		if (shouldRegister) {
@@ -114,6 +117,12 @@ public class Activator implements BundleActivator, ServiceTrackerCustomizer<Obje
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		// write pending preferences while the locations are still available
+		try {
+			EclipsePreferences.setWriteBehindFlusher(null);
+		} catch (BackingStoreException e) {
+			// already logged, the remaining services must still be closed
+		}
 		PreferencesOSGiUtils.getDefault().closeServices();
 		if (registryServiceTracker != null) {
 			registryServiceTracker.close();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2023 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.preferences.*;
@@ -76,6 +77,11 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 	private final ListenerList<INodeChangeListener> nodeChangeListeners = new ListenerList<>();
 	private final ListenerList<IPreferenceChangeListener> preferenceChangeListeners = new ListenerList<>();
 	private final ScopeDescriptor descriptor;
+	/**
+	 * Counts the changes of the preference values of this node, used to validate
+	 * cached look-up results. Written by childAndPropertyLock holders.
+	 */
+	private volatile long modificationCount;
 
 	public static final boolean DEBUG_PREFERENCE_GENERAL;
 	public static final boolean DEBUG_PREFERENCE_SET;
@@ -276,7 +282,22 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		}
 	}
 
-	private static final Object WRITE_LOCK = new Object();
+	/**
+	 * Locks per preference file, writes of different files do not block each
+	 * other. A lock is removed when no write of its file is in progress.
+	 */
+	private static final Map<Path, WriteLock> WRITE_LOCKS = new ConcurrentHashMap<>();
+
+	private static final class WriteLock {
+		/** updated while the lock is computed in WRITE_LOCKS */
+		int writers;
+	}
+
+	/**
+	 * The background writer of flushed nodes, or <code>null</code> if flushes are
+	 * written synchronously.
+	 */
+	private static volatile WriteBehindFlusher writeBehindFlusher;
 
 	/*
 	 * Helper method to persist a Properties object to the filesystem. We use this
@@ -292,22 +313,27 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		try {
 			Files.createDirectories(parentFile);
 			String fileContent = removeTimestampFromTable(props);
-			synchronized (WRITE_LOCK) {
-				if (Files.exists(preferenceFile)) {
+			WriteLock lock = WRITE_LOCKS.compute(preferenceFile, (f, l) -> {
+				WriteLock result = l == null ? new WriteLock() : l;
+				result.writers++;
+				return result;
+			});
+			try {
+				synchronized (lock) {
 					// Write new file content to a temporary file first to not loose the old content
 					// in case of a failure. If everything goes OK, it is moved to the right place.
 					Path tmp = preferenceFile.resolveSibling(preferenceFile.getFileName() + BACKUP_FILE_EXTENSION);
 					Files.writeString(tmp, fileContent, StandardCharsets.UTF_8);
 					try {
-						Files.move(tmp, preferenceFile, StandardCopyOption.REPLACE_EXISTING);
+						move(tmp, preferenceFile);
 					} catch (NoSuchFileException e) {
 						// workaround for JDK-8325302 throws Exception if file is deleted in parallel.
 						// retry:
-						Files.move(tmp, preferenceFile, StandardCopyOption.REPLACE_EXISTING);
+						move(tmp, preferenceFile);
 					}
-				} else {
-					Files.writeString(preferenceFile, fileContent, StandardCharsets.UTF_8);
 				}
+			} finally {
+				WRITE_LOCKS.computeIfPresent(preferenceFile, (f, l) -> --l.writers == 0 ? null : l);
 			}
 		} catch (IOException e) {
 			String message = NLS.bind(PrefsMessages.preferences_saveException, location);
@@ -316,6 +342,18 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		}
 	}
 
+	/*
+	 * Replace the target atomically so readers never see a partially written file,
+	 * if the file system supports it.
+	 */
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 	protected static String removeTimestampFromTable(Properties properties) throws IOException {
 		// store the properties in a string and then skip the first line
 		// (date/timestamp)
@@ -435,6 +473,17 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		if (!dirty) {
 			return null;
 		}
+		WriteBehindFlusher flusher = writeBehindFlusher;
+		if (flusher != null && isWriteBehindSupported()) {
+			// the node stays dirty until the flusher wrote it
+			flusher.schedule(this);
+			return null;
+		}
+		saveDirty();
+		return null;
+	}
+
+	private void saveDirty() throws BackingStoreException {
 		// remove dirty bit before saving, to ensure that concurrent
 		// changes during save mark the store as dirty
 		dirty = false;
@@ -445,7 +494,50 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 			dirty = true;
 			throw e;
 		}
-		return null;
+	}
+
+	/**
+	 * Saves this load level node if it is still dirty. Called by the
+	 * {@link WriteBehindFlusher} for a node scheduled by {@link #flush()}.
+	 */
+	void writeBehind() throws BackingStoreException {
+		synchronized (childAndPropertyLock) {
+			if (removed || !dirty) {
+				return;
+			}
+			saveDirty();
+		}
+	}
+
+	/*
+	 * Subclasses to over-ride. Return whether a flush of this load level node may
+	 * be written in the background when write-behind is enabled.
+	 */
+	protected boolean isWriteBehindSupported() {
+		return false;
+	}
+
+	/*
+	 * Enable write-behind with the given flusher, or disable it if the flusher is
+	 * null. Nodes pending in a previous flusher are written before it is replaced.
+	 */
+	static void setWriteBehindFlusher(WriteBehindFlusher flusher) throws BackingStoreException {
+		WriteBehindFlusher previous = writeBehindFlusher;
+		writeBehindFlusher = flusher;
+		if (previous != null) {
+			previous.shutdown();
+		}
+	}
+
+	/*
+	 * Write all nodes with a pending write-behind flush and wait until they are
+	 * saved.
+	 */
+	static void flushPendingWrites() throws BackingStoreException {
+		WriteBehindFlusher flusher = writeBehindFlusher;
+		if (flusher != null) {
+			flusher.flushPending();
+		}
 	}
 
 	@Override
@@ -658,6 +750,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 				PrefsMessages.message("Setting preference: " + absolutePath() + '/' + key + '=' + newValue); //$NON-NLS-1$
 			}
 			properties = properties.put(key.intern(), newValue.intern());
+			modificationCount++;
 			return oldValue;
 		}
 	}
@@ -749,6 +842,14 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 		RuntimeLog.log(status);
 	}
 
+	/**
+	 * Returns the number of changes done so far to the preference values of this
+	 * node. The count is incremented after the change became visible.
+	 */
+	long getModificationCount() {
+		return modificationCount;
+	}
+
 	protected void makeDirty() {
 		EclipsePreferences node = this;
 		while (node != null && !node.removed) {
@@ -887,6 +988,7 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 				return;
 			}
 			properties = properties.removeKey(key);
+			modificationCount++;
 		}
 		makeDirty();
 		firePreferenceEvent(key, oldValue, null);
@@ -1118,6 +1220,11 @@ public class EclipsePreferences implements IEclipsePreferences, IScope {
 			return;
 		}
 		if (node instanceof EclipsePreferences eclipsePreferences) {
+			// a flush pending in the background would be overwritten by the load
+			WriteBehindFlusher flusher = writeBehindFlusher;
+			if (flusher != null && eclipsePreferences.isWriteBehindSupported()) {
+				flusher.flush(eclipsePreferences);
+			}
 			eclipsePreferences.load();
 			node.flush();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2024 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
@@ -52,6 +53,39 @@ public class PreferencesService implements IPreferencesService {
 	private static final Map<String, String[]> DEFAULTS_REGISTRY = new ConcurrentHashMap<>();
 	private Object registryHelper = null;
 	private final Map<String, EclipsePreferences> defaultScopes = new HashMap<>();
+	// the number of look-up results cached, the cache is cleared when it is full
+	private static final int LOOKUP_CACHE_SIZE = 2048;
+	private final Map<LookupKey, LookupResult> lookupCache = new ConcurrentHashMap<>();
+	// incremented when a default look-up order changes
+	private static final AtomicLong lookupOrderCount = new AtomicLong();
+
+	/**
+	 * Key of a cached look-up. The scope contexts are represented by the paths
+	 * of the nodes they return for the qualifier, so equal contexts share their
+	 * cached results.
+	 */
+	private record LookupKey(String qualifier, String key, List<String> scopes) {
+	}
+
+	/**
+	 * A looked-up value, or <code>null</code> if none of the nodes had a value,
+	 * together with the nodes it was looked up in and their modification counts.
+	 */
+	private record LookupResult(String value, EclipsePreferences[] nodes, long[] modificationCounts,
+			long lookupOrderCount) {
+
+		boolean isValid(long currentLookupOrderCount) {
+			if (lookupOrderCount != currentLookupOrderCount) {
+				return false;
+			}
+			for (int i = 0; i < nodes.length; i++) {
+				if (nodes[i].removed || nodes[i].getModificationCount() != modificationCounts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
 
 	/*
 	 * Return the instance.
@@ -431,7 +465,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public boolean getBoolean(String qualifier, String key, boolean defaultValue, IScopeContext[] scopes) {
-		String result = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String result = lookup(qualifier, key, scopes);
 		return result == null ? defaultValue : Boolean.parseBoolean(result);
 	}
 
@@ -468,7 +502,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public byte[] getByteArray(String qualifier, String key, byte[] defaultValue, IScopeContext[] scopes) {
-		String result = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String result = lookup(qualifier, key, scopes);
 		return result == null ? defaultValue : Base64.decode(result.getBytes());
 	}
 
@@ -479,7 +513,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public double getDouble(String qualifier, String key, double defaultValue, IScopeContext[] scopes) {
-		String value = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String value = lookup(qualifier, key, scopes);
 		if (value == null) {
 			return defaultValue;
 		}
@@ -492,7 +526,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public float getFloat(String qualifier, String key, float defaultValue, IScopeContext[] scopes) {
-		String value = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String value = lookup(qualifier, key, scopes);
 		if (value == null) {
 			return defaultValue;
 		}
@@ -505,7 +539,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public int getInt(String qualifier, String key, int defaultValue, IScopeContext[] scopes) {
-		String value = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String value = lookup(qualifier, key, scopes);
 		if (value == null) {
 			return defaultValue;
 		}
@@ -518,7 +552,7 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public long getLong(String qualifier, String key, long defaultValue, IScopeContext[] scopes) {
-		String value = get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		String value = lookup(qualifier, key, scopes);
 		if (value == null) {
 			return defaultValue;
 		}
@@ -543,6 +577,65 @@ public class PreferencesService implements IPreferencesService {
 		return order;
 	}
 
+	/*
+	 * Return the value for the key from the first node in the look-up order which
+	 * has one, or null. Results are cached until a preference value of one of the
+	 * nodes changes, one of the nodes is removed or a look-up order changes.
+	 */
+	private String lookup(String qualifier, String key, IScopeContext[] scopes) {
+		if (EclipsePreferences.DEBUG_PREFERENCE_GET) {
+			// trace every access to the nodes
+			return get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		}
+		LookupKey lookupKey = createLookupKey(qualifier, key, scopes);
+		if (lookupKey == null) {
+			return get(EclipsePreferences.decodePath(key)[1], null, getNodes(qualifier, key, scopes));
+		}
+		// read the counts before the values so a concurrent change invalidates the result
+		long currentLookupOrderCount = lookupOrderCount.get();
+		LookupResult cached = lookupCache.get(lookupKey);
+		if (cached != null && cached.isValid(currentLookupOrderCount)) {
+			return cached.value();
+		}
+		Preferences[] nodes = getNodes(qualifier, key, scopes);
+		EclipsePreferences[] eclipseNodes = new EclipsePreferences[nodes.length];
+		long[] modificationCounts = new long[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			// changes to other implementations are not tracked
+			if (!(nodes[i] instanceof EclipsePreferences node)) {
+				return get(EclipsePreferences.decodePath(key)[1], null, nodes);
+			}
+			eclipseNodes[i] = node;
+			modificationCounts[i] = node.getModificationCount();
+		}
+		String result = get(EclipsePreferences.decodePath(key)[1], null, nodes);
+		if (lookupCache.size() >= LOOKUP_CACHE_SIZE) {
+			lookupCache.clear();
+		}
+		lookupCache.put(lookupKey, new LookupResult(result, eclipseNodes, modificationCounts, currentLookupOrderCount));
+		return result;
+	}
+
+	/*
+	 * Return the key of a look-up, or null if the nodes of the scope contexts
+	 * cannot be determined. The problem is then reported by getNodes.
+	 */
+	private LookupKey createLookupKey(String qualifier, String key, IScopeContext[] scopes) {
+		if (scopes == null) {
+			return new LookupKey(qualifier, key, null);
+		}
+		String[] paths = new String[scopes.length];
+		try {
+			for (int i = 0; i < scopes.length; i++) {
+				Preferences node = scopes[i] == null ? null : scopes[i].getNode(qualifier);
+				paths[i] = node == null ? null : scopes[i].getName() + node.absolutePath();
+			}
+		} catch (RuntimeException e) {
+			return null;
+		}
+		return new LookupKey(qualifier, key, Arrays.asList(paths));
+	}
+
 	private Preferences[] getNodes(final String qualifier, String key, final IScopeContext[] contexts) {
 		String[] order = getLookupOrder(qualifier, key);
 		final String childPath = EclipsePreferences.makeRelative(EclipsePreferences.decodePath(key)[0]);
@@ -616,6 +709,30 @@ public class PreferencesService implements IPreferencesService {
 		return qualifier + '/' + key;
 	}
 
+	/**
+	 * Writes the preference nodes whose flush is pending in the background and
+	 * waits until they are saved. Returns immediately if write-behind is not
+	 * enabled with the <code>eclipse.preferences.writeBehindDelay</code> property.
+	 *
+	 * @throws BackingStoreException if a node could not be saved
+	 */
+	public void flushPendingWrites() throws BackingStoreException {
+		EclipsePreferences.flushPendingWrites();
+	}
+
+	/**
+	 * Enables write-behind of flushed preference nodes with the given delay in
+	 * milliseconds, or disables it if the delay is not positive. Nodes pending
+	 * with the previous delay are written first. Used by tests, the delay is
+	 * otherwise set with the <code>eclipse.preferences.writeBehindDelay</code>
+	 * property.
+	 *
+	 * @throws BackingStoreException if a pending node could not be saved
+	 */
+	public void setWriteBehindDelay(long delay) throws BackingStoreException {
+		EclipsePreferences.setWriteBehindFlusher(delay > 0 ? new WriteBehindFlusher(delay) : null);
+	}
+
 	@Override
 	public IEclipsePreferences getRootNode() {
 		return root;
@@ -645,7 +762,8 @@ public class PreferencesService implements IPreferencesService {
 
 	@Override
 	public String getString(String qualifier, String key, String defaultValue, IScopeContext[] scopes) {
-		return get(EclipsePreferences.decodePath(key)[1], defaultValue, getNodes(qualifier, key, scopes));
+		String result = lookup(qualifier, key, scopes);
+		return result == null ? defaultValue : result;
 	}
 
 	@Override
@@ -908,6 +1026,8 @@ public class PreferencesService implements IPreferencesService {
 			}
 			DEFAULTS_REGISTRY.put(registryKey, order);
 		}
+		// invalidate the cached look-ups
+		lookupOrderCount.incrementAndGet();
 	}
 
 	public void setRegistryHelper(Object registryHelper) {
@@ -1086,6 +1206,7 @@ public class PreferencesService implements IPreferencesService {
 		List<String> scopes = new ArrayList<>(DEFAULT_DEFAULT_LOOKUP_ORDER);
 		scopes.add(0, firstScope);
 		DEFAULT_DEFAULT_LOOKUP_ORDER = List.copyOf(scopes);
+		lookupOrderCount.incrementAndGet();
 	}
 
 }
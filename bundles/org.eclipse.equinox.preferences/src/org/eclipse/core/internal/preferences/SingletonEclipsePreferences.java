@@ -55,6 +55,12 @@ public abstract class SingletonEclipsePreferences extends EclipsePreferences {
 		loadedNodes.add(name());
 	}
 
+	@Override
+	protected boolean isWriteBehindSupported() {
+		// saved to a file of its own, nothing else to synchronize with
+		return true;
+	}
+
 	@Override
 	protected IPath getLocation() {
 		if (location == null && qualifier != null) {
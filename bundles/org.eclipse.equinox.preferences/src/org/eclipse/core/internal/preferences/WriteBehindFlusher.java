@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.preferences;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.osgi.service.prefs.BackingStoreException;
+
+/**
+ * Writes flushed preference nodes to their backing store in the background.
+ * The first flush of a node schedules the write after the configured delay,
+ * further flushes of the node until then are coalesced into that write.
+ * <p>
+ * Enabled by setting the {@link #PROP_WRITE_BEHIND_DELAY} property to a
+ * positive number of milliseconds. {@link #flushPending()} writes all pending
+ * nodes and waits for writes in progress, it must be called before the
+ * preferences are expected to be on disk, for example on shutdown.
+ */
+class WriteBehindFlusher {
+	static final String PROP_WRITE_BEHIND_DELAY = "eclipse.preferences.writeBehindDelay"; //$NON-NLS-1$
+
+	private final long delay;
+	private final ScheduledExecutorService executor;
+	/** @GuardedBy pending */
+	private final Set<EclipsePreferences> pending = new LinkedHashSet<>();
+
+	WriteBehindFlusher(long delay) {
+		this.delay = delay;
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Preferences Write-Behind"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns a flusher for the delay in milliseconds given by the property value,
+	 * or <code>null</code> if write-behind is not enabled.
+	 */
+	static WriteBehindFlusher create(String delayProperty) {
+		if (delayProperty == null) {
+			return null;
+		}
+		try {
+			long delay = Long.parseLong(delayProperty.trim());
+			return delay > 0 ? new WriteBehindFlusher(delay) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Schedules the write of the load level node.
+	 */
+	void schedule(EclipsePreferences node) {
+		synchronized (pending) {
+			if (!pending.add(node)) {
+				// coalesced into the write already scheduled
+				return;
+			}
+		}
+		try {
+			executor.schedule(() -> write(node), delay, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// shut down, write the node now
+			write(node);
+		}
+	}
+
+	private void write(EclipsePreferences node) {
+		synchronized (pending) {
+			if (!pending.remove(node)) {
+				// already written by flushPending()
+				return;
+			}
+		}
+		try {
+			node.writeBehind();
+		} catch (BackingStoreException e) {
+			// already logged by the node which stays dirty for the next flush
+		}
+	}
+
+	/**
+	 * Writes the node on the calling thread if its flush is pending. Waits for the
+	 * write of the node in progress in the background, if any.
+	 */
+	void flush(EclipsePreferences node) throws BackingStoreException {
+		synchronized (pending) {
+			pending.remove(node);
+		}
+		// blocks while the node is written in the background, does nothing if the
+		// node is no longer dirty afterwards
+		node.writeBehind();
+	}
+
+	/**
+	 * Writes all pending nodes on the calling thread and waits for the write in
+	 * progress in the background, if any.
+	 */
+	void flushPending() throws BackingStoreException {
+		List<EclipsePreferences> nodes;
+		synchronized (pending) {
+			nodes = new ArrayList<>(pending);
+			pending.clear();
+		}
+		BackingStoreException failure = null;
+		for (EclipsePreferences node : nodes) {
+			try {
+				node.writeBehind();
+			} catch (BackingStoreException e) {
+				failure = e;
+			}
+		}
+		try {
+			// the executor has a single thread, this runs after the current write
+			executor.submit(() -> {
+				// barrier
+			}).get();
+		} catch (RejectedExecutionException | ExecutionException e) {
+			// shut down, nothing in progress
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Writes all pending nodes and stops the background thread.
+	 */
+	void shutdown() throws BackingStoreException {
+		try {
+			flushPending();
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -236,6 +236,28 @@ public class RegionServiceFindHookTests {
 
 	}
 
+	@Test
+	public void testFindAfterServiceModified() throws BundleException, InvalidSyntaxException {
+		RegionFilter filter = digraph.createRegionFilterBuilder()
+				.allow(RegionFilter.VISIBLE_SERVICE_NAMESPACE, "(shared=true)").build();
+		region(REGION_A).connectRegion(region(REGION_B), filter);
+		StubServiceRegistration<Object> registration = new StubServiceRegistration<>(
+				(StubBundleContext) bundle(BUNDLE_B).getBundleContext(), BUNDLE_B);
+		registration.setProperties(new Hashtable<>(Collections.singletonMap("shared", "true")));
+		ServiceReference<Object> reference = registration.getReference();
+
+		this.candidates.add(reference);
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertTrue(this.candidates.contains(reference));
+
+		// the visibility is cached until the service event is seen
+		registration.setProperties(new Hashtable<>(Collections.singletonMap("shared", "false")));
+		RegionReflectionUtils.newRegionServiceEventHook(this.digraph)
+				.event(new ServiceEvent(ServiceEvent.MODIFIED, reference), new ArrayList<BundleContext>());
+		this.bundleFindHook.find(bundleContext(BUNDLE_A), "", "", false, this.candidates);
+		assertFalse(this.candidates.contains(reference));
+	}
+
 	@Test
 	public void testFindInCyclicGraph() throws BundleException, InvalidSyntaxException {
 		region(REGION_D).addBundle(bundle(BUNDLE_X));
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.region;
+
+import java.util.*;
+import org.eclipse.equinox.region.Region;
+
+/**
+ * {@link BundleIdRegionMap} maps bundle ids to regions and regions to their
+ * bundle ids.
+ * <p>
+ * The bundle ids are held in hash tries keyed by primitive longs, one for all
+ * bundles and one per region. An update copies only the path from the root of
+ * a trie to the changed entry and shares everything else with the previous
+ * map.
+ * </p>
+ * <p>
+ * <strong>Concurrent Semantics</strong>
+ * </p>
+ * Immutable. Updates return a modified copy so that the map can be read
+ * without locking.
+ */
+final class BundleIdRegionMap {
+
+	static final BundleIdRegionMap EMPTY = new BundleIdRegionMap(null, Collections.emptyMap());
+
+	// the number of bundle id bits consumed per level of a trie
+	private static final int BITS = 5;
+
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final class Entry {
+
+		final long bundleId;
+
+		final Region region;
+
+		Entry(long bundleId, Region region) {
+			this.bundleId = bundleId;
+			this.region = region;
+		}
+	}
+
+	/*
+	 * A node of a trie. The slots hold entries and child nodes in the order of
+	 * the bits set in the bitmap.
+	 */
+	private static final class Node {
+
+		final int bitmap;
+
+		final Object[] slots;
+
+		Node(int bitmap, Object[] slots) {
+			this.bitmap = bitmap;
+			this.slots = slots;
+		}
+	}
+
+	/**
+	 * The bundle ids of a region. An unmodifiable view of a trie.
+	 */
+	private static final class BundleIds extends AbstractSet<Long> {
+
+		final Node root;
+
+		final int size;
+
+		BundleIds(Node root, int size) {
+			this.root = root;
+			this.size = size;
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Long && get(this.root, ((Long) o).longValue()) != null;
+		}
+
+		@Override
+		public Iterator<Long> iterator() {
+			return new Iterator<Long>() {
+
+				// the nodes from the root down to the current node and the next slot of each
+				private final Node[] nodes = new Node[Long.SIZE / BITS + 1];
+
+				private final int[] next = new int[nodes.length];
+
+				private int depth = -1;
+
+				private Entry entry;
+
+				{
+					if (root != null) {
+						nodes[0] = root;
+						depth = 0;
+					}
+					advance();
+				}
+
+				private void advance() {
+					entry = null;
+					while (entry == null && depth >= 0) {
+						Node node = nodes[depth];
+						if (next[depth] == node.slots.length) {
+							depth--;
+							continue;
+						}
+						Object slot = node.slots[next[depth]++];
+						if (slot instanceof Entry) {
+							entry = (Entry) slot;
+						} else {
+							depth++;
+							nodes[depth] = (Node) slot;
+							next[depth] = 0;
+						}
+					}
+				}
+
+				@Override
+				public boolean hasNext() {
+					return entry != null;
+				}
+
+				@Override
+				public Long next() {
+					if (entry == null) {
+						throw new NoSuchElementException();
+					}
+					long bundleId = entry.bundleId;
+					advance();
+					return bundleId;
+				}
+			};
+		}
+	}
+
+	private static final BundleIds NO_BUNDLE_IDS = new BundleIds(null, 0);
+
+	// the trie of all bundles
+	private final Node root;
+
+	// the bundles of each region, keyed by region identity
+	private final Map<Region, BundleIds> regionBundleIds;
+
+	private BundleIdRegionMap(Node root, Map<Region, BundleIds> regionBundleIds) {
+		this.root = root;
+		this.regionBundleIds = regionBundleIds;
+	}
+
+	Region get(long bundleId) {
+		return get(this.root, bundleId);
+	}
+
+	BundleIdRegionMap put(long bundleId, Region region) {
+		Region existing = get(bundleId);
+		if (existing == region) {
+			return this;
+		}
+		Map<Region, BundleIds> newRegionBundleIds = new IdentityHashMap<>(this.regionBundleIds);
+		if (existing != null) {
+			BundleIds ids = this.regionBundleIds.get(existing);
+			putBundleIds(newRegionBundleIds, existing, remove(ids.root, 0, bundleId), ids.size - 1);
+		}
+		BundleIds ids = bundleIds(region);
+		Entry entry = new Entry(bundleId, region);
+		putBundleIds(newRegionBundleIds, region, put(ids.root, 0, entry), ids.size + 1);
+		return new BundleIdRegionMap(put(this.root, 0, entry), Collections.unmodifiableMap(newRegionBundleIds));
+	}
+
+	/**
+	 * Returns a copy of this map which also associates the bundles of a region
+	 * in another map with the given region. The bundle ids of the other region
+	 * are shared with the other map.
+	 *
+	 * @param other       the map holding the bundle ids
+	 * @param otherRegion the region of the bundle ids in the other map
+	 * @param region      the region to associate the bundle ids with, which must
+	 *                    not have bundles in this map
+	 * @return the copy
+	 */
+	BundleIdRegionMap putAll(BundleIdRegionMap other, Region otherRegion, Region region) {
+		BundleIds ids = other.bundleIds(otherRegion);
+		if (ids.size == 0) {
+			return this;
+		}
+		Node newRoot = this.root;
+		for (Long bundleId : ids) {
+			newRoot = put(newRoot, 0, new Entry(bundleId.longValue(), region));
+		}
+		Map<Region, BundleIds> newRegionBundleIds = new IdentityHashMap<>(this.regionBundleIds);
+		newRegionBundleIds.put(region, ids);
+		return new BundleIdRegionMap(newRoot, Collections.unmodifiableMap(newRegionBundleIds));
+	}
+
+	BundleIdRegionMap remove(long bundleId) {
+		Region existing = get(bundleId);
+		if (existing == null) {
+			return this;
+		}
+		Map<Region, BundleIds> newRegionBundleIds = new IdentityHashMap<>(this.regionBundleIds);
+		BundleIds ids = this.regionBundleIds.get(existing);
+		putBundleIds(newRegionBundleIds, existing, remove(ids.root, 0, bundleId), ids.size - 1);
+		return new BundleIdRegionMap(remove(this.root, 0, bundleId), Collections.unmodifiableMap(newRegionBundleIds));
+	}
+
+	BundleIdRegionMap removeRegion(Region region) {
+		BundleIds ids = this.regionBundleIds.get(region);
+		if (ids == null) {
+			return this;
+		}
+		Node newRoot = this.root;
+		for (Long bundleId : ids) {
+			newRoot = remove(newRoot, 0, bundleId.longValue());
+		}
+		Map<Region, BundleIds> newRegionBundleIds = new IdentityHashMap<>(this.regionBundleIds);
+		newRegionBundleIds.remove(region);
+		return new BundleIdRegionMap(newRoot, Collections.unmodifiableMap(newRegionBundleIds));
+	}
+
+	/**
+	 * @return an unmodifiable view of the bundle ids of the region
+	 */
+	Set<Long> getBundleIds(Region region) {
+		return bundleIds(region);
+	}
+
+	private BundleIds bundleIds(Region region) {
+		BundleIds ids = this.regionBundleIds.get(region);
+		return ids == null ? NO_BUNDLE_IDS : ids;
+	}
+
+	private static void putBundleIds(Map<Region, BundleIds> regionBundleIds, Region region, Node root, int size) {
+		if (root == null) {
+			regionBundleIds.remove(region);
+		} else {
+			regionBundleIds.put(region, new BundleIds(root, size));
+		}
+	}
+
+	private static int bit(long bundleId, int shift) {
+		return 1 << ((int) (bundleId >>> shift) & MASK);
+	}
+
+	private static int index(int bitmap, int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+
+	private static Region get(Node root, long bundleId) {
+		Node node = root;
+		for (int shift = 0; node != null; shift += BITS) {
+			int bit = bit(bundleId, shift);
+			if ((node.bitmap & bit) == 0) {
+				return null;
+			}
+			Object slot = node.slots[index(node.bitmap, bit)];
+			if (slot instanceof Entry) {
+				Entry entry = (Entry) slot;
+				return entry.bundleId == bundleId ? entry.region : null;
+			}
+			node = (Node) slot;
+		}
+		return null;
+	}
+
+	/*
+	 * Returns a copy of the node with the entry added or replaced.
+	 */
+	private static Node put(Node node, int shift, Entry entry) {
+		int bit = bit(entry.bundleId, shift);
+		if (node == null) {
+			return new Node(bit, new Object[] {entry});
+		}
+		int index = index(node.bitmap, bit);
+		if ((node.bitmap & bit) == 0) {
+			Object[] slots = new Object[node.slots.length + 1];
+			System.arraycopy(node.slots, 0, slots, 0, index);
+			slots[index] = entry;
+			System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+			return new Node(node.bitmap | bit, slots);
+		}
+		Object slot = node.slots[index];
+		Object newSlot;
+		if (slot instanceof Entry) {
+			Entry existing = (Entry) slot;
+			newSlot = existing.bundleId == entry.bundleId ? entry : put(put(null, shift + BITS, existing), shift + BITS, entry);
+		} else {
+			newSlot = put((Node) slot, shift + BITS, entry);
+		}
+		Object[] slots = node.slots.clone();
+		slots[index] = newSlot;
+		return new Node(node.bitmap, slots);
+	}
+
+	/*
+	 * Returns a copy of the node without the bundle id, or null if the copy would
+	 * be empty. The bundle id must be present.
+	 */
+	private static Node remove(Node node, int shift, long bundleId) {
+		int bit = bit(bundleId, shift);
+		int index = index(node.bitmap, bit);
+		Object slot = node.slots[index];
+		Object newSlot = null;
+		if (slot instanceof Node) {
+			Node child = remove((Node) slot, shift + BITS, bundleId);
+			// a child left with a single entry is replaced by the entry
+			newSlot = child != null && child.slots.length == 1 && child.slots[0] instanceof Entry ? child.slots[0]
+					: child;
+		}
+		if (newSlot != null) {
+			Object[] slots = node.slots.clone();
+			slots[index] = newSlot;
+			return new Node(node.bitmap, slots);
+		}
+		if (node.slots.length == 1) {
+			return null;
+		}
+		Object[] slots = new Object[node.slots.length - 1];
+		System.arraycopy(node.slots, 0, slots, 0, index);
+		System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+		return new Node(node.bitmap & ~bit, slots);
+	}
+}
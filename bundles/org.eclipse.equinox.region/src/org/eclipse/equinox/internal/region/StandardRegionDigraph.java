@@ -16,7 +16,6 @@ package org.eclipse.equinox.internal.region;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.equinox.internal.region.hook.*;
 import org.eclipse.equinox.region.*;
 import org.osgi.framework.*;
@@ -37,24 +36,16 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	private static final Set<FilteredRegion> EMPTY_EDGE_SET = Collections
 			.unmodifiableSet(new HashSet<FilteredRegion>());
 
-	// This monitor guards the modifications and read operations on the digraph as
-	// well as
-	// bundle id modifications of all regions in this digraph
+	// This monitor serializes the modifications of the digraph as well as
+	// bundle id modifications of all regions in this digraph. Read operations
+	// use the current state without locking.
 	private final Object monitor = new Object();
 
-	private final Map<String, Region> regions = new HashMap<>();
-
-	// Alien calls may be made to the following object while this.monitor is locked
-	// as this.monitor is higher in the lock hierarchy than this object's own
-	// monitor.
-	private final BundleIdToRegionMapping bundleIdToRegionMapping;
-
 	/*
-	 * edges maps a given region to an immutable set of edges with their tail at the
-	 * given region. To update the edges for a region, the corresponding immutable
-	 * set is replaced atomically.
+	 * The immutable state of the digraph. Modifications create a new state while
+	 * holding this.monitor and replace the current state atomically.
 	 */
-	private final Map<Region, Set<FilteredRegion>> edges = new HashMap<>();
+	private volatile State state = State.EMPTY;
 
 	private final BundleContext bundleContext;
 
@@ -72,7 +63,8 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	private final StandardRegionDigraph origin;
 	// Guarded by the origin monitor
 	private long originUpdateCount;
-	private final AtomicLong updateCount = new AtomicLong();
+
+	private final RegionVisibilityIndex visibilityIndex = new RegionVisibilityIndex(this, () -> this.state.updateCount);
 
 	private volatile Region defaultRegion;
 
@@ -88,7 +80,6 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	private StandardRegionDigraph(BundleContext bundleContext, ThreadLocal<Region> threadLocal,
 			StandardRegionDigraph origin) throws BundleException {
 		this.subgraphTraverser = new SubgraphTraverser();
-		this.bundleIdToRegionMapping = new StandardBundleIdToRegionMapping();
 		this.bundleContext = bundleContext;
 		this.threadLocal = threadLocal;
 
@@ -107,7 +98,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		this.origin = origin;
 		if (origin != null) {
 			synchronized (origin.monitor) {
-				this.originUpdateCount = origin.updateCount.get();
+				this.originUpdateCount = origin.state.updateCount;
 				this.replace(origin, false);
 			}
 		} else {
@@ -127,13 +118,16 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	private Region createRegion(String regionName, boolean notify) throws BundleException {
 		Region region = new BundleIdBasedRegion(regionName, this, this, this.bundleContext, this.threadLocal);
 		synchronized (this.monitor) {
-			if (getRegion(regionName) != null) {
+			State current = this.state;
+			if (current.regions.get(regionName) != null) {
 				throw new BundleException("Region '" + regionName + "' already exists", //$NON-NLS-1$ //$NON-NLS-2$
 						BundleException.UNSUPPORTED_OPERATION);
 			}
-			this.regions.put(region.getName(), region);
-			this.edges.put(region, EMPTY_EDGE_SET);
-			incrementUpdateCount();
+			Map<String, Region> newRegions = new HashMap<>(current.regions);
+			newRegions.put(region.getName(), region);
+			Map<Region, Set<FilteredRegion>> newEdges = new HashMap<>(current.edges);
+			newEdges.put(region, EMPTY_EDGE_SET);
+			this.state = current.update(newRegions, newEdges, current.bundleIdToRegion);
 		}
 		if (notify) {
 			notifyAdded(region);
@@ -184,7 +178,8 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		boolean tailAdded = false;
 		boolean headAdded = false;
 		synchronized (this.monitor) {
-			Set<FilteredRegion> connections = this.edges.get(tailRegion);
+			State current = this.state;
+			Set<FilteredRegion> connections = current.edges.get(tailRegion);
 			if (connections == null) {
 				connections = new HashSet<>();
 			} else {
@@ -204,8 +199,9 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 
 			checkFilterDoesNotAllowExistingBundle(tailRegion, filter);
 
-			tailAdded = this.regions.put(tailRegion.getName(), tailRegion) == null;
-			headAdded = this.regions.put(headRegion.getName(), headRegion) == null;
+			Map<String, Region> newRegions = new HashMap<>(current.regions);
+			tailAdded = newRegions.put(tailRegion.getName(), tailRegion) == null;
+			headAdded = newRegions.put(headRegion.getName(), headRegion) == null;
 
 			if (existing != null) {
 				connections.remove(existing);
@@ -215,8 +211,9 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 				connections.add(new StandardFilteredRegion(headRegion, filter));
 			}
 
-			this.edges.put(tailRegion, Collections.unmodifiableSet(connections));
-			incrementUpdateCount();
+			Map<Region, Set<FilteredRegion>> newEdges = new HashMap<>(current.edges);
+			newEdges.put(tailRegion, Collections.unmodifiableSet(connections));
+			this.state = current.update(newRegions, newEdges, current.bundleIdToRegion);
 		}
 		if (tailAdded) {
 			notifyAdded(tailRegion);
@@ -237,11 +234,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Iterator<Region> iterator() {
-		synchronized (this.monitor) {
-			Set<Region> snapshot = new HashSet<>(this.regions.size());
-			snapshot.addAll(this.regions.values());
-			return snapshot.iterator();
-		}
+		return this.state.regionSet.iterator();
 	}
 
 	/**
@@ -249,11 +242,9 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Set<FilteredRegion> getEdges(Region tailRegion) {
-		synchronized (this.monitor) {
-			// Cope with the case where tailRegion is not in the digraph
-			Set<FilteredRegion> edgeSet = this.edges.get(tailRegion);
-			return edgeSet == null ? EMPTY_EDGE_SET : edgeSet;
-		}
+		// Cope with the case where tailRegion is not in the digraph
+		Set<FilteredRegion> edgeSet = this.state.edges.get(tailRegion);
+		return edgeSet == null ? EMPTY_EDGE_SET : edgeSet;
 	}
 
 	static class StandardFilteredRegion implements FilteredRegion {
@@ -284,9 +275,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Region getRegion(String regionName) {
-		synchronized (this.monitor) {
-			return regions.get(regionName);
-		}
+		return this.state.regions.get(regionName);
 	}
 
 	/**
@@ -302,9 +291,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Region getRegion(long bundleId) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.getRegion(bundleId);
-		}
+		return this.state.bundleIdToRegion.get(bundleId);
 	}
 
 	/**
@@ -320,22 +307,23 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 			if (this.defaultRegion != null && this.defaultRegion.equals(region)) {
 				this.defaultRegion = null;
 			}
-			this.regions.remove(region.getName());
-			this.edges.remove(region);
-			for (Entry<Region, Set<FilteredRegion>> entry : edges.entrySet()) {
-				Region r = entry.getKey();
+			State current = this.state;
+			Map<String, Region> newRegions = new HashMap<>(current.regions);
+			newRegions.remove(region.getName());
+			Map<Region, Set<FilteredRegion>> newEdges = new HashMap<>(current.edges);
+			newEdges.remove(region);
+			for (Entry<Region, Set<FilteredRegion>> entry : newEdges.entrySet()) {
 				Set<FilteredRegion> edgeSet = entry.getValue();
 				for (FilteredRegion edge : edgeSet) {
 					if (region.equals(edge.getRegion())) {
 						Set<FilteredRegion> mutableEdgeSet = new HashSet<>(edgeSet);
 						mutableEdgeSet.remove(edge);
-						this.edges.put(r, Collections.unmodifiableSet(mutableEdgeSet));
+						entry.setValue(Collections.unmodifiableSet(mutableEdgeSet));
 						break;
 					}
 				}
 			}
-			this.bundleIdToRegionMapping.dissociateRegion(region);
-			incrementUpdateCount();
+			this.state = current.update(newRegions, newEdges, current.bundleIdToRegion.removeRegion(region));
 		}
 	}
 
@@ -344,45 +332,40 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public String toString() {
-		synchronized (this.monitor) {
-			StringBuilder s = new StringBuilder();
-			boolean first = true;
-			s.append("RegionDigraph{"); //$NON-NLS-1$
-			for (Region r : this) {
-				if (!first) {
-					s.append(", "); //$NON-NLS-1$
-				}
-				s.append(r);
-				first = false;
+		State current = this.state;
+		StringBuilder s = new StringBuilder();
+		boolean first = true;
+		s.append("RegionDigraph{"); //$NON-NLS-1$
+		for (Region r : current.regionSet) {
+			if (!first) {
+				s.append(", "); //$NON-NLS-1$
 			}
-			s.append("}"); //$NON-NLS-1$
-
-			s.append("["); //$NON-NLS-1$
-			first = true;
-			for (Region r : this) {
-				Set<FilteredRegion> edgeSet = this.edges.get(r);
-				if (edgeSet != null) {
-					for (FilteredRegion filteredRegion : edgeSet) {
-						if (!first) {
-							s.append(", "); //$NON-NLS-1$
-						}
-						s.append(r + "->" + filteredRegion.getRegion()); //$NON-NLS-1$
-						first = false;
+			s.append(r);
+			first = false;
+		}
+		s.append("}"); //$NON-NLS-1$
+
+		s.append("["); //$NON-NLS-1$
+		first = true;
+		for (Region r : current.regionSet) {
+			Set<FilteredRegion> edgeSet = current.edges.get(r);
+			if (edgeSet != null) {
+				for (FilteredRegion filteredRegion : edgeSet) {
+					if (!first) {
+						s.append(", "); //$NON-NLS-1$
 					}
+					s.append(r + "->" + filteredRegion.getRegion()); //$NON-NLS-1$
+					first = false;
 				}
 			}
-			s.append("]"); //$NON-NLS-1$
-			return s.toString();
 		}
+		s.append("]"); //$NON-NLS-1$
+		return s.toString();
 	}
 
 	@Override
 	public Set<Region> getRegions() {
-		Set<Region> result = new HashSet<>();
-		synchronized (this.monitor) {
-			result.addAll(this.regions.values());
-		}
-		return result;
+		return this.state.regionSet;
 	}
 
 	@Override
@@ -439,9 +422,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 * @return a snapshot of filtered regions
 	 */
 	Map<Region, Set<FilteredRegion>> getFilteredRegions() {
-		synchronized (this.monitor) {
-			return new HashMap<>(this.edges);
-		}
+		return this.state.edges;
 	}
 
 	/**
@@ -479,49 +460,51 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		}
 
 		// notify removing first, and outside the monitor lock
-		final Set<Region> removed = getRegions();
+		final Set<Region> removed = new HashSet<>(getRegions());
 		removed.removeAll(replacement.getRegions());
 		for (Region region : removed) {
 			notifyRemoving(region);
 		}
 
-		Map<Region, Set<FilteredRegion>> filteredRegions = replacement.getFilteredRegions();
+		State replacementState = replacement.state;
 		final Set<Region> added = new HashSet<>();
 		synchronized (this.monitor) {
-			if (check && this.updateCount.get() != replacement.originUpdateCount) {
+			State current = this.state;
+			if (check && current.updateCount != replacement.originUpdateCount) {
 				throw new BundleException("The origin update count has changed since the replacement copy was created.", //$NON-NLS-1$
 						BundleException.INVALID_OPERATION);
 			}
-			Map<String, Region> nameToRegion = new HashMap<>(regions);
-			this.regions.clear();
-			this.edges.clear();
-			this.bundleIdToRegionMapping.clear();
-			for (Region original : filteredRegions.keySet()) {
-				Region copy = nameToRegion.get(original.getName());
-				if (copy != null) {
-					// reuse the previous region object
-					regions.put(copy.getName(), copy);
-					edges.put(copy, EMPTY_EDGE_SET);
-				} else {
+			// build the new state completely before publishing it so that readers
+			// never see a partially replaced digraph
+			Map<String, Region> newRegions = new HashMap<>();
+			Map<Region, Set<FilteredRegion>> newEdges = new HashMap<>();
+			BundleIdRegionMap newBundleIdToRegion = BundleIdRegionMap.EMPTY;
+			for (Region original : replacementState.edges.keySet()) {
+				Region copy = current.regions.get(original.getName());
+				if (copy == null) {
 					// create a new one
-					copy = this.createRegion(original.getName(), false);
+					copy = new BundleIdBasedRegion(original.getName(), this, this, this.bundleContext,
+							this.threadLocal);
 					// collect added for notifying later ouside the lock
 					added.add(copy);
 				}
-				for (Long id : original.getBundleIds()) {
-					copy.addBundle(id);
-				}
+				// otherwise reuse the previous region object
+				newRegions.put(copy.getName(), copy);
+				newBundleIdToRegion = newBundleIdToRegion.putAll(replacementState.bundleIdToRegion, original, copy);
 			}
-			for (Map.Entry<Region, Set<FilteredRegion>> connection : filteredRegions.entrySet()) {
-				Region tailRegion = this.getRegion(connection.getKey().getName());
+			for (Map.Entry<Region, Set<FilteredRegion>> connection : replacementState.edges.entrySet()) {
+				Set<FilteredRegion> connections = new HashSet<>();
 				for (FilteredRegion headFilter : connection.getValue()) {
-					Region headRegion = this.getRegion(headFilter.getRegion().getName());
-					this.connect(tailRegion, headFilter.getFilter(), headRegion);
+					Region headRegion = newRegions.get(headFilter.getRegion().getName());
+					connections.add(new StandardFilteredRegion(headRegion, headFilter.getFilter()));
 				}
+				newEdges.put(newRegions.get(connection.getKey().getName()),
+						connections.isEmpty() ? EMPTY_EDGE_SET : Collections.unmodifiableSet(connections));
 			}
-			incrementUpdateCount();
+			State newState = current.update(newRegions, newEdges, newBundleIdToRegion);
+			this.state = newState;
 			if (check) {
-				replacement.originUpdateCount = this.updateCount.get();
+				replacement.originUpdateCount = newState.updateCount;
 			}
 		}
 		// Now notify of additions outside the lock
@@ -530,6 +513,16 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 		}
 	}
 
+	/**
+	 * Returns the service visibility index shared by the service hooks of this
+	 * digraph.
+	 *
+	 * @return the visibility index
+	 */
+	public RegionVisibilityIndex getVisibilityIndex() {
+		return visibilityIndex;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -602,24 +595,23 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	@Override
 	public void associateBundleWithRegion(long bundleId, Region region) throws BundleException {
 		synchronized (this.monitor) {
-			checkRegionExists(region);
-			this.bundleIdToRegionMapping.associateBundleWithRegion(bundleId, region);
-			incrementUpdateCount();
+			State current = checkRegionExists(region);
+			Region r = current.bundleIdToRegion.get(bundleId);
+			if (r != null && r != region) {
+				throw new BundleException("Bundle '" + bundleId + "' is already associated with region '" + r + "'", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						BundleException.INVALID_OPERATION);
+			}
+			this.state = current.update(current.bundleIdToRegion.put(bundleId, region));
 		}
 	}
 
-	private void checkRegionExists(Region region) {
-		if (this.regions.get(region.getName()) == null) {
+	private State checkRegionExists(Region region) {
+		State current = this.state;
+		if (current.regions.get(region.getName()) == null) {
 			throw new IllegalStateException(
 					"Operation not allowed on region " + region.getName() + " which is not part of a digraph"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-	}
-
-	private void incrementUpdateCount() {
-		synchronized (this.monitor) {
-			this.updateCount.incrementAndGet();
-		}
-
+		return current;
 	}
 
 	/**
@@ -628,9 +620,8 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	@Override
 	public void dissociateBundleFromRegion(long bundleId, Region region) {
 		synchronized (this.monitor) {
-			checkRegionExists(region);
-			this.bundleIdToRegionMapping.dissociateBundleFromRegion(bundleId, region);
-			incrementUpdateCount();
+			State current = checkRegionExists(region);
+			this.state = current.update(current.bundleIdToRegion.remove(bundleId));
 		}
 	}
 
@@ -639,9 +630,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public boolean isBundleAssociatedWithRegion(long bundleId, Region region) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.isBundleAssociatedWithRegion(bundleId, region);
-		}
+		return this.state.bundleIdToRegion.get(bundleId) == region;
 	}
 
 	/**
@@ -649,9 +638,7 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	 */
 	@Override
 	public Set<Long> getBundleIds(Region region) {
-		synchronized (this.monitor) {
-			return this.bundleIdToRegionMapping.getBundleIds(region);
-		}
+		return this.state.bundleIdToRegion.getBundleIds(region);
 	}
 
 	/**
@@ -660,8 +647,8 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	@Override
 	public void clear() {
 		synchronized (this.monitor) {
-			this.bundleIdToRegionMapping.clear();
-			incrementUpdateCount();
+			State current = this.state;
+			this.state = current.update(BundleIdRegionMap.EMPTY);
 		}
 	}
 
@@ -671,9 +658,52 @@ public final class StandardRegionDigraph implements BundleIdToRegionMapping, Reg
 	@Override
 	public void dissociateRegion(Region region) {
 		synchronized (this.monitor) {
-			this.bundleIdToRegionMapping.dissociateRegion(region);
-			incrementUpdateCount();
+			State current = this.state;
+			this.state = current.update(current.bundleIdToRegion.removeRegion(region));
 		}
 	}
 
+	/**
+	 * An immutable state of the digraph. The maps and sets of a state must not be
+	 * modified after the state has been created.
+	 */
+	private static final class State {
+
+		static final State EMPTY = new State(0, Collections.emptyMap(), Collections.emptyMap(),
+				BundleIdRegionMap.EMPTY, Collections.emptySet());
+
+		final long updateCount;
+
+		final Map<String, Region> regions;
+
+		/*
+		 * edges maps a given region to an immutable set of edges with their tail at
+		 * the given region.
+		 */
+		final Map<Region, Set<FilteredRegion>> edges;
+
+		final BundleIdRegionMap bundleIdToRegion;
+
+		final Set<Region> regionSet;
+
+		private State(long updateCount, Map<String, Region> regions, Map<Region, Set<FilteredRegion>> edges,
+				BundleIdRegionMap bundleIdToRegion, Set<Region> regionSet) {
+			this.updateCount = updateCount;
+			this.regions = regions;
+			this.edges = edges;
+			this.bundleIdToRegion = bundleIdToRegion;
+			this.regionSet = regionSet;
+		}
+
+		State update(Map<String, Region> newRegions, Map<Region, Set<FilteredRegion>> newEdges,
+				BundleIdRegionMap newBundleIdToRegion) {
+			return new State(this.updateCount + 1, Collections.unmodifiableMap(newRegions),
+					Collections.unmodifiableMap(newEdges), newBundleIdToRegion,
+					Collections.unmodifiableSet(new HashSet<>(newRegions.values())));
+		}
+
+		State update(BundleIdRegionMap newBundleIdToRegion) {
+			return new State(this.updateCount + 1, this.regions, this.edges, newBundleIdToRegion, this.regionSet);
+		}
+	}
 }
@@ -193,6 +193,22 @@ public final class StandardRegionFilter implements RegionFilter {
 		});
 	}
 
+	/**
+	 * Determines whether this filter allows everything in the given namespace
+	 * without having to evaluate a filter.
+	 *
+	 * @param namespace the namespace
+	 * @return <code>true</code> if every candidate of the namespace is allowed
+	 */
+	public boolean isAllowAll(String namespace) {
+		Collection<Filter> allMatching = filters.get(VISIBLE_ALL_NAMESPACE);
+		if (allMatching != null && allMatching.contains(ALL)) {
+			return true;
+		}
+		Collection<Filter> namespaceFilters = filters.get(namespace);
+		return namespaceFilters != null && namespaceFilters.contains(ALL);
+	}
+
 	@Override
 	public Map<String, Collection<String>> getSharingPolicy() {
 		Map<String, Collection<String>> result = new HashMap<>((int) ((filters.size() / 0.75) + 1));
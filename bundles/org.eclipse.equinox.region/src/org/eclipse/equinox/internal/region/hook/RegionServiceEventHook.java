@@ -37,8 +37,11 @@ public final class RegionServiceEventHook implements EventHook {
 
 	private final RegionDigraph regionDigraph;
 
+	private final RegionVisibilityIndex visibilityIndex;
+
 	public RegionServiceEventHook(RegionDigraph regionDigraph) {
 		this.regionDigraph = regionDigraph;
+		this.visibilityIndex = RegionServiceFindHook.getVisibilityIndex(regionDigraph);
 	}
 
 	/**
@@ -47,6 +50,20 @@ public final class RegionServiceEventHook implements EventHook {
 	@Override
 	public void event(ServiceEvent event, Collection<BundleContext> contexts) {
 		ServiceReference<?> eventService = event.getServiceReference();
+		if (this.visibilityIndex != null && event.getType() != ServiceEvent.REGISTERED) {
+			// the properties may have changed
+			this.visibilityIndex.serviceChanged(eventService);
+		}
+		try {
+			filterContexts(eventService, contexts);
+		} finally {
+			if (this.visibilityIndex != null && event.getType() == ServiceEvent.UNREGISTERING) {
+				this.visibilityIndex.serviceChanged(eventService);
+			}
+		}
+	}
+
+	private void filterContexts(ServiceReference<?> eventService, Collection<BundleContext> contexts) {
 		Map<Region, Boolean> regionAccess = new HashMap<>();
 		Iterator<BundleContext> i = contexts.iterator();
 		while (i.hasNext()) {
@@ -81,7 +98,7 @@ public final class RegionServiceEventHook implements EventHook {
 	private Boolean isAccessible(Region region, ServiceReference<?> candidateServiceReference) {
 		Collection<ServiceReference<?>> candidates = new ArrayList<>(1);
 		candidates.add(candidateServiceReference);
-		RegionServiceFindHook.find(region, candidates);
+		RegionServiceFindHook.find(region, candidates, this.visibilityIndex);
 		return !candidates.isEmpty();
 	}
 
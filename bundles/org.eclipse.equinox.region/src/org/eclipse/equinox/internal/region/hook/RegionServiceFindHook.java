@@ -15,6 +15,7 @@
 package org.eclipse.equinox.internal.region.hook;
 
 import java.util.Collection;
+import org.eclipse.equinox.internal.region.StandardRegionDigraph;
 import org.eclipse.equinox.region.*;
 import org.osgi.framework.*;
 import org.osgi.framework.hooks.service.FindHook;
@@ -31,8 +32,17 @@ public final class RegionServiceFindHook implements FindHook {
 
 	private final RegionDigraph regionDigraph;
 
+	private final RegionVisibilityIndex visibilityIndex;
+
 	public RegionServiceFindHook(RegionDigraph regionDigraph) {
 		this.regionDigraph = regionDigraph;
+		this.visibilityIndex = getVisibilityIndex(regionDigraph);
+	}
+
+	static RegionVisibilityIndex getVisibilityIndex(RegionDigraph regionDigraph) {
+		return regionDigraph instanceof StandardRegionDigraph
+				? ((StandardRegionDigraph) regionDigraph).getVisibilityIndex()
+				: null;
 	}
 
 	/**
@@ -52,15 +62,23 @@ public final class RegionServiceFindHook implements FindHook {
 		}
 
 		Region finderRegion = this.regionDigraph.getRegion(finderBundle);
-		RegionServiceFindHook.find(finderRegion, references);
+		RegionServiceFindHook.find(finderRegion, references, this.visibilityIndex);
 	}
 
-	static void find(Region finderRegion, Collection<ServiceReference<?>> references) {
+	static void find(Region finderRegion, Collection<ServiceReference<?>> references,
+			RegionVisibilityIndex visibilityIndex) {
 		if (finderRegion == null) {
 			references.clear();
 			return;
 		}
+		if (visibilityIndex == null) {
+			traverse(finderRegion, references);
+		} else {
+			visibilityIndex.filterServices(finderRegion, references);
+		}
+	}
 
+	static void traverse(Region finderRegion, Collection<ServiceReference<?>> references) {
 		Visitor visitor = new Visitor(references);
 		finderRegion.visitSubgraph(visitor);
 		Collection<ServiceReference<?>> allowed = visitor.getAllowed();
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.region.hook;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.eclipse.equinox.internal.region.StandardRegionFilter;
+import org.eclipse.equinox.region.*;
+import org.eclipse.equinox.region.RegionDigraph.FilteredRegion;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * {@link RegionVisibilityIndex} caches the visibility of services across the
+ * regions of a {@link RegionDigraph} so that repeated service lookups do not
+ * traverse the digraph and evaluate the region filters again.
+ * <p>
+ * The index is valid for one update count of the digraph and is rebuilt
+ * lazily after the digraph changed. It holds, per region and namespace, the
+ * regions which are reachable over edges allowing everything in the namespace.
+ * Candidates contained in such a region are visible without evaluating any
+ * filter. For all other services the result of the digraph traversal is
+ * recorded in a bitmap per service reference, indexed by the finder region.
+ * The entry of a service must be removed with {@link #serviceChanged} when its
+ * properties change or it is unregistered. Results computed while the digraph
+ * or a service changed are not kept.
+ * </p>
+ *
+ * <strong>Concurrent Semantics</strong><br />
+ * Thread safe.
+ */
+public final class RegionVisibilityIndex {
+
+	// the number of services with a cached visibility before the cache is cleared
+	private static final int MAX_CACHED_SERVICES = 65536;
+
+	private final RegionDigraph regionDigraph;
+
+	private final LongSupplier updateCount;
+
+	private volatile Snapshot snapshot;
+
+	// incremented when the cached visibility of a service is forgotten
+	private final AtomicLong serviceChanges = new AtomicLong();
+
+	public RegionVisibilityIndex(RegionDigraph regionDigraph, LongSupplier updateCount) {
+		this.regionDigraph = regionDigraph;
+		this.updateCount = updateCount;
+	}
+
+	private Snapshot getSnapshot() {
+		// read the count before the digraph so a concurrent change invalidates the
+		// snapshot
+		long count = this.updateCount.getAsLong();
+		Snapshot current = this.snapshot;
+		if (current == null || current.updateCount != count) {
+			current = new Snapshot(count, this.regionDigraph.getRegions());
+			// only publish the snapshot if the digraph did not change while it was built
+			if (this.updateCount.getAsLong() == count) {
+				this.snapshot = current;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Removes the candidates from the collection which are not visible from the
+	 * finder region.
+	 *
+	 * @param finderRegion the region of the finder, must not be <code>null</code>
+	 * @param candidates   the services to filter
+	 */
+	void filterServices(Region finderRegion, Collection<ServiceReference<?>> candidates) {
+		Snapshot current = getSnapshot();
+		Integer regionIndex = current.regionIndexes.get(finderRegion);
+		if (regionIndex == null) {
+			// not part of the digraph anymore
+			RegionServiceFindHook.traverse(finderRegion, candidates);
+			return;
+		}
+		Set<Region> visibleRegions = current.getVisibleRegions(finderRegion,
+				RegionFilter.VISIBLE_OSGI_SERVICE_NAMESPACE);
+		List<ServiceReference<?>> unknown = null;
+		Iterator<ServiceReference<?>> i = candidates.iterator();
+		while (i.hasNext()) {
+			ServiceReference<?> candidate = i.next();
+			Bundle bundle = candidate.getBundle();
+			if (bundle == null) {
+				// unregistered
+				i.remove();
+				continue;
+			}
+			if (visibleRegions.contains(this.regionDigraph.getRegion(bundle))) {
+				continue;
+			}
+			Visibility visibility = current.services.get(candidate);
+			if (visibility != null && visibility.isComputed(regionIndex)) {
+				if (!visibility.isVisible(regionIndex)) {
+					i.remove();
+				}
+				continue;
+			}
+			if (unknown == null) {
+				unknown = new ArrayList<>();
+			}
+			unknown.add(candidate);
+		}
+		if (unknown == null) {
+			return;
+		}
+		// read the stamp before the services so a concurrent change is detected
+		long changes = this.serviceChanges.get();
+		List<ServiceReference<?>> allowed = new ArrayList<>(unknown);
+		RegionServiceFindHook.traverse(finderRegion, allowed);
+		Set<ServiceReference<?>> allowedSet = new HashSet<>(allowed);
+		if (current.services.size() + unknown.size() > MAX_CACHED_SERVICES) {
+			current.services.clear();
+		}
+		List<ServiceReference<?>> denied = new ArrayList<>();
+		for (ServiceReference<?> candidate : unknown) {
+			boolean visible = allowedSet.contains(candidate);
+			current.services.merge(candidate, new Visibility(regionIndex, visible), Visibility::merge);
+			if (!visible) {
+				denied.add(candidate);
+			}
+		}
+		if (this.serviceChanges.get() != changes) {
+			// a service changed while its visibility was computed, the result may
+			// have been recorded after the entry was forgotten
+			for (ServiceReference<?> candidate : unknown) {
+				current.services.remove(candidate);
+			}
+		}
+		candidates.removeAll(denied);
+	}
+
+	/**
+	 * Forgets the cached visibility of a service whose properties changed or which
+	 * is being unregistered.
+	 */
+	void serviceChanged(ServiceReference<?> service) {
+		this.serviceChanges.incrementAndGet();
+		Snapshot current = this.snapshot;
+		if (current != null) {
+			current.services.remove(service);
+		}
+	}
+
+	/**
+	 * The index for one update count of the digraph.
+	 */
+	private static final class Snapshot {
+
+		final long updateCount;
+
+		final Map<Region, Integer> regionIndexes;
+
+		// region -> namespace -> regions reachable over edges allowing everything
+		private final Map<Region, Map<String, Set<Region>>> visibleRegions = new ConcurrentHashMap<>();
+
+		final Map<ServiceReference<?>, Visibility> services = new ConcurrentHashMap<>();
+
+		Snapshot(long updateCount, Set<Region> regions) {
+			this.updateCount = updateCount;
+			Map<Region, Integer> indexes = new HashMap<>();
+			for (Region region : regions) {
+				indexes.put(region, indexes.size());
+			}
+			this.regionIndexes = indexes;
+		}
+
+		Set<Region> getVisibleRegions(Region region, String namespace) {
+			return this.visibleRegions.computeIfAbsent(region, r -> new ConcurrentHashMap<>())
+					.computeIfAbsent(namespace, n -> computeVisibleRegions(region, namespace));
+		}
+
+		private static Set<Region> computeVisibleRegions(Region region, String namespace) {
+			Set<Region> result = new HashSet<>();
+			Deque<Region> queue = new ArrayDeque<>();
+			result.add(region);
+			queue.add(region);
+			while (!queue.isEmpty()) {
+				for (FilteredRegion edge : queue.poll().getEdges()) {
+					RegionFilter filter = edge.getFilter();
+					if (filter instanceof StandardRegionFilter && ((StandardRegionFilter) filter).isAllowAll(namespace)
+							&& result.add(edge.getRegion())) {
+						queue.add(edge.getRegion());
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Immutable bitmaps of the finder regions a service visibility was computed
+	 * for and of those it is visible from.
+	 */
+	private static final class Visibility {
+
+		private final long[] computed;
+
+		private final long[] visible;
+
+		Visibility(int regionIndex, boolean isVisible) {
+			this.computed = new long[(regionIndex >> 6) + 1];
+			this.visible = new long[this.computed.length];
+			this.computed[regionIndex >> 6] = 1L << regionIndex;
+			if (isVisible) {
+				this.visible[regionIndex >> 6] = 1L << regionIndex;
+			}
+		}
+
+		private Visibility(long[] computed, long[] visible) {
+			this.computed = computed;
+			this.visible = visible;
+		}
+
+		boolean isComputed(int regionIndex) {
+			return isSet(this.computed, regionIndex);
+		}
+
+		boolean isVisible(int regionIndex) {
+			return isSet(this.visible, regionIndex);
+		}
+
+		private static boolean isSet(long[] bits, int index) {
+			int word = index >> 6;
+			return word < bits.length && (bits[word] & (1L << index)) != 0;
+		}
+
+		static Visibility merge(Visibility a, Visibility b) {
+			return new Visibility(or(a.computed, b.computed), or(a.visible, b.visible));
+		}
+
+		private static long[] or(long[] a, long[] b) {
+			long[] result = Arrays.copyOf(a.length >= b.length ? a : b, Math.max(a.length, b.length));
+			long[] other = a.length >= b.length ? b : a;
+			for (int i = 0; i < other.length; i++) {
+				result[i] |= other[i];
+			}
+			return result;
+		}
+	}
+}
@@ -69,6 +69,7 @@ public final class AdapterManagerListener implements IRegistryEventListener, IAd
 			AdapterFactoryProxy proxy = AdapterFactoryProxy.createProxy(element);
 			if (proxy != null) {
 				theAdapterManager.registerFactory(proxy, proxy.getAdaptableType());
+				theAdapterManager.flushLookup(proxy.getAdaptableType());
 			}
 		}
 	}
@@ -78,7 +79,6 @@ public final class AdapterManagerListener implements IRegistryEventListener, IAd
 		for (IExtension extension : extensions) {
 			registerExtension(extension);
 		}
-		theAdapterManager.flushLookup();
 	}
 
 	@Override
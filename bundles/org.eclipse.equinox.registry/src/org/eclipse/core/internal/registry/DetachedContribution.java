@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import javax.xml.parsers.SAXParser;
+import org.eclipse.core.runtime.IContributor;
+import org.xml.sax.*;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * An extension manifest parsed without touching the registry. The XML is
+ * parsed into a list of SAX events which are replayed into an
+ * {@link ExtensionsParser} when the contribution is added with
+ * {@link ExtensionRegistry#addContributions(DetachedContribution[], Object)}.
+ * <p>
+ * Several manifests can so be parsed concurrently while the registry objects
+ * are still created one contribution after the other, in a fixed order.
+ * </p>
+ */
+public class DetachedContribution {
+
+	private interface Step {
+		void replay(DefaultHandler handler) throws SAXException;
+	}
+
+	private static class Event {
+		final int line;
+		final Step step;
+
+		Event(int line, Step step) {
+			this.line = line;
+			this.step = step;
+		}
+	}
+
+	/**
+	 * Records the events of the XML parser.
+	 */
+	private class Recorder extends DefaultHandler {
+		private Locator locator;
+
+		private void record(Step step) {
+			events.add(new Event(locator == null ? -1 : locator.getLineNumber(), step));
+		}
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+			this.locator = locator;
+		}
+
+		@Override
+		public void startDocument() {
+			record(DefaultHandler::startDocument);
+		}
+
+		@Override
+		public void endDocument() {
+			record(DefaultHandler::endDocument);
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			Attributes copy = new AttributesImpl(attributes);
+			record(handler -> handler.startElement(uri, localName, qName, copy));
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			record(handler -> handler.endElement(uri, localName, qName));
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			char[] copy = Arrays.copyOfRange(ch, start, start + length);
+			record(handler -> handler.characters(copy, 0, copy.length));
+		}
+
+		@Override
+		public void processingInstruction(String target, String data) {
+			record(handler -> handler.processingInstruction(target, data));
+		}
+
+		@Override
+		public void warning(SAXParseException e) {
+			record(handler -> handler.warning(e));
+		}
+
+		@Override
+		public void error(SAXParseException e) {
+			record(handler -> handler.error(e));
+		}
+
+		@Override
+		public void fatalError(SAXParseException e) throws SAXException {
+			record(handler -> handler.fatalError(e));
+			throw e;
+		}
+	}
+
+	/**
+	 * Hands out the line of the event being replayed.
+	 */
+	private static class ReplayLocator implements Locator {
+		int line = -1;
+
+		@Override
+		public String getPublicId() {
+			return null;
+		}
+
+		@Override
+		public String getSystemId() {
+			return null;
+		}
+
+		@Override
+		public int getLineNumber() {
+			return line;
+		}
+
+		@Override
+		public int getColumnNumber() {
+			return -1;
+		}
+	}
+
+	private final IContributor contributor;
+	private final boolean persist;
+	private final String contributionName;
+	private final ResourceBundle translationBundle;
+	private final long timestamp;
+	private final List<Event> events = new ArrayList<>();
+	private Exception failure;
+
+	/**
+	 * @param contributor       the contributor of the manifest
+	 * @param persist           whether the contribution is stored in the registry
+	 *                          cache
+	 * @param contributionName  the name of the manifest, used for error reporting
+	 * @param translationBundle the resource bundle used to translate the manifest,
+	 *                          may be <code>null</code>
+	 * @param timestamp         the time stamp of the contribution, <code>0</code>
+	 *                          if the contribution is not tracked
+	 */
+	public DetachedContribution(IContributor contributor, boolean persist, String contributionName,
+			ResourceBundle translationBundle, long timestamp) {
+		this.contributor = contributor;
+		this.persist = persist;
+		this.contributionName = contributionName == null ? "" : contributionName; //$NON-NLS-1$
+		this.translationBundle = translationBundle;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Parses the manifest. The stream is closed afterwards. Problems are not
+	 * reported here but when the contribution is added to the registry.
+	 *
+	 * @param is     the manifest
+	 * @param parser the parser to use, created by {@link ExtensionRegistry#createParser()}
+	 *               or <code>null</code> if no parser is available. A parser must
+	 *               not be used by several threads at the same time.
+	 */
+	public void parse(InputStream is, SAXParser parser) {
+		try {
+			if (parser == null) {
+				throw new SAXException(RegistryMessages.parse_xmlParserNotAvailable);
+			}
+			parser.parse(new InputSource(is), new Recorder());
+		} catch (SAXException | IOException e) {
+			failure = e;
+		} finally {
+			if (parser != null) {
+				parser.reset();
+			}
+			try {
+				is.close();
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+	}
+
+	IContributor getContributor() {
+		return contributor;
+	}
+
+	boolean shouldPersist() {
+		return persist;
+	}
+
+	String getContributionName() {
+		return contributionName;
+	}
+
+	ResourceBundle getTranslationBundle() {
+		return translationBundle;
+	}
+
+	long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Replays the parsed manifest into the handler, including the problems
+	 * reported by the XML parser.
+	 *
+	 * @throws SAXException if the manifest could not be parsed
+	 * @throws IOException  if the manifest could not be read
+	 */
+	void replay(DefaultHandler handler) throws SAXException, IOException {
+		ReplayLocator locator = new ReplayLocator();
+		handler.setDocumentLocator(locator);
+		for (Event event : events) {
+			locator.line = event.line;
+			event.step.replay(handler);
+		}
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		}
+		if (failure != null) {
+			throw (SAXException) failure;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,10 @@ package org.eclipse.core.internal.registry;
 import java.io.*;
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import org.eclipse.core.internal.registry.spi.ConfigurationElementAttribute;
 import org.eclipse.core.internal.registry.spi.ConfigurationElementDescription;
 import org.eclipse.core.runtime.*;
@@ -86,6 +89,14 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	private final RegistryTimestamp aggregatedTimestamp = new RegistryTimestamp(); // tracks current contents of the
 																					// registry
 
+	// key: contributor id, value: time stamp of the persisted contribution. Stored in
+	// the cache so that a stale cache can be reconciled contribution by contribution
+	private final Map<String, Long> contributionTimestamps = new ConcurrentHashMap<>();
+
+	// true if the registry was loaded from a cache written before contributions
+	// changed, the strategy has to reconcile the changed contributions
+	private boolean cacheStale = false;
+
 	// encapsulates processing of new registry deltas
 	private CombinedEventDelta eventDelta = null;
 	// marks a new extended delta. The namespace that normally would not exists is
@@ -446,12 +457,8 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	 */
 	@Override
 	public IExtensionPoint getExtensionPoint(String xptUniqueId) {
-		access.enterRead();
-		try {
-			return registryObjects.getExtensionPointHandle(xptUniqueId);
-		} finally {
-			access.exitRead();
-		}
+		// the extension point index is concurrent, like handles this does not need the read lock
+		return registryObjects.getExtensionPointHandle(xptUniqueId);
 	}
 
 	/*
@@ -462,12 +469,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	 */
 	@Override
 	public IExtensionPoint getExtensionPoint(String elementName, String xpt) {
-		access.enterRead();
-		try {
-			return registryObjects.getExtensionPointHandle(elementName + '.' + xpt);
-		} finally {
-			access.exitRead();
-		}
+		return registryObjects.getExtensionPointHandle(elementName + '.' + xpt);
 	}
 
 	/*
@@ -628,7 +630,12 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	}
 
 	public void remove(String removedContributorId, long timestamp) {
+		Long addedTimestamp = contributionTimestamps.get(removedContributorId);
 		remove(removedContributorId);
+		if (addedTimestamp != null) {
+			// the contribution may have changed since it was added
+			timestamp = addedTimestamp.longValue();
+		}
 		if (timestamp != 0) {
 			aggregatedTimestamp.remove(timestamp);
 		}
@@ -660,6 +667,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		try {
 			eventDelta = CombinedEventDelta.recordRemoval();
 			basicRemove(removedContributorId);
+			contributionTimestamps.remove(removedContributorId);
 			fireRegistryChangeEvent();
 			eventDelta = null;
 		} finally {
@@ -782,7 +790,10 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 					long timestamp = strategy.getContributionsTimestamp();
 					isRegistryFilledFromCache = registryObjects.init(timestamp);
 					if (isRegistryFilledFromCache) {
-						aggregatedTimestamp.set(timestamp);
+						contributionTimestamps.putAll(theTableReader.getContributionTimestamps());
+						cacheStale = theTableReader.isStale();
+						// a stale cache is brought up to date by adding and removing contributions
+						aggregatedTimestamp.set(cacheStale ? theTableReader.getCachedTimestamp() : timestamp);
 					}
 				} catch (IOException e) {
 					// The registry will be rebuilt from the xml files. Make sure to clear anything
@@ -847,6 +858,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		strategy.onStop(this);
 
 		stopChangeEventScheduler();
+		stopListenerExecutor();
 
 		if (cacheStorageManager == null) {
 			return;
@@ -939,6 +951,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 			}
 		}
 		aggregatedTimestamp.reset();
+		contributionTimestamps.clear();
 	}
 
 	/////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1004,6 +1017,40 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		return strategy.getContainerTimestamp();
 	}
 
+	/**
+	 * Returns <code>true</code> if the registry strategy is able to reconcile a
+	 * registry cache written before contributions changed, see
+	 * {@link ICacheReconciler}.
+	 */
+	boolean isCacheReconcilable() {
+		return strategy instanceof ICacheReconciler;
+	}
+
+	/**
+	 * Returns <code>true</code> if the registry was loaded from a cache written
+	 * before contributions changed. The strategy reconciles the changed
+	 * contributions in {@link RegistryStrategy#onStart(IExtensionRegistry, boolean)}.
+	 */
+	public boolean isCacheStale() {
+		return cacheStale;
+	}
+
+	/**
+	 * Returns the time stamp the contribution of the contributor was added with,
+	 * or <code>null</code> if it is unknown.
+	 */
+	public Long getContributionTimestamp(String contributorId) {
+		return contributionTimestamps.get(contributorId);
+	}
+
+	/**
+	 * Returns the time stamps of the persisted contributions keyed by contributor
+	 * id.
+	 */
+	public Map<String, Long> getContributionTimestamps() {
+		return Collections.unmodifiableMap(contributionTimestamps);
+	}
+
 	// Find the first location that contains a cache table file and set file manager
 	// to it.
 	protected boolean checkCache() {
@@ -1038,60 +1085,255 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	// Registry change events processing
 
 	public IStatus processChangeEvent(Object[] listenerInfos, final Map<String, ?> scheduledDeltas) {
-		// Separate new event delta from the pack
-		final CombinedEventDelta extendedDelta = (CombinedEventDelta) scheduledDeltas.remove(notNamespace);
+		return processChangeEvents(Collections.singletonList(listenerInfos),
+				Collections.singletonList(scheduledDeltas));
+	}
 
+	/**
+	 * Processes registry change events which were queued one after the other.
+	 * Consecutive events of the same kind, additions or removals, reach each
+	 * listener as one event whose delta combines the deltas of the queued events
+	 * the listener was registered for.
+	 *
+	 * @param listenerInfos   the listeners of each event
+	 * @param scheduledDeltas the deltas of each event
+	 * @return status of the operation
+	 */
+	public IStatus processChangeEvents(List<Object[]> listenerInfos, List<? extends Map<String, ?>> scheduledDeltas) {
 		final MultiStatus result = new MultiStatus(RegistryMessages.OWNER_NAME, IStatus.OK,
 				RegistryMessages.plugin_eventListenerError, null);
-		for (Object info : listenerInfos) {
-			final ListenerInfo listenerInfo = (ListenerInfo) info;
-			if ((listenerInfo.listener instanceof IRegistryChangeListener) && scheduledDeltas.size() != 0) {
-				if (listenerInfo.filter == null || scheduledDeltas.containsKey(listenerInfo.filter)) {
-					SafeRunner.run(new ISafeRunnable() {
-						@Override
-						public void run() throws Exception {
-							((IRegistryChangeListener) listenerInfo.listener)
-									.registryChanged(new RegistryChangeEvent(scheduledDeltas, listenerInfo.filter));
-						}
+		int count = scheduledDeltas.size();
+		// Separate new event deltas from the packs
+		CombinedEventDelta[] extendedDeltas = new CombinedEventDelta[count];
+		for (int i = 0; i < count; i++) {
+			extendedDeltas[i] = (CombinedEventDelta) scheduledDeltas.get(i).remove(notNamespace);
+		}
+		int start = 0;
+		while (start < count) {
+			int end = start + 1;
+			while (end < count && extendedDeltas[end].isAddition() == extendedDeltas[start].isAddition()) {
+				end++;
+			}
+			notifyListeners(listenerInfos.subList(start, end), scheduledDeltas.subList(start, end),
+					Arrays.asList(extendedDeltas).subList(start, end), result);
+			for (int i = start; i < end; i++) {
+				for (Object delta : scheduledDeltas.get(i).values()) {
+					((RegistryDelta) delta).getObjectManager().close();
+				}
+				IObjectManager manager = extendedDeltas[i].getObjectManager();
+				if (manager != null) {
+					manager.close();
+				}
+			}
+			start = end;
+		}
+		return result;
+	}
 
-						@Override
-						public void handleException(Throwable exception) {
-							result.add(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME,
-									RegistryMessages.plugin_eventListenerError, exception));
-						}
-					});
+	/**
+	 * Notifies the listeners of events of the same kind. Listeners declaring
+	 * themselves thread safe are notified concurrently with the others.
+	 */
+	private void notifyListeners(List<Object[]> listenerInfos, List<? extends Map<String, ?>> scheduledDeltas,
+			List<CombinedEventDelta> extendedDeltas, MultiStatus result) {
+		// each listener in the order of registration with the events it was registered for
+		Map<ListenerInfo, BitSet> events = new IdentityHashMap<>();
+		List<ListenerInfo> listeners = new ArrayList<>();
+		for (int i = 0; i < listenerInfos.size(); i++) {
+			for (Object info : listenerInfos.get(i)) {
+				ListenerInfo listenerInfo = (ListenerInfo) info;
+				BitSet listenerEvents = events.get(listenerInfo);
+				if (listenerEvents == null) {
+					listenerEvents = new BitSet();
+					events.put(listenerInfo, listenerEvents);
+					listeners.add(listenerInfo);
 				}
+				listenerEvents.set(i);
 			}
-			if (listenerInfo.listener instanceof IRegistryEventListener extensionListener) {
-				IExtension[] extensions = extendedDelta.getExtensions(listenerInfo.filter);
-				IExtensionPoint[] extensionPoints = extendedDelta.getExtensionPoints(listenerInfo.filter);
-
-				// notification order - on addition: extension points; then extensions
-				if (extendedDelta.isAddition()) {
-					if (extensionPoints != null) {
-						extensionListener.added(extensionPoints);
+		}
+		List<Future<?>> concurrent = new ArrayList<>();
+		for (ListenerInfo listenerInfo : listeners) {
+			BitSet listenerEvents = events.get(listenerInfo);
+			if (listenerInfo.listener instanceof IThreadSafeRegistryListener) {
+				concurrent.add(getListenerExecutor().submit(() -> SafeRunner.run(new ISafeRunnable() {
+					@Override
+					public void run() throws Exception {
+						notifyListener(listenerInfo, listenerEvents, scheduledDeltas, extendedDeltas, result);
 					}
-					if (extensions != null) {
-						extensionListener.added(extensions);
+
+					@Override
+					public void handleException(Throwable exception) {
+						addListenerError(result, exception);
 					}
-				} else { // on removal: extensions; then extension points
-					if (extensions != null) {
-						extensionListener.removed(extensions);
+				})));
+			} else {
+				notifyListener(listenerInfo, listenerEvents, scheduledDeltas, extendedDeltas, result);
+			}
+		}
+		boolean interrupted = false;
+		for (Future<?> future : concurrent) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					// the deltas must stay valid until all listeners returned
+					interrupted = true;
+				} catch (ExecutionException e) {
+					addListenerError(result, e.getCause());
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void notifyListener(final ListenerInfo listenerInfo, BitSet listenerEvents,
+			List<? extends Map<String, ?>> scheduledDeltas, List<CombinedEventDelta> extendedDeltas,
+			final MultiStatus result) {
+		if (listenerInfo.listener instanceof IRegistryChangeListener) {
+			final Map<String, ?> deltas = combineDeltas(listenerEvents, scheduledDeltas);
+			if (deltas.size() != 0 && (listenerInfo.filter == null || deltas.containsKey(listenerInfo.filter))) {
+				SafeRunner.run(new ISafeRunnable() {
+					@Override
+					public void run() throws Exception {
+						((IRegistryChangeListener) listenerInfo.listener)
+								.registryChanged(new RegistryChangeEvent(deltas, listenerInfo.filter));
 					}
-					if (extensionPoints != null) {
-						extensionListener.removed(extensionPoints);
+
+					@Override
+					public void handleException(Throwable exception) {
+						addListenerError(result, exception);
 					}
+				});
+			}
+		}
+		if (listenerInfo.listener instanceof IRegistryEventListener extensionListener) {
+			List<IExtension> extensions = new ArrayList<>();
+			List<IExtensionPoint> extensionPoints = new ArrayList<>();
+			for (int i = listenerEvents.nextSetBit(0); i >= 0; i = listenerEvents.nextSetBit(i + 1)) {
+				IExtension[] eventExtensions = extendedDeltas.get(i).getExtensions(listenerInfo.filter);
+				if (eventExtensions != null) {
+					extensions.addAll(Arrays.asList(eventExtensions));
 				}
+				IExtensionPoint[] eventExtensionPoints = extendedDeltas.get(i).getExtensionPoints(listenerInfo.filter);
+				if (eventExtensionPoints != null) {
+					extensionPoints.addAll(Arrays.asList(eventExtensionPoints));
+				}
+			}
+			boolean hasExtensions = !extensions.isEmpty();
+			IExtension[] extensionArray = extensions.toArray(new IExtension[extensions.size()]);
+			IExtensionPoint[] extensionPointArray = extensionPoints.toArray(new IExtensionPoint[extensionPoints.size()]);
+
+			// notification order - on addition: extension points; then extensions
+			if (extendedDeltas.get(0).isAddition()) {
+				if (!extensionPoints.isEmpty()) {
+					extensionListener.added(extensionPointArray);
+				}
+				if (hasExtensions) {
+					extensionListener.added(extensionArray);
+				}
+			} else { // on removal: extensions; then extension points
+				if (hasExtensions) {
+					extensionListener.removed(extensionArray);
+				}
+				if (!extensionPoints.isEmpty()) {
+					extensionListener.removed(extensionPointArray);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Combines the deltas of the events by namespace.
+	 */
+	private static Map<String, ?> combineDeltas(BitSet listenerEvents, List<? extends Map<String, ?>> scheduledDeltas) {
+		if (listenerEvents.cardinality() == 1) {
+			return scheduledDeltas.get(listenerEvents.nextSetBit(0));
+		}
+		Map<String, RegistryDelta> combined = new HashMap<>();
+		for (int i = listenerEvents.nextSetBit(0); i >= 0; i = listenerEvents.nextSetBit(i + 1)) {
+			for (Map.Entry<String, ?> entry : scheduledDeltas.get(i).entrySet()) {
+				combined.computeIfAbsent(entry.getKey(), namespace -> new RegistryDelta())
+						.addExtensionDeltas((RegistryDelta) entry.getValue());
 			}
 		}
-		for (Object delta : scheduledDeltas.values()) {
-			((RegistryDelta) delta).getObjectManager().close();
+		return combined;
+	}
+
+	private static void addListenerError(MultiStatus result, Throwable exception) {
+		synchronized (result) {
+			result.add(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME,
+					RegistryMessages.plugin_eventListenerError, exception));
 		}
-		IObjectManager manager = extendedDelta.getObjectManager();
-		if (manager != null) {
-			manager.close();
+	}
+
+	// notifies the listeners declaring themselves thread safe
+	private ExecutorService listenerExecutor;
+
+	private synchronized ExecutorService getListenerExecutor() {
+		if (listenerExecutor == null) {
+			listenerExecutor = Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "Extension Registry Event Listener Notifier"); //$NON-NLS-1$
+				t.setDaemon(true);
+				return t;
+			});
 		}
-		return result;
+		return listenerExecutor;
+	}
+
+	private synchronized void stopListenerExecutor() {
+		if (listenerExecutor != null) {
+			listenerExecutor.shutdown();
+			listenerExecutor = null;
+		}
+	}
+
+	// statistics of the registry change event dispatching
+	private final AtomicLong dispatchedEvents = new AtomicLong();
+	private final AtomicLong totalDispatchLatency = new AtomicLong(); // in nanoseconds
+	private final AtomicLong maxDispatchLatency = new AtomicLong(); // in nanoseconds
+
+	/**
+	 * Records the time a registry change event waited in the queue before it was
+	 * delivered to the listeners.
+	 *
+	 * @param latency the latency in nanoseconds
+	 */
+	public void recordEventDispatchLatency(long latency) {
+		dispatchedEvents.incrementAndGet();
+		totalDispatchLatency.addAndGet(latency);
+		maxDispatchLatency.accumulateAndGet(latency, Math::max);
+		if (debugEvents()) {
+			System.out.println("Registry change event dispatched after " //$NON-NLS-1$
+					+ TimeUnit.NANOSECONDS.toMillis(latency) + " ms"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns the number of registry change events delivered so far.
+	 */
+	public long getDispatchedEventCount() {
+		return dispatchedEvents.get();
+	}
+
+	/**
+	 * Returns the average time in milliseconds registry change events waited
+	 * before they were delivered.
+	 */
+	public long getAverageEventDispatchLatency() {
+		long count = dispatchedEvents.get();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalDispatchLatency.get() / count);
+	}
+
+	/**
+	 * Returns the longest time in milliseconds a registry change event waited
+	 * before it was delivered.
+	 */
+	public long getMaxEventDispatchLatency() {
+		return TimeUnit.NANOSECONDS.toMillis(maxDispatchLatency.get());
 	}
 
 	private RegistryEventThread eventThread = null; // registry event loop
@@ -1116,6 +1358,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	private static class QueueElement {
 		Object[] listenerInfos;
 		Map<String, ?> scheduledDeltas;
+		final long queued = System.nanoTime();
 
 		QueueElement(Object[] infos, Map<String, ?> deltas) {
 			this.scheduledDeltas = deltas;
@@ -1135,7 +1378,7 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		@Override
 		public void run() {
 			while (true) {
-				QueueElement element;
+				List<QueueElement> elements;
 				synchronized (queue) {
 					try {
 						while (queue.isEmpty()) {
@@ -1144,9 +1387,19 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 					} catch (InterruptedException e) {
 						return;
 					}
-					element = queue.remove(0);
+					// the events queued meanwhile are delivered together
+					elements = new ArrayList<>(queue);
+					queue.clear();
+				}
+				List<Object[]> listenerInfos = new ArrayList<>(elements.size());
+				List<Map<String, ?>> scheduledDeltas = new ArrayList<>(elements.size());
+				long now = System.nanoTime();
+				for (QueueElement element : elements) {
+					registry.recordEventDispatchLatency(now - element.queued);
+					listenerInfos.add(element.listenerInfos);
+					scheduledDeltas.add(element.scheduledDeltas);
 				}
-				registry.processChangeEvent(element.listenerInfos, element.scheduledDeltas);
+				registry.processChangeEvents(listenerInfos, scheduledDeltas);
 			}
 		}
 	}
@@ -1183,6 +1436,9 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		boolean result = addContribution(is, contributor, persist, contributionName, translationBundle, key);
 		if (timestamp != 0) {
 			aggregatedTimestamp.add(timestamp);
+			if (result && persist) {
+				contributionTimestamps.put(((RegistryContributor) contributor).getActualId(), Long.valueOf(timestamp));
+			}
 		}
 		return result;
 	}
@@ -1190,14 +1446,50 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 	@Override
 	public boolean addContribution(InputStream is, IContributor contributor, boolean persist, String contributionName,
 			ResourceBundle translationBundle, Object key) {
+		checkAddAccess(key, persist);
+		String name = contributionName == null ? "" : contributionName; //$NON-NLS-1$
+		Contribution contribution;
+		try {
+			contribution = parseContribution(contributor, persist, name,
+					(parser, newContribution) -> parser.parseManifest(strategy.getXMLParser(), new InputSource(is),
+							name, getObjectManager(), newContribution, translationBundle));
+		} finally {
+			try {
+				is.close();
+			} catch (IOException ioe) {
+				// nothing to do
+			}
+		}
+		if (contribution == null) {
+			return false;
+		}
+		add(contribution); // the add() method does synchronization
+		return true;
+	}
+
+	/**
+	 * Parses a manifest into a new contribution.
+	 */
+	private interface ManifestReader {
+		void read(ExtensionsParser parser, Contribution contribution)
+				throws ParserConfigurationException, SAXException, IOException;
+	}
+
+	private void checkAddAccess(Object key, boolean persist) {
 		if (!checkReadWriteAccess(key, persist)) {
 			throw new IllegalArgumentException(
 					"Unauthorized access to the ExtensionRegistry.addContribution() method. Check if proper access token is supplied."); //$NON-NLS-1$
 		}
-		if (contributionName == null) {
-			contributionName = ""; //$NON-NLS-1$
-		}
+	}
 
+	/**
+	 * Creates the registry objects of the contribution.
+	 *
+	 * @return the contribution or <code>null</code> if the manifest could not be
+	 *         parsed, the problems are logged
+	 */
+	private Contribution parseContribution(IContributor contributor, boolean persist, String contributionName,
+			ManifestReader reader) {
 		RegistryContributor internalContributor = (RegistryContributor) contributor;
 		registryObjects.addContributor(internalContributor); // only adds a contributor if it is not already present
 
@@ -1209,27 +1501,75 @@ public class ExtensionRegistry implements IExtensionRegistry, IDynamicExtensionR
 		Contribution contribution = getElementFactory().createContribution(internalContributor.getActualId(), persist);
 
 		try {
-			parser.parseManifest(strategy.getXMLParser(), new InputSource(is), contributionName, getObjectManager(),
-					contribution, translationBundle);
+			reader.read(parser, contribution);
 			int status = problems.getSeverity();
 			if (status != IStatus.OK) {
 				log(problems);
 				if (status == IStatus.ERROR || status == IStatus.CANCEL) {
-					return false;
+					return null;
 				}
 			}
 		} catch (ParserConfigurationException | SAXException | IOException e) {
 			logError(ownerName, contributionName, e);
-			return false;
-		} finally {
-			try {
-				is.close();
-			} catch (IOException ioe) {
-				// nothing to do
+			return null;
+		}
+		return contribution;
+	}
+
+	/**
+	 * Creates a parser for {@link DetachedContribution#parse(InputStream, SAXParser)}.
+	 */
+	public SAXParser createParser() throws ParserConfigurationException, SAXException {
+		return ExtensionsParser.createParser(strategy.getXMLParser());
+	}
+
+	/**
+	 * Adds the contributions parsed with
+	 * {@link DetachedContribution#parse(InputStream, SAXParser)} to the registry
+	 * taking the registry lock only once. The registry objects are created in the
+	 * order of the array, so of several contributions declaring the same extension
+	 * point the first one wins. A single registry change event is broadcast for
+	 * all the contributions.
+	 *
+	 * @throws IllegalArgumentException if incorrect token is passed in
+	 */
+	public void addContributions(DetachedContribution[] contributions, Object key) {
+		if (contributions.length == 0) {
+			return;
+		}
+		for (DetachedContribution detached : contributions) {
+			checkAddAccess(key, detached.shouldPersist());
+		}
+		access.enterWrite();
+		try {
+			eventDelta = CombinedEventDelta.recordAddition();
+			Set<String> affectedNamespaces = new HashSet<>();
+			// one object manager knowing the objects of all the contributions of the batch
+			Map<Integer, RegistryObject> associatedObjects = new HashMap<>();
+			for (DetachedContribution detached : contributions) {
+				Contribution contribution = parseContribution(detached.getContributor(), detached.shouldPersist(),
+						detached.getContributionName(), (parser, newContribution) -> parser
+								.parseManifest(detached, getObjectManager(), newContribution));
+				if (contribution == null) {
+					continue;
+				}
+				registryObjects.addContribution(contribution);
+				affectedNamespaces.addAll(addExtensionsAndExtensionPoints(contribution));
+				associatedObjects.putAll(registryObjects.getAssociatedObjects(contribution.getContributorId()));
+				long timestamp = detached.getTimestamp();
+				if (timestamp != 0) {
+					aggregatedTimestamp.add(timestamp);
+					if (contribution.shouldPersist()) {
+						contributionTimestamps.put(contribution.getContributorId(), Long.valueOf(timestamp));
+					}
+				}
 			}
+			setObjectManagers(affectedNamespaces, registryObjects.createDelegatingObjectManager(associatedObjects));
+			fireRegistryChangeEvent();
+			eventDelta = null;
+		} finally {
+			access.exitWrite();
 		}
-		add(contribution); // the add() method does synchronization
-		return true;
 	}
 
 	private void logError(String owner, String contributionName, Exception e) {
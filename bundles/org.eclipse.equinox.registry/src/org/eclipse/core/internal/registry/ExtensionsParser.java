@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.core.internal.registry;
 import java.io.IOException;
 import java.util.*;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
@@ -424,6 +425,19 @@ public class ExtensionsParser extends DefaultHandler {
 	public Contribution parseManifest(SAXParserFactory factory, InputSource in, String manifestName,
 			RegistryObjectManager registryObjects, Contribution currentNamespace, ResourceBundle bundle)
 			throws ParserConfigurationException, SAXException, IOException {
+		if (factory == null) {
+			throw new SAXException(RegistryMessages.parse_xmlParserNotAvailable);
+		}
+		return parseManifest(createParser(factory), in, manifestName, registryObjects, currentNamespace, bundle);
+	}
+
+	/**
+	 * Parses the manifest with a parser created by {@link #createParser}. The
+	 * parser is reset afterwards so it can be reused for the next manifest.
+	 */
+	public Contribution parseManifest(SAXParser parser, InputSource in, String manifestName,
+			RegistryObjectManager registryObjects, Contribution currentNamespace, ResourceBundle bundle)
+			throws SAXException, IOException {
 		long start = 0;
 		this.resources = bundle;
 		this.objectManager = registryObjects;
@@ -433,15 +447,47 @@ public class ExtensionsParser extends DefaultHandler {
 			start = System.currentTimeMillis();
 		}
 
-		if (factory == null) {
-			throw new SAXException(RegistryMessages.parse_xmlParserNotAvailable);
-		}
-
 		try {
 			locationName = in.getSystemId();
 			if (locationName == null) {
 				locationName = manifestName;
 			}
+			parser.parse(in, this);
+			return (Contribution) objectStack.pop();
+		} finally {
+			parser.reset();
+			if (registry.debug()) {
+				synchronized (ExtensionsParser.class) {
+					cumulativeTime = cumulativeTime + (System.currentTimeMillis() - start);
+					System.out.println("Cumulative parse time so far : " + cumulativeTime); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the contribution from a manifest parsed without the registry by
+	 * replaying its parser events.
+	 */
+	public Contribution parseManifest(DetachedContribution manifest, RegistryObjectManager registryObjects,
+			Contribution currentNamespace) throws SAXException, IOException {
+		this.resources = manifest.getTranslationBundle();
+		this.objectManager = registryObjects;
+		this.contribution = currentNamespace;
+		locationName = manifest.getContributionName();
+		manifest.replay(this);
+		return (Contribution) objectStack.pop();
+	}
+
+	/**
+	 * Creates a parser for extension manifests. The factory may be shared, it is
+	 * only configured while holding its lock.
+	 */
+	public static SAXParser createParser(SAXParserFactory factory) throws ParserConfigurationException, SAXException {
+		if (factory == null) {
+			throw new SAXException(RegistryMessages.parse_xmlParserNotAvailable);
+		}
+		synchronized (factory) {
 			factory.setNamespaceAware(true);
 			try {
 				factory.setFeature("http://xml.org/sax/features/string-interning", true); //$NON-NLS-1$
@@ -449,13 +495,7 @@ public class ExtensionsParser extends DefaultHandler {
 				// ignore; we can still operate without string-interning
 			}
 			factory.setValidating(false);
-			factory.newSAXParser().parse(in, this);
-			return (Contribution) objectStack.pop();
-		} finally {
-			if (registry.debug()) {
-				cumulativeTime = cumulativeTime + (System.currentTimeMillis() - start);
-				System.out.println("Cumulative parse time so far : " + cumulativeTime); //$NON-NLS-1$
-			}
+			return factory.newSAXParser();
 		}
 	}
 
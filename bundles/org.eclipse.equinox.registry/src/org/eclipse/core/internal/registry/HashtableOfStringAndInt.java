@@ -167,6 +167,18 @@ public final class HashtableOfStringAndInt implements Cloneable {
 		return result;
 	}
 
+	public String[] getKeys() {
+		int keyTableLength = keyTable.length;
+		String[] result = new String[size()];
+		int j = 0;
+		for (int i = 0; i < keyTableLength; i++) {
+			if (keyTable[i] != null) {
+				result[j++] = keyTable[i];
+			}
+		}
+		return result;
+	}
+
 	public void save(DataOutputStream out) throws IOException {
 		out.writeInt(elementSize);
 		int tableSize = keyTable.length;
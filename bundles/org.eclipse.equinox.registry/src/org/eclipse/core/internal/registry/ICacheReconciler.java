@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.registry;
+
+/**
+ * Marks a registry strategy which brings a stale registry cache up to date.
+ * <p>
+ * The registry normally discards its cache if contributions changed since the
+ * cache was written. If the strategy implements this interface, the registry
+ * is loaded from the cache anyway and {@link ExtensionRegistry#isCacheStale()}
+ * returns <code>true</code>. The strategy must then, while starting, remove the
+ * contributions that no longer exist or whose time stamp
+ * ({@link ExtensionRegistry#getContributionTimestamp(String)}) changed and add
+ * the new and changed contributions.
+ * </p>
+ */
+public interface ICacheReconciler {
+	// marker interface
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.registry;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Provides random read access to a file mapped into memory. Seeking is free and
+ * reads are served from the page cache without copying the file content into
+ * the heap, so objects of a large registry cache can be loaded on demand with a
+ * small heap footprint.
+ * <p>
+ * The mapping is released by the garbage collector once the stream is closed
+ * and no longer referenced. Until then the file cannot be deleted or replaced
+ * on Windows, see {@link TableReader}. All methods synchronize on the stream,
+ * which callers already hold for a sequence of reads.
+ */
+public class MappedRandomInputStream extends InputStream {
+
+	private final String filePath; // Canonical path to the underlying file used for logging
+	private final long length;
+	private ByteBuffer buffer;
+
+	public MappedRandomInputStream(File file) throws IOException {
+		filePath = file.getCanonicalPath();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("File too large to be mapped: " + filePath); //$NON-NLS-1$
+			}
+			// the mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+	}
+
+	@Override
+	public synchronized int read() throws IOException {
+		ByteBuffer current = getBuffer();
+		if (!current.hasRemaining()) {
+			return -1;
+		}
+		return current.get() & 0xFF;
+	}
+
+	@Override
+	public synchronized int read(byte b[], int off, int len) throws IOException {
+		ByteBuffer current = getBuffer();
+		if (len == 0) {
+			return 0;
+		}
+		int available = current.remaining();
+		if (available <= 0) {
+			return -1;
+		}
+		int count = Math.min(len, available);
+		current.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public synchronized long skip(long n) throws IOException {
+		ByteBuffer current = getBuffer();
+		if (n <= 0) {
+			return 0;
+		}
+		int skipped = (int) Math.min(n, current.remaining());
+		current.position(current.position() + skipped);
+		return skipped;
+	}
+
+	@Override
+	public synchronized int available() throws IOException {
+		return getBuffer().remaining();
+	}
+
+	@Override
+	public synchronized void close() {
+		// the mapping is released when the buffer is garbage collected
+		buffer = null;
+	}
+
+	@Override
+	public String toString() {
+		return filePath;
+	}
+
+	/**
+	 * Supplies functionality of the {@link java.io.RandomAccessFile#seek(long)}.
+	 *
+	 * @param pos offset
+	 */
+	public synchronized void seek(long pos) throws IOException {
+		if (pos < 0 || pos > length) {
+			throw new EOFException(filePath);
+		}
+		getBuffer().position((int) pos);
+	}
+
+	/**
+	 * Supplies functionality of the {@link java.io.RandomAccessFile#length()}.
+	 *
+	 * @return file length
+	 */
+	public long length() {
+		return length;
+	}
+
+	private ByteBuffer getBuffer() throws IOException {
+		ByteBuffer current = buffer;
+		if (current == null) {
+			throw new IOException("Stream closed: " + filePath); //$NON-NLS-1$
+		}
+		return current;
+	}
+}
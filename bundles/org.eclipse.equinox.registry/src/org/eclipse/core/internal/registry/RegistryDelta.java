@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -68,6 +68,14 @@ public class RegistryDelta {
 		((ExtensionDelta) extensionDelta).setContainingDelta(this);
 	}
 
+	/**
+	 * Adds the extension deltas of another registry delta. The extension deltas
+	 * still find their objects through the object manager of the other delta.
+	 */
+	void addExtensionDeltas(RegistryDelta delta) {
+		this.extensionDeltas.addAll(delta.extensionDeltas);
+	}
+
 	@Override
 	public String toString() {
 		return "\n\tHost " + ": " + extensionDeltas; //$NON-NLS-1$//$NON-NLS-2$
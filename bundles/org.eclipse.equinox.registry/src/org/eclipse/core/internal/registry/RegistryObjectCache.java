@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.registry;
+
+import java.lang.ref.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe map with integer keys used to cache registry objects and
+ * bundles. Values are either held with hard references or with soft references
+ * which allow the garbage collector to remove them if memory is running low.
+ * <p>
+ * Lookups do not lock, cleared soft references are purged on modification.
+ * This map does <I>not</I> allow null values.
+ */
+public class RegistryObjectCache {
+
+	private static final class SoftValue extends SoftReference<Object> {
+		final int key;
+
+		SoftValue(int key, Object value, ReferenceQueue<Object> queue) {
+			super(value, queue);
+			this.key = key;
+		}
+	}
+
+	private final ConcurrentHashMap<Integer, Object> map;
+	private final ReferenceQueue<Object> queue;
+
+	/**
+	 * @param soft            whether values are held with soft references
+	 * @param initialCapacity the initial capacity of the map
+	 */
+	public RegistryObjectCache(boolean soft, int initialCapacity) {
+		this.map = new ConcurrentHashMap<>(initialCapacity);
+		this.queue = soft ? new ReferenceQueue<>() : null;
+	}
+
+	/**
+	 * Returns the value associated with the key, or <code>null</code> if there is
+	 * none or it has been garbage collected.
+	 */
+	public Object get(int key) {
+		return dereference(map.get(key));
+	}
+
+	public void put(int key, Object value) {
+		if (value == null) {
+			throw new NullPointerException("null values not allowed"); //$NON-NLS-1$
+		}
+		purge();
+		map.put(key, queue == null ? value : new SoftValue(key, value, queue));
+	}
+
+	public Object remove(int key) {
+		purge();
+		return dereference(map.remove(key));
+	}
+
+	private static Object dereference(Object value) {
+		return value instanceof SoftValue ? ((SoftValue) value).get() : value;
+	}
+
+	private void purge() {
+		if (queue == null) {
+			return;
+		}
+		Reference<?> cleared;
+		while ((cleared = queue.poll()) != null) {
+			SoftValue value = (SoftValue) cleared;
+			// only remove the entry if it was not replaced in the mean time
+			map.remove(value.key, value);
+		}
+	}
+}
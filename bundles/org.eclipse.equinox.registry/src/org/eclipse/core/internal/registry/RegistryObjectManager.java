@@ -15,6 +15,7 @@ package org.eclipse.core.internal.registry;
 
 import java.lang.ref.SoftReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.IContributor;
 import org.eclipse.core.runtime.InvalidRegistryObjectException;
 import org.eclipse.core.runtime.spi.RegistryContributor;
@@ -45,8 +46,11 @@ public class RegistryObjectManager implements IObjectManager {
 	// key: extensionPointName, value: object id
 	private HashtableOfStringAndInt extensionPoints; // This is loaded on startup. Then entries can be added when
 														// loading a new plugin from the xml.
+	// key: extensionPointName, value: object id. Mirrors extensionPoints for lookups that do not lock.
+	private final Map<String, Integer> extensionPointIds = new ConcurrentHashMap<>();
 	// key: object id, value: an object
-	private ReferenceMap cache; // Entries are added by getter. The structure is not thread safe.
+	private final RegistryObjectCache cache; // Entries are added by getter. Lookups do not lock, loading from the
+												// table reader is synchronized.
 	// key: int, value: int
 	private OffsetTable fileOffsets = null; // This is read once on startup when loading from the cache. Entries are
 											// never added here. They are only removed to prevent "removed" objects to
@@ -88,11 +92,8 @@ public class RegistryObjectManager implements IObjectManager {
 
 	public RegistryObjectManager(ExtensionRegistry registry) {
 		extensionPoints = new HashtableOfStringAndInt();
-		if ("true".equalsIgnoreCase(RegistryProperties.getProperty(PROP_NO_REGISTRY_FLUSHING))) { //$NON-NLS-1$
-			cache = new ReferenceMap(ReferenceMap.HARD, CACHE_INITIAL_SIZE, DEFAULT_LOADFACTOR);
-		} else {
-			cache = new ReferenceMap(ReferenceMap.SOFT, CACHE_INITIAL_SIZE, DEFAULT_LOADFACTOR);
-		}
+		boolean noFlushing = "true".equalsIgnoreCase(RegistryProperties.getProperty(PROP_NO_REGISTRY_FLUSHING)); //$NON-NLS-1$
+		cache = new RegistryObjectCache(!noFlushing, CACHE_INITIAL_SIZE);
 		newContributions = new KeyedHashSet();
 
 		this.registry = registry;
@@ -110,6 +111,10 @@ public class RegistryObjectManager implements IObjectManager {
 		}
 		fileOffsets = (OffsetTable) results[0];
 		extensionPoints = (HashtableOfStringAndInt) results[1];
+		extensionPointIds.clear();
+		for (String key : extensionPoints.getKeys()) {
+			extensionPointIds.put(key, extensionPoints.get(key));
+		}
 		nextId = ((Integer) results[2]).intValue();
 		fromCache = true;
 
@@ -292,8 +297,14 @@ public class RegistryObjectManager implements IObjectManager {
 	}
 
 	@Override
-	public synchronized Object getObject(int id, byte type) {
-		return basicGetObject(id, type);
+	public Object getObject(int id, byte type) {
+		Object result = cache.get(id);
+		if (result != null) {
+			return result;
+		}
+		synchronized (this) {
+			return basicGetObject(id, type);
+		}
 	}
 
 	private Object basicGetObject(int id, byte type) {
@@ -331,7 +342,7 @@ public class RegistryObjectManager implements IObjectManager {
 	}
 
 	@Override
-	public synchronized RegistryObject[] getObjects(int[] values, byte type) {
+	public RegistryObject[] getObjects(int[] values, byte type) {
 		if (values.length == 0) {
 			switch (type) {
 			case EXTENSION_POINT:
@@ -357,18 +368,31 @@ public class RegistryObjectManager implements IObjectManager {
 			results = new ConfigurationElement[values.length];
 			break;
 		}
+		// try the cache first, only lock if objects have to be loaded
+		int missing = -1;
 		for (int i = 0; i < values.length; i++) {
-			results[i] = (RegistryObject) basicGetObject(values[i], type);
+			results[i] = (RegistryObject) cache.get(values[i]);
+			if (results[i] == null) {
+				missing = i;
+				break;
+			}
+		}
+		if (missing != -1) {
+			synchronized (this) {
+				for (int i = missing; i < values.length; i++) {
+					results[i] = (RegistryObject) basicGetObject(values[i], type);
+				}
+			}
 		}
 		return results;
 	}
 
-	synchronized ExtensionPoint getExtensionPointObject(String xptUniqueId) {
-		int id;
-		if ((id = extensionPoints.get(xptUniqueId)) == HashtableOfStringAndInt.MISSING_ELEMENT) {
+	ExtensionPoint getExtensionPointObject(String xptUniqueId) {
+		Integer id = extensionPointIds.get(xptUniqueId);
+		if (id == null) {
 			return null;
 		}
-		return (ExtensionPoint) getObject(id, EXTENSION_POINT);
+		return (ExtensionPoint) getObject(id.intValue(), EXTENSION_POINT);
 	}
 
 	@Override
@@ -441,12 +465,13 @@ public class RegistryObjectManager implements IObjectManager {
 		return (ExtensionPointHandle[]) getHandles(extensionPoints.getValues(), EXTENSION_POINT);
 	}
 
-	synchronized ExtensionPointHandle getExtensionPointHandle(String xptUniqueId) {
-		int id = extensionPoints.get(xptUniqueId);
-		if (id == HashtableOfStringAndInt.MISSING_ELEMENT) {
+	// Does not lock, the handle resolves its object lazily
+	ExtensionPointHandle getExtensionPointHandle(String xptUniqueId) {
+		Integer id = extensionPointIds.get(xptUniqueId);
+		if (id == null) {
 			return null;
 		}
-		return (ExtensionPointHandle) getHandle(id, EXTENSION_POINT);
+		return (ExtensionPointHandle) getHandle(id.intValue(), EXTENSION_POINT);
 	}
 
 	private Object load(int id, byte type) {
@@ -492,6 +517,7 @@ public class RegistryObjectManager implements IObjectManager {
 		}
 		add(currentExtPoint, hold);
 		extensionPoints.put(uniqueId, currentExtPoint.getObjectId());
+		extensionPointIds.put(uniqueId, Integer.valueOf(currentExtPoint.getObjectId()));
 		return true;
 	}
 
@@ -500,6 +526,7 @@ public class RegistryObjectManager implements IObjectManager {
 		if (pointId == HashtableOfStringAndInt.MISSING_ELEMENT) {
 			return;
 		}
+		extensionPointIds.remove(extensionPointId);
 		remove(pointId, true);
 	}
 
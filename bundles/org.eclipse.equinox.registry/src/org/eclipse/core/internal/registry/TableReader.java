@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2018 IBM Corporation and others.
+ * Copyright (c) 2004, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,7 @@ package org.eclipse.core.internal.registry;
 import java.io.*;
 import java.lang.ref.SoftReference;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.spi.RegistryContributor;
@@ -30,7 +29,7 @@ public class TableReader {
 	static final int LOBJECT = 2;
 
 	// The version of the cache
-	static final int CACHE_VERSION = 8;
+	static final int CACHE_VERSION = 9;
 	// Version 1 -> 2: the contributor Ids changed from "long" to "String"
 	// Version 2 -> 3: added namespace index and the table of contributors
 	// Version 3 -> 4: offset table saved in a binary form (performance)
@@ -40,15 +39,16 @@ public class TableReader {
 	// optimization)
 	// Version 6 -> 7: added option for multi-language support
 	// Version 7 -> 8: added support for large UTF-8 strings
+	// Version 8 -> 9: added the time stamps of the contributions to the table
 
 	// Informations representing the MAIN file
 	static final String MAIN = ".mainData"; //$NON-NLS-1$
-	BufferedRandomInputStream mainDataFile = null;
+	InputStream mainDataFile = null;
 	DataInputStream mainInput = null;
 
 	// Informations representing the EXTRA file
 	static final String EXTRA = ".extraData"; //$NON-NLS-1$
-	BufferedRandomInputStream extraDataFile = null;
+	InputStream extraDataFile = null;
 	DataInputStream extraInput = null;
 
 	// The table file
@@ -74,6 +74,7 @@ public class TableReader {
 	// Status code
 	private static final byte fileError = 0;
 	private static final boolean DEBUG = false; // TODO need to change
+	private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows"); //$NON-NLS-1$ //$NON-NLS-2$
 
 	private boolean holdObjects = false;
 
@@ -81,16 +82,49 @@ public class TableReader {
 
 	private SoftReference<Map<String, String>> stringPool;
 
+	// Set when the cache was accepted although contributions changed since it was
+	// written, see ExtensionRegistry#isCacheStale()
+	private boolean stale = false;
+	private long cachedTimestamp = 0;
+	private Map<String, Long> contributionTimestamps = null;
+
 	void setMainDataFile(File main) throws IOException {
-		mainDataFile = new BufferedRandomInputStream(main);
+		mainDataFile = openDataFile(main);
 		mainInput = new DataInputStream(mainDataFile);
 	}
 
 	void setExtraDataFile(File extra) throws IOException {
-		extraDataFile = new BufferedRandomInputStream(extra);
+		extraDataFile = openDataFile(extra);
 		extraInput = new DataInputStream(extraDataFile);
 	}
 
+	/**
+	 * Opens a data file for random access. The file is mapped into memory except
+	 * on Windows, where a mapped file cannot be deleted or replaced until the
+	 * garbage collector has released the mapping.
+	 */
+	private static InputStream openDataFile(File file) throws IOException {
+		if (WINDOWS) {
+			return new BufferedRandomInputStream(file);
+		}
+		return new MappedRandomInputStream(file);
+	}
+
+	private static void seek(InputStream dataFile, long offset) throws IOException {
+		if (dataFile instanceof MappedRandomInputStream) {
+			((MappedRandomInputStream) dataFile).seek(offset);
+		} else {
+			((BufferedRandomInputStream) dataFile).seek(offset);
+		}
+	}
+
+	private static long length(InputStream dataFile) throws IOException {
+		if (dataFile instanceof MappedRandomInputStream) {
+			return ((MappedRandomInputStream) dataFile).length();
+		}
+		return ((BufferedRandomInputStream) dataFile).length();
+	}
+
 	void setTableFile(File table) {
 		tableFile = table;
 	}
@@ -130,6 +164,13 @@ public class TableReader {
 			OffsetTable offsets = OffsetTable.load(tableInput);
 			extensionPoints = new HashtableOfStringAndInt();
 			extensionPoints.load(tableInput);
+			int size = tableInput.readInt();
+			Map<String, Long> timestamps = new HashMap<>(size);
+			for (int i = 0; i < size; i++) {
+				String contributorId = readUTF(tableInput, OBJECT);
+				timestamps.put(contributorId, Long.valueOf(tableInput.readLong()));
+			}
+			contributionTimestamps = timestamps;
 			return new Object[] { offsets, extensionPoints, nextId };
 		} catch (IOException e) {
 			log(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME, fileError,
@@ -179,12 +220,21 @@ public class TableReader {
 					.equals(RegistryProperties.getProperty(IRegistryConstants.PROP_NL, RegistryProperties.empty)));
 			boolean validMultiLang = (registry.isMultiLanguage() == multiLanguage);
 
-			if (!validTime || !validInstall || !validOS || !validWS || !validNL || !validMultiLang) {
+			if (!validOS || !validWS || !validNL || !validMultiLang) {
 				return false;
 			}
+			if (!validTime || !validInstall) {
+				// contributions changed; the registry can still start from the cache if
+				// the changed contributions are reconciled afterwards
+				if (!registry.isCacheReconcilable()) {
+					return false;
+				}
+				stale = true;
+			}
+			cachedTimestamp = registryStamp;
 
-			boolean validMain = (mainDataFileSize == mainDataFile.length());
-			boolean validExtra = (extraDataFileSize == extraDataFile.length());
+			boolean validMain = (mainDataFileSize == length(mainDataFile));
+			boolean validExtra = (extraDataFileSize == length(extraDataFile));
 			boolean validContrib = (contributionsFileSize == contributionsFile.length());
 			boolean validContributors = (contributorsFileSize == contributorsFile.length());
 			boolean validNamespace = (namespacesFileSize == namespacesFile.length());
@@ -411,11 +461,11 @@ public class TableReader {
 	}
 
 	private void goToInputFile(int offset) throws IOException {
-		mainDataFile.seek(offset);
+		seek(mainDataFile, offset);
 	}
 
 	private void goToExtraFile(int offset) throws IOException {
-		extraDataFile.seek(offset);
+		seek(extraDataFile, offset);
 	}
 
 	private String readStringOrNull(DataInputStream in) throws IOException {
@@ -671,6 +721,29 @@ public class TableReader {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the tables were loaded although contributions
+	 * changed since the cache was written.
+	 */
+	boolean isStale() {
+		return stale;
+	}
+
+	/**
+	 * Returns the aggregated time stamp of the contributions stored in the cache.
+	 */
+	long getCachedTimestamp() {
+		return cachedTimestamp;
+	}
+
+	/**
+	 * Returns the time stamps of the contributions stored in the cache, keyed by
+	 * contributor id.
+	 */
+	Map<String, Long> getContributionTimestamps() {
+		return contributionTimestamps == null ? Collections.emptyMap() : contributionTimestamps;
+	}
+
 	// Don't need to synchronize - called only from a synchronized method
 	public void setHoldObjects(boolean holdObjects) {
 		this.holdObjects = holdObjects;
@@ -279,6 +279,12 @@ public class TableWriter {
 			outputTable.writeInt(objectManager.getNextId());
 			offsets.save(outputTable);
 			objectManager.getExtensionPoints().save(outputTable, objectManager); // uses writer to filter contents
+			Map<String, Long> timestamps = registry.getContributionTimestamps();
+			outputTable.writeInt(timestamps.size());
+			for (Entry<String, Long> entry : timestamps.entrySet()) {
+				outputTable.writeUTF(entry.getKey());
+				outputTable.writeLong(entry.getValue().longValue());
+			}
 			outputTable.flush();
 			fosTable.getFD().sync();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2018 IBM Corporation and others.
+ * Copyright (c) 2003, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,14 +16,17 @@ package org.eclipse.core.internal.registry.osgi;
 import java.io.*;
 import java.net.URL;
 import java.util.*;
-import org.eclipse.core.internal.registry.ExtensionRegistry;
-import org.eclipse.core.internal.registry.RegistryMessages;
+import java.util.concurrent.*;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import org.eclipse.core.internal.registry.*;
 import org.eclipse.core.internal.runtime.ResourceTranslator;
 import org.eclipse.core.internal.runtime.RuntimeLog;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.ManifestElement;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.*;
+import org.xml.sax.SAXException;
 
 /**
  * A listener for bundle events. When a bundles come and go we look to see if
@@ -89,13 +92,136 @@ public class EclipseBundleListener implements SynchronousBundleListener {
 	}
 
 	public void processBundles(Bundle[] bundles) {
+		List<Bundle> resolved = new ArrayList<>(bundles.length);
 		for (Bundle bundle : bundles) {
 			if (isBundleResolved(bundle)) {
-				addBundle(bundle, false);
+				resolved.add(bundle);
 			} else {
 				removeBundle(bundle);
 			}
 		}
+		addBundles(resolved);
+	}
+
+	/**
+	 * Brings a registry loaded from a stale cache up to date. Contributions of
+	 * bundles which are gone or whose time stamp changed are removed, new and
+	 * changed contributions are parsed and added. Unchanged contributions are
+	 * kept from the cache.
+	 */
+	public void reconcileBundles(Bundle[] bundles) {
+		Set<String> cachedContributors = new HashSet<>(registry.getContributionTimestamps().keySet());
+		List<Bundle> changed = new ArrayList<>();
+		for (Bundle bundle : bundles) {
+			String contributorId = Long.toString(bundle.getBundleId());
+			cachedContributors.remove(contributorId);
+			URL pluginManifest = isBundleResolved(bundle) ? getExtensionURL(bundle, false) : null;
+			boolean cached = registry.hasContributor(contributorId);
+			if (pluginManifest == null) {
+				if (cached) {
+					removeBundle(bundle);
+				}
+				continue;
+			}
+			Long cachedTimestamp = registry.getContributionTimestamp(contributorId);
+			if (cached && cachedTimestamp != null
+					&& cachedTimestamp.longValue() == strategy.getExtendedTimestamp(bundle, pluginManifest)) {
+				continue;
+			}
+			if (cached) {
+				removeBundle(bundle);
+			}
+			changed.add(bundle);
+		}
+		// contributions of uninstalled bundles
+		for (String contributorId : cachedContributors) {
+			registry.remove(contributorId, 0);
+		}
+		// new fragments may provide translations for hosts kept from the cache
+		for (Bundle bundle : changed) {
+			checkForNLSFragment(bundle);
+		}
+		addBundles(changed);
+	}
+
+	private static int getParsingThreads() {
+		String threads = RegistryProperties.getProperty(IRegistryConstants.PROP_PARSING_THREADS);
+		if (threads != null) {
+			try {
+				return Integer.parseInt(threads.trim());
+			} catch (NumberFormatException e) {
+				// use the default
+			}
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Parses the manifests of the bundles not yet in the registry in parallel and
+	 * adds the contributions to the registry in one batch, in the order of the
+	 * bundles. Each parsing thread reuses its own parser.
+	 */
+	private void addBundles(List<Bundle> bundles) {
+		List<Bundle> toAdd = new ArrayList<>(bundles.size());
+		List<URL> manifests = new ArrayList<>(bundles.size());
+		for (Bundle bundle : bundles) {
+			URL pluginManifest = getManifestToAdd(bundle);
+			if (pluginManifest != null) {
+				toAdd.add(bundle);
+				manifests.add(pluginManifest);
+			}
+		}
+		int threads = Math.min(getParsingThreads(), toAdd.size());
+		if (threads <= 1) {
+			for (Bundle bundle : toAdd) {
+				addBundle(bundle, false);
+			}
+			return;
+		}
+		strategy.getXMLParser(); // make sure the parser factory is looked up by this thread only
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "Registry Manifest Parser"); //$NON-NLS-1$
+			t.setDaemon(true);
+			return t;
+		});
+		ThreadLocal<SAXParser> parsers = ThreadLocal.withInitial(this::createParser);
+		List<Future<DetachedContribution>> results = new ArrayList<>(toAdd.size());
+		try {
+			for (int i = 0; i < toAdd.size(); i++) {
+				Bundle bundle = toAdd.get(i);
+				URL pluginManifest = manifests.get(i);
+				results.add(executor.submit(() -> parseBundle(bundle, pluginManifest, parsers.get())));
+			}
+			List<DetachedContribution> contributions = new ArrayList<>(toAdd.size());
+			for (Future<DetachedContribution> result : results) {
+				try {
+					DetachedContribution contribution = result.get();
+					if (contribution != null) {
+						contributions.add(contribution);
+					}
+				} catch (ExecutionException e) {
+					RuntimeLog.log(new Status(IStatus.ERROR, RegistryMessages.OWNER_NAME, 0,
+							NLS.bind(RegistryMessages.parse_error, e.getCause().toString()), e.getCause()));
+				}
+			}
+			registry.addContributions(contributions.toArray(new DetachedContribution[contributions.size()]), token);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return a new parser or <code>null</code> if none is available, the
+	 *         problem is reported for each contribution parsed without a parser
+	 */
+	private SAXParser createParser() {
+		try {
+			return registry.createParser();
+		} catch (ParserConfigurationException | SAXException e) {
+			return null;
+		}
 	}
 
 	private boolean isBundleResolved(Bundle bundle) {
@@ -167,24 +293,43 @@ public class EclipseBundleListener implements SynchronousBundleListener {
 		if (checkNLSFragments) {
 			checkForNLSFragment(bundle);
 		}
+		URL pluginManifest = getManifestToAdd(bundle);
+		if (pluginManifest == null) {
+			return;
+		}
+		DetachedContribution contribution = parseBundle(bundle, pluginManifest, createParser());
+		if (contribution != null) {
+			registry.addContributions(new DetachedContribution[] { contribution }, token);
+		}
+	}
+
+	/**
+	 * @return the extension manifest of the bundle or <code>null</code> if the
+	 *         bundle has no contribution to add
+	 */
+	private URL getManifestToAdd(Bundle bundle) {
 		// if the given bundle already exists in the registry then return.
 		// note that this does not work for update cases.
 		IContributor contributor = ContributorFactoryOSGi.createContributor(bundle);
 		if (registry.hasContributor(contributor)) {
-			return;
-		}
-		URL pluginManifest = getExtensionURL(bundle, true);
-		if (pluginManifest == null) {
-			return;
+			return null;
 		}
+		return getExtensionURL(bundle, true);
+	}
+
+	/**
+	 * Parses the extension manifest of the bundle without touching the registry.
+	 *
+	 * @param parser the parser to use, <code>null</code> if none is available
+	 * @return the parsed contribution or <code>null</code> if the manifest could
+	 *         not be opened
+	 */
+	private DetachedContribution parseBundle(Bundle bundle, URL pluginManifest, SAXParser parser) {
 		InputStream is;
 		try {
 			is = new BufferedInputStream(pluginManifest.openStream());
 		} catch (IOException ex) {
-			is = null;
-		}
-		if (is == null) {
-			return;
+			return null;
 		}
 
 		ResourceBundle translationBundle = null;
@@ -193,11 +338,12 @@ public class EclipseBundleListener implements SynchronousBundleListener {
 		} catch (MissingResourceException e) {
 			// Ignore the exception
 		}
-		long timestamp = 0;
-		if (strategy.checkContributionsTimestamp()) {
-			timestamp = strategy.getExtendedTimestamp(bundle, pluginManifest);
-		}
-		registry.addContribution(is, contributor, true, pluginManifest.getPath(), translationBundle, token, timestamp);
+		// always tracked so that a stale registry cache can be reconciled
+		long timestamp = strategy.getExtendedTimestamp(bundle, pluginManifest);
+		DetachedContribution contribution = new DetachedContribution(ContributorFactoryOSGi.createContributor(bundle),
+				true, pluginManifest.getPath(), translationBundle, timestamp);
+		contribution.parse(is, parser);
+		return contribution;
 	}
 
 	private void checkForNLSFragment(Bundle bundle) {
@@ -47,6 +47,8 @@ public class EquinoxRegistryStrategy extends RegistryStrategyOSGI {
 
 	private boolean useJobs = true;
 
+	private ExtensionEventDispatcherJob eventDispatcher = null;
+
 	public EquinoxRegistryStrategy(File[] theStorageDir, boolean[] cacheReadOnly, Object key) {
 		super(theStorageDir, cacheReadOnly, key);
 	}
@@ -94,7 +96,11 @@ public class EquinoxRegistryStrategy extends RegistryStrategyOSGI {
 	public final void scheduleChangeEvent(Object[] listeners, Map<String, ?> deltas, Object registry) {
 		if (useJobs) {
 			try {
-				new ExtensionEventDispatcherJob(listeners, deltas, registry).schedule();
+				// events are scheduled while holding the registry write lock
+				if (eventDispatcher == null) {
+					eventDispatcher = new ExtensionEventDispatcherJob(registry);
+				}
+				eventDispatcher.dispatch(listeners, deltas);
 				return; // all done - most typical use case
 			} catch (NoClassDefFoundError | IllegalStateException e) {
 				useJobs = false;
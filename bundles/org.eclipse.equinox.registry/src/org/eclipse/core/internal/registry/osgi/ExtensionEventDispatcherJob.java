@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 IBM Corporation and others.
+ * Copyright (c) 2007, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,15 +13,20 @@
  *******************************************************************************/
 package org.eclipse.core.internal.registry.osgi;
 
-import java.util.Map;
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
+import java.util.*;
+import org.eclipse.core.internal.registry.ExtensionRegistry;
+import org.eclipse.core.internal.registry.RegistryMessages;
+import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.spi.RegistryStrategy;
 
 /**
- * Use Eclipse job scheduling mechanism.
+ * Use Eclipse job scheduling mechanism. One job is used per registry, registry
+ * change events are queued and the job delivers all the queued events in order
+ * each time it runs, so a burst of registry changes does not schedule a job per
+ * change. Consecutive queued events of the same kind reach a listener as one
+ * event.
  */
 final public class ExtensionEventDispatcherJob extends Job {
 	// an "identy rule" that forces extension events to be queued
@@ -36,23 +41,89 @@ final public class ExtensionEventDispatcherJob extends Job {
 			return rule == this;
 		}
 	};
-	private final Map<String, ?> deltas;
-	private final Object[] listenerInfos;
+
+	// The values we store in the event queue
+	private static class QueueElement {
+		final Object[] listenerInfos;
+		final Map<String, ?> deltas;
+		final long queued = System.nanoTime();
+
+		QueueElement(Object[] listenerInfos, Map<String, ?> deltas) {
+			this.listenerInfos = listenerInfos;
+			this.deltas = deltas;
+		}
+	}
+
+	/** @GuardedBy queue */
+	private final LinkedList<QueueElement> queue = new LinkedList<>();
 	private final Object registry;
 
-	public ExtensionEventDispatcherJob(Object[] listenerInfos, Map<String, ?> deltas, Object registry) {
+	public ExtensionEventDispatcherJob(Object registry) {
 		// name not NL'd since it is a system job
 		super("Registry event dispatcher"); //$NON-NLS-1$
 		setSystem(true);
-		this.listenerInfos = listenerInfos;
-		this.deltas = deltas;
 		this.registry = registry;
 		// all extension event dispatching jobs use this rule
 		setRule(EXTENSION_EVENT_RULE);
 	}
 
+	/**
+	 * Queues the registry change event and schedules the job if it is not
+	 * scheduled yet.
+	 *
+	 * @throws IllegalStateException if the job manager is no longer available
+	 */
+	public void dispatch(Object[] listenerInfos, Map<String, ?> deltas) {
+		QueueElement element = new QueueElement(listenerInfos, deltas);
+		synchronized (queue) {
+			queue.add(element);
+		}
+		try {
+			// has no effect if the job is waiting, a running job is run once more
+			schedule();
+		} catch (IllegalStateException e) {
+			synchronized (queue) {
+				queue.remove(element);
+			}
+			throw e;
+		}
+	}
+
 	@Override
 	public IStatus run(IProgressMonitor monitor) {
-		return RegistryStrategy.processChangeEvent(listenerInfos, deltas, registry);
+		MultiStatus result = new MultiStatus(RegistryMessages.OWNER_NAME, IStatus.OK,
+				RegistryMessages.plugin_eventListenerError, null);
+		while (true) {
+			List<QueueElement> elements;
+			synchronized (queue) {
+				elements = new ArrayList<>(queue);
+				queue.clear();
+			}
+			if (elements.isEmpty()) {
+				return result.isOK() ? Status.OK_STATUS : result;
+			}
+			if (registry instanceof ExtensionRegistry) {
+				ExtensionRegistry extensionRegistry = (ExtensionRegistry) registry;
+				List<Object[]> listenerInfos = new ArrayList<>(elements.size());
+				List<Map<String, ?>> deltas = new ArrayList<>(elements.size());
+				long now = System.nanoTime();
+				for (QueueElement element : elements) {
+					extensionRegistry.recordEventDispatchLatency(now - element.queued);
+					listenerInfos.add(element.listenerInfos);
+					deltas.add(element.deltas);
+				}
+				merge(result, extensionRegistry.processChangeEvents(listenerInfos, deltas));
+			} else {
+				for (QueueElement element : elements) {
+					merge(result, RegistryStrategy.processChangeEvent(element.listenerInfos, element.deltas, registry));
+				}
+			}
+		}
+	}
+
+	private static void merge(MultiStatus result, IStatus status) {
+		if (status != null && !status.isOK()) {
+			result.merge(status);
+		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2025 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,10 +16,7 @@ package org.eclipse.core.internal.registry.osgi;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Locale;
-import java.util.ResourceBundle;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.*;
 import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.core.internal.registry.*;
 import org.eclipse.core.internal.runtime.ResourceTranslator;
@@ -29,6 +26,7 @@ import org.eclipse.osgi.service.localization.LocaleProvider;
 import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.util.tracker.ServiceTracker;
 
 /**
@@ -48,7 +46,7 @@ import org.osgi.util.tracker.ServiceTracker;
  * @since org.eclipse.equinox.registry 3.2
  */
 
-public class RegistryStrategyOSGI extends RegistryStrategy {
+public class RegistryStrategyOSGI extends RegistryStrategy implements ICacheReconciler {
 
 	/**
 	 * Registry access key
@@ -134,13 +132,7 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 	//////////////////////////////////////////////////////////////////////////////////////// fragments)
 
 	/**
-	 * The default load factor for the bundle cache.
-	 */
-	private static float DEFAULT_BUNDLECACHE_LOADFACTOR = 0.75f;
-
-	/**
-	 * The expected bundle cache size (calculated as a number of bundles divided by
-	 * the DEFAULT_BUNDLECACHE_LOADFACTOR). The bundle cache will be resized
+	 * The expected bundle cache size. The bundle cache will be resized
 	 * automatically is this number is exceeded.
 	 */
 	private static int DEFAULT_BUNDLECACHE_SIZE = 200;
@@ -153,10 +145,7 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 	 * object is stored as a weak reference to facilitate GC in case the bundle was
 	 * uninstalled during the Eclipse run.
 	 */
-	private final ReferenceMap bundleMap = new ReferenceMap(ReferenceMap.SOFT, DEFAULT_BUNDLECACHE_SIZE,
-			DEFAULT_BUNDLECACHE_LOADFACTOR);
-
-	private final ReadWriteLock bundleMapLock = new ReentrantReadWriteLock();
+	private final RegistryObjectCache bundleMap = new RegistryObjectCache(true, DEFAULT_BUNDLECACHE_SIZE);
 
 	// String Id to OSGi Bundle conversion
 	private Bundle getBundle(String id) {
@@ -172,24 +161,15 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 		// We assume here that OSGI Id will fit into "int". As the number of
 		// registry elements themselves are expected to fit into "int", this
 		// is a valid assumption for the time being.
-		Bundle bundle;
-		bundleMapLock.readLock().lock();
-		try {
-			bundle = (Bundle) bundleMap.get((int) OSGiId);
-		} finally {
-			bundleMapLock.readLock().unlock();
-		}
+		Bundle bundle = (Bundle) bundleMap.get((int) OSGiId);
 		if (bundle != null) {
 			return bundle;
 		}
 		// note: we accept that two concurrent threads end up here for the same id,
 		// because they will anyway resolve the same mapping
 		bundle = Activator.getContext().getBundle(OSGiId);
-		bundleMapLock.writeLock().lock();
-		try {
+		if (bundle != null) {
 			bundleMap.put((int) OSGiId, bundle);
-		} finally {
-			bundleMapLock.writeLock().unlock();
 		}
 		return bundle;
 	}
@@ -282,6 +262,8 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 		// same bundle twice.
 		if (!loadedFromCache) {
 			pluginBundleListener.processBundles(Activator.getContext().getBundles());
+		} else if (((ExtensionRegistry) registry).isCacheStale()) {
+			pluginBundleListener.reconcileBundles(Activator.getContext().getBundles());
 		}
 	}
 
@@ -361,12 +343,20 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 		return trackTimestamp;
 	}
 
+	/**
+	 * Returns the time stamp of the contribution of the bundle. Besides the
+	 * extension manifest it covers the bundle, whose last modification time
+	 * changes with every update, and the localization files of the bundle which
+	 * translate the manifest.
+	 */
 	public long getExtendedTimestamp(Bundle bundle, URL pluginManifest) {
 		if (pluginManifest == null) {
 			return 0;
 		}
 		try {
-			return pluginManifest.openConnection().getLastModified() + bundle.getBundleId();
+			long timestamp = pluginManifest.openConnection().getLastModified() + bundle.getBundleId();
+			timestamp = 31 * timestamp + bundle.getLastModified();
+			return 31 * timestamp + getLocalizationTimestamp(bundle);
 		} catch (IOException e) {
 			if (debug()) {
 				System.out.println("Unable to obtain timestamp for the bundle " + bundle.getSymbolicName()); //$NON-NLS-1$
@@ -376,6 +366,36 @@ public class RegistryStrategyOSGI extends RegistryStrategy {
 		}
 	}
 
+	/**
+	 * Combines the modification times of the localization files in the bundle.
+	 * Only the entries of the bundle itself are looked at, so that the bundle
+	 * does not get resolved; fragments providing translations are handled when
+	 * they are added.
+	 */
+	private static long getLocalizationTimestamp(Bundle bundle) throws IOException {
+		String localization = bundle.getHeaders("").get(Constants.BUNDLE_LOCALIZATION); //$NON-NLS-1$
+		if (localization == null) {
+			localization = Constants.BUNDLE_LOCALIZATION_DEFAULT_BASENAME;
+		}
+		int lastSlash = localization.lastIndexOf('/');
+		String baseDir = lastSlash < 0 ? "/" : localization.substring(0, lastSlash + 1); //$NON-NLS-1$
+		String baseName = localization.substring(lastSlash + 1);
+		Enumeration<String> paths = bundle.getEntryPaths(baseDir);
+		long timestamp = 0;
+		while (paths != null && paths.hasMoreElements()) {
+			String path = paths.nextElement();
+			String name = path.substring(path.lastIndexOf('/') + 1);
+			if (name.startsWith(baseName) && name.endsWith(".properties")) { //$NON-NLS-1$
+				URL entry = bundle.getEntry(path);
+				if (entry != null) {
+					// summed up as the order of the entries is not defined
+					timestamp += 31 * path.hashCode() + entry.openConnection().getLastModified();
+				}
+			}
+		}
+		return timestamp;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.runtime;
+
+/**
+ * A marker for {@link IRegistryEventListener}s and
+ * {@link IRegistryChangeListener}s which can be notified concurrently with
+ * other listeners.
+ * <p>
+ * By default the registry notifies its listeners one after the other. A
+ * listener implementing this interface may instead be notified on another
+ * thread while other listeners are being notified of the same change. A
+ * listener still receives the changes one after the other and in order, the
+ * registry waits for all listeners to return before it notifies the next
+ * change.
+ * </p>
+ * <p>
+ * This interface can be used without OSGi running.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ *
+ * @since 3.13
+ */
+public interface IThreadSafeRegistryListener {
+	// marker interface
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.internal.transforms;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A directory of transformed content. Each source, such as an entry and the
+ * transform applied to it, has its own subdirectory. The content is stored in
+ * that subdirectory under a key which changes whenever the result of the
+ * transform may change. Storing content under a new key removes the content
+ * stored for the other keys of the source.
+ */
+public class TransformCache {
+
+	private static final String STAGED_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	private final File root;
+
+	/**
+	 * Create a cache in the given directory. The directory is created when
+	 * content is first stored.
+	 *
+	 * @param root the directory of the cache
+	 */
+	public TransformCache(File root) {
+		this.root = root;
+	}
+
+	/**
+	 * Return the file holding the content of a source for a key. The file does
+	 * not exist if no content has been stored for that key.
+	 *
+	 * @param source the source of the content
+	 * @param key    the key of the content
+	 * @return the file holding the content
+	 */
+	public File getFile(String source, String key) {
+		return new File(new File(root, digest(source)), digest(key));
+	}
+
+	/**
+	 * Store content in a file returned by {@link #getFile(String, String)}. The
+	 * content is staged in a temporary file first, which is removed if reading
+	 * the content fails. Once stored, the files of the other keys of the same
+	 * source are removed.
+	 *
+	 * @param file the file to store the content in
+	 * @param in   the content, closed by this method
+	 * @throws IOException if the content could not be read or stored
+	 */
+	public void store(File file, InputStream in) throws IOException {
+		try (InputStream stream = in) {
+			File dir = file.getParentFile();
+			if (!dir.mkdirs() && !dir.isDirectory()) {
+				throw new IOException("Unable to create directory: " + dir.getAbsolutePath()); //$NON-NLS-1$
+			}
+			Path staged = Files.createTempFile(dir.toPath(), "staged", STAGED_SUFFIX); //$NON-NLS-1$
+			try {
+				Files.copy(stream, staged, StandardCopyOption.REPLACE_EXISTING);
+				try {
+					Files.move(staged, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(staged, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				// nothing to do if the content was moved to the file
+				Files.deleteIfExists(staged);
+			}
+			prune(dir, file);
+		}
+	}
+
+	/**
+	 * Remove the files of the other keys from the directory of a source. Files
+	 * staged by concurrent calls to {@link #store(File, InputStream)} are kept.
+	 */
+	private static void prune(File dir, File current) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (!file.equals(current) && !file.getName().endsWith(STAGED_SUFFIX)) {
+				// may fail while the file is read, it is removed with the next key
+				file.delete();
+			}
+		}
+	}
+
+	private static String digest(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			return HexFormat.of().formatHex(digest);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
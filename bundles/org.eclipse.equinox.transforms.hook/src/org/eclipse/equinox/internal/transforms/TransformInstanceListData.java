@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.equinox.internal.transforms;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.osgi.internal.log.EquinoxLogServices;
 import org.osgi.framework.*;
 import org.osgi.util.tracker.ServiceTracker;
@@ -30,6 +31,10 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 	 * Used when there are no transform data types
 	 */
 	private static final String[] EMPTY_TYPES = new String[0];
+	/**
+	 * Used when there are no transforms for a bundle
+	 */
+	private static final TransformTuple[] EMPTY_TRANSFORMS = new TransformTuple[0];
 	/**
 	 * Stale state of the transform list. Set to true whenever one of the
 	 * ServiceTrackerCustomization methods are invoked.
@@ -42,15 +47,10 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 	private final Map<String, TransformTuple[]> transformerToTuple = new HashMap<>();
 
 	/**
-	 * List of all tuples in the system.
-	 */
-	private final List<TransformTuple> rawTuples = new ArrayList<>();
-
-	/**
-	 * Map from bundle ID -> boolean representing whether or not a given bundle
-	 * currently has any transforms registered against it.
+	 * Map from bundle ID -> the transforms whose bundle pattern matches the bundle,
+	 * in the order they are applied.
 	 */
-	private final Map<String, Boolean> bundleIdToTransformPresence = new HashMap<>();
+	private final Map<String, TransformTuple[]> bundleIdToTransforms = new ConcurrentHashMap<>();
 	private final EquinoxLogServices logServices;
 
 	/**
@@ -109,26 +109,55 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 	 * @param bundle the bundle to test
 	 * @return the presence of associated transforms.
 	 */
-	public synchronized boolean hasTransformsFor(Bundle bundle) {
+	public boolean hasTransformsFor(Bundle bundle) {
+		return getTransformsFor(bundle).length > 0;
+	}
+
+	/**
+	 * Return the transforms whose bundle pattern matches the ID of the provided
+	 * bundle, in the order they are applied. The bundle patterns are only
+	 * evaluated once per bundle ID until a change is detected. The array returned
+	 * for a bundle stays the same until then, and transforms already evaluated are
+	 * returned without locking.
+	 *
+	 * @param bundle the bundle to test
+	 * @return the transforms for the bundle, never <code>null</code>
+	 */
+	public TransformTuple[] getTransformsFor(Bundle bundle) {
+		String bundleName = bundle.getSymbolicName();
+		if (bundleName == null) {
+			return EMPTY_TRANSFORMS;
+		}
+		if (!stale) {
+			TransformTuple[] transforms = bundleIdToTransforms.get(bundleName);
+			if (transforms != null) {
+				return transforms;
+			}
+		}
+		return computeTransformsFor(bundleName);
+	}
+
+	private synchronized TransformTuple[] computeTransformsFor(String bundleName) {
 		if (stale) {
 			rebuildTransformMap();
 		}
 
-		String bundleName = bundle.getSymbolicName();
-		Boolean hasTransformsFor = bundleIdToTransformPresence.get(bundleName);
+		TransformTuple[] transforms = bundleIdToTransforms.get(bundleName);
 
-		if (hasTransformsFor == null) {
-			hasTransformsFor = Boolean.FALSE;
-			for (TransformTuple tuple : rawTuples) {
-				if (tuple.bundlePattern.matcher(bundleName).matches()) {
-					hasTransformsFor = Boolean.TRUE;
+		if (transforms == null) {
+			List<TransformTuple> matching = new ArrayList<>();
+			for (TransformTuple[] tuples : transformerToTuple.values()) {
+				for (TransformTuple tuple : tuples) {
+					if (tuple.bundlePattern.matcher(bundleName).matches()) {
+						matching.add(tuple);
+					}
 				}
 			}
-
-			bundleIdToTransformPresence.put(bundleName, hasTransformsFor);
+			transforms = matching.isEmpty() ? EMPTY_TRANSFORMS : matching.toArray(new TransformTuple[matching.size()]);
+			bundleIdToTransforms.put(bundleName, transforms);
 		}
 
-		return hasTransformsFor.booleanValue();
+		return transforms;
 	}
 
 	/**
@@ -137,8 +166,7 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 	 */
 	private void rebuildTransformMap() {
 		transformerToTuple.clear();
-		rawTuples.clear();
-		bundleIdToTransformPresence.clear();
+		bundleIdToTransforms.clear();
 
 		ServiceReference<URL>[] serviceReferences = getServiceReferences();
 		stale = false;
@@ -152,6 +180,9 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 			TransformTuple[] transforms;
 			try {
 				transforms = CSVParser.parse(url, logServices);
+				for (TransformTuple transform : transforms) {
+					transform.type = type;
+				}
 				TransformTuple[] existing = transformerToTuple.get(type);
 				if (existing != null) {
 					TransformTuple[] newTransforms = new TransformTuple[existing.length + transforms.length];
@@ -161,9 +192,6 @@ public class TransformInstanceListData extends ServiceTracker<URL, URL> {
 				} else {
 					transformerToTuple.put(type, transforms);
 				}
-				for (TransformTuple transform : transforms) {
-					rawTuples.add(transform);
-				}
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,12 @@
 
 package org.eclipse.equinox.internal.transforms;
 
+import java.io.IOException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.regex.Pattern;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 
 /**
  * Class that represents an association between a bundle pattern, a path
@@ -32,4 +36,71 @@ public class TransformTuple {
 	public Pattern bundlePattern;
 	public Pattern pathPattern;
 	public URL transformerUrl;
+	/**
+	 * The type of transformer this tuple is assigned to. Set when the tuple is
+	 * registered.
+	 */
+	public String type;
+
+	/**
+	 * The identity of this transform, computed when first requested.
+	 */
+	private volatile String identity;
+	/**
+	 * The identity of this transform together with the transformer it was last
+	 * requested for.
+	 */
+	private volatile TransformerIdentity transformerIdentity;
+
+	private record TransformerIdentity(StreamTransformer transformer, String identity) {
+	}
+
+	/**
+	 * Return a string that identifies the transform described by this tuple,
+	 * including the last modified time of the content at the transformer URL. The
+	 * identity is computed once, tuples are created again when the transforms
+	 * registered against a type change.
+	 *
+	 * @return the identity of this transform
+	 */
+	public String getIdentity() {
+		String result = identity;
+		if (result == null) {
+			long lastModified = 0;
+			try {
+				URLConnection connection = transformerUrl.openConnection();
+				lastModified = connection.getLastModified();
+				connection.getInputStream().close();
+			} catch (IOException e) {
+				// use the URL only
+			}
+			result = type + '|' + transformerUrl.toExternalForm() + '|' + lastModified;
+			identity = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Return a string that identifies the transform described by this tuple when
+	 * applied by the given transformer. Besides {@link #getIdentity()} it includes
+	 * the class of the transformer implementation and the version of its bundle.
+	 * The identity is computed again when a different transformer is passed.
+	 *
+	 * @param transformer the transformer applying this transform
+	 * @return the identity of this transform and the transformer
+	 */
+	public String getIdentity(StreamTransformer transformer) {
+		TransformerIdentity result = transformerIdentity;
+		if (result == null || result.transformer() != transformer) {
+			Object implementation = transformer instanceof ProxyStreamTransformer
+					? ((ProxyStreamTransformer) transformer).getTransformer()
+					: transformer;
+			Bundle implementationBundle = FrameworkUtil.getBundle(implementation.getClass());
+			result = new TransformerIdentity(transformer,
+					getIdentity() + '|' + implementation.getClass().getName() + '|'
+							+ (implementationBundle == null ? "" : implementationBundle.getVersion())); //$NON-NLS-1$
+			transformerIdentity = result;
+		}
+		return result.identity();
+	}
 }
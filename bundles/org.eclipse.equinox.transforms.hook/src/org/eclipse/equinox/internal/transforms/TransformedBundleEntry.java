@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,36 +17,51 @@ package org.eclipse.equinox.internal.transforms;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
-import org.eclipse.osgi.framework.log.FrameworkLogEntry;
-import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.storage.bundlefile.BundleEntry;
 
 /**
  * This class is capable of providing a transformed version of an entry
- * contained within a base bundle entity.
+ * contained within a base bundle entity. The entry is transformed when its
+ * content is first requested.
  */
 public class TransformedBundleEntry extends BundleEntry {
 
 	long timestamp;
-	private InputStream stream;
 	private final BundleEntry original;
 	private final TransformedBundleFile bundleFile;
+	private final TransformedBundleFile.PathTransforms transforms;
+	private volatile boolean transformed;
+	private volatile File transformedFile;
 
 	/**
 	 * Create a wrapped bundle entry. Calls to obtain the content of this entry will
-	 * be resolved via the provided input stream rather than the original.
+	 * be resolved via the provided transforms rather than the original.
 	 *
-	 * @param bundleFile    the host bundle file
-	 * @param original      the original entry
-	 * @param wrappedStream the override stream
+	 * @param bundleFile the host bundle file
+	 * @param original   the original entry
+	 * @param transforms the transforms matching the entry, in the order they are
+	 *                   tried
 	 */
-	public TransformedBundleEntry(TransformedBundleFile bundleFile, BundleEntry original, InputStream wrappedStream) {
-		this.stream = wrappedStream;
+	public TransformedBundleEntry(TransformedBundleFile bundleFile, BundleEntry original,
+			TransformedBundleFile.PathTransforms transforms) {
 		this.bundleFile = bundleFile;
 		this.original = original;
+		this.transforms = transforms;
 		timestamp = System.currentTimeMillis();
 	}
 
+	/**
+	 * Return the file holding the transformed content, or <code>null</code> if no
+	 * transform applies and the original content is used.
+	 */
+	private File getTransformedFile() {
+		if (!transformed) {
+			transformedFile = bundleFile.getTransformedFile(original, transforms);
+			transformed = true;
+		}
+		return transformedFile;
+	}
+
 	@Override
 	@SuppressWarnings("deprecation")
 	public URL getFileURL() {
@@ -62,8 +77,9 @@ public class TransformedBundleEntry extends BundleEntry {
 	}
 
 	@Override
-	public InputStream getInputStream() {
-		return stream;
+	public InputStream getInputStream() throws IOException {
+		File file = getTransformedFile();
+		return file == null ? original.getInputStream() : new FileInputStream(file);
 	}
 
 	@Override
@@ -77,37 +93,13 @@ public class TransformedBundleEntry extends BundleEntry {
 	}
 
 	/**
-	 * Obtaining the size means inspecting the transformed stream. If this stream
-	 * does not support marks the stream is drained and a copy is retained for later
-	 * use.
+	 * Obtaining the size means transforming the entry if it has not been
+	 * transformed yet.
 	 */
 	@Override
 	public long getSize() {
-		ByteArrayOutputStream tempBuffer = new ByteArrayOutputStream(1024);
-		byte[] buffer = new byte[1024];
-		int i = 0;
-		try {
-			while ((i = stream.read(buffer)) > -1) {
-				tempBuffer.write(buffer, 0, i);
-			}
-			if (stream.markSupported()) {
-				try {
-					stream.reset();
-				} catch (IOException e) {
-					stream = new ByteArrayInputStream(tempBuffer.toByteArray());
-				}
-			} else {
-				stream = new ByteArrayInputStream(tempBuffer.toByteArray());
-			}
-		} catch (IOException e) {
-			bundleFile.getGeneration().getBundleInfo().getStorage().getLogServices().log(EquinoxContainer.NAME,
-					FrameworkLogEntry.ERROR,
-					"Problem calculating size of stream for file.  Stream may now be corrupted : " //$NON-NLS-1$
-							+ getName(),
-					e);
-		}
-		return tempBuffer.size();
-
+		File file = getTransformedFile();
+		return file == null ? original.getSize() : file.length();
 	}
 
 	@Override
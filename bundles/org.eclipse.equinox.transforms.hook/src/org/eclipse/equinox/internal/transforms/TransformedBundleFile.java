@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,28 +15,38 @@
 package org.eclipse.equinox.internal.transforms;
 
 import java.io.*;
-import java.util.Enumeration;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.eclipse.equinox.internal.transforms.LazyInputStream.InputStreamProvider;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.osgi.framework.log.FrameworkLogEntry;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.storage.BundleInfo.Generation;
 import org.eclipse.osgi.storage.StorageUtil;
 import org.eclipse.osgi.storage.bundlefile.*;
-import org.osgi.framework.Bundle;
 
 /**
  * This class is capable of providing transformed versions of entries contained
  * within a base bundle file. For requests that transform bundle contents into
  * local resources (such as file URLs) the transformed state of the bundle is
  * written to the configuration area.
+ * <p>
+ * Transformed content is cached in the storage area of the generation, keyed by
+ * the source entry and the identity of the transform. Once an entry has been
+ * transformed it is read from the cache, also after a restart, without invoking
+ * the transformer again. When the key of an entry changes, for example because
+ * the transformer was modified, the content cached for the old key is removed.
+ * </p>
  */
 public class TransformedBundleFile extends BundleFileWrapper {
 
+	private static final String CACHE_DIR = ".tfcache"; //$NON-NLS-1$
+	private static final TransformTuple[] EMPTY_TRANSFORMS = new TransformTuple[0];
+
 	private final TransformerHook transformerHook;
 	private final BundleFile delegate;
 	private final Generation generation;
+	private final TransformCache cache;
+	// the transforms matching each path an entry was requested for
+	private final Map<String, PathTransforms> pathTransforms = new ConcurrentHashMap<>();
 
 	/**
 	 * Create a wrapped bundle file. Requests into this file will be compared to the
@@ -52,6 +62,7 @@ public class TransformedBundleFile extends BundleFileWrapper {
 		this.transformerHook = transformerHook;
 		this.generation = generation;
 		this.delegate = delegate;
+		this.cache = new TransformCache(generation.getExtractFile(CACHE_DIR));
 	}
 
 	Generation getGeneration() {
@@ -71,70 +82,121 @@ public class TransformedBundleFile extends BundleFileWrapper {
 			return original;
 		}
 
-		LazyInputStream stream = new LazyInputStream(new InputStreamProvider() {
+		TransformTuple[] transforms = transformerHook.getTransformsFor(generation.getRevision().getBundle());
+		if (transforms.length == 0) {
+			return original;
+		}
+		PathTransforms matching = getPathTransforms(path, transforms);
+		for (TransformTuple transform : matching.transforms) {
+			if (transformerHook.getTransformer(transform.type) != null) {
+				return new TransformedBundleEntry(this, original, matching);
+			}
+		}
+		return original;
+	}
 
-			@Override
-			public InputStream getInputStream() throws IOException {
-				return original.getInputStream();
+	/**
+	 * Return the transforms whose path pattern matches the path. The matches are
+	 * computed once per path until the transforms of the bundle change.
+	 */
+	private PathTransforms getPathTransforms(String path, TransformTuple[] transforms) {
+		PathTransforms result = pathTransforms.get(path);
+		if (result != null && result.bundleTransforms == transforms) {
+			return result;
+		}
+		List<TransformTuple> matching = null;
+		for (TransformTuple transform : transforms) {
+			if (transform.pathPattern.matcher(path).matches()) {
+				if (matching == null) {
+					matching = new ArrayList<>(1);
+				}
+				matching.add(transform);
 			}
-		});
-		InputStream wrappedStream = getInputStream(stream, generation.getRevision().getBundle(), path);
-		if (wrappedStream == null) {
-			return original;
 		}
-		return new TransformedBundleEntry(this, original, wrappedStream);
+		result = matching == null ? new PathTransforms(transforms, EMPTY_TRANSFORMS)
+				: new PathTransforms(transforms, matching.toArray(new TransformTuple[matching.size()]));
+		pathTransforms.put(path, result);
+		return result;
 	}
 
 	/**
-	 * Return the input stream that results from applying the given transformer URL
-	 * to the provided input stream.
+	 * Return the file holding the result of applying the first of the given
+	 * transforms whose transformer succeeds to the original entry. The result is
+	 * cached in the storage area of the generation.
 	 *
-	 * @param inputStream the stream to transform
-	 * @param bundle      the resource representing the transformer
-	 * @return the transformed stream
+	 * @param original   the entry to transform
+	 * @param transforms the transforms matching the entry, in the order they are
+	 *                   tried
+	 * @return the transformed file, or <code>null</code> if the entry is not
+	 *         transformed
 	 */
-	protected InputStream getInputStream(InputStream inputStream, Bundle bundle, String path) {
-		String namespace = bundle.getSymbolicName();
-
-		String[] transformTypes = transformerHook.getTransformTypes();
-		if (transformTypes.length == 0) {
-			return null;
-		}
-		for (String transformType : transformTypes) {
-			StreamTransformer transformer = transformerHook.getTransformer(transformType);
+	File getTransformedFile(BundleEntry original, PathTransforms transforms) {
+		for (int i = 0; i < transforms.transforms.length; i++) {
+			TransformTuple transform = transforms.transforms[i];
+			StreamTransformer transformer = transformerHook.getTransformer(transform.type);
 			if (transformer == null) {
 				continue;
 			}
-			TransformTuple[] transformTuples = transformerHook.getTransformsFor(transformType);
-			if (transformTuples == null) {
-				continue;
+			File cacheFile = transforms.getCacheFile(i, original, transformer);
+			if (cacheFile.isFile()) {
+				return cacheFile;
 			}
-			for (TransformTuple transformTuple : transformTuples) {
-				if (match(transformTuple.bundlePattern, namespace) && match(transformTuple.pathPattern, path)) {
-					try {
-						return transformer.getInputStream(inputStream, transformTuple.transformerUrl);
-					} catch (IOException e) {
-						generation.getBundleInfo().getStorage().getLogServices().log(EquinoxContainer.NAME,
-								FrameworkLogEntry.ERROR, "Problem obtaining transformed stream from transformer : " //$NON-NLS-1$
-										+ transformer.getClass().getName(),
-								e);
-
-					}
+			try (InputStream in = transformer.getInputStream(new LazyInputStream(original::getInputStream),
+					transform.transformerUrl)) {
+				if (in == null) {
+					return null;
 				}
+				cache.store(cacheFile, in);
+				return cacheFile;
+			} catch (IOException e) {
+				generation.getBundleInfo().getStorage().getLogServices().log(EquinoxContainer.NAME,
+						FrameworkLogEntry.ERROR, "Problem obtaining transformed stream from transformer : " //$NON-NLS-1$
+								+ transformer.getClass().getName(),
+						e);
 			}
 		}
-
 		return null;
 	}
 
 	/**
-	 * Return whether the given string matches the given pattern.
-	 *
-	 * @return whether the given string matches the given pattern
+	 * The transforms whose path pattern matches a path, and the files caching
+	 * their results for the entry at the path.
 	 */
-	private boolean match(Pattern pattern, String string) {
-		Matcher matcher = pattern.matcher(string);
-		return matcher.matches();
+	final class PathTransforms {
+
+		// the transforms of the bundle the path was matched against
+		final TransformTuple[] bundleTransforms;
+		final TransformTuple[] transforms;
+		// the cache file of each transform and the key it was derived from
+		private final CacheFile[] cacheFiles;
+
+		PathTransforms(TransformTuple[] bundleTransforms, TransformTuple[] transforms) {
+			this.bundleTransforms = bundleTransforms;
+			this.transforms = transforms;
+			this.cacheFiles = new CacheFile[transforms.length];
+		}
+
+		/**
+		 * Return the file caching the result of a transform. The key of the file is
+		 * derived from the source entry, the transform and the transformer, so a
+		 * change to any of them leads to a new file.
+		 */
+		File getCacheFile(int index, BundleEntry original, StreamTransformer transformer) {
+			TransformTuple transform = transforms[index];
+			String key = original.getName() + '|' + original.getTime() + '|' + original.getSize() + '|'
+					+ transform.getIdentity(transformer);
+			CacheFile cacheFile = cacheFiles[index];
+			if (cacheFile == null || !cacheFile.key().equals(key)) {
+				String source = original.getName() + '|' + transform.type + '|'
+						+ transform.transformerUrl.toExternalForm();
+				cacheFile = new CacheFile(key, cache.getFile(source, key));
+				cacheFiles[index] = cacheFile;
+			}
+			return cacheFile.file();
+		}
+	}
+
+	private record CacheFile(String key, File file) {
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -101,6 +101,11 @@ public class TransformerHook
 		return current == null ? null : current.getTransformsFor(type);
 	}
 
+	public TransformTuple[] getTransformsFor(Bundle bundle) {
+		TransformInstanceListData current = templates;
+		return current == null ? new TransformTuple[0] : current.getTransformsFor(bundle);
+	}
+
 	public boolean hasTransformers() {
 		TransformerList current = transformers;
 		return current == null ? false : current.hasTransformers();
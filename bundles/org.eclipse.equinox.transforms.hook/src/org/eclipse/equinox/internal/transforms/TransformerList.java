@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,7 @@
 
 package org.eclipse.equinox.internal.transforms;
 
-import java.util.HashMap;
+import java.util.*;
 import org.eclipse.osgi.framework.log.FrameworkLogEntry;
 import org.eclipse.osgi.internal.framework.EquinoxContainer;
 import org.eclipse.osgi.internal.log.EquinoxLogServices;
@@ -33,9 +33,10 @@ public class TransformerList extends ServiceTracker<Object, Object> {
 	private volatile boolean stale = true;
 
 	/**
-	 * Local cache of transformers.
+	 * Local cache of transformers. Replaced when the list is rebuilt so that it
+	 * can be read without locking.
 	 */
-	private final HashMap<String, StreamTransformer> transformers = new HashMap<>();
+	private volatile Map<String, StreamTransformer> transformers = Collections.emptyMap();
 	private final EquinoxLogServices logServices;
 
 	/**
@@ -61,29 +62,36 @@ public class TransformerList extends ServiceTracker<Object, Object> {
 	 * @return the transformer or null if no transformer of the given type is
 	 *         available.
 	 */
-	public synchronized StreamTransformer getTransformer(String type) {
+	public StreamTransformer getTransformer(String type) {
 		if (stale) {
-			rebuildTransformersMap();
+			rebuild();
 		}
 		return transformers.get(type);
 	}
 
-	public synchronized boolean hasTransformers() {
+	public boolean hasTransformers() {
 		if (stale) {
-			rebuildTransformersMap();
+			rebuild();
 		}
 		return transformers.size() > 0;
 	}
 
+	private synchronized void rebuild() {
+		if (stale) {
+			rebuildTransformersMap();
+		}
+	}
+
 	/**
 	 * Consults the bundle context for services of the transformer type and builds
 	 * the internal cache.
 	 */
 	private void rebuildTransformersMap() {
-		transformers.clear();
+		Map<String, StreamTransformer> transformers = new HashMap<>();
 		ServiceReference<Object>[] serviceReferences = getServiceReferences();
 		stale = false;
 		if (serviceReferences == null) {
+			this.transformers = Collections.emptyMap();
 			return;
 		}
 
@@ -105,6 +113,7 @@ public class TransformerList extends ServiceTracker<Object, Object> {
 				}
 			}
 		}
+		this.transformers = transformers;
 	}
 
 	@Override
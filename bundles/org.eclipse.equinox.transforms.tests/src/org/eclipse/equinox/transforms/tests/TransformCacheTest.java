@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.transforms.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.equinox.internal.transforms.TransformCache;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Ensures transformed content is stored under the key it was transformed
+ * with, that storing content for a new key removes the content of the old
+ * keys, and that a failed transform leaves no staged files behind.
+ */
+public class TransformCacheTest {
+	private static final String SOURCE = "entry|type|url"; //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File root;
+	private TransformCache cache;
+
+	@Before
+	public void setUp() {
+		root = new File(folder.getRoot(), ".tfcache"); //$NON-NLS-1$
+		cache = new TransformCache(root);
+	}
+
+	@Test
+	public void testStore() throws IOException {
+		File file = cache.getFile(SOURCE, "key1"); //$NON-NLS-1$
+		assertFalse("Content was found before it was stored", file.exists()); //$NON-NLS-1$
+		assertEquals("Files of the same key differ", file, cache.getFile(SOURCE, "key1")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.store(file, stream("content1")); //$NON-NLS-1$
+		assertEquals("content1", read(file)); //$NON-NLS-1$
+		assertArrayEquals("Unexpected files", new String[] { file.getName() }, file.getParentFile().list()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testNewKeyRemovesOldKeys() throws IOException {
+		File file1 = cache.getFile(SOURCE, "key1"); //$NON-NLS-1$
+		File file2 = cache.getFile(SOURCE, "key2"); //$NON-NLS-1$
+		File other = cache.getFile("other", "key1"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Keys of a source are not kept together", file1.getParentFile(), file2.getParentFile()); //$NON-NLS-1$
+		assertNotEquals("Keys of different sources are kept together", file1.getParentFile(), other.getParentFile()); //$NON-NLS-1$
+
+		cache.store(file1, stream("content1")); //$NON-NLS-1$
+		cache.store(other, stream("other")); //$NON-NLS-1$
+		cache.store(file2, stream("content2")); //$NON-NLS-1$
+		assertFalse("Content of the old key was kept", file1.exists()); //$NON-NLS-1$
+		assertEquals("content2", read(file2)); //$NON-NLS-1$
+		assertEquals("Content of another source was removed", "other", read(other)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testFailedStoreRemovesStagedFile() throws IOException {
+		File file1 = cache.getFile(SOURCE, "key1"); //$NON-NLS-1$
+		cache.store(file1, stream("content1")); //$NON-NLS-1$
+
+		File file2 = cache.getFile(SOURCE, "key2"); //$NON-NLS-1$
+		InputStream failing = new SequenceInputStream(stream("partial"), new InputStream() { //$NON-NLS-1$
+			@Override
+			public int read() throws IOException {
+				throw new IOException("transform failed"); //$NON-NLS-1$
+			}
+		});
+		try {
+			cache.store(file2, failing);
+			fail("The failure of the transform was not reported"); //$NON-NLS-1$
+		} catch (IOException e) {
+			assertEquals("transform failed", e.getMessage()); //$NON-NLS-1$
+		}
+		assertFalse("Content of the failed transform was stored", file2.exists()); //$NON-NLS-1$
+		// the content of the previous key is kept
+		assertArrayEquals("Unexpected files", new String[] { file1.getName() }, file1.getParentFile().list()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testStoreClosesStream() throws IOException {
+		boolean[] closed = new boolean[1];
+		InputStream in = new FilterInputStream(stream("content")) { //$NON-NLS-1$
+			@Override
+			public void close() throws IOException {
+				closed[0] = true;
+				super.close();
+			}
+		};
+		cache.store(cache.getFile(SOURCE, "key1"), in); //$NON-NLS-1$
+		assertTrue("Stream was not closed", closed[0]); //$NON-NLS-1$
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.transforms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import org.eclipse.equinox.internal.transforms.StreamTransformer;
+import org.eclipse.equinox.internal.transforms.TransformTuple;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Ensures the identity of a transform, which is part of the key of the cached
+ * content, changes when the transformer is modified and the transform is
+ * created again.
+ */
+public class TransformTupleTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testIdentityFollowsLastModified() throws IOException {
+		File transformer = folder.newFile("transform.xsl"); //$NON-NLS-1$
+		assertTrue(transformer.setLastModified(1000000000000L));
+		TransformTuple tuple = new TransformTuple();
+		tuple.type = "test"; //$NON-NLS-1$
+		tuple.transformerUrl = transformer.toURI().toURL();
+
+		String identity = tuple.getIdentity();
+		assertEquals("Identity changed without a modification", identity, tuple.getIdentity()); //$NON-NLS-1$
+
+		assertTrue(transformer.setLastModified(1000000060000L));
+		// computed once per tuple, tuples are created again when the transforms change
+		assertEquals("Identity computed again", identity, tuple.getIdentity()); //$NON-NLS-1$
+		TransformTuple recreated = new TransformTuple();
+		recreated.type = tuple.type;
+		recreated.transformerUrl = tuple.transformerUrl;
+		assertNotEquals("Identity did not change with the transformer", identity, recreated.getIdentity()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testIdentityOfTransformer() throws IOException {
+		TransformTuple tuple = new TransformTuple();
+		tuple.type = "test"; //$NON-NLS-1$
+		tuple.transformerUrl = folder.newFile("transform.xsl").toURI().toURL(); //$NON-NLS-1$
+		StreamTransformer transformer1 = new StreamTransformer() {
+			@Override
+			public InputStream getInputStream(InputStream in, URL url) {
+				return in;
+			}
+		};
+		StreamTransformer transformer2 = new StreamTransformer() {
+			@Override
+			public InputStream getInputStream(InputStream in, URL url) {
+				return in;
+			}
+		};
+
+		String identity = tuple.getIdentity(transformer1);
+		assertTrue(identity.startsWith(tuple.getIdentity()));
+		assertSame("Identity computed again", identity, tuple.getIdentity(transformer1)); //$NON-NLS-1$
+		assertNotEquals("Identity did not change with the transformer", identity, tuple.getIdentity(transformer2)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testIdentityOfType() throws IOException {
+		File transformer = folder.newFile("transform.xsl"); //$NON-NLS-1$
+		TransformTuple tuple1 = new TransformTuple();
+		tuple1.type = "type1"; //$NON-NLS-1$
+		tuple1.transformerUrl = transformer.toURI().toURL();
+		TransformTuple tuple2 = new TransformTuple();
+		tuple2.type = "type2"; //$NON-NLS-1$
+		tuple2.transformerUrl = tuple1.transformerUrl;
+		assertNotEquals("Transforms of different types are identical", tuple1.getIdentity(), tuple2.getIdentity()); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.transforms.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.equinox.internal.transforms.xslt.XSLTStreamTransformer;
+import org.eclipse.osgi.framework.log.FrameworkLog;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.util.tracker.ServiceTracker;
+
+/*
+ * Ensures the XSLT transformer runs the transform on the thread reading the
+ * transformed stream, buffers its result, and closes the original stream.
+ */
+public class XSLTStreamTransformerTest {
+	private static final String XSLT = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">" //$NON-NLS-1$
+			+ "<xsl:output method=\"xml\" omit-xml-declaration=\"yes\"/>" //$NON-NLS-1$
+			+ "<xsl:template match=\"/root\"><transformed><xsl:value-of select=\"@value\"/></transformed></xsl:template>" //$NON-NLS-1$
+			+ "</xsl:stylesheet>"; //$NON-NLS-1$
+	private static final String INPUT = "<root value=\"content\"/>"; //$NON-NLS-1$
+	private static final String OUTPUT = "<transformed>content</transformed>"; //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ServiceTracker<FrameworkLog, FrameworkLog> logTracker;
+	private XSLTStreamTransformer transformer;
+	private URL xslt;
+
+	@Before
+	public void setUp() throws IOException {
+		logTracker = new ServiceTracker<>(FrameworkUtil.getBundle(getClass()).getBundleContext(), FrameworkLog.class,
+				null);
+		logTracker.open();
+		transformer = new XSLTStreamTransformer(logTracker);
+		File file = folder.newFile("transform.xsl"); //$NON-NLS-1$
+		Files.write(file.toPath(), XSLT.getBytes(StandardCharsets.UTF_8));
+		xslt = file.toURI().toURL();
+	}
+
+	@After
+	public void tearDown() {
+		logTracker.close();
+	}
+
+	@Test
+	public void testTransformOnReadingThread() throws Exception {
+		TrackingInputStream original = new TrackingInputStream(INPUT);
+		InputStream in = transformer.getInputStream(original, xslt);
+		assertNotNull("No transformed stream", in); //$NON-NLS-1$
+		assertEquals("Original was read before the transformed stream", null, original.reader); //$NON-NLS-1$
+
+		String[] result = new String[1];
+		Thread reader = new Thread(() -> {
+			try (InputStream stream = in) {
+				result[0] = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+			} catch (IOException e) {
+				result[0] = e.toString();
+			}
+		}, "reader"); //$NON-NLS-1$
+		reader.start();
+		reader.join();
+
+		assertEquals(OUTPUT, result[0]);
+		assertEquals("Original was not read by the reading thread", reader, original.reader); //$NON-NLS-1$
+		assertTrue("Original was not closed", original.closed); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testBufferedResult() throws Exception {
+		TrackingInputStream original = new TrackingInputStream(INPUT);
+		try (InputStream in = transformer.getInputStream(original, xslt)) {
+			assertEquals('<', in.read());
+			// the whole result is available once the transform has run
+			assertEquals(OUTPUT.length() - 1, in.available());
+			assertTrue("Original was not closed after the transform", original.closed); //$NON-NLS-1$
+			assertEquals(OUTPUT.substring(1), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	public void testCloseBeforeRead() throws Exception {
+		TrackingInputStream original = new TrackingInputStream(INPUT);
+		InputStream in = transformer.getInputStream(original, xslt);
+		in.close();
+		assertTrue("Original was not closed", original.closed); //$NON-NLS-1$
+		assertEquals("Original was read", null, original.reader); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testInvalidInput() throws Exception {
+		TrackingInputStream original = new TrackingInputStream("<root"); //$NON-NLS-1$
+		try (InputStream in = transformer.getInputStream(original, xslt)) {
+			in.read();
+			fail("Invalid input was transformed"); //$NON-NLS-1$
+		} catch (IOException e) {
+			// expected
+		}
+		assertTrue("Original was not closed", original.closed); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testTransformsAreIndependent() throws Exception {
+		InputStream in1 = transformer.getInputStream(new TrackingInputStream(INPUT), xslt);
+		InputStream in2 = transformer.getInputStream(new TrackingInputStream("<root value=\"other\"/>"), xslt); //$NON-NLS-1$
+		assertEquals("<transformed>other</transformed>", new String(in2.readAllBytes(), StandardCharsets.UTF_8)); //$NON-NLS-1$
+		assertEquals(OUTPUT, new String(in1.readAllBytes(), StandardCharsets.UTF_8));
+		assertFalse("Stream was reused", in1 == in2); //$NON-NLS-1$
+	}
+
+	static class TrackingInputStream extends FilterInputStream {
+		volatile Thread reader;
+		volatile boolean closed;
+
+		TrackingInputStream(String content) {
+			super(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		@Override
+		public int read() throws IOException {
+			reader = Thread.currentThread();
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			reader = Thread.currentThread();
+			return super.read(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,13 +17,13 @@ package org.eclipse.equinox.internal.transforms.xslt;
 import java.io.*;
 import java.lang.ref.SoftReference;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.XMLConstants;
 import javax.xml.transform.*;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
-import org.eclipse.equinox.internal.transforms.Pipe;
 import org.eclipse.osgi.framework.log.FrameworkLog;
 import org.eclipse.osgi.framework.log.FrameworkLogEntry;
 import org.osgi.framework.FrameworkEvent;
@@ -39,23 +39,36 @@ import org.xml.sax.helpers.XMLReaderFactory;
 public class XSLTStreamTransformer {
 
 	/**
-	 * Subclass of Pipe that is able to apply XSLT Transformers to the original
-	 * input stream. All handling of XML is done with validation and entity
-	 * resolution disabled to improve performance and prevent undesired network
-	 * access.
+	 * Input stream that is able to apply XSLT Transformers to the original input
+	 * stream. The transform runs on the thread that first reads from this stream,
+	 * and its result is buffered. All handling of XML is done with validation and
+	 * entity resolution disabled to improve performance and prevent undesired
+	 * network access.
 	 */
-	class XSLTPipe extends Pipe {
+	class XSLTInputStream extends InputStream {
+		private final InputStream original;
 		private final Transformer transformer;
+		private InputStream result;
 
-		public XSLTPipe(InputStream original, Transformer transformer) throws IOException {
-			super(original);
+		public XSLTInputStream(InputStream original, Transformer transformer) {
+			this.original = original;
 			this.transformer = transformer;
 		}
 
-		@Override
-		protected void pipeInput(InputStream original, OutputStream result) throws IOException {
+		private synchronized InputStream getResult() throws IOException {
+			if (result == null) {
+				ResultBuffer buffer = new ResultBuffer();
+				try (InputStream in = original) {
+					transform(in, buffer);
+				}
+				result = buffer.toInputStream();
+			}
+			return result;
+		}
+
+		private void transform(InputStream in, OutputStream out) throws IOException {
 			try {
-				InputSource streamSource = new InputSource(original);
+				InputSource streamSource = new InputSource(in);
 				XMLReader reader = XMLReaderFactory.createXMLReader();
 				if (resolver != null) {
 					reader.setEntityResolver(resolver);
@@ -65,7 +78,7 @@ public class XSLTStreamTransformer {
 				}
 
 				SAXSource saxSource = new SAXSource(reader, streamSource);
-				transformer.transform(saxSource, new StreamResult(result));
+				transformer.transform(saxSource, new StreamResult(out));
 			} catch (TransformerException e) {
 				log(FrameworkEvent.ERROR, "Could not perform transform.", e); //$NON-NLS-1$
 				throw new IOException(e.getMessage());
@@ -74,6 +87,46 @@ public class XSLTStreamTransformer {
 				throw new IOException(e.getMessage());
 			}
 		}
+
+		@Override
+		public int read() throws IOException {
+			return getResult().read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return getResult().read(b, off, len);
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			return getResult().skip(n);
+		}
+
+		@Override
+		public int available() throws IOException {
+			return getResult().available();
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			if (result == null) {
+				original.close();
+			}
+		}
+	}
+
+	/**
+	 * Buffer for the result of a transform that is read without copying it.
+	 */
+	static class ResultBuffer extends ByteArrayOutputStream {
+		ResultBuffer() {
+			super(1024);
+		}
+
+		InputStream toInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
 	}
 
 	/**
@@ -94,11 +147,18 @@ public class XSLTStreamTransformer {
 	private final ServiceTracker<FrameworkLog, FrameworkLog> logTracker;
 
 	/**
-	 * A map containing compiled XSLT transformations. These transforms are held by
-	 * soft references so that we don't bloat memory for this purpose. After startup
-	 * these transforms are of little use.
+	 * The maximum number of compiled XSLT transformations kept in the template
+	 * map.
 	 */
-	private static final Map<URL, SoftReference<Templates>> templateMap = new HashMap<>();
+	private static final int MAX_TEMPLATES = 64;
+
+	/**
+	 * A map containing compiled XSLT transformations, keyed by the external form
+	 * of their URL. These transforms are held by soft references so that we don't
+	 * bloat memory for this purpose. After startup these transforms are of little
+	 * use.
+	 */
+	private static final Map<String, SoftReference<Templates>> templateMap = new ConcurrentHashMap<>();
 
 	/**
 	 * Create a new instance of this transformer.
@@ -124,8 +184,7 @@ public class XSLTStreamTransformer {
 		if (template != null) {
 			try {
 				Transformer transformer = template.newTransformer();
-				XSLTPipe pipe = new XSLTPipe(inputStream, transformer);
-				return pipe.getPipedInputStream();
+				return new XSLTInputStream(inputStream, transformer);
 			} catch (TransformerConfigurationException e) {
 				log(FrameworkEvent.ERROR, "Could not perform transform.", e); //$NON-NLS-1$
 			}
@@ -135,15 +194,17 @@ public class XSLTStreamTransformer {
 
 	/**
 	 * Get a cached template for the provided XSLT template URL. If the cached entry
-	 * for this URL does not exist it will be created.
+	 * for this URL does not exist it will be created. Threads that concurrently
+	 * request a missing template may each create it.
 	 *
 	 * @param transformerURL the XSLT template URL.
 	 * @return the template
 	 */
-	private synchronized Templates getTemplate(URL transformerURL) {
+	private Templates getTemplate(URL transformerURL) {
 		Templates templates = null;
 
-		SoftReference<Templates> templatesRef = templateMap.get(transformerURL);
+		String key = transformerURL.toExternalForm();
+		SoftReference<Templates> templatesRef = templateMap.get(key);
 		if (templatesRef != null) {
 			templates = templatesRef.get();
 		}
@@ -171,7 +232,7 @@ public class XSLTStreamTransformer {
 
 				try {
 					templatesRef = new SoftReference<>(templates = tFactory.newTemplates(xsltSource));
-					templateMap.put(transformerURL, templatesRef);
+					putTemplate(key, templatesRef);
 				} catch (Exception e) {
 					// can't create the template. May be an IO
 					// exception from the source or perhaps a badly
@@ -195,6 +256,22 @@ public class XSLTStreamTransformer {
 		return templates;
 	}
 
+	/**
+	 * Add a template to the template map. If the map is full, cleared entries are
+	 * removed first, and then arbitrary ones.
+	 */
+	private static void putTemplate(String key, SoftReference<Templates> templatesRef) {
+		if (templateMap.size() >= MAX_TEMPLATES) {
+			templateMap.values().removeIf(ref -> ref.get() == null);
+			for (Iterator<String> keys = templateMap.keySet().iterator(); keys.hasNext()
+					&& templateMap.size() >= MAX_TEMPLATES;) {
+				keys.next();
+				keys.remove();
+			}
+		}
+		templateMap.put(key, templatesRef);
+	}
+
 	void log(int severity, String msg, Throwable t) {
 		FrameworkLog log = logTracker.getService();
 		if (log == null) {
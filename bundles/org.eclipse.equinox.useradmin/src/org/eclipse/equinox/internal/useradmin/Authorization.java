@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,7 +13,9 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.useradmin;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This interface encapsulates an authorization context on which bundles can
@@ -107,13 +109,10 @@ public class Authorization implements org.osgi.service.useradmin.Authorization {
 	@Override
 	public boolean hasRole(String name_) {
 		useradmin.checkAlive();
-		synchronized (useradmin) {
-			Role checkRole = (org.eclipse.equinox.internal.useradmin.Role) useradmin.getRole(name_);
-			if (checkRole == null) {
-				return (false);
-			}
-			return checkRole.isImpliedBy(user, new Vector<>());
+		if (name_ == null || user == null) {
+			return (false);
 		}
+		return useradmin.getImpliedRoles(user).contains(name_);
 	}
 
 	/**
@@ -125,30 +124,20 @@ public class Authorization implements org.osgi.service.useradmin.Authorization {
 	@Override
 	public String[] getRoles() {
 		useradmin.checkAlive();
-
-		// go through all of the roles and find out which ones are implied by this
-		// authorization context.
-		synchronized (useradmin) // we don't want anything changing while we get the list
-		{
-			int length = useradmin.roles.size();
-			Vector<String> result = new Vector<>(length);
-			for (int i = 0; i < length; i++) {
-				Role role = useradmin.roles.elementAt(i);
-				if (role.isImpliedBy(user, new Vector<>())) {
-					String roleName = role.getName();
-					// exclude user.anyone from the list
-					if (!roleName.equals(Role.anyoneString)) {
-						result.addElement(roleName);
-					}
-				}
-			}
-			int size = result.size();
-			if (size == 0) {
-				return (null);
+		if (user == null) {
+			return (null);
+		}
+		Set<String> impliedRoles = useradmin.getImpliedRoles(user);
+		List<String> result = new ArrayList<>(impliedRoles.size());
+		for (String roleName : impliedRoles) {
+			// exclude user.anyone from the list
+			if (!roleName.equals(Role.anyoneString)) {
+				result.add(roleName);
 			}
-			String[] copyrole = new String[size];
-			result.copyInto(copyrole);
-			return copyrole;
 		}
+		if (result.isEmpty()) {
+			return (null);
+		}
+		return result.toArray(new String[result.size()]);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,9 @@
  *******************************************************************************/
 package org.eclipse.equinox.internal.useradmin;
 
-import java.util.Enumeration;
-import java.util.Vector;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.eclipse.equinox.internal.useradmin.UserAdminEntry.MemberEntry;
 import org.osgi.service.prefs.BackingStoreException;
 
 /**
@@ -82,14 +83,14 @@ import org.osgi.service.prefs.BackingStoreException;
 
 public class Group extends User implements org.osgi.service.useradmin.Group {
 
-	protected Vector<org.osgi.service.useradmin.Role> requiredMembers;
-	protected Vector<org.osgi.service.useradmin.Role> basicMembers;
+	protected Set<org.osgi.service.useradmin.Role> requiredMembers;
+	protected Set<org.osgi.service.useradmin.Role> basicMembers;
 
 	protected Group(String name, UserAdmin useradmin) {
 		super(name, useradmin);
 		this.useradmin = useradmin;
-		basicMembers = new Vector<>();
-		requiredMembers = new Vector<>();
+		basicMembers = new LinkedHashSet<>();
+		requiredMembers = new LinkedHashSet<>();
 	}
 
 	/**
@@ -132,7 +133,12 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 				return (false);
 			}
 		}
-		basicMembers.addElement(role);
+		Integer original = MemberEntry.getValue(this, role);
+		basicMembers.add(role);
+		useradmin.rolesChanged();
+		if (store) {
+			changed(role, original);
+		}
 		return (true);
 	}
 
@@ -173,7 +179,12 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 				return (false);
 			}
 		}
-		requiredMembers.addElement(role);
+		Integer original = MemberEntry.getValue(this, role);
+		requiredMembers.add(role);
+		useradmin.rolesChanged();
+		if (store) {
+			changed(role, original);
+		}
 		return (true);
 	}
 
@@ -198,7 +209,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 		}
 		synchronized (useradmin) {
 			try {
-				useradmin.userAdminStore.removeMember(this, (org.eclipse.equinox.internal.useradmin.Role) role);
+				useradmin.userAdminStore.removeMember(this, role.getName());
 			} catch (BackingStoreException ex) {
 				return (false);
 			}
@@ -212,12 +223,24 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 			// We don't know if the Role to be removed is a basic orrequired member, or
 			// both. We
 			// simply try to remove it from both.
-			boolean removeRequired = requiredMembers.removeElement(role);
-			boolean removeBasic = basicMembers.removeElement(role);
+			Integer original = MemberEntry.getValue(this, role);
+			boolean removeRequired = requiredMembers.remove(role);
+			boolean removeBasic = basicMembers.remove(role);
+			useradmin.rolesChanged();
+			if (removeRequired || removeBasic) {
+				changed(role, original);
+			}
 			return (removeRequired || removeBasic);
 		}
 	}
 
+	// Records the change of the membership of the role, see
+	// UserAdmin.changed(UserAdminEntry, Object, Object)
+	private void changed(org.osgi.service.useradmin.Role member, Integer original) {
+		useradmin.changed(new MemberEntry(useradmin, name, member.getName()), original,
+				MemberEntry.getValue(this, member));
+	}
+
 	/**
 	 * Gets the basic members of this Group.
 	 *
@@ -231,9 +254,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 			if (basicMembers.isEmpty()) {
 				return (null);
 			}
-			Role[] roles = new Role[basicMembers.size()];
-			basicMembers.copyInto(roles);
-			return (roles);
+			return (basicMembers.toArray(new Role[basicMembers.size()]));
 		}
 	}
 
@@ -250,9 +271,7 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 			if (requiredMembers.isEmpty()) {
 				return (null);
 			}
-			Role[] roles = new Role[requiredMembers.size()];
-			requiredMembers.copyInto(roles);
-			return (roles);
+			return (requiredMembers.toArray(new Role[requiredMembers.size()]));
 		}
 	}
 
@@ -267,39 +286,33 @@ public class Group extends User implements org.osgi.service.useradmin.Group {
 		return org.osgi.service.useradmin.Role.GROUP;
 	}
 
-	@Override
-	protected boolean isImpliedBy(Role role, Vector<String> checkLoop) {
-		if (checkLoop.contains(name)) {
-			// we have a circular dependency
-			return (false);
-		}
-		if (name.equals(role.getName())) // A User always implies itself. A Group is a User.
-		{
-			return (true);
-		}
-		checkLoop.addElement(name);
-		Vector<String> requiredCheckLoop = (Vector<String>) checkLoop.clone();
-		Vector<String> basicCheckLoop = (Vector<String>) checkLoop.clone();
-		Enumeration<org.osgi.service.useradmin.Role> e = requiredMembers.elements();
-
-		// check to see if we imply all of the 0 or more required roles
-		Role requiredRole;
-		while (e.hasMoreElements()) {
-			requiredRole = (Role) e.nextElement();
-			if (!requiredRole.isImpliedBy(role, requiredCheckLoop)) {
+	/**
+	 * Returns whether this group is implied by the given set of implied roles: all
+	 * of its required members and at least one of its basic members are implied.
+	 *
+	 * @param implied the roles implied so far
+	 * @return <code>true</code> if this group is implied
+	 */
+	protected boolean isImpliedBy(Set<Role> implied) {
+		for (org.osgi.service.useradmin.Role requiredRole : requiredMembers) {
+			if (!implied.contains(requiredRole)) {
 				return (false);
 			}
 		}
-		// check to see if we imply any of the basic roles (there must be at least one)
-		e = basicMembers.elements();
-		Role basicRole;
-		while (e.hasMoreElements()) {
-			basicRole = (Role) e.nextElement();
-			if (basicRole.isImpliedBy(role, basicCheckLoop)) {
-				return (true);
+		if (basicMembers.size() <= implied.size()) {
+			for (org.osgi.service.useradmin.Role basicRole : basicMembers) {
+				if (implied.contains(basicRole)) {
+					return (true);
+				}
+			}
+		} else {
+			for (Role impliedRole : implied) {
+				if (basicMembers.contains(impliedRole)) {
+					return (true);
+				}
 			}
 		}
-		return false;
+		return (false);
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -45,6 +45,8 @@ public class Role implements org.osgi.service.useradmin.Role {
 	protected UserAdmin useradmin;
 	protected static final String anyoneString = "user.anyone"; //$NON-NLS-1$
 	protected boolean exists = true;
+	// cached by UserAdmin.getImpliedRoles(Role)
+	volatile UserAdmin.ImpliedRoles impliedRoleNames;
 
 	protected Role(String name, UserAdmin useradmin) {
 		this.name = name;
@@ -129,14 +131,4 @@ public class Role implements org.osgi.service.useradmin.Role {
 		impliedRoles = null;
 	}
 
-	protected boolean isImpliedBy(Role role, Vector<String> checkLoop) { // Roles do not imply themselves
-		// The user.anyone role is always implied
-		if (checkLoop.contains(name)) {
-			// we have a circular dependency
-			return (false);
-		}
-		checkLoop.addElement(name);
-		return (name.equals(Role.anyoneString));
-	}
-
 }
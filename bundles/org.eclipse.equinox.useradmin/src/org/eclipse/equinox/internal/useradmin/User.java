@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,6 @@
 package org.eclipse.equinox.internal.useradmin;
 
 import java.util.Dictionary;
-import java.util.Vector;
 import org.osgi.service.useradmin.UserAdminEvent;
 import org.osgi.service.useradmin.UserAdminPermission;
 
@@ -133,15 +132,4 @@ public class User extends Role implements org.osgi.service.useradmin.User {
 		return org.osgi.service.useradmin.Role.USER;
 	}
 
-	// A user always implies itself
-	@Override
-	protected boolean isImpliedBy(Role role, Vector<String> checkLoop) {
-		if (checkLoop.contains(name)) {
-			// we have a circular dependency
-			return (false);
-		}
-		checkLoop.addElement(name);
-		return ((role.getName()).equals(name));
-	}
-
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.equinox.internal.useradmin;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.osgi.framework.*;
 import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.service.prefs.PreferencesService;
@@ -45,8 +46,21 @@ import org.osgi.service.useradmin.UserAdminPermission;
 
 public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 
-	protected Vector<Role> users;
-	protected Vector<Role> roles;
+	// the maximum number of property keys users are indexed by, other keys are
+	// looked up by scanning the roles
+	private static final int MAX_INDEXED_KEYS = 16;
+	private static final String COORDINATOR_CLASS = "org.osgi.service.coordinator.Coordinator"; //$NON-NLS-1$
+
+	// all roles by name
+	protected Map<String, Role> roles;
+	// the property keys users are indexed by, see getUser(String, String)
+	private final Set<String> indexedKeys = ConcurrentHashMap.newKeySet();
+	// property key -> property value -> users with that value; updated while holding
+	// the lock of the map
+	private final Map<String, Map<String, User[]>> userIndexes = new ConcurrentHashMap<>();
+	// incremented when roles or group memberships change, invalidates the implied
+	// roles cached by the roles
+	private volatile long rolesChangeCount;
 	protected BundleContext context;
 	protected UserAdminEventProducer eventProducer;
 	protected boolean alive;
@@ -54,10 +68,11 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 	protected UserAdminPermission adminPermission;
 	protected ServiceReference reference;
 	protected LogTracker log;
+	// null if the coordinator package is not available
+	private UserAdminCoordinator coordinator;
 
 	protected UserAdmin(PreferencesService preferencesService, BundleContext context) throws Exception {
-		roles = new Vector<>();
-		users = new Vector<>();
+		roles = new ConcurrentHashMap<>();
 		this.context = context;
 
 		log = new LogTracker(context, System.out);
@@ -70,6 +85,19 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 			log.error(UserAdminMsg.Backing_Store_Read_Exception, e);
 			throw e;
 		}
+		if (checkCoordinator()) {
+			coordinator = new UserAdminCoordinator(context, this);
+		}
+	}
+
+	private static boolean checkCoordinator() {
+		// cannot take part in coordinations without the coordinator package
+		try {
+			Class.forName(COORDINATOR_CLASS);
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
 	}
 
 	protected void setServiceReference(ServiceReference reference) {
@@ -111,12 +139,11 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		if ((type != org.osgi.service.useradmin.Role.GROUP) && (type != org.osgi.service.useradmin.Role.USER)) {
 			throw (new IllegalArgumentException(UserAdminMsg.CREATE_INVALID_TYPE_ROLE_EXCEPTION));
 		}
-		// if the role already exists, return null
-		if (getRole(name) != null) {
-			return (null);
-		}
-
 		synchronized (this) {
+			// if the role already exists, return null
+			if (getRole(name) != null) {
+				return (null);
+			}
 			return createRole(name, type, true);
 		}
 	}
@@ -143,10 +170,11 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 				eventProducer.generateEvent(UserAdminEvent.ROLE_CREATED, newRole);
 			}
 		}
-		if (type == org.osgi.service.useradmin.Role.GROUP || type == org.osgi.service.useradmin.Role.USER) {
-			users.addElement(newRole);
+		roles.put(name, newRole);
+		rolesChanged();
+		if (store) {
+			changed(new UserAdminEntry.RoleEntry(this, name), null, newRole);
 		}
-		roles.addElement(newRole);
 		return (newRole);
 	}
 
@@ -177,22 +205,32 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		synchronized (this) {
 			Role role = (org.eclipse.equinox.internal.useradmin.Role) getRole(name);
 			if (role != null) {
-				try {
-					userAdminStore.removeRole(role);
-				} catch (BackingStoreException ex) {
-					return (false);
-				}
-				roles.removeElement(role);
-				users.removeElement(role);
-				role.destroy();
-				eventProducer.generateEvent(UserAdminEvent.ROLE_REMOVED, role);
-				role = null;
-				return (true);
+				return (removeRole(role));
 			}
 			return (false);
 		}
 	}
 
+	// Must be called while holding the lock of this UserAdmin.
+	protected boolean removeRole(Role role) {
+		UserAdminEntry.RoleData removed = UserAdminEntry.RoleData.of(role);
+		try {
+			userAdminStore.removeRole(role.name);
+		} catch (BackingStoreException ex) {
+			return (false);
+		}
+		roles.remove(role.name);
+		if (role instanceof User) {
+			removeFromUserIndexes((User) role);
+		}
+		// removes the role from its groups, reverted after the role is created again
+		role.destroy();
+		rolesChanged();
+		eventProducer.generateEvent(UserAdminEvent.ROLE_REMOVED, role);
+		changed(new UserAdminEntry.RoleEntry(this, role.name), removed, null);
+		return (true);
+	}
+
 	/**
 	 * Gets the role with the given name from this UserAdmin.
 	 *
@@ -207,16 +245,7 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		if (name == null) {
 			return (null);
 		}
-		synchronized (this) {
-			Enumeration<Role> e = roles.elements();
-			while (e.hasMoreElements()) {
-				Role role = e.nextElement();
-				if (role.getName().equals(name)) {
-					return (role);
-				}
-			}
-			return (null);
-		}
+		return roles.get(name);
 	}
 
 	/**
@@ -234,31 +263,27 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 	@Override
 	public org.osgi.service.useradmin.Role[] getRoles(String filterString) throws InvalidSyntaxException {
 		checkAlive();
-		Vector<Role> returnedRoles;
-		synchronized (this) {
-			if (filterString == null) {
-				returnedRoles = roles;
-			} else {
-				Filter filter = context.createFilter(filterString); // We do this first so an
-				// InvalidSyntaxException will be
-				// thrown even if there are no roles
-				// present.
-				returnedRoles = new Vector<>();
-				for (int i = 0; i < roles.size(); i++) {
-					Role role = roles.elementAt(i);
-					if (filter.match(role.getProperties())) {
-						returnedRoles.addElement(role);
-					}
+		List<Role> returnedRoles;
+		if (filterString == null) {
+			returnedRoles = new ArrayList<>(roles.values());
+		} else {
+			Filter filter = context.createFilter(filterString); // We do this first so an
+			// InvalidSyntaxException will be
+			// thrown even if there are no roles
+			// present.
+			returnedRoles = new ArrayList<>();
+			for (Role role : roles.values()) {
+				Dictionary<String, Object> properties = role.properties;
+				// the properties are null if the role has been removed concurrently
+				if (properties != null && filter.match(properties)) {
+					returnedRoles.add(role);
 				}
 			}
-			int size = returnedRoles.size();
-			if (size == 0) {
-				return (null);
-			}
-			Role[] roleArray = new Role[size];
-			returnedRoles.copyInto(roleArray);
-			return (roleArray);
 		}
+		if (returnedRoles.isEmpty()) {
+			return (null);
+		}
+		return returnedRoles.toArray(new Role[returnedRoles.size()]);
 	}
 
 	/**
@@ -279,24 +304,192 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		if (key == null) {
 			return (null);
 		}
-		User user;
+		Map<String, User[]> index = userIndexes.get(key);
+		if (index == null) {
+			index = createUserIndex(key);
+			if (index == null) {
+				return findUser(key, value);
+			}
+		}
+		User[] foundUsers = value == null ? null : index.get(value);
+		if (foundUsers == null || foundUsers.length != 1) {
+			return (null); // we found no or more than one match
+		}
+		return (foundUsers[0]);
+	}
+
+	private User findUser(String key, String value) {
 		User foundUser = null;
-		Dictionary<String, Object> props;
-		String keyValue;
-		synchronized (this) {
-			Enumeration<Role> e = users.elements();
-			while (e.hasMoreElements()) {
-				user = (User) e.nextElement();
-				props = user.getProperties();
-				keyValue = (String) props.get(key);
-				if (keyValue != null && keyValue.equals(value)) {
-					if (foundUser != null) {
-						return (null); // we found more than one match
+		for (Role role : roles.values()) {
+			Dictionary<String, Object> properties = role.properties;
+			if (role instanceof User && properties != null && value != null && value.equals(properties.get(key))) {
+				if (foundUser != null) {
+					return (null); // we found more than one match
+				}
+				foundUser = (User) role;
+			}
+		}
+		return (foundUser);
+	}
+
+	// Indexes the users by the value of the given property. Once the key is in
+	// indexedKeys, changes of the property wait for the index to be built.
+	// Returns null if already MAX_INDEXED_KEYS keys are indexed.
+	private Map<String, User[]> createUserIndex(String key) {
+		synchronized (userIndexes) {
+			Map<String, User[]> index = userIndexes.get(key);
+			if (index == null) {
+				if (indexedKeys.size() >= MAX_INDEXED_KEYS) {
+					return null;
+				}
+				indexedKeys.add(key);
+				index = new ConcurrentHashMap<>();
+				for (Role role : roles.values()) {
+					Dictionary<String, Object> properties = role.properties;
+					if (role instanceof User && properties != null) {
+						addToIndex(index, (User) role, properties.get(key));
 					}
-					foundUser = user;
 				}
+				userIndexes.put(key, index);
 			}
-			return (foundUser);
+			return index;
+		}
+	}
+
+	/**
+	 * Updates the user indexes after a property of a role changed. Must not be
+	 * called while holding the lock of the properties of the role, the current
+	 * value of the property is read from them.
+	 *
+	 * @param role     the role whose property changed
+	 * @param key      the key of the property
+	 * @param oldValue the value the property had before the change, or
+	 *                 <code>null</code>
+	 */
+	protected void propertyChanged(Role role, String key, Object oldValue) {
+		if (!(role instanceof User) || !indexedKeys.contains(key)) {
+			return;
+		}
+		synchronized (userIndexes) {
+			Map<String, User[]> index = userIndexes.get(key);
+			removeFromIndex(index, (User) role, oldValue);
+			Dictionary<String, Object> properties = role.properties;
+			if (properties != null && roles.get(role.name) == role) {
+				// the current value, changes which happened meanwhile are applied in order
+				addToIndex(index, (User) role, properties.get(key));
+			}
+		}
+	}
+
+	private void removeFromUserIndexes(User user) {
+		synchronized (userIndexes) {
+			for (Map.Entry<String, Map<String, User[]>> index : userIndexes.entrySet()) {
+				removeFromIndex(index.getValue(), user, user.properties.get(index.getKey()));
+			}
+		}
+	}
+
+	private static void addToIndex(Map<String, User[]> index, User user, Object value) {
+		if (value instanceof String) {
+			index.merge((String) value, new User[] {user}, (users, added) -> {
+				for (User existing : users) {
+					if (existing == user) {
+						return users;
+					}
+				}
+				User[] result = Arrays.copyOf(users, users.length + 1);
+				result[users.length] = user;
+				return result;
+			});
+		}
+	}
+
+	private static void removeFromIndex(Map<String, User[]> index, User user, Object value) {
+		if (value instanceof String) {
+			index.computeIfPresent((String) value, (v, users) -> {
+				for (int i = 0; i < users.length; i++) {
+					if (users[i] == user) {
+						if (users.length == 1) {
+							return null;
+						}
+						User[] result = Arrays.copyOf(users, users.length - 1);
+						System.arraycopy(users, i + 1, result, i, users.length - i - 1);
+						return result;
+					}
+				}
+				return users;
+			});
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock of this UserAdmin after roles were
+	 * created or removed or group memberships changed.
+	 */
+	protected void rolesChanged() {
+		rolesChangeCount++;
+	}
+
+	/**
+	 * Returns the names of the roles implied by the given role, including the role
+	 * itself and {@link Role#anyoneString}. The result is cached by the role until
+	 * the roles change.
+	 *
+	 * @param user the user or the {@link Role#anyoneString} role for the anonymous
+	 *             user
+	 * @return the names of the implied roles
+	 */
+	protected Set<String> getImpliedRoles(Role user) {
+		long changeCount = rolesChangeCount;
+		ImpliedRoles impliedRoles = user.impliedRoleNames;
+		if (impliedRoles != null && impliedRoles.changeCount == changeCount) {
+			return impliedRoles.names;
+		}
+		synchronized (this) {
+			impliedRoles = new ImpliedRoles(rolesChangeCount, computeImpliedRoles(user.name));
+			user.impliedRoleNames = impliedRoles;
+			return impliedRoles.names;
+		}
+	}
+
+	// Roles imply the role with the same name as the user and user.anyone. Groups
+	// are implied if all of their required members and at least one basic member
+	// are implied, so the implied groups are searched from the implied roles
+	// upwards through the groups they are members of.
+	private Set<String> computeImpliedRoles(String userName) {
+		Set<Role> implied = new HashSet<>();
+		Deque<Role> queue = new ArrayDeque<>();
+		for (Role role : new Role[] {roles.get(userName), roles.get(Role.anyoneString)}) {
+			if (role != null && implied.add(role)) {
+				queue.add(role);
+			}
+		}
+		while (!queue.isEmpty()) {
+			for (Group group : queue.poll().impliedRoles) {
+				if (group.exists && !implied.contains(group) && group.isImpliedBy(implied)) {
+					implied.add(group);
+					queue.add(group);
+				}
+			}
+		}
+		Set<String> names = new HashSet<>();
+		for (Role role : implied) {
+			names.add(role.name);
+		}
+		return Set.copyOf(names);
+	}
+
+	/**
+	 * The names of the roles implied by a role, valid for a change count of the
+	 * roles.
+	 */
+	static final class ImpliedRoles {
+		final long changeCount;
+		final Set<String> names;
+
+		ImpliedRoles(long changeCount, Set<String> names) {
+			this.changeCount = changeCount;
+			this.names = names;
 		}
 	}
 
@@ -316,8 +509,42 @@ public class UserAdmin implements org.osgi.service.useradmin.UserAdmin {
 		return (new Authorization((User) user, this));
 	}
 
+	/**
+	 * Adds this UserAdmin to the implicit coordination of the calling thread, if
+	 * there is one. Changes made in a coordination are written to the backing
+	 * store when it ends, instead of once per change, and reverted if it fails.
+	 *
+	 * @return <code>true</code> if the changes of the calling thread take part in
+	 *         a coordination and must not be flushed
+	 */
+	protected boolean joinCoordination() {
+		return coordinator != null && coordinator.getParticipant() != null;
+	}
+
+	/**
+	 * Must be called after a role, its properties or credentials or the members
+	 * of a group changed. If the change took part in a coordination, the entry is
+	 * written to the backing store when the coordination ends and set back to its
+	 * original value if it fails, unless another thread changed it meanwhile.
+	 *
+	 * @param entry    the changed entry
+	 * @param original the value of the entry before the change
+	 * @param written  the value of the entry after the change
+	 */
+	protected void changed(UserAdminEntry entry, Object original, Object written) {
+		if (coordinator != null && !userAdminStore.isWriting()) {
+			UserAdminCoordinator.UserAdminParticipant participant = coordinator.getParticipant();
+			if (participant != null) {
+				participant.changed(entry, original, written);
+			}
+		}
+	}
+
 	protected synchronized void destroy() {
 		alive = false;
+		if (coordinator != null) {
+			coordinator.close();
+		}
 		eventProducer.close();
 		userAdminStore.destroy();
 
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.useradmin;
+
+import java.util.*;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.coordinator.*;
+import org.osgi.service.prefs.BackingStoreException;
+import org.osgi.util.tracker.ServiceTracker;
+
+/*
+ * Lets the changes made by a thread with an implicit coordination take part in
+ * the coordination. The changes are written to the backing store and flushed
+ * once, when the coordination ends, and reverted if it fails. Changes made by
+ * other threads are written immediately, as without a coordination, and are
+ * neither written nor reverted by the coordination.
+ *
+ * Only loaded when the coordinator package is available.
+ */
+class UserAdminCoordinator {
+
+	private final UserAdmin useradmin;
+	private final ServiceTracker<Coordinator, Coordinator> coordinatorTracker;
+
+	UserAdminCoordinator(BundleContext context, UserAdmin useradmin) {
+		this.useradmin = useradmin;
+		coordinatorTracker = new ServiceTracker<>(context, Coordinator.class, null);
+		coordinatorTracker.open();
+	}
+
+	void close() {
+		coordinatorTracker.close();
+	}
+
+	/**
+	 * Returns the participant of this UserAdmin in the implicit coordination of
+	 * the calling thread, adding it to the coordination if necessary.
+	 *
+	 * @return the participant, or <code>null</code> if the calling thread has no
+	 *         active implicit coordination
+	 */
+	UserAdminParticipant getParticipant() {
+		Coordinator coordinator = coordinatorTracker.getService();
+		Coordination coordination = coordinator == null ? null : coordinator.peek();
+		if (coordination == null || coordination.isTerminated()) {
+			return (null);
+		}
+		Map<Class<?>, Object> variables = coordination.getVariables();
+		synchronized (variables) {
+			UserAdminParticipant participant = (UserAdminParticipant) variables.get(UserAdminParticipant.class);
+			if (participant == null || participant.getUserAdmin() != useradmin) {
+				participant = new UserAdminParticipant(useradmin);
+				try {
+					coordination.addParticipant(participant);
+				} catch (CoordinationException ex) {
+					// terminated meanwhile, the change is not coordinated
+					return (null);
+				}
+				variables.put(UserAdminParticipant.class, participant);
+			}
+			return (participant);
+		}
+	}
+
+	static final class UserAdminParticipant implements Participant {
+
+		// the value of an entry before the coordination changed it and the value
+		// the coordination last gave it
+		private record Change(Object original, Object written) {
+		}
+
+		private final UserAdmin useradmin;
+		// the entries changed in the coordination, in the order they were first changed
+		private final Map<UserAdminEntry, Change> changes = new LinkedHashMap<>();
+		private boolean terminated;
+
+		UserAdminParticipant(UserAdmin useradmin) {
+			this.useradmin = useradmin;
+		}
+
+		UserAdmin getUserAdmin() {
+			return useradmin;
+		}
+
+		synchronized void changed(UserAdminEntry entry, Object original, Object written) {
+			if (!terminated) {
+				Change change = changes.get(entry);
+				changes.put(entry, new Change(change == null ? original : change.original(), written));
+			}
+		}
+
+		private synchronized List<Map.Entry<UserAdminEntry, Change>> terminate() {
+			terminated = true;
+			List<Map.Entry<UserAdminEntry, Change>> result = new ArrayList<>(changes.entrySet());
+			changes.clear();
+			return result;
+		}
+
+		@Override
+		public void ended(Coordination coordination) throws BackingStoreException {
+			List<Map.Entry<UserAdminEntry, Change>> toWrite = terminate();
+			// only the entries still holding the value written by the coordination
+			// are stored, entries changed by other threads meanwhile were stored by them
+			synchronized (useradmin) {
+				useradmin.userAdminStore.write(() -> {
+					for (Map.Entry<UserAdminEntry, Change> change : toWrite) {
+						if (change.getKey().isRole()) {
+							writeOwned(change.getKey(), change.getValue());
+						}
+					}
+					for (Map.Entry<UserAdminEntry, Change> change : toWrite) {
+						if (!change.getKey().isRole()) {
+							writeOwned(change.getKey(), change.getValue());
+						}
+					}
+					return (null);
+				});
+			}
+		}
+
+		private static void writeOwned(UserAdminEntry entry, Change change) throws BackingStoreException {
+			synchronized (entry.getLock()) {
+				if (Objects.equals(entry.get(), change.written())) {
+					entry.write(change.written());
+				}
+			}
+		}
+
+		@Override
+		public void failed(Coordination coordination) throws BackingStoreException {
+			List<Map.Entry<UserAdminEntry, Change>> toRevert = terminate();
+			// the entries are set back in reverse order, unless another thread
+			// changed them meanwhile. Setting them back writes the original values to
+			// the preference nodes again, which never saw the changes.
+			synchronized (useradmin) {
+				useradmin.userAdminStore.write(() -> {
+					for (int i = toRevert.size() - 1; i >= 0; i--) {
+						UserAdminEntry entry = toRevert.get(i).getKey();
+						Change change = toRevert.get(i).getValue();
+						synchronized (entry.getLock()) {
+							if (Objects.equals(entry.get(), change.written())) {
+								entry.set(change.original());
+							}
+						}
+					}
+					return (null);
+				});
+			}
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.internal.useradmin;
+
+import java.util.*;
+import org.osgi.service.prefs.BackingStoreException;
+
+/*
+ * An entry of a UserAdmin which can be changed in a coordination: a role, a
+ * property or credential of a role or the membership of a role in a group.
+ * Entries denote roles by name, as roles may be removed and created again, and
+ * are equal if they denote the same entry.
+ *
+ * The values of an entry are compared with equals, which compares roles and
+ * byte arrays by identity.
+ */
+interface UserAdminEntry {
+
+	/**
+	 * @return the lock guarding the value of this entry besides the lock of the
+	 *         UserAdmin
+	 */
+	Object getLock();
+
+	/**
+	 * @return the current value of this entry
+	 */
+	Object get();
+
+	/**
+	 * Sets the value of this entry like a change made outside of a coordination.
+	 *
+	 * @param value a value returned by {@link #get()} before the entry changed,
+	 *              or the data of a removed role
+	 */
+	void set(Object value);
+
+	/**
+	 * Writes the value of this entry to the backing store.
+	 *
+	 * @param value the current value of this entry
+	 */
+	void write(Object value) throws BackingStoreException;
+
+	/**
+	 * @return <code>true</code> if this entry is a role. Roles are written before
+	 *         the other entries, as writing a role removes the entries stored
+	 *         below it.
+	 */
+	default boolean isRole() {
+		return false;
+	}
+
+	/**
+	 * A role, its value is the role or <code>null</code>.
+	 */
+	record RoleEntry(UserAdmin useradmin, String name) implements UserAdminEntry {
+
+		@Override
+		public Object getLock() {
+			return useradmin;
+		}
+
+		@Override
+		public Object get() {
+			return useradmin.roles.get(name);
+		}
+
+		@Override
+		public void set(Object value) {
+			Role role = useradmin.roles.get(name);
+			if (role != null) {
+				useradmin.removeRole(role);
+			}
+			if (value instanceof RoleData data) {
+				data.create(useradmin);
+			}
+		}
+
+		@Override
+		public void write(Object value) throws BackingStoreException {
+			// the role may have been removed and created again, and other threads
+			// may have written to its node meanwhile, so the whole role is written
+			UserAdminStore store = useradmin.userAdminStore;
+			store.removeRole(name);
+			if (value == null) {
+				return;
+			}
+			Role role = (Role) value;
+			store.addRole(role);
+			synchronized (role.properties) {
+				for (Map.Entry<String, Object> property : role.properties.entrySet()) {
+					store.addProperty(role, property.getKey(), property.getValue());
+				}
+			}
+			if (role instanceof User user) {
+				synchronized (user.credentials) {
+					for (Map.Entry<String, Object> credential : user.credentials.entrySet()) {
+						store.addCredential(role, credential.getKey(), credential.getValue());
+					}
+				}
+			}
+			if (role instanceof Group group) {
+				for (org.osgi.service.useradmin.Role member : group.basicMembers) {
+					store.addMember(group, (Role) member);
+				}
+				for (org.osgi.service.useradmin.Role member : group.requiredMembers) {
+					store.addRequiredMember(group, (Role) member);
+				}
+			}
+		}
+
+		@Override
+		public boolean isRole() {
+			return true;
+		}
+	}
+
+	/**
+	 * The data of a removed role, used to create the role again.
+	 */
+	record RoleData(String name, int type, Map<String, Object> properties, Map<String, Object> credentials,
+			List<String> basicMembers, List<String> requiredMembers) {
+
+		static RoleData of(Role role) {
+			List<String> basicMembers = new ArrayList<>();
+			List<String> requiredMembers = new ArrayList<>();
+			if (role instanceof Group group) {
+				for (org.osgi.service.useradmin.Role member : group.basicMembers) {
+					basicMembers.add(member.getName());
+				}
+				for (org.osgi.service.useradmin.Role member : group.requiredMembers) {
+					requiredMembers.add(member.getName());
+				}
+			}
+			return new RoleData(role.name, role.getType(), new HashMap<>(role.properties),
+					role instanceof User user ? new HashMap<>(user.credentials) : Collections.emptyMap(),
+					basicMembers, requiredMembers);
+		}
+
+		void create(UserAdmin useradmin) {
+			Role created = (Role) useradmin.createRole(name, type, true);
+			if (created == null) {
+				return;
+			}
+			properties.forEach((key, value) -> created.properties.put(key, value, true));
+			credentials.forEach((key, value) -> ((User) created).credentials.put(key, value, true));
+			for (String member : basicMembers) {
+				Role memberRole = useradmin.roles.get(member);
+				if (memberRole != null) {
+					((Group) created).addMember(memberRole, true);
+				}
+			}
+			for (String member : requiredMembers) {
+				Role memberRole = useradmin.roles.get(member);
+				if (memberRole != null) {
+					((Group) created).addRequiredMember(memberRole, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A property or credential of a role, its value is the value of the key or
+	 * <code>null</code>.
+	 */
+	record PropertyEntry(UserAdmin useradmin, String name, int type, String key) implements UserAdminEntry {
+
+		private UserAdminHashtable getTable() {
+			Role role = useradmin.roles.get(name);
+			if (role == null) {
+				return (null);
+			}
+			return type == UserAdminHashtable.PROPERTIES ? role.properties : ((User) role).credentials;
+		}
+
+		@Override
+		public Object getLock() {
+			UserAdminHashtable table = getTable();
+			return table == null ? useradmin : table;
+		}
+
+		@Override
+		public Object get() {
+			UserAdminHashtable table = getTable();
+			return table == null ? null : table.get(key);
+		}
+
+		@Override
+		public void set(Object value) {
+			UserAdminHashtable table = getTable();
+			if (table == null) {
+				return;
+			}
+			if (value == null) {
+				table.remove(key);
+			} else {
+				table.put(key, value, true);
+			}
+		}
+
+		@Override
+		public void write(Object value) throws BackingStoreException {
+			Role role = useradmin.roles.get(name);
+			if (role == null) {
+				// removed together with the role
+				return;
+			}
+			UserAdminStore store = useradmin.userAdminStore;
+			if (type == UserAdminHashtable.PROPERTIES) {
+				if (value == null) {
+					store.removeProperty(role, key);
+				} else {
+					store.addProperty(role, key, value);
+				}
+			} else if (value == null) {
+				store.removeCredential(role, key);
+			} else {
+				store.addCredential(role, key, value);
+			}
+		}
+	}
+
+	/**
+	 * The membership of a role in a group, its value is a combination of
+	 * {@link #BASIC} and {@link #REQUIRED}.
+	 */
+	record MemberEntry(UserAdmin useradmin, String group, String member) implements UserAdminEntry {
+
+		static final int BASIC = 1;
+		static final int REQUIRED = 2;
+
+		static Integer getValue(Group group, org.osgi.service.useradmin.Role member) {
+			int value = group.basicMembers.contains(member) ? BASIC : 0;
+			return value | (group.requiredMembers.contains(member) ? REQUIRED : 0);
+		}
+
+		@Override
+		public Object getLock() {
+			return useradmin;
+		}
+
+		@Override
+		public Object get() {
+			Role groupRole = useradmin.roles.get(group);
+			Role memberRole = useradmin.roles.get(member);
+			if (!(groupRole instanceof Group) || memberRole == null) {
+				return 0;
+			}
+			return getValue((Group) groupRole, memberRole);
+		}
+
+		@Override
+		public void set(Object value) {
+			Role groupRole = useradmin.roles.get(group);
+			Role memberRole = useradmin.roles.get(member);
+			if (!(groupRole instanceof Group) || memberRole == null) {
+				return;
+			}
+			int kinds = (Integer) value;
+			((Group) groupRole).removeMember(memberRole);
+			if ((kinds & BASIC) != 0) {
+				((Group) groupRole).addMember(memberRole, true);
+			}
+			if ((kinds & REQUIRED) != 0) {
+				((Group) groupRole).addRequiredMember(memberRole, true);
+			}
+		}
+
+		@Override
+		public void write(Object value) throws BackingStoreException {
+			Role groupRole = useradmin.roles.get(group);
+			if (!(groupRole instanceof Group)) {
+				// removed together with the group
+				return;
+			}
+			int kinds = (Integer) value;
+			UserAdminStore store = useradmin.userAdminStore;
+			if ((kinds & REQUIRED) != 0) {
+				store.addRequiredMember((Group) groupRole, useradmin.roles.get(member));
+			} else if ((kinds & BASIC) != 0) {
+				store.addMember((Group) groupRole, useradmin.roles.get(member));
+			} else {
+				store.removeMember((Group) groupRole, member);
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2008 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,9 @@
 package org.eclipse.equinox.internal.useradmin;
 
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 import org.osgi.service.prefs.BackingStoreException;
 import org.osgi.service.useradmin.UserAdminEvent;
 
@@ -47,8 +49,17 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 	 * except upon initialization where role data is being read from persistent
 	 * store.
 	 */
-	protected synchronized Object put(String key, Object value, boolean generateEvent) {
+	protected Object put(String key, Object value, boolean generateEvent) {
+		Object retVal;
+		synchronized (this) {
+			retVal = basicPut(key, value, generateEvent);
+		}
+		// the user indexes are updated without holding the lock of this table
+		propertyChanged(key, retVal);
+		return retVal;
+	}
 
+	private Object basicPut(String key, Object value, boolean generateEvent) {
 		if (generateEvent) {
 			if (propertyType == UserAdminHashtable.PROPERTIES) {
 				try {
@@ -67,6 +78,9 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 			}
 		}
 		Object retVal = super.put(key, value);
+		if (generateEvent) {
+			changed(key, retVal, value);
+		}
 		return retVal;
 	}
 
@@ -89,11 +103,19 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 	}
 
 	@Override
-	public synchronized Object remove(Object key) {
+	public Object remove(Object key) {
 		if (!(key instanceof String name)) {
 			throw new IllegalArgumentException(UserAdminMsg.INVALID_KEY_EXCEPTION);
 		}
+		Object retVal;
+		synchronized (this) {
+			retVal = basicRemove(name);
+		}
+		propertyChanged(name, retVal);
+		return retVal;
+	}
 
+	private Object basicRemove(String name) {
 		switch (propertyType) {
 		case PROPERTIES:
 			userAdmin.checkChangePropertyPermission(name);
@@ -115,11 +137,28 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 			break;
 		}
 
-		return super.remove(name);
+		Object retVal = super.remove(name);
+		if (retVal != null) {
+			changed(name, retVal, null);
+		}
+		return retVal;
 	}
 
 	@Override
-	public synchronized void clear() {
+	public void clear() {
+		Map<String, Object> removed;
+		synchronized (this) {
+			removed = new HashMap<>(this);
+			if (!basicClear(removed)) {
+				return;
+			}
+		}
+		for (Map.Entry<String, Object> entry : removed.entrySet()) {
+			propertyChanged(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private boolean basicClear(Map<String, Object> removed) {
 		Enumeration<String> e = keys();
 
 		while (e.hasMoreElements()) {
@@ -140,7 +179,7 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 			try {
 				userAdminStore.clearProperties(role);
 			} catch (BackingStoreException ex) {
-				return;
+				return false;
 			}
 			userAdmin.eventProducer.generateEvent(UserAdminEvent.ROLE_CHANGED, role);
 			break;
@@ -148,13 +187,28 @@ public class UserAdminHashtable extends Hashtable<String, Object> {
 			try {
 				userAdminStore.clearCredentials(role);
 			} catch (BackingStoreException ex) {
-				return;
+				return false;
 			}
 			userAdmin.eventProducer.generateEvent(UserAdminEvent.ROLE_CHANGED, role);
 			break;
 		}
 
 		super.clear();
+		removed.forEach((key, value) -> changed(key, value, null));
+		return true;
+	}
+
+	// Records the change of the key, see
+	// UserAdmin.changed(UserAdminEntry, Object, Object)
+	private void changed(String key, Object oldValue, Object newValue) {
+		userAdmin.changed(new UserAdminEntry.PropertyEntry(userAdmin, role.name, propertyType, key), oldValue,
+				newValue);
+	}
+
+	private void propertyChanged(String key, Object oldValue) {
+		if (propertyType == PROPERTIES) {
+			userAdmin.propertyChanged(role, key, oldValue);
+		}
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2009 IBM Corporation and others.
+ * Copyright (c) 2001, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,6 +41,8 @@ public class UserAdminStore {
 	protected LogTracker log;
 	protected Preferences rootNode;
 	protected PreferencesService preferencesService;
+	// set while the changes of a coordination are written, see write(PrivilegedExceptionAction)
+	private final ThreadLocal<Boolean> writingCoordination = new ThreadLocal<>();
 
 	protected UserAdminStore(PreferencesService preferencesService, UserAdmin useradmin, LogTracker log) {
 		this.preferencesService = preferencesService;
@@ -61,12 +63,58 @@ public class UserAdminStore {
 		}
 	}
 
+	/**
+	 * Writes the changes of a terminated coordination, or the reverts of its
+	 * changes, to the backing store and flushes them once. The changes are not
+	 * deferred to a coordination of the calling thread.
+	 *
+	 * @param changes writes the changes with the methods of this store
+	 */
+	protected void write(PrivilegedExceptionAction<Void> changes) throws BackingStoreException {
+		writingCoordination.set(Boolean.TRUE);
+		try {
+			AccessController.doPrivileged((PrivilegedExceptionAction<Void>) () -> {
+				changes.run();
+				rootNode.flush();
+				return (null);
+			});
+		} catch (PrivilegedActionException ex) {
+			log.error(UserAdminMsg.Backing_Store_Write_Exception, ex);
+			throw ((BackingStoreException) ex.getException());
+		} finally {
+			writingCoordination.remove();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> while the calling thread writes the changes of a
+	 *         coordination, see {@link #write(PrivilegedExceptionAction)}
+	 */
+	protected boolean isWriting() {
+		return writingCoordination.get() != null;
+	}
+
+	// Changes which take part in a coordination are written when it ends, so that
+	// flushes of other threads do not store them before.
+	private boolean isDeferred() {
+		return writingCoordination.get() == null && useradmin.joinCoordination();
+	}
+
+	private void flush(Preferences node) throws BackingStoreException {
+		if (writingCoordination.get() == null) {
+			node.flush();
+		}
+	}
+
 	protected void addRole(final org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences node = rootNode.node(role.getName());
 				node.putInt(typeString, role.getType());
-				node.flush();
+				flush(node);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -75,12 +123,15 @@ public class UserAdminStore {
 		}
 	}
 
-	protected void removeRole(final org.osgi.service.useradmin.Role role) throws BackingStoreException {
+	protected void removeRole(final String name) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
-				Preferences node = rootNode.node(role.getName());
+				Preferences node = rootNode.node(name);
 				node.removeNode();
-				rootNode.node("").flush(); //$NON-NLS-1$
+				flush(rootNode.node("")); //$NON-NLS-1$
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -90,6 +141,9 @@ public class UserAdminStore {
 	}
 
 	protected void clearProperties(final org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences propertyNode = rootNode.node(role.getName() + "/" + propertiesNode); //$NON-NLS-1$
@@ -97,7 +151,7 @@ public class UserAdminStore {
 				if (propertyNode.nodeExists(typesNode)) {
 					propertyNode.node(typesNode).removeNode();
 				}
-				propertyNode.flush();
+				flush(propertyNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -108,6 +162,9 @@ public class UserAdminStore {
 
 	protected void addProperty(final org.osgi.service.useradmin.Role role, final String key, final Object value)
 			throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences propertyNode = rootNode.node(role.getName() + "/" + propertiesNode); //$NON-NLS-1$
@@ -120,7 +177,7 @@ public class UserAdminStore {
 					propertyNode.putByteArray(key, (byte[]) value);
 					propertyTypesNode.putBoolean(key, false);
 				}
-				propertyNode.flush();
+				flush(propertyNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -131,6 +188,9 @@ public class UserAdminStore {
 
 	protected void removeProperty(final org.osgi.service.useradmin.Role role, final String key)
 			throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences propertyNode = rootNode.node(role.getName() + "/" + propertiesNode); //$NON-NLS-1$
@@ -138,7 +198,7 @@ public class UserAdminStore {
 				if (propertyNode.nodeExists(typesNode)) {
 					propertyNode.node(typesNode).remove(key);
 				}
-				propertyNode.flush();
+				flush(propertyNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -148,6 +208,9 @@ public class UserAdminStore {
 	}
 
 	protected void clearCredentials(final org.osgi.service.useradmin.Role role) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences credentialNode = rootNode.node(role.getName() + "/" + credentialsNode); //$NON-NLS-1$
@@ -155,7 +218,7 @@ public class UserAdminStore {
 				if (credentialNode.nodeExists(typesNode)) {
 					credentialNode.node(typesNode).removeNode();
 				}
-				credentialNode.flush();
+				flush(credentialNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -166,7 +229,9 @@ public class UserAdminStore {
 
 	protected void addCredential(final org.osgi.service.useradmin.Role role, final String key, final Object value)
 			throws BackingStoreException {
-
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences credentialNode = rootNode.node(role.getName() + "/" + credentialsNode); //$NON-NLS-1$
@@ -179,7 +244,7 @@ public class UserAdminStore {
 					credentialNode.putByteArray(key, (byte[]) value);
 					credentialTypesNode.putBoolean(key, false);
 				}
-				credentialNode.flush();
+				flush(credentialNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -192,6 +257,9 @@ public class UserAdminStore {
 
 	protected void removeCredential(final org.osgi.service.useradmin.Role role, final String key)
 			throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences credentialNode = rootNode.node(role.getName() + "/" + credentialsNode); //$NON-NLS-1$
@@ -199,7 +267,7 @@ public class UserAdminStore {
 				if (credentialNode.nodeExists(typesNode)) {
 					credentialNode.node(typesNode).remove(key);
 				}
-				credentialNode.flush();
+				flush(credentialNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -209,11 +277,14 @@ public class UserAdminStore {
 	}
 
 	protected void addMember(final Group group, final Role role) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences memberNode = rootNode.node(group.getName() + "/" + membersNode); //$NON-NLS-1$
 				memberNode.put(role.getName(), basicString);
-				memberNode.flush();
+				flush(memberNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -224,11 +295,14 @@ public class UserAdminStore {
 	}
 
 	protected void addRequiredMember(final Group group, final Role role) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences memberNode = rootNode.node(group.getName() + "/" + membersNode); //$NON-NLS-1$
 				memberNode.put(role.getName(), requiredString);
-				memberNode.flush();
+				flush(memberNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
@@ -238,17 +312,20 @@ public class UserAdminStore {
 		}
 	}
 
-	protected void removeMember(final Group group, final Role role) throws BackingStoreException {
+	protected void removeMember(final Group group, final String member) throws BackingStoreException {
+		if (isDeferred()) {
+			return;
+		}
 		try {
 			AccessController.doPrivileged((PrivilegedExceptionAction) () -> {
 				Preferences memberNode = rootNode.node(group.getName() + "/" + membersNode); //$NON-NLS-1$
-				memberNode.remove(role.getName());
-				memberNode.flush();
+				memberNode.remove(member);
+				flush(memberNode);
 				return (null);
 			});
 		} catch (PrivilegedActionException ex) {
 			log.error(NLS.bind(UserAdminMsg.Backing_Store_Write_Exception,
-					new Object[] { NLS.bind(UserAdminMsg.removing_member__24, role.getName(), group.getName()) }), ex);
+					new Object[] { NLS.bind(UserAdminMsg.removing_member__24, member, group.getName()) }), ex);
 			throw ((BackingStoreException) ex.getException());
 		}
 	}
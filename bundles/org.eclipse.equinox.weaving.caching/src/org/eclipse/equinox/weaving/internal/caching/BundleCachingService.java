@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Heiko Seeberger and others.
+ * Copyright (c) 2008, 2026 Heiko Seeberger and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,16 +18,19 @@
 package org.eclipse.equinox.weaving.internal.caching;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
 
 import org.eclipse.equinox.service.weaving.CacheEntry;
 import org.eclipse.equinox.service.weaving.ICachingService;
@@ -43,19 +46,19 @@ import org.osgi.framework.BundleContext;
  */
 public class BundleCachingService implements ICachingService {
 
-	private static final int READ_BUFFER_SIZE = 8 * 1024;
+	private static final String PACK_EXTENSION = ".pack"; //$NON-NLS-1$
 
 	private final Bundle bundle;
 
-	private File cacheDirectory;
+	private final long lastModified;
+
+	private final String key;
 
 	/**
-	 * Cache and reuse the {@link #cacheDirectory} string representation instead of
-	 * calling {@link File#getAbsolutePath()} multiple times.
+	 * The pack storing the cached classes of the bundle, specific to the bundle
+	 * generation and the key.
 	 */
-	private String cacheDirectoryString;
-
-	private final String cacheKey;
+	private final ClassPack pack;
 
 	private final BlockingQueue<CacheItem> cacheWriterQueue;
 
@@ -64,25 +67,21 @@ public class BundleCachingService implements ICachingService {
 	 */
 	private final Map<CacheItemKey, byte[]> itemsInQueue;
 
-	/**
-	 * the lock manager to protect against concurrent file system access
-	 */
-	private final ClassnameLockManager lockManager;
-
 	/**
 	 * @param bundleContext    Must not be null!
 	 * @param bundle           Must not be null!
 	 * @param key              Must not be null!
+	 * @param existingCaches   the caches of the bundle found in the data area,
+	 *                         the ones other than the pack of this service are
+	 *                         deleted
 	 * @param cacheWriterQueue The queue for items to be written to the cache, must
 	 *                         not be null
 	 * @param itemsInQueue     lookup map for the items in the CacheWriter queue
-	 * @param lockManager      the lock manager to protect against concurrent file
-	 *                         system access
 	 * @throws IllegalArgumentException if given bundleContext or bundle is null.
 	 */
 	public BundleCachingService(final BundleContext bundleContext, final Bundle bundle, final String key,
-			final BlockingQueue<CacheItem> cacheWriterQueue, final Map<CacheItemKey, byte[]> itemsInQueue,
-			final ClassnameLockManager lockManager) {
+			final Collection<File> existingCaches, final BlockingQueue<CacheItem> cacheWriterQueue,
+			final Map<CacheItemKey, byte[]> itemsInQueue) {
 		if (bundleContext == null) {
 			throw new IllegalArgumentException("Argument \"bundleContext\" must not be null!"); //$NON-NLS-1$
 		}
@@ -94,21 +93,50 @@ public class BundleCachingService implements ICachingService {
 		}
 
 		this.bundle = bundle;
-		this.cacheKey = hashNamespace(key);
+		this.lastModified = bundle.getLastModified();
+		this.key = key;
 		this.cacheWriterQueue = cacheWriterQueue;
 		this.itemsInQueue = itemsInQueue;
-		this.lockManager = lockManager;
 
-		final File dataFile = bundleContext.getDataFile(cacheKey);
+		final File dataFile = bundleContext.getDataFile(hashNamespace(key));
 		if (dataFile != null) {
-			final String bundleCacheDir = bundle.getBundleId() + "-" + bundle.getLastModified(); //$NON-NLS-1$
-			cacheDirectory = new File(dataFile, bundleCacheDir);
-			cacheDirectoryString = cacheDirectory.getAbsolutePath();
+			final String packName = bundle.getBundleId() + "-" + lastModified + PACK_EXTENSION; //$NON-NLS-1$
+			final File packFile = new File(dataFile, packName);
+			deleteStaleCaches(existingCaches, packFile);
+			pack = new ClassPack(packFile);
 		} else {
+			pack = null;
 			Log.error("Cannot initialize cache!", null); //$NON-NLS-1$
 		}
 	}
 
+	/**
+	 * Deletes the caches of other generations of the bundle and of other keys, for
+	 * example when the supplementers of the bundle have changed. This includes the
+	 * directories of the previous cache layout that stored each class in a file.
+	 */
+	private static void deleteStaleCaches(final Collection<File> caches, final File packFile) {
+		for (final File staleCache : caches) {
+			if (staleCache.equals(packFile)) {
+				continue;
+			}
+			try (Stream<Path> paths = Files.walk(staleCache.toPath())) {
+				paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+				Log.debug("Deleted stale cache " + staleCache.getAbsolutePath()); //$NON-NLS-1$
+			} catch (final IOException e) {
+				Log.debug("Cannot delete stale cache " + staleCache.getAbsolutePath()); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * @return the file of the pack storing the cached classes, or {@code null} if
+	 *         the classes of the bundle cannot be cached
+	 */
+	public File getPackFile() {
+		return pack == null ? null : pack.getFile();
+	}
+
 	@Override
 	public boolean canCacheGeneratedClasses() {
 		return true;
@@ -124,17 +152,14 @@ public class BundleCachingService implements ICachingService {
 		byte[] storedClass = null;
 		boolean isCached = false;
 
-		if (cacheDirectory != null) {
-			final String directoryString = cacheDirectory.getAbsolutePath();
+		if (pack != null) {
 			// first check whether the class is currently in the CacheWriter queue, and if
-			// so, take it from there
-			storedClass = itemsInQueue.get(new CacheItemKey(directoryString, name));
+			// so, take it from there. The writer removes it only after it has been
+			// appended to the pack.
+			storedClass = itemsInQueue.get(new CacheItemKey(pack, name));
 			if (storedClass == null) {
 				// else, read it from disk (if it exists)
-				final File cachedBytecodeFile = new File(cacheDirectory, name);
-				if (cachedBytecodeFile.exists()) {
-					storedClass = lockManager.executeRead(name, () -> read(name, cachedBytecodeFile));
-				}
+				storedClass = pack.read(name);
 			}
 			isCached = storedClass != null;
 		}
@@ -179,56 +204,27 @@ public class BundleCachingService implements ICachingService {
 		return new String(result);
 	}
 
-	private byte[] read(final String name, final File file) {
-		int length = (int) file.length();
-
-		try (InputStream in = new FileInputStream(file)) {
-			byte[] classbytes = new byte[length];
-			int bytesread = 0;
-			int readcount;
-
-			if (length > 0) {
-				classbytes = new byte[length];
-				for (; bytesread < length; bytesread += readcount) {
-					readcount = in.read(classbytes, bytesread, length - bytesread);
-					if (readcount <= 0) { /* if we didn't read anything */
-						break; /* leave the loop */
-					}
-				}
-			} else /* BundleEntry does not know its own length! */ {
-				length = READ_BUFFER_SIZE;
-				classbytes = new byte[length];
-				readloop: while (true) {
-					for (; bytesread < length; bytesread += readcount) {
-						readcount = in.read(classbytes, bytesread, length - bytesread);
-						if (readcount <= 0) { /* if we didn't read anything */
-							break readloop; /* leave the loop */
-						}
-					}
-					final byte[] oldbytes = classbytes;
-					length += READ_BUFFER_SIZE;
-					classbytes = new byte[length];
-					System.arraycopy(oldbytes, 0, classbytes, 0, bytesread);
-				}
-			}
-			if (classbytes.length > bytesread) {
-				final byte[] oldbytes = classbytes;
-				classbytes = new byte[bytesread];
-				System.arraycopy(oldbytes, 0, classbytes, 0, bytesread);
-			}
-			return classbytes;
-		} catch (final IOException e) {
-			Log.debug(MessageFormat.format("for [{0}]: Cannot read [1] from cache!", bundle //$NON-NLS-1$
-					.getSymbolicName(), name));
-			return null;
-		}
+	/**
+	 * Determines whether this service caches the classes of the current generation
+	 * of the given bundle for the given key.
+	 *
+	 * @param currentBundle the bundle
+	 * @param currentKey    the key of the weaving service of the bundle
+	 * @return true, if the service can be used for the bundle and key
+	 */
+	public boolean isCurrent(final Bundle currentBundle, final String currentKey) {
+		return bundle.getBundleId() == currentBundle.getBundleId()
+				&& lastModified == currentBundle.getLastModified() && key.equals(currentKey);
 	}
 
 	/**
-	 * Writes the remaining cache to disk.
+	 * Closes the pack, items that are still queued for it are no longer written.
 	 */
 	@Override
 	public void stop() {
+		if (pack != null) {
+			pack.close();
+		}
 	}
 
 	@Override
@@ -240,16 +236,19 @@ public class BundleCachingService implements ICachingService {
 		if (classbytes == null) {
 			throw new IllegalArgumentException("Argument \"classbytes\" must not be null!"); //$NON-NLS-1$
 		}
-		if (cacheDirectory == null) {
+		if (pack == null) {
 			return false;
 		}
 
 		final String className = clazz.getName();
-		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className);
+		final CacheItem item = new CacheItem(classbytes, pack, className);
 
+		// register the item before queuing it, the writer removes it once stored
+		final CacheItemKey itemKey = new CacheItemKey(pack, className);
+		itemsInQueue.put(itemKey, classbytes);
 		final boolean queued = this.cacheWriterQueue.offer(item);
-		if (queued) {
-			itemsInQueue.put(new CacheItemKey(cacheDirectoryString, className), classbytes);
+		if (!queued) {
+			itemsInQueue.remove(itemKey, classbytes);
 		}
 		return queued;
 	}
@@ -257,15 +256,23 @@ public class BundleCachingService implements ICachingService {
 	@Override
 	public boolean storeClassAndGeneratedClasses(final String namespace, final URL sourceFileUrl, final Class<?> clazz,
 			final byte[] classbytes, final Map<String, byte[]> generatedClasses) {
+		if (pack == null) {
+			return false;
+		}
+
 		final String className = clazz.getName();
-		final CacheItem item = new CacheItem(classbytes, cacheDirectoryString, className, generatedClasses);
+		final CacheItem item = new CacheItem(classbytes, pack, className, generatedClasses);
 
+		// register the items before queuing them, the writer removes them once stored
+		itemsInQueue.put(new CacheItemKey(pack, className), classbytes);
+		for (final Entry<String, byte[]> generatedClass : generatedClasses.entrySet()) {
+			itemsInQueue.put(new CacheItemKey(pack, generatedClass.getKey()), generatedClass.getValue());
+		}
 		final boolean queued = this.cacheWriterQueue.offer(item);
-		if (queued) {
-			itemsInQueue.put(new CacheItemKey(cacheDirectoryString, className), classbytes);
+		if (!queued) {
+			itemsInQueue.remove(new CacheItemKey(pack, className), classbytes);
 			for (final Entry<String, byte[]> generatedClass : generatedClasses.entrySet()) {
-				itemsInQueue.put(new CacheItemKey(cacheDirectoryString, generatedClass.getKey()),
-						generatedClass.getValue());
+				itemsInQueue.remove(new CacheItemKey(pack, generatedClass.getKey()), generatedClass.getValue());
 			}
 		}
 		return queued;
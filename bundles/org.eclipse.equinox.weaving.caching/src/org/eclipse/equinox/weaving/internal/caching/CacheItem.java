@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 Martin Lippert and others.
+ * Copyright (c) 2009, 2026 Martin Lippert and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,7 +27,7 @@ public class CacheItem {
 
 	private final byte[] cachedBytes;
 
-	private final String directory;
+	private final ClassPack pack;
 
 	private final Map<String, byte[]> generatedClasses;
 
@@ -37,26 +37,26 @@ public class CacheItem {
 	 * Create a new item to be cached
 	 *
 	 * @param cachedBytes The bytes to be written to the cache
-	 * @param directory   The directory to where the bytes should be stored
-	 * @param name        The name of the file to store the bytes in
+	 * @param pack        The pack to store the bytes in
+	 * @param name        The name of the class
 	 */
-	public CacheItem(final byte[] cachedBytes, final String directory, final String name) {
-		this(cachedBytes, directory, name, null);
+	public CacheItem(final byte[] cachedBytes, final ClassPack pack, final String name) {
+		this(cachedBytes, pack, name, null);
 	}
 
 	/**
 	 * Create a new item to be cached
 	 *
 	 * @param cachedBytes      The bytes to be written to the cache
-	 * @param directory        The directory to where the bytes should be stored
-	 * @param name             The name of the file to store the bytes in
+	 * @param pack             The pack to store the bytes in
+	 * @param name             The name of the class
 	 * @param generatedClasses The generated classes that should be stored together
 	 *                         with this item (className -> bytecode)
 	 */
-	public CacheItem(final byte[] cachedBytes, final String directory, final String name,
+	public CacheItem(final byte[] cachedBytes, final ClassPack pack, final String name,
 			final Map<String, byte[]> generatedClasses) {
 		this.cachedBytes = cachedBytes;
-		this.directory = directory;
+		this.pack = pack;
 		this.name = name;
 		this.generatedClasses = generatedClasses;
 	}
@@ -69,10 +69,10 @@ public class CacheItem {
 	}
 
 	/**
-	 * @return The directory in which the item should be stored
+	 * @return The pack in which the item should be stored
 	 */
-	public String getDirectory() {
-		return directory;
+	public ClassPack getPack() {
+		return pack;
 	}
 
 	/**
@@ -84,7 +84,7 @@ public class CacheItem {
 	}
 
 	/**
-	 * @return The name of the file to be written to the cache
+	 * @return The name of the class to be written to the cache
 	 */
 	public String getName() {
 		return name;
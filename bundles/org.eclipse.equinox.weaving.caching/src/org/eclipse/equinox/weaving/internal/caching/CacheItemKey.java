@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2023 Stefan Winkler and others.
+ * Copyright (c) 2023, 2026 Stefan Winkler and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,30 +20,30 @@ import java.util.Objects;
  * A key to find/access {@link CacheItem}s in the lookup map of classes queued
  * for writing.
  *
- * The key consists of the target cache directory and classname of the class
- * file to be written. We use this composed key instead of concatenating the
+ * The key consists of the target pack and classname of the class to be
+ * written. We use this composed key instead of concatenating the
  * strings for performance reasons, as this saves us the otherwise necessary
  * String concatenation.
  */
 public final class CacheItemKey {
 	/**
-	 * The String representation of the target cache directory
+	 * The target pack
 	 */
-	public final String directory;
+	public final ClassPack pack;
 	/**
 	 * The class name.
 	 */
 	public final String name;
 
 	/**
-	 * Create an instance of the {@link CacheItemKey} for the given directory and
-	 * class name
+	 * Create an instance of the {@link CacheItemKey} for the given pack and class
+	 * name
 	 *
-	 * @param dir  The String representation of the target cache directory
+	 * @param pack The target pack
 	 * @param name The class name
 	 */
-	public CacheItemKey(final String dir, final String name) {
-		this.directory = dir;
+	public CacheItemKey(final ClassPack pack, final String name) {
+		this.pack = pack;
 		this.name = name;
 	}
 
@@ -52,11 +52,11 @@ public final class CacheItemKey {
 		if (!(obj instanceof final CacheItemKey other)) {
 			return false;
 		}
-		return Objects.equals(other.name, name) && Objects.equals(other.directory, directory);
+		return Objects.equals(other.name, name) && other.pack == pack;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(name, directory);
+		return Objects.hash(name, pack);
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2024 Martin Lippert and others.
+ * Copyright (c) 2009, 2026 Martin Lippert and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,40 +16,56 @@
 
 package org.eclipse.equinox.weaving.internal.caching;
 
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The CacheWriter is responsible to store cache items to disk. The cache items
  * are read from the given queue.
  *
+ * Several writer threads take the items from the queue in batches and append
+ * the items of a batch that belong to the same {@link ClassPack} with a single
+ * write. The packs are not synced to disk per batch but when they are closed,
+ * records lost or torn by a crash are dropped when the pack is read again.
+ *
  * @author Martin Lippert
  */
 public class CacheWriter {
 	/**
-	 * A timeout value in milliseconds to wait for the writer thread to finish after
-	 * signalling the interrupt.
+	 * A timeout value in milliseconds to wait for the writer threads to finish
+	 * after signalling them to stop.
 	 */
 	private static final long JOIN_TIMEOUT = 5000L;
 
 	/**
-	 * A map for items that are currently contained in the {@link #cacheWriterQueue}
+	 * The maximum number of items appended to the packs at once.
 	 */
-	private final Map<CacheItemKey, byte[]> itemsInQueue;
+	private static final int MAX_BATCH_SIZE = 256;
+
+	/**
+	 * The timeout in milliseconds after which an idle writer thread checks whether
+	 * it has been stopped.
+	 */
+	private static final long POLL_TIMEOUT = 1000L;
+
+	private static final int WRITER_THREADS = Math.max(1,
+			Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+	private final BlockingQueue<CacheItem> cacheQueue;
 
 	/**
-	 * the lock manager to protect against concurrent file system access
+	 * A map for items that are currently contained in the {@link #cacheQueue}
 	 */
-	private final ClassnameLockManager lockManager;
+	private final Map<CacheItemKey, byte[]> itemsInQueue;
+
+	private volatile boolean stopped;
 
-	private final Thread writerThread;
+	private final Thread[] writerThreads;
 
 	/**
 	 * Create a new cache writer for the given queue of cache items
@@ -57,113 +73,97 @@ public class CacheWriter {
 	 * @param cacheQueue   The blocking queue that delivers the cache items to store
 	 *                     to this cache writer
 	 * @param itemsInQueue The lookup map for items currently in the queue
-	 * @param lockManager  the lock manager to protect against concurrent file
-	 *                     system access
 	 */
-	public CacheWriter(final BlockingQueue<CacheItem> cacheQueue, final Map<CacheItemKey, byte[]> itemsInQueue,
-			final ClassnameLockManager lockManager) {
+	public CacheWriter(final BlockingQueue<CacheItem> cacheQueue, final Map<CacheItemKey, byte[]> itemsInQueue) {
+		this.cacheQueue = cacheQueue;
 		this.itemsInQueue = itemsInQueue;
-		this.lockManager = lockManager;
-		this.writerThread = new Thread(() -> {
-			try {
-				while (true) {
-					final CacheItem item = cacheQueue.take();
-					store(item);
+		this.writerThreads = new Thread[WRITER_THREADS];
+		for (int i = 0; i < writerThreads.length; i++) {
+			writerThreads[i] = new Thread(this::run, "Equinox Weaving Cache Writer " + i); //$NON-NLS-1$
+			writerThreads[i].setPriority(Thread.MIN_PRIORITY);
+		}
+	}
+
+	private void run() {
+		final List<CacheItem> batch = new ArrayList<>(MAX_BATCH_SIZE);
+		try {
+			while (true) {
+				final CacheItem item = cacheQueue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				if (item == null) {
+					// the queue has been drained
+					if (stopped) {
+						return;
+					}
+					continue;
 				}
-			} catch (final InterruptedException e) {
-				Thread.currentThread().interrupt();
+				batch.add(item);
+				cacheQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+				store(batch);
+				batch.clear();
 			}
-		});
-		this.writerThread.setPriority(Thread.MIN_PRIORITY);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	/**
-	 * start the cache writers work (creates a new thread to work on the queue)
+	 * start the cache writers work (creates new threads to work on the queue)
 	 */
 	public void start() {
-		this.writerThread.start();
+		for (final Thread writerThread : writerThreads) {
+			writerThread.start();
+		}
 	}
 
 	/**
-	 * stops the cache writer
+	 * stops the cache writer after the items in the queue have been stored
 	 */
 	public void stop() {
-		this.writerThread.interrupt();
-		// wait for the writer thread to finish, so we don't System.exit() in the middle
-		// of writing...
+		// the threads are not interrupted, this would close the channel of the pack
+		// they are writing to
+		stopped = true;
+		// wait for the writer threads to finish, so we don't System.exit() in the
+		// middle of writing...
+		final long deadline = System.currentTimeMillis() + JOIN_TIMEOUT;
 		try {
-			this.writerThread.join(JOIN_TIMEOUT);
+			for (final Thread writerThread : writerThreads) {
+				writerThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+			}
 		} catch (final InterruptedException e) {
-			Log.error("Interrupted while joining the writerThread", e); //$NON-NLS-1$
+			Log.error("Interrupted while joining the writer threads", e); //$NON-NLS-1$
 			Thread.currentThread().interrupt();
 		}
 	}
 
 	/**
-	 * store the cache item to disk
+	 * store the cache items to disk
 	 *
-	 * This operation creates the appropriate directory for the cache item if it
-	 * does not exist
-	 *
-	 * @param item the cache item to store to disc
+	 * @param items the cache items to store to disk
 	 */
-	protected void store(final CacheItem item) {
-		// write out generated classes first
-		final Map<String, byte[]> generatedClasses = item.getGeneratedClasses();
-		if (generatedClasses != null) {
-			for (final Entry<String, byte[]> entry : generatedClasses.entrySet()) {
-				final String className = entry.getKey();
-				final byte[] classBytes = entry.getValue();
-				// write the class to the cache in a locked operation to prevent concurrent
-				// reads of incompletely written files
-				lockManager.executeWrite(className, () -> storeSingleClass(className, classBytes, item.getDirectory()));
-			}
-		}
-
-		// write out the woven class
-		lockManager.executeWrite(item.getName(),
-				() -> storeSingleClass(item.getName(), item.getCachedBytes(), item.getDirectory()));
-	}
-
-	private void storeSingleClass(final String className, final byte[] classBytes, final String cacheDirectory) {
-		final File directory = new File(cacheDirectory);
-		if (!directory.exists()) {
-			directory.mkdirs();
+	protected void store(final List<CacheItem> items) {
+		final Map<ClassPack, List<CacheItem>> itemsByPack = new LinkedHashMap<>();
+		for (final CacheItem item : items) {
+			itemsByPack.computeIfAbsent(item.getPack(), pack -> new ArrayList<>()).add(item);
 		}
+		for (final Entry<ClassPack, List<CacheItem>> entry : itemsByPack.entrySet()) {
+			final ClassPack pack = entry.getKey();
+			pack.append(entry.getValue());
 
-		final File outputFile = new File(directory, className);
-		boolean success = true;
-		try (FileOutputStream fosCache = new FileOutputStream(outputFile);
-				DataOutputStream outCache = new DataOutputStream(new BufferedOutputStream(fosCache))) {
-			outCache.write(classBytes);
-			outCache.flush();
-			fosCache.getFD().sync();
-		} catch (final IOException e) {
-			Log.error("Failed to store class " + className + " in cache", e); //$NON-NLS-1$ //$NON-NLS-2$
-			success = false;
-		}
-
-		// if there was an error during writing the file, or if an interrupt happened,
-		// we have a risk of having written an incomplete file. To be sure, we check
-		// the length of the file on disk. If it does not match, we delete the file
-		// again.
-		if ((!success || Thread.currentThread().isInterrupted()) && outputFile.exists()
-				&& outputFile.length() != classBytes.length) {
-			Log.debug("File " + outputFile.getAbsolutePath() + " was not completely written to disk. Removing it."); //$NON-NLS-1$ //$NON-NLS-2$
-			try {
-				Files.delete(outputFile.toPath());
-			} catch (final IOException e) {
-				Log.error("File " + outputFile.getAbsolutePath() + " is corrupted but could not be deleted.", e); //$NON-NLS-1$ //$NON-NLS-2$
-				// last resort: try to delete the file when the VM terminates
-				outputFile.deleteOnExit();
+			// after writing the pack, remove the items from the itemsInQueue lookup map as
+			// well - we do this even the writing was unsuccessful to keep the queue and the
+			// itemsInQueue in sync. It will do no further harm, just the class is not
+			// cached and will be woven and cached again next time. An entry is only removed
+			// if it still holds the bytes of the item, a newer item of the same class may
+			// have been queued meanwhile and be written by another thread.
+			for (final CacheItem item : entry.getValue()) {
+				final Map<String, byte[]> generatedClasses = item.getGeneratedClasses();
+				if (generatedClasses != null) {
+					for (final Entry<String, byte[]> generatedClass : generatedClasses.entrySet()) {
+						itemsInQueue.remove(new CacheItemKey(pack, generatedClass.getKey()), generatedClass.getValue());
+					}
+				}
+				itemsInQueue.remove(new CacheItemKey(pack, item.getName()), item.getCachedBytes());
 			}
 		}
-
-		// after writing the file, remove the item from the itemsInQueue lookup map as
-		// well - we do this even the writing was unsuccessful to keep the queue and the
-		// itemsInQueue in sync. It will do no further harm, just the file is not cached
-		// and will be woven and
-		// cached again next time.
-		itemsInQueue.remove(new CacheItemKey(cacheDirectory, className));
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Heiko Seeberger and others.
+ * Copyright (c) 2008, 2026 Heiko Seeberger and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,12 @@
 
 package org.eclipse.equinox.weaving.internal.caching;
 
+import java.io.File;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -54,9 +58,11 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 	private final ConcurrentMap<CacheItemKey, byte[]> itemsInCacheQueue;
 
 	/**
-	 * the lock manager to protect against concurrent file system access
+	 * The caches found in the data area by bundle id, read when the first caching
+	 * service is created. The caches of a bundle are taken out when a caching
+	 * service is created for it, and replaced with the pack of the service.
 	 */
-	private final ClassnameLockManager lockManager = new ClassnameLockManager();
+	private Map<Long, List<File>> existingCaches;
 
 	/**
 	 * @param bundleContext Must not be null!
@@ -69,7 +75,7 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 		this.bundleContext = bundleContext;
 		this.cacheQueue = new ArrayBlockingQueue<>(IBundleConstants.QUEUE_CAPACITY);
 		this.itemsInCacheQueue = new ConcurrentHashMap<>();
-		this.cacheWriter = new CacheWriter(this.cacheQueue, this.itemsInCacheQueue, this.lockManager);
+		this.cacheWriter = new CacheWriter(this.cacheQueue, this.itemsInCacheQueue);
 		this.cacheWriter.start();
 
 		this.bundleContext.addBundleListener(new SynchronousBundleListener() {
@@ -101,11 +107,22 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 
 		ICachingService bundleCachingService = bundleCachingServices.get(cacheId);
 
+		// the key changes with the supplementers of the bundle
+		if (bundleCachingService != null && !isCurrent(bundleCachingService, bundle, key)) {
+			bundleCachingService.stop();
+			bundleCachingService = null;
+		}
+
 		if (bundleCachingService == null) {
 
 			if (key != null && key.length() > 0) {
-				bundleCachingService = new BundleCachingService(bundleContext, bundle, key, this.cacheQueue,
-						this.itemsInCacheQueue, this.lockManager);
+				final BundleCachingService service = new BundleCachingService(bundleContext, bundle, key,
+						takeExistingCaches(bundle), this.cacheQueue, this.itemsInCacheQueue);
+				if (service.getPackFile() != null) {
+					// deleted when the service is replaced
+					existingCaches.put(bundle.getBundleId(), new ArrayList<>(List.of(service.getPackFile())));
+				}
+				bundleCachingService = service;
 			} else {
 				bundleCachingService = new UnchangedCachingService();
 			}
@@ -119,6 +136,43 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 		return bundleCachingService;
 	}
 
+	/**
+	 * Takes the caches of the given bundle out of the caches found in the data
+	 * area. The data area is read with one pass over its key directories when
+	 * this is first called.
+	 */
+	private List<File> takeExistingCaches(final Bundle bundle) {
+		if (existingCaches == null) {
+			existingCaches = new HashMap<>();
+			final File dataRoot = bundleContext.getDataFile(""); //$NON-NLS-1$
+			final File[] keyDirectories = dataRoot == null ? null : dataRoot.listFiles(File::isDirectory);
+			if (keyDirectories != null) {
+				for (final File keyDirectory : keyDirectories) {
+					final File[] caches = keyDirectory.listFiles();
+					if (caches == null) {
+						continue;
+					}
+					for (final File cache : caches) {
+						// the caches of a bundle are named after its id, followed by a dash
+						final String name = cache.getName();
+						final int dash = name.indexOf('-');
+						if (dash < 0) {
+							continue;
+						}
+						try {
+							final Long bundleId = Long.valueOf(name.substring(0, dash));
+							existingCaches.computeIfAbsent(bundleId, id -> new ArrayList<>()).add(cache);
+						} catch (final NumberFormatException e) {
+							// not a cache of a bundle
+						}
+					}
+				}
+			}
+		}
+		final List<File> caches = existingCaches.remove(bundle.getBundleId());
+		return caches == null ? Collections.emptyList() : caches;
+	}
+
 	/**
 	 * Generates the unique id for the cache of the given bundle (usually the
 	 * symbolic name and the bundle version)
@@ -131,15 +185,24 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 		return bundle.getSymbolicName() + "_" + v; //$NON-NLS-1$
 	}
 
+	private static boolean isCurrent(final ICachingService bundleCachingService, final Bundle bundle,
+			final String key) {
+		if (bundleCachingService instanceof final BundleCachingService service) {
+			return service.isCurrent(bundle, key);
+		}
+		return key == null || key.length() == 0;
+	}
+
 	/**
-	 * Stops all individual bundle services.
+	 * Stops all individual bundle services after the queued items have been
+	 * written.
 	 */
 	public synchronized void stop() {
+		this.cacheWriter.stop();
 		for (final ICachingService bundleCachingService : bundleCachingServices.values()) {
 			bundleCachingService.stop();
 		}
 		bundleCachingServices.clear();
-		this.cacheWriter.stop();
 	}
 
 	/**
@@ -148,7 +211,7 @@ public class CachingServiceFactory implements ICachingServiceFactory {
 	 * @param event The event contains the information for which bundle to stop the
 	 *              caching service
 	 */
-	protected void stopBundleCachingService(final BundleEvent event) {
+	protected synchronized void stopBundleCachingService(final BundleEvent event) {
 		final String cacheId = getCacheId(event.getBundle());
 		final ICachingService bundleCachingService = bundleCachingServices.get(cacheId);
 		if (bundleCachingService != null) {
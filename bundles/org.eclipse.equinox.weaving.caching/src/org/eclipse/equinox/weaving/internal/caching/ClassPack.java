@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0.
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.internal.caching;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file that stores the cached classes of a bundle.
+ *
+ * The file starts with a header identifying the format, followed by one record
+ * per class: the length of the class name, the length of the class bytes, a
+ * CRC-32 checksum of the class bytes, the UTF-8 encoded class name and the
+ * class bytes. A class that is stored again supersedes its previous record.
+ *
+ * The index of the records is rebuilt from the record headers when the pack is
+ * opened, dropping an incompletely written last record. The records found then
+ * are read from a memory mapping of the file, which is never remapped. Records
+ * appended later are read with a positional read of the file. Classes are
+ * verified against their checksum and reads do not block while classes are
+ * appended.
+ *
+ * The file is written through a channel that is opened by the first append,
+ * records appended later are read through the same channel while it is open.
+ * At most {@value #MAX_OPEN_CHANNELS} packs keep their channel open, the
+ * channel of the least recently appended to pack is closed when another one is
+ * opened. The file is synced to disk when the pack is closed, not for every
+ * append.
+ */
+public class ClassPack {
+
+	/**
+	 * The location of the class bytes of a record in the file.
+	 */
+	private record Location(int offset, int length, int checksum) {
+	}
+
+	private static final int MAGIC = 0x45575043;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8;
+
+	private static final int RECORD_HEADER_SIZE = 12;
+
+	private static final int MAX_OPEN_CHANNELS = 16;
+
+	/**
+	 * The packs with an open channel, the least recently appended to first. Also
+	 * the lock for itself.
+	 */
+	private static final Map<ClassPack, Boolean> openPacks = new LinkedHashMap<>(MAX_OPEN_CHANNELS, 0.75f, true);
+
+	private final File file;
+
+	private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+	/**
+	 * The channel appending records, also used to read records appended after the
+	 * pack was opened. Only changed while holding the lock of this pack.
+	 */
+	private volatile FileChannel channel;
+
+	private volatile boolean opened;
+
+	private boolean closed;
+
+	/**
+	 * The mapping of the records found when the pack was opened, or {@code null}
+	 * if there were none.
+	 */
+	private volatile MappedByteBuffer mapping;
+
+	/**
+	 * The length of the valid records in the file, new records are written at
+	 * this position.
+	 */
+	private volatile long size;
+
+	/**
+	 * Create a pack for the given file. The file is read when the first class is
+	 * read from or appended to the pack, and created if it does not exist yet.
+	 *
+	 * @param file the file of the pack, must not be null
+	 */
+	public ClassPack(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Appends the classes of the given items to the pack and makes them available
+	 * for reading once they have been written to disk. The generated classes of
+	 * an item are stored before the woven class.
+	 *
+	 * @param items the items to store
+	 * @return {@code true} if the classes have been stored, {@code false} if the
+	 *         pack has been closed or cannot be written
+	 */
+	public boolean append(final List<CacheItem> items) {
+		final boolean appended = write(items);
+		closeEldestChannels();
+		return appended;
+	}
+
+	private static void closeEldestChannels() {
+		while (true) {
+			final ClassPack eldest;
+			synchronized (openPacks) {
+				if (openPacks.size() <= MAX_OPEN_CHANNELS) {
+					return;
+				}
+				final Iterator<ClassPack> packs = openPacks.keySet().iterator();
+				eldest = packs.next();
+				packs.remove();
+			}
+			// not holding the lock of another pack, which may be closing channels too
+			eldest.closeChannel();
+		}
+	}
+
+	private synchronized void closeChannel() {
+		synchronized (openPacks) {
+			if (openPacks.containsKey(this)) {
+				// appended to again since it was chosen
+				return;
+			}
+		}
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (final IOException e) {
+				Log.error("Failed to close cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+			}
+			channel = null;
+		}
+	}
+
+	private synchronized boolean write(final List<CacheItem> items) {
+		open();
+		if (closed) {
+			return false;
+		}
+		final List<ByteBuffer> buffers = new ArrayList<>(items.size() * 2 + 1);
+		final Map<String, Location> added = new HashMap<>();
+		long end = size;
+		if (end == 0) {
+			buffers.add(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+			end = HEADER_SIZE;
+		}
+		for (final CacheItem item : items) {
+			final Map<String, byte[]> generatedClasses = item.getGeneratedClasses();
+			if (generatedClasses != null) {
+				for (final Entry<String, byte[]> entry : generatedClasses.entrySet()) {
+					end = addRecord(buffers, added, end, entry.getKey(), entry.getValue());
+				}
+			}
+			end = addRecord(buffers, added, end, item.getName(), item.getCachedBytes());
+		}
+		if (end > Integer.MAX_VALUE) {
+			Log.debug("Cache " + file.getAbsolutePath() + " is full."); //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+
+		try {
+			// a read interrupted while using the channel closes it
+			if (channel == null || !channel.isOpen()) {
+				file.getParentFile().mkdirs();
+				channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE);
+			}
+			synchronized (openPacks) {
+				openPacks.put(this, Boolean.TRUE);
+			}
+			// an incompletely written batch is never indexed and overwritten by the next
+			// one. The file is not synced to disk for every batch, records lost or torn
+			// by a crash are dropped when the pack is opened or fail their checksum.
+			channel.position(size);
+			final ByteBuffer[] array = buffers.toArray(new ByteBuffer[buffers.size()]);
+			for (final ByteBuffer buffer : array) {
+				while (buffer.hasRemaining()) {
+					channel.write(array);
+				}
+			}
+		} catch (final IOException e) {
+			Log.error("Failed to store classes in cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+			return false;
+		}
+		size = end;
+		index.putAll(added);
+		return true;
+	}
+
+	private long addRecord(final List<ByteBuffer> buffers, final Map<String, Location> added, final long offset,
+			final String name, final byte[] classBytes) {
+		final byte[] nameBytes = name.getBytes(UTF_8);
+		final CRC32 crc = new CRC32();
+		crc.update(classBytes);
+		final int checksum = (int) crc.getValue();
+		buffers.add(ByteBuffer.allocate(RECORD_HEADER_SIZE + nameBytes.length).putInt(nameBytes.length)
+				.putInt(classBytes.length).putInt(checksum).put(nameBytes).flip());
+		buffers.add(ByteBuffer.wrap(classBytes));
+		final long dataOffset = offset + RECORD_HEADER_SIZE + nameBytes.length;
+		if (dataOffset + classBytes.length <= Integer.MAX_VALUE) {
+			added.put(name, new Location((int) dataOffset, classBytes.length, checksum));
+		}
+		return dataOffset + classBytes.length;
+	}
+
+	/**
+	 * Closes the pack. Classes that have been stored before can still be read,
+	 * appending classes is no longer possible.
+	 */
+	public synchronized void close() {
+		opened = true;
+		closed = true;
+		synchronized (openPacks) {
+			openPacks.remove(this);
+		}
+		if (channel != null) {
+			try {
+				channel.force(false);
+				channel.close();
+			} catch (final IOException e) {
+				Log.error("Failed to close cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+			}
+			channel = null;
+		}
+	}
+
+	/**
+	 * @return The file of this pack
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Reads class bytes appended after the pack was opened. The bytes are read
+	 * with positional reads of the channel appending records, which do not block
+	 * while records are appended. Only if the channel has been closed meanwhile
+	 * the file is opened for the read.
+	 */
+	private boolean readAppended(final Location location, final byte[] classBytes) {
+		final FileChannel current = channel;
+		if (current != null) {
+			try {
+				return read(current, location, ByteBuffer.wrap(classBytes));
+			} catch (final ClosedChannelException e) {
+				// closed by another thread, read from the file
+			} catch (final IOException e) {
+				Log.error("Failed to read cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+				return false;
+			}
+		}
+		try (FileChannel readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return read(readChannel, location, ByteBuffer.wrap(classBytes));
+		} catch (final IOException e) {
+			Log.error("Failed to read cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	private static boolean read(final FileChannel readChannel, final Location location, final ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			if (readChannel.read(buffer, location.offset + buffer.position()) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private synchronized void open() {
+		if (opened) {
+			return;
+		}
+		opened = true;
+		if (!file.isFile()) {
+			return;
+		}
+		try (FileChannel readChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			final long length = readChannel.size();
+			if (length > Integer.MAX_VALUE) {
+				return;
+			}
+			// a mapping stays valid after the channel has been closed
+			MappedByteBuffer buffer = readChannel.map(MapMode.READ_ONLY, 0, length);
+			size = scan(buffer);
+			if (size < length) {
+				// map the valid records only, so the mapping does not extend into records
+				// appended later
+				buffer = size == 0 ? null : readChannel.map(MapMode.READ_ONLY, 0, size);
+				try {
+					readChannel.truncate(size);
+				} catch (final IOException e) {
+					// the file is still mapped on some platforms, the remainder does not match
+					// any index entry and is overwritten by the next append
+					Log.debug("Failed to truncate cache " + file.getAbsolutePath() + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+			mapping = buffer;
+		} catch (final IOException e) {
+			Log.error("Failed to open cache " + file.getAbsolutePath(), e); //$NON-NLS-1$
+			index.clear();
+			size = 0;
+		}
+	}
+
+	/**
+	 * Reads a class from the pack.
+	 *
+	 * @param name the name of the class
+	 * @return the bytes of the class or {@code null} if the class is not stored
+	 *         in this pack
+	 */
+	public byte[] read(final String name) {
+		if (!opened) {
+			open();
+		}
+		final Location location = index.get(name);
+		if (location == null) {
+			return null;
+		}
+		final byte[] classBytes = new byte[location.length];
+		final MappedByteBuffer buffer = mapping;
+		if (buffer != null && (long) location.offset + location.length <= buffer.capacity()) {
+			buffer.get(location.offset, classBytes);
+		} else if (!readAppended(location, classBytes)) {
+			return null;
+		}
+		final CRC32 crc = new CRC32();
+		crc.update(classBytes);
+		if ((int) crc.getValue() != location.checksum) {
+			Log.debug("Corrupted class " + name + " in cache " + file.getAbsolutePath()); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+		return classBytes;
+	}
+
+	/**
+	 * Builds the index from the record headers.
+	 *
+	 * @return the length of the valid records
+	 */
+	private int scan(final MappedByteBuffer buffer) {
+		final int length = buffer.capacity();
+		if (length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			return 0;
+		}
+		int position = HEADER_SIZE;
+		while (length - position >= RECORD_HEADER_SIZE) {
+			final int nameLength = buffer.getInt(position);
+			final int dataLength = buffer.getInt(position + 4);
+			final int checksum = buffer.getInt(position + 8);
+			if (nameLength <= 0 || dataLength < 0
+					|| (long) length - position - RECORD_HEADER_SIZE < (long) nameLength + dataLength) {
+				break;
+			}
+			final byte[] nameBytes = new byte[nameLength];
+			buffer.get(position + RECORD_HEADER_SIZE, nameBytes);
+			final int dataOffset = position + RECORD_HEADER_SIZE + nameLength;
+			index.put(new String(nameBytes, UTF_8), new Location(dataOffset, dataLength, checksum));
+			position = dataOffset + dataLength;
+		}
+		return position;
+	}
+}
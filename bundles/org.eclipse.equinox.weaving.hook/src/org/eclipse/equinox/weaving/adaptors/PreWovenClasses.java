@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.adaptors;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The classes of a bundle woven ahead of their first use, kept until they are
+ * loaded or dropped.
+ *
+ * The woven bytes of all bundles share a budget, classes that do not fit into
+ * the remaining budget are not kept. The bytes of a class are returned only
+ * once. Once the classes are closed, no further classes are kept.
+ */
+public class PreWovenClasses {
+
+	private final AtomicLong budget;
+
+	private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+	/**
+	 * Create the pre-woven classes of a bundle.
+	 *
+	 * @param budget The number of bytes that may still be kept, shared by the
+	 *               pre-woven classes of all bundles
+	 */
+	public PreWovenClasses(final AtomicLong budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Determines whether the woven bytes of a class are kept.
+	 *
+	 * @param name The name of the class
+	 * @return true, if woven bytes are kept for the class
+	 */
+	public boolean contains(final String name) {
+		return classes.containsKey(name);
+	}
+
+	/**
+	 * Drops the woven bytes of all classes, returns them to the budget and keeps
+	 * no further classes.
+	 */
+	public void close() {
+		closed = true;
+		for (final String name : classes.keySet()) {
+			remove(name);
+		}
+	}
+
+	/**
+	 * @return true, if the classes have been closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Keeps the woven bytes of a class, if they fit into the budget and the
+	 * classes have not been closed.
+	 *
+	 * @param name       The name of the class
+	 * @param classbytes The woven bytes of the class
+	 * @return true, if the woven bytes are kept
+	 */
+	public boolean put(final String name, final byte[] classbytes) {
+		if (closed) {
+			return false;
+		}
+		if (budget.addAndGet(-classbytes.length) < 0) {
+			budget.addAndGet(classbytes.length);
+			return false;
+		}
+		release(classes.put(name, classbytes));
+		if (closed) {
+			// closed meanwhile
+			remove(name);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Drops the woven bytes of a class.
+	 *
+	 * @param name The name of the class
+	 */
+	public void remove(final String name) {
+		release(classes.remove(name));
+	}
+
+	/**
+	 * @return The number of classes whose woven bytes are kept
+	 */
+	public int size() {
+		return classes.size();
+	}
+
+	/**
+	 * Returns and drops the woven bytes of a class.
+	 *
+	 * @param name The name of the class
+	 * @return The woven bytes or null, if no bytes are kept for the class
+	 */
+	public byte[] take(final String name) {
+		final byte[] classbytes = classes.remove(name);
+		release(classbytes);
+		return classbytes;
+	}
+
+	private void release(final byte[] classbytes) {
+		if (classbytes != null) {
+			budget.addAndGet(classbytes.length);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,17 +19,25 @@ package org.eclipse.equinox.weaving.adaptors;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.equinox.service.weaving.CacheEntry;
 import org.eclipse.equinox.service.weaving.ICachingService;
 import org.eclipse.equinox.service.weaving.IWeavingService;
+import org.eclipse.equinox.weaving.adaptors.WeavingDecisions.Decision;
+import org.eclipse.equinox.weaving.adaptors.WeavingDecisions.Digest;
+import org.eclipse.equinox.weaving.hooks.WeavingBundleEntry;
 import org.eclipse.equinox.weaving.hooks.WeavingBundleFile;
 import org.eclipse.osgi.container.ModuleRevision;
 import org.eclipse.osgi.internal.loader.ModuleClassLoader;
+import org.eclipse.osgi.internal.loader.classpath.ClasspathEntry;
 import org.eclipse.osgi.storage.BundleInfo.Generation;
+import org.eclipse.osgi.storage.bundlefile.BundleEntry;
 import org.eclipse.osgi.storage.bundlefile.BundleFile;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.wiring.BundleRevision;
@@ -79,8 +87,18 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 
 	private final ModuleClassLoader moduleLoader;
 
+	private final PreWovenClasses preWovenClasses;
+
 	private final String symbolicName;
 
+	/**
+	 * The classes that have been left unchanged by the weaving service and that
+	 * have not been stored yet.
+	 */
+	private final Set<String> unchangedClasses = ConcurrentHashMap.newKeySet();
+
+	private Digest weavingContext;
+
 	private IWeavingService weavingService;
 
 	public WeavingAdaptor(final Generation generation, final WeavingAdaptorFactory serviceFactory,
@@ -90,6 +108,7 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 		this.factory = serviceFactory;
 		this.symbolicName = generation.getRevision().getSymbolicName();
 		this.moduleLoader = classLoader;
+		this.preWovenClasses = serviceFactory.createPreWovenClasses();
 		if (Debug.DEBUG_GENERAL) {
 			Debug.println("- WeavingAdaptor.WeavingAdaptor() bundle=" //$NON-NLS-1$
 					+ symbolicName);
@@ -141,6 +160,9 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 				} else if (moduleLoader != null) {
 					weavingService = factory.getWeavingService(moduleLoader);
 					cachingService = factory.getCachingService(moduleLoader, bundle, weavingService);
+					if (weavingService != null) {
+						factory.preWeave(bundle, this);
+					}
 				} else if ((generation.getRevision().getTypes() & BundleRevision.TYPE_FRAGMENT) != 0) {
 
 					final Bundle host = factory.getHost(bundle);
@@ -163,6 +185,9 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 								+ symbolicName + ", baseLoader=" + moduleLoader); //$NON-NLS-1$
 					}
 				}
+				if (weavingService != null) {
+					weavingContext = WeavingDecisions.digest(factory.getWeavingContext(bundle, weavingService));
+				}
 				initialized = true;
 				identifyRecursionSet.remove(this);
 			}
@@ -180,6 +205,105 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 		return initialized;
 	}
 
+	/**
+	 * Drops the classes woven ahead of their first use that have not been loaded.
+	 */
+	void dropPreWovenClasses() {
+		if (Debug.DEBUG_WEAVE && preWovenClasses.size() > 0) {
+			Debug.println("- WeavingAdaptor.dropPreWovenClasses() bundle=" + symbolicName //$NON-NLS-1$
+					+ ", classes=" + preWovenClasses.size()); //$NON-NLS-1$
+		}
+		preWovenClasses.close();
+	}
+
+	/**
+	 * @return true, if the classes woven ahead of their first use have been
+	 *         dropped
+	 */
+	boolean isPreWovenClassesDropped() {
+		return preWovenClasses.isClosed();
+	}
+
+	/**
+	 * Weaves the classes of the bundle that are neither loaded nor cached yet, and
+	 * keeps the woven bytes until the classes are loaded or the bundle is stopped.
+	 *
+	 * A class is woven without holding its class loading lock, as the weaving
+	 * service may load other classes while weaving. A class loaded while it is
+	 * being pre-woven is woven by the loading thread as well, and the pre-woven
+	 * bytes are dropped.
+	 */
+	void preWeave() {
+		initialize();
+		if (weavingService == null || moduleLoader == null) {
+			return;
+		}
+		if (Debug.DEBUG_WEAVE) {
+			Debug.println("> WeavingAdaptor.preWeave() bundle=" + symbolicName); //$NON-NLS-1$
+		}
+		int count = 0;
+		classpath: for (final ClasspathEntry classpathEntry : moduleLoader.getClasspathManager()
+				.getHostClasspathEntries()) {
+			final BundleFile bundleFile = classpathEntry.getBundleFile();
+			final Enumeration<String> paths = bundleFile.getEntryPaths("", true); //$NON-NLS-1$
+			while (paths != null && paths.hasMoreElements()) {
+				if (Thread.currentThread().isInterrupted() || preWovenClasses.isClosed()) {
+					break classpath;
+				}
+				final String path = paths.nextElement();
+				if (!path.endsWith(".class")) { //$NON-NLS-1$
+					continue;
+				}
+				final String name = path.substring(0, path.length() - 6).replace('/', '.');
+				try {
+					if (preWeave(bundleFile, path, name)) {
+						count++;
+					}
+				} catch (final IOException | RuntimeException | LinkageError e) {
+					if (Debug.DEBUG_WEAVE) {
+						Debug.println("E WeavingAdaptor.preWeave() name=" + name + ", " + e); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}
+			}
+		}
+		if (Debug.DEBUG_WEAVE) {
+			Debug.println("< WeavingAdaptor.preWeave() bundle=" + symbolicName + ", classes=" + count); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Weaves a class ahead of its first use.
+	 *
+	 * @return true, if the class has been passed to the weaving service
+	 */
+	private boolean preWeave(final BundleFile bundleFile, final String path, final String name)
+			throws IOException {
+		if (preWovenClasses.contains(name) || moduleLoader.publicFindLoaded(name) != null) {
+			return false;
+		}
+		// cached classes are not returned as weaving entries
+		final BundleEntry entry = bundleFile.getEntry(path);
+		if (!(entry instanceof final WeavingBundleEntry weavingEntry) || weavingEntry.dontWeave()) {
+			return false;
+		}
+		final Decision decision = new Decision(weavingContext, path);
+		if (factory.getWeavingDecisions().isUnchanged(decision)) {
+			return false;
+		}
+		final byte[] newBytes = weave(name, entry.getBytes());
+		if (newBytes == null) {
+			addUnchanged(name, decision);
+		} else if (!preWovenClasses.put(name, newBytes)) {
+			if (Debug.DEBUG_WEAVE) {
+				Debug.println("- WeavingAdaptor.preWeave() not kept, name=" + name); //$NON-NLS-1$
+			}
+		} else if (moduleLoader.publicFindLoaded(name) != null) {
+			// loaded while being woven
+			preWovenClasses.remove(name);
+		}
+		return true;
+	}
+
 	@Override
 	public boolean storeClass(final String name, final URL sourceFileURL, final Class<?> clazz,
 			final byte[] classbytes) {
@@ -192,6 +316,13 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 		boolean stored = false;
 
 		initialize();
+		if (unchangedClasses.remove(name) && factory.getWeavingDecisions().isPersistent()) {
+			// the weaving decision replaces the cache entry
+			if (Debug.DEBUG_CACHE) {
+				Debug.println("< WeavingAdaptor.storeClass() unchanged"); //$NON-NLS-1$
+			}
+			return false;
+		}
 		if (cachingService != null) {
 			// have we generated a closure?
 			if (weavingService != null && weavingService.generatedClassesExistFor(moduleLoader, name)) {
@@ -240,10 +371,23 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 
 		initialize();
 		if (/* shouldWeave(bytes) && */weavingService != null) {
-			try {
-				newBytes = weavingService.preProcess(name, bytes, moduleLoader);
-			} catch (final IOException ex) {
-				throw new ClassFormatError(ex.toString());
+			final Decision decision = new Decision(weavingContext, name.replace('.', '/') + ".class"); //$NON-NLS-1$
+			final byte[] preWoven = preWovenClasses.take(name);
+			final boolean unchanged;
+			if (preWoven != null) {
+				newBytes = preWoven;
+				unchanged = false;
+			} else if (factory.getWeavingDecisions().isUnchanged(decision)) {
+				unchanged = true;
+			} else {
+				newBytes = weave(name, bytes);
+				unchanged = newBytes == null && addUnchanged(name, decision);
+			}
+			if (unchanged) {
+				unchangedClasses.add(name);
+				if (Debug.DEBUG_WEAVE) {
+					Debug.println("- WeavingAdaptor.weaveClass() unchanged"); //$NON-NLS-1$
+				}
 			}
 		}
 
@@ -253,4 +397,36 @@ public class WeavingAdaptor implements IWeavingAdaptor {
 		return newBytes;
 	}
 
+	/**
+	 * Records that the weaving service left a class unchanged, unless it
+	 * generated classes for it.
+	 *
+	 * @return true, if the decision has been recorded
+	 */
+	private boolean addUnchanged(final String name, final Decision decision) {
+		if (weavingService.generatedClassesExistFor(moduleLoader, name)) {
+			return false;
+		}
+		factory.getWeavingDecisions().addUnchanged(decision);
+		return true;
+	}
+
+	/**
+	 * Passes a class to the weaving service.
+	 *
+	 * @return the woven bytes or null, if the class is unchanged
+	 */
+	private byte[] weave(final String name, final byte[] bytes) {
+		final byte[] newBytes;
+		try {
+			newBytes = weavingService.preProcess(name, bytes, moduleLoader);
+		} catch (final IOException ex) {
+			throw new ClassFormatError(ex.toString());
+		}
+		if (newBytes != null && !Arrays.equals(newBytes, bytes)) {
+			return newBytes;
+		}
+		return null;
+	}
+
 }
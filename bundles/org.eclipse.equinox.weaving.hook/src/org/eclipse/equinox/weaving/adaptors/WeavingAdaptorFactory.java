@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,22 +23,29 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.equinox.service.weaving.ICachingService;
 import org.eclipse.equinox.service.weaving.ICachingServiceFactory;
 import org.eclipse.equinox.service.weaving.ISupplementerRegistry;
 import org.eclipse.equinox.service.weaving.IWeavingService;
 import org.eclipse.equinox.service.weaving.IWeavingServiceFactory;
+import org.eclipse.equinox.service.weaving.Supplementer;
 import org.eclipse.osgi.internal.loader.ModuleClassLoader;
 import org.eclipse.osgi.storage.BundleInfo.Generation;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceEvent;
 import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
+import org.osgi.framework.SynchronousBundleListener;
 import org.osgi.service.packageadmin.PackageAdmin;
 import org.osgi.service.startlevel.StartLevel;
 import org.osgi.util.tracker.ServiceTracker;
@@ -52,18 +59,47 @@ public class WeavingAdaptorFactory {
 						"org.eclipse.equinox.simpleconfigurator", //$NON-NLS-1$
 						"org.eclipse.equinox.common"); //$NON-NLS-1$
 
+	/**
+	 * The framework property defining the number of threads weaving the classes of
+	 * bundles ahead of their first use, pre-weaving is disabled by default.
+	 */
+	private static final String PREWEAVE_THREADS_PROPERTY = "org.eclipse.equinox.weaving.preweave.threads"; //$NON-NLS-1$
+
+	private static final int PREWEAVE_QUEUE_CAPACITY = 1000;
+
+	/**
+	 * The maximum number of bytes of pre-woven classes of all bundles kept until
+	 * the classes are loaded.
+	 */
+	private static final long MAX_PRE_WOVEN_BYTES = 32 * 1024 * 1024;
+
+	private static final String WEAVING_DECISIONS_FILE = "weaving.decisions"; //$NON-NLS-1$
+
 	private ServiceTracker<ICachingServiceFactory, ICachingServiceFactory> cachingServiceFactoryTracker;
 
 	private PackageAdmin packageAdminService;
 
 	private StartLevel startLevelService;
 
+	private final AtomicLong preWovenBudget = new AtomicLong(MAX_PRE_WOVEN_BYTES);
+
+	/**
+	 * The adaptors of the bundles that have been pre-woven and not stopped yet.
+	 */
+	private final Map<Bundle, WeavingAdaptor> preWovenAdaptors = new ConcurrentHashMap<>();
+
+	private SynchronousBundleListener preWovenBundleListener;
+
+	private ThreadPoolExecutor preWeaver;
+
 	private ISupplementerRegistry supplementerRegistry;
 
 	private ServiceTracker<IWeavingServiceFactory, IWeavingServiceFactory> weavingServiceFactoryTracker;
 
 	private ServiceListener weavingServiceListener;
 
+	private WeavingDecisions weavingDecisions = new WeavingDecisions(null);
+
 	private final Map<Bundle, IWeavingService> weavingServices = new ConcurrentHashMap<>();
 
 	public WeavingAdaptorFactory() {
@@ -85,6 +121,24 @@ public class WeavingAdaptorFactory {
 		if (Debug.DEBUG_CACHE) {
 			Debug.println("> Closed service tracker for caching service."); //$NON-NLS-1$
 		}
+
+		if (preWeaver != null) {
+			preWeaver.shutdownNow();
+			context.removeBundleListener(preWovenBundleListener);
+			for (final WeavingAdaptor adaptor : preWovenAdaptors.values()) {
+				adaptor.dropPreWovenClasses();
+			}
+			preWovenAdaptors.clear();
+		}
+		weavingDecisions.save();
+	}
+
+	/**
+	 * @return The pre-woven classes of a new adaptor, sharing the budget of all
+	 *         adaptors
+	 */
+	public PreWovenClasses createPreWovenClasses() {
+		return new PreWovenClasses(preWovenBudget);
 	}
 
 	protected ICachingService getCachingService(final ModuleClassLoader loader, final Bundle bundle,
@@ -110,6 +164,45 @@ public class WeavingAdaptorFactory {
 		return service;
 	}
 
+	/**
+	 * Returns the weaving context of a bundle, consisting of the bundle and its
+	 * last modification time, the key of its weaving service and its
+	 * supplementers. Weaving decisions are only valid in the same context.
+	 *
+	 * @param bundle         The bundle
+	 * @param weavingService The weaving service of the bundle
+	 * @return The weaving context of the bundle
+	 */
+	public String getWeavingContext(final Bundle bundle, final IWeavingService weavingService) {
+		final StringBuilder context = new StringBuilder();
+		context.append(bundle.getSymbolicName()).append('_').append(bundle.getVersion()).append('_')
+				.append(bundle.getLastModified());
+		context.append('\n').append(weavingService.getKey());
+		final List<String> supplementers = new ArrayList<>();
+		final Supplementer[] bundleSupplementers = supplementerRegistry != null
+				? supplementerRegistry.getSupplementers(bundle.getBundleId())
+				: null;
+		if (bundleSupplementers != null) {
+			for (final Supplementer supplementer : bundleSupplementers) {
+				final Bundle supplementerBundle = supplementer.getSupplementerBundle();
+				supplementers.add(supplementer.getSymbolicName() + '_' + supplementerBundle.getVersion() + '_'
+						+ supplementerBundle.getLastModified());
+			}
+		}
+		supplementers.sort(null);
+		for (final String supplementer : supplementers) {
+			context.append('\n').append(supplementer);
+		}
+		return context.toString();
+	}
+
+	/**
+	 * @return The persisted weaving decisions
+	 */
+	public WeavingDecisions getWeavingDecisions() {
+		return weavingDecisions;
+	}
+
 	public Bundle getHost(final Bundle fragment) {
 		if (Debug.DEBUG_GENERAL) {
 			Debug.println("> WeavingAdaptorFactory.getHost() fragment=" + fragment); //$NON-NLS-1$
@@ -126,6 +219,34 @@ public class WeavingAdaptorFactory {
 		return host;
 	}
 
+	/**
+	 * Weaves the classes of the bundle of the given adaptor ahead of their first
+	 * use, if pre-weaving is enabled. Bundles are dropped when too many of them
+	 * are waiting to be pre-woven. The pre-woven classes that have not been loaded
+	 * are dropped when the bundle is stopped, unresolved or uninstalled. A bundle
+	 * that is activated lazily is started by loading its first class, so the
+	 * classes are kept for started bundles as well, within the shared budget.
+	 *
+	 * @param bundle  The bundle
+	 * @param adaptor The adaptor of the bundle
+	 */
+	protected void preWeave(final Bundle bundle, final WeavingAdaptor adaptor) {
+		final ThreadPoolExecutor executor = preWeaver;
+		if (executor != null && !executor.isShutdown()) {
+			executor.execute(() -> {
+				final WeavingAdaptor previous = preWovenAdaptors.put(bundle, adaptor);
+				if (previous != null && previous != adaptor) {
+					previous.dropPreWovenClasses();
+				}
+				adaptor.preWeave();
+				if (adaptor.isPreWovenClassesDropped()) {
+					// stopped while being pre-woven
+					preWovenAdaptors.remove(bundle, adaptor);
+				}
+			});
+		}
+	}
+
 	protected IWeavingService getWeavingService(final ModuleClassLoader loader) {
 		if (Debug.DEBUG_WEAVE) {
 			Debug.println("> WeavingAdaptorFactory.getWeavingService() baseClassLoader=" //$NON-NLS-1$
@@ -163,6 +284,10 @@ public class WeavingAdaptorFactory {
 
 		initializePackageAdminService(context);
 		initializeStartLevelService(context);
+		initializePreWeaver(context);
+
+		weavingDecisions = new WeavingDecisions(context.getDataFile(WEAVING_DECISIONS_FILE));
+		weavingDecisions.load();
 
 		// Service tracker for weaving service
 		weavingServiceFactoryTracker = new ServiceTracker<>(context, IWeavingServiceFactory.class, null);
@@ -255,6 +380,53 @@ public class WeavingAdaptorFactory {
 		}
 	}
 
+	private void initializePreWeaver(final BundleContext context) {
+		final String property = context.getProperty(PREWEAVE_THREADS_PROPERTY);
+		int threads = 0;
+		if (property != null) {
+			try {
+				threads = Integer.parseInt(property.trim());
+			} catch (final NumberFormatException e) {
+				if (Debug.DEBUG_WEAVE) {
+					Debug.println("E AdaptorFactory.initializePreWeaver() " //$NON-NLS-1$
+							+ PREWEAVE_THREADS_PROPERTY + "=" + property); //$NON-NLS-1$
+				}
+			}
+		}
+		// leave a core for the threads loading classes
+		threads = Math.min(threads, Runtime.getRuntime().availableProcessors() - 1);
+		if (threads > 0) {
+			preWeaver = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(PREWEAVE_QUEUE_CAPACITY), runnable -> {
+						final Thread thread = new Thread(runnable, "Equinox Weaving Pre-Weaver"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					}, new ThreadPoolExecutor.DiscardPolicy());
+			preWeaver.allowCoreThreadTimeOut(true);
+
+			preWovenBundleListener = event -> {
+				switch (event.getType()) {
+				case BundleEvent.STOPPED:
+				case BundleEvent.UNRESOLVED:
+				case BundleEvent.UNINSTALLED:
+					final WeavingAdaptor adaptor = preWovenAdaptors.remove(event.getBundle());
+					if (adaptor != null) {
+						adaptor.dropPreWovenClasses();
+					}
+					break;
+				default:
+					break;
+				}
+			};
+			context.addBundleListener(preWovenBundleListener);
+		}
+
+		if (Debug.DEBUG_WEAVE) {
+			Debug.println("- AdaptorFactory.initializePreWeaver() threads=" + threads); //$NON-NLS-1$
+		}
+	}
+
 	private void initializeStartLevelService(final BundleContext context) {
 		if (Debug.DEBUG_GENERAL) {
 			Debug.println("> AdaptorFactory.initializeStartLevelService() context=" //$NON-NLS-1$
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.equinox.weaving.adaptors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The persisted set of classes that the weaving service has left unchanged.
+ *
+ * A decision is identified by a digest of the weaving context of the bundle and
+ * the path of the class entry. The weaving context consists of the bundle and
+ * its last modification time, the key of the weaving service and the
+ * supplementers of the bundle, so a decision no longer applies once the
+ * aspects, the supplementers or the bundle change. The digest is computed once
+ * per bundle, the bytes of the classes are not read to find a decision.
+ * Classes with a decision are not passed to the weaving service.
+ *
+ * The decisions are read when the weaving runtime starts and written when it
+ * stops. Decisions that have not been used since the last start are dropped
+ * once there are more than {@link #MAX_DECISIONS}.
+ */
+public class WeavingDecisions {
+
+	/**
+	 * A 128 bit prefix of the SHA-256 digest of the weaving context of a bundle.
+	 */
+	public record Digest(long high, long low) {
+	}
+
+	/**
+	 * A class entry of a bundle in its weaving context.
+	 */
+	public record Decision(Digest context, String path) {
+	}
+
+	private static final int MAGIC = 0x45574443;
+
+	private static final int VERSION = 2;
+
+	private static final int MAX_DECISIONS = 1 << 20;
+
+	/**
+	 * The decisions, mapped to whether they have been used or made since the start.
+	 */
+	private final Map<Decision, Boolean> decisions = new ConcurrentHashMap<>();
+
+	private final File file;
+
+	private volatile boolean changed;
+
+	/**
+	 * Create the decisions stored in the given file.
+	 *
+	 * @param file The file storing the decisions or null if the decisions are not
+	 *             persisted
+	 */
+	public WeavingDecisions(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Computes the digest of the weaving context of a bundle.
+	 *
+	 * @param context The weaving context of the bundle
+	 * @return The digest identifying the decisions for the classes of the bundle
+	 */
+	public static Digest digest(final String context) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final ByteBuffer result = ByteBuffer.wrap(digest.digest(context.getBytes(UTF_8)));
+		return new Digest(result.getLong(), result.getLong());
+	}
+
+	/**
+	 * Records that the weaving service left a class unchanged.
+	 *
+	 * @param decision The class entry in its weaving context
+	 */
+	public void addUnchanged(final Decision decision) {
+		if (decisions.put(decision, Boolean.TRUE) == null) {
+			changed = true;
+		}
+	}
+
+	/**
+	 * Determines whether the weaving service left a class unchanged before.
+	 *
+	 * @param decision The class entry in its weaving context
+	 * @return true, if the class does not need to be passed to the weaving service
+	 */
+	public boolean isUnchanged(final Decision decision) {
+		final Boolean used = decisions.get(decision);
+		if (used == null) {
+			return false;
+		}
+		if (!used.booleanValue()) {
+			decisions.put(decision, Boolean.TRUE);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true, if the decisions are written to disk
+	 */
+	public boolean isPersistent() {
+		return file != null;
+	}
+
+	/**
+	 * Reads the persisted decisions.
+	 */
+	public void load() {
+		if (file == null || !file.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return;
+			}
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				decisions.putIfAbsent(new Decision(new Digest(in.readLong(), in.readLong()), in.readUTF()),
+						Boolean.FALSE);
+			}
+		} catch (final IOException e) {
+			// a truncated file keeps the decisions read so far
+			if (Debug.DEBUG_WEAVE) {
+				Debug.println("E WeavingDecisions.load() file=" + file + ", " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		if (Debug.DEBUG_WEAVE) {
+			Debug.println("- WeavingDecisions.load() decisions=" + decisions.size()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes the decisions if they have changed since they have been read.
+	 */
+	public void save() {
+		if (file == null || !changed) {
+			return;
+		}
+		// decisions made while writing are written next time
+		changed = false;
+		final boolean prune = decisions.size() > MAX_DECISIONS;
+		final File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			file.getParentFile().mkdirs();
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				int count = 0;
+				for (final Boolean used : decisions.values()) {
+					if (!prune || used.booleanValue()) {
+						count++;
+					}
+				}
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(count);
+				for (final Map.Entry<Decision, Boolean> decision : decisions.entrySet()) {
+					if (count > 0 && (!prune || decision.getValue().booleanValue())) {
+						out.writeLong(decision.getKey().context().high());
+						out.writeLong(decision.getKey().context().low());
+						out.writeUTF(decision.getKey().path());
+						count--;
+					}
+				}
+			}
+			try {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (final IOException e) {
+			changed = true;
+			tmpFile.delete();
+			if (Debug.DEBUG_WEAVE) {
+				Debug.println("E WeavingDecisions.save() file=" + file + ", " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.weaving.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.equinox.weaving.internal.caching.CacheItem;
+import org.eclipse.equinox.weaving.internal.caching.ClassPack;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Ensures classes stored in a pack are read back, also after the pack is
+ * opened again, and that torn or corrupted records are never returned.
+ */
+public class ClassPackTest {
+	// the size of the pack header and of a record header
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_HEADER_SIZE = 12;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+	private final List<ClassPack> packs = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		file = new File(folder.getRoot(), "bundle/classes.pack"); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() {
+		for (ClassPack pack : packs) {
+			pack.close();
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		ClassPack pack = open(file);
+		assertNull("Class found in empty pack", pack.read("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(pack.append(List.of(item(pack, "a.A", "A1"), //$NON-NLS-1$ //$NON-NLS-2$
+				new CacheItem(bytes("B"), pack, "a.B", Map.of("a.B$Generated", bytes("G")))))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertTrue(pack.append(List.of(item(pack, "a.A", "A2")))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertClasses(pack);
+		pack.close();
+
+		ClassPack reopened = open(file);
+		assertClasses(reopened);
+		// appended after the pack was opened again
+		assertTrue(reopened.append(List.of(item(reopened, "a.C", "C")))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertClasses(reopened);
+		assertRead(reopened, "a.C", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+		reopened.close();
+
+		ClassPack again = open(file);
+		assertClasses(again);
+		assertRead(again, "a.C", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testClosedPack() {
+		ClassPack pack = open(file);
+		assertTrue(pack.append(List.of(item(pack, "a.A", "A")))); //$NON-NLS-1$ //$NON-NLS-2$
+		pack.close();
+		assertFalse("Appended to a closed pack", pack.append(List.of(item(pack, "a.B", "B")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertRead(pack, "a.A", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(pack.read("a.B")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testTornTail() throws IOException {
+		ClassPack pack = open(file);
+		assertTrue(pack.append(List.of(item(pack, "a.A", "AAAA"), item(pack, "a.B", "BBBB")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		pack.close();
+		long validLength = HEADER_SIZE + RECORD_HEADER_SIZE + 3 + 4;
+		// a crash while the second record was written
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			raf.setLength(raf.length() - 2);
+		}
+
+		ClassPack reopened = open(file);
+		assertRead(reopened, "a.A", "AAAA"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Torn record was read", reopened.read("a.B")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Torn record was not dropped", validLength, file.length()); //$NON-NLS-1$
+		assertTrue(reopened.append(List.of(item(reopened, "a.C", "CCCC")))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertRead(reopened, "a.C", "CCCC"); //$NON-NLS-1$ //$NON-NLS-2$
+		reopened.close();
+
+		ClassPack again = open(file);
+		assertRead(again, "a.A", "AAAA"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(again.read("a.B")); //$NON-NLS-1$
+		assertRead(again, "a.C", "CCCC"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testBadChecksum() throws IOException {
+		ClassPack pack = open(file);
+		assertTrue(pack.append(List.of(item(pack, "a.A", "AAAA"), item(pack, "a.B", "BBBB")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		pack.close();
+		// corrupt the bytes of the first class
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			raf.seek(HEADER_SIZE + RECORD_HEADER_SIZE + 3 + 1);
+			raf.write('X');
+		}
+
+		ClassPack reopened = open(file);
+		assertNull("Corrupted class was read", reopened.read("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertRead(reopened, "a.B", "BBBB"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testBadHeader() throws IOException {
+		ClassPack pack = open(file);
+		assertTrue(pack.append(List.of(item(pack, "a.A", "AAAA")))); //$NON-NLS-1$ //$NON-NLS-2$
+		pack.close();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			raf.writeInt(0);
+		}
+
+		ClassPack reopened = open(file);
+		assertNull("Class of an unknown format was read", reopened.read("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(reopened.append(List.of(item(reopened, "a.B", "BBBB")))); //$NON-NLS-1$ //$NON-NLS-2$
+		reopened.close();
+
+		ClassPack again = open(file);
+		assertNull(again.read("a.A")); //$NON-NLS-1$
+		assertRead(again, "a.B", "BBBB"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testManyPacks() {
+		// more packs than channels are kept open
+		List<ClassPack> many = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			many.add(open(new File(folder.getRoot(), "bundle" + i + "/classes.pack"))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < many.size(); i++) {
+				ClassPack pack = many.get(i);
+				assertTrue(pack.append(List.of(item(pack, "a.C" + round, "C" + i + '.' + round)))); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		for (int i = 0; i < many.size(); i++) {
+			ClassPack pack = many.get(i);
+			pack.close();
+			ClassPack reopened = open(pack.getFile());
+			for (int round = 0; round < 3; round++) {
+				assertRead(reopened, "a.C" + round, "C" + i + '.' + round); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void assertClasses(ClassPack pack) {
+		assertRead(pack, "a.A", "A2"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertRead(pack, "a.B", "B"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertRead(pack, "a.B$Generated", "G"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Unknown class was found", pack.read("a.Unknown")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void assertRead(ClassPack pack, String name, String content) {
+		assertArrayEquals("Wrong bytes of " + name, bytes(content), pack.read(name)); //$NON-NLS-1$
+	}
+
+	private ClassPack open(File packFile) {
+		ClassPack pack = new ClassPack(packFile);
+		packs.add(pack);
+		return pack;
+	}
+
+	private static CacheItem item(ClassPack pack, String name, String content) {
+		return new CacheItem(bytes(content), pack, name);
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
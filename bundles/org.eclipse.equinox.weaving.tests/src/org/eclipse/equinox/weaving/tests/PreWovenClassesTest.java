@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.weaving.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.equinox.weaving.adaptors.PreWovenClasses;
+import org.junit.Test;
+
+/*
+ * Ensures pre-woven bytes are used once and are no longer kept once dropped,
+ * and that the pre-woven classes of all bundles stay within their budget.
+ */
+public class PreWovenClassesTest {
+
+	@Test
+	public void testTake() {
+		AtomicLong budget = new AtomicLong(100);
+		PreWovenClasses classes = new PreWovenClasses(budget);
+		assertNull("Class was not pre-woven", classes.take("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(classes.put("a.A", bytes("woven A"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(classes.contains("a.A")); //$NON-NLS-1$
+		assertEquals(93, budget.get());
+
+		assertArrayEquals(bytes("woven A"), classes.take("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("Pre-woven class was kept after it was taken", classes.contains("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Pre-woven class was taken twice", classes.take("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(100, budget.get());
+	}
+
+	@Test
+	public void testClose() {
+		AtomicLong budget = new AtomicLong(100);
+		PreWovenClasses classes = new PreWovenClasses(budget);
+		assertTrue(classes.put("a.A", bytes("woven A"))); //$NON-NLS-1$ //$NON-NLS-2$
+		// dropped when the bundle is stopped
+		classes.close();
+		assertTrue(classes.isClosed());
+		assertNull("Dropped class was used", classes.take("a.A")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("Class was kept after the classes were dropped", classes.put("a.B", bytes("woven B"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse(classes.contains("a.B")); //$NON-NLS-1$
+		assertEquals(100, budget.get());
+	}
+
+	@Test
+	public void testBudget() {
+		AtomicLong budget = new AtomicLong(10);
+		PreWovenClasses first = new PreWovenClasses(budget);
+		PreWovenClasses second = new PreWovenClasses(budget);
+		assertTrue(first.put("a.A", new byte[6])); //$NON-NLS-1$
+		assertFalse("Class beyond the budget was kept", second.put("b.B", new byte[6])); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(second.contains("b.B")); //$NON-NLS-1$
+		assertTrue(second.put("b.C", new byte[4])); //$NON-NLS-1$
+		assertEquals(0, budget.get());
+
+		second.remove("b.C"); //$NON-NLS-1$
+		assertEquals(4, budget.get());
+
+		first.close();
+		assertEquals(0, first.size());
+		assertEquals(10, budget.get());
+		assertTrue(second.put("b.B", new byte[6])); //$NON-NLS-1$
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
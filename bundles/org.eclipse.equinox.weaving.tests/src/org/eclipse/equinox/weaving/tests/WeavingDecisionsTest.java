@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.weaving.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.eclipse.equinox.weaving.adaptors.WeavingDecisions;
+import org.eclipse.equinox.weaving.adaptors.WeavingDecisions.Decision;
+import org.eclipse.equinox.weaving.adaptors.WeavingDecisions.Digest;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * Ensures the decisions about unchanged classes survive a restart, and that
+ * decisions of another format or of another weaving context are never used.
+ */
+public class WeavingDecisionsTest {
+	// the start of a decisions file
+	private static final int MAGIC = 0x45574443;
+	private static final int VERSION = 2;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setUp() {
+		file = new File(folder.getRoot(), "data/weaving.decisions"); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testDecision() {
+		Decision decision = decision("context", "a/A.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(WeavingDecisions.digest("context"), WeavingDecisions.digest("context")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(decision, decision("context", "a/A.class")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotEquals(decision, decision("other", "a/A.class")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotEquals(decision, decision("context", "a/B.class")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testSaveLoad() {
+		Decision unchanged = decision("context", "a/A.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		Decision other = decision("context", "a/B.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		WeavingDecisions decisions = new WeavingDecisions(file);
+		assertTrue(decisions.isPersistent());
+		decisions.load();
+		assertFalse("Decision found without a file", decisions.isUnchanged(unchanged)); //$NON-NLS-1$
+		decisions.addUnchanged(unchanged);
+		assertTrue(decisions.isUnchanged(unchanged));
+		decisions.save();
+		assertTrue("Decisions were not saved", file.isFile()); //$NON-NLS-1$
+
+		WeavingDecisions loaded = new WeavingDecisions(file);
+		loaded.load();
+		assertTrue("Decision was not loaded", loaded.isUnchanged(unchanged)); //$NON-NLS-1$
+		assertFalse("Unknown decision was found", loaded.isUnchanged(other)); //$NON-NLS-1$
+
+		// unchanged decisions are not written again
+		assertTrue(file.delete());
+		loaded.save();
+		assertFalse("Unchanged decisions were saved", file.exists()); //$NON-NLS-1$
+		loaded.addUnchanged(other);
+		loaded.save();
+
+		WeavingDecisions again = new WeavingDecisions(file);
+		again.load();
+		assertTrue(again.isUnchanged(unchanged));
+		assertTrue(again.isUnchanged(other));
+	}
+
+	@Test
+	public void testVersionMismatch() throws IOException {
+		Decision unchanged = decision("context", "a/A.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		writeDecisions(MAGIC, VERSION, unchanged);
+		WeavingDecisions decisions = new WeavingDecisions(file);
+		decisions.load();
+		assertTrue("Decision of the current version was not loaded", decisions.isUnchanged(unchanged)); //$NON-NLS-1$
+
+		writeDecisions(MAGIC, VERSION - 1, unchanged);
+		decisions = new WeavingDecisions(file);
+		decisions.load();
+		assertFalse("Decision of an old version was loaded", decisions.isUnchanged(unchanged)); //$NON-NLS-1$
+
+		writeDecisions(0, VERSION, unchanged);
+		decisions = new WeavingDecisions(file);
+		decisions.load();
+		assertFalse("Decision of an unknown format was loaded", decisions.isUnchanged(unchanged)); //$NON-NLS-1$
+
+		// the file is replaced by the current version
+		decisions.addUnchanged(unchanged);
+		decisions.save();
+		decisions = new WeavingDecisions(file);
+		decisions.load();
+		assertTrue(decisions.isUnchanged(unchanged));
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		Decision first = decision("context", "a/A.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		Decision second = decision("context", "a/B.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		writeDecisions(MAGIC, VERSION, first, second);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			raf.setLength(raf.length() - 1);
+		}
+		WeavingDecisions decisions = new WeavingDecisions(file);
+		decisions.load();
+		assertTrue("Complete decision was not loaded", decisions.isUnchanged(first)); //$NON-NLS-1$
+		assertFalse("Truncated decision was loaded", decisions.isUnchanged(second)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testNotPersistent() {
+		WeavingDecisions decisions = new WeavingDecisions(null);
+		assertFalse(decisions.isPersistent());
+		Decision unchanged = decision("context", "a/A.class"); //$NON-NLS-1$ //$NON-NLS-2$
+		decisions.load();
+		decisions.addUnchanged(unchanged);
+		decisions.save();
+		assertTrue(decisions.isUnchanged(unchanged));
+	}
+
+	private void writeDecisions(int magic, int version, Decision... decisions) throws IOException {
+		file.getParentFile().mkdirs();
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeInt(decisions.length);
+			for (Decision decision : decisions) {
+				out.writeLong(decision.context().high());
+				out.writeLong(decision.context().low());
+				out.writeUTF(decision.path());
+			}
+		}
+	}
+
+	private static Decision decision(String context, String path) {
+		Digest digest = WeavingDecisions.digest(context);
+		return new Decision(digest, path);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2020 IBM Corporation and others.
+ * Copyright (c) 2013, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,15 +14,21 @@
 package org.eclipse.osgi.tests.hooks.framework;
 
 import static org.eclipse.osgi.tests.bundles.AbstractBundleTests.stopQuietly;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import org.eclipse.osgi.tests.OSGiTestsActivator;
 import org.junit.Test;
 import org.osgi.framework.BundleContext;
@@ -62,4 +68,38 @@ public class ContextFinderTests extends AbstractFrameworkHookTests {
 		assertFalse("Found unexpected result", result.hasMoreElements());
 	}
 
+	@Test
+	public void testClassLoaderOrder() throws Exception {
+		BundleContext bc = framework.getBundleContext();
+		ClassLoader contextFinder = bc
+				.getService(bc.getServiceReferences(ClassLoader.class, "(equinox.classloader.type=contextClassLoader)")
+						.iterator().next());
+		File root = OSGiTestsActivator.getContext().getDataFile(testName.getMethodName());
+		try (URLClassLoader first = createLoader(new File(root, "first"));
+				URLClassLoader second = createLoader(new File(root, "second"))) {
+			Callable<URL> getResource = () -> contextFinder.getResource("order.txt");
+			// the class loaders are consulted from the innermost frame outwards
+			assertEquals("Wrong class loader consulted first.", new File(root, "second/order.txt").toURI().toURL(),
+					callThrough(first, second, getResource));
+			assertEquals("Wrong class loader consulted first.", new File(root, "first/order.txt").toURI().toURL(),
+					callThrough(second, first, getResource));
+		}
+	}
+
+	private static URLClassLoader createLoader(File dir) throws IOException {
+		dir.mkdirs();
+		Files.write(new File(dir, "order.txt").toPath(), dir.getName().getBytes(StandardCharsets.UTF_8));
+		return new URLClassLoader(new URL[] { dir.toURI().toURL() }, null);
+	}
+
+	// calls the callable with frames of a proxy class defined by the outer
+	// class loader followed by frames of one defined by the inner class loader
+	@SuppressWarnings("unchecked")
+	private static <T> T callThrough(ClassLoader outer, ClassLoader inner, Callable<T> callable) throws Exception {
+		Callable<T> innerCall = (Callable<T>) Proxy.newProxyInstance(inner, new Class<?>[] { Callable.class },
+				(proxy, method, args) -> callable.call());
+		Callable<T> outerCall = (Callable<T>) Proxy.newProxyInstance(outer, new Class<?>[] { Callable.class },
+				(proxy, method, args) -> innerCall.call());
+		return outerCall.call();
+	}
 }
@@ -13,6 +13,25 @@
  *******************************************************************************/
 package org.eclipse.equinox.plurl.impl;
 
+import java.util.function.Function;
+
 interface CallStack {
 	Class<?>[] getClassContext();
+
+	/**
+	 * Walks the call stack starting at the caller and applies the resolver to the
+	 * class of each frame until it returns a non-null result.
+	 *
+	 * @param resolver the function to apply to the class of each frame
+	 * @return the first non-null result of the resolver, or null if there is none
+	 */
+	default <T> T find(Function<Class<?>, T> resolver) {
+		for (Class<?> clazz : getClassContext()) {
+			T result = resolver.apply(clazz);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
 }
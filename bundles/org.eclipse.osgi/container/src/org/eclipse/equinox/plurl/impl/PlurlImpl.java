@@ -62,6 +62,14 @@ public final class PlurlImpl implements Plurl {
 	private static final String THIS_PACKAGE = PlurlImpl.class.getPackage().getName();
 	static final String PLURL_STREAM_HANDLER_CLASS_NAME = PlurlStreamHandler.class.getName();
 	static final Field URL_HANDLER_FIELD = findUrlHandlerField();
+	// remembers for classes on the call stack if they are from this package or the system
+	private static final ClassValue<Boolean> IGNORED_CLASSES = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			String pName = getPackageName(type);
+			return THIS_PACKAGE.equals(pName) || isSystemClass(pName, type);
+		}
+	};
 
 	private static final Collection<ClassLoader> systemLoaders;
 	static {
@@ -814,37 +822,45 @@ public final class PlurlImpl implements Plurl {
 
 	private <F> F findFactory(List<F> factories) {
 		int numFactories = factories.size();
+		if (numFactories == 0) {
+			return null;
+		}
 		if (numFactories == 1) {
 			// Handle common case of only one; just use it
 			return factories.get(0);
 		}
-		Class<?>[] callStackClasses = getCallStack();
-		for (Class<?> stack : callStackClasses) {
-			String pName = getPackageName(stack);
-			if (THIS_PACKAGE.equals(pName) || isSystemClass(pName, stack)) {
-				continue;
-			}
-			for (F f : factories) {
-				boolean shouldHandle = false;
-				if (f instanceof PlurlFactory) {
-					shouldHandle = ((PlurlFactory) f).shouldHandle(stack);
-				} else {
-					// use reflection in case this Plurl package isn't visible to the factory impl
-					try {
-						shouldHandle = (boolean) findShouldHandle(f.getClass()).invoke(f, stack);
-					} catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
-				if (shouldHandle) {
-					return f;
-				}
-			}
+		// stop walking the stack at the first class a factory handles
+		F found = callStack.find((stack) -> findHandlingFactory(factories, stack));
+		if (found != null) {
+			return found;
 		}
 		// Instead of returning null here, the "first" factory is returned;
 		// This means the root or "first" factory may provide protocol handlers for call stacks
 		// that have no classes known to that factory
-		return numFactories > 0 ? factories.get(0) : null;
+		return factories.get(0);
+	}
+
+	private <F> F findHandlingFactory(List<F> factories, Class<?> stack) {
+		if (IGNORED_CLASSES.get(stack)) {
+			return null;
+		}
+		for (F f : factories) {
+			boolean shouldHandle = false;
+			if (f instanceof PlurlFactory) {
+				shouldHandle = ((PlurlFactory) f).shouldHandle(stack);
+			} else {
+				// use reflection in case this Plurl package isn't visible to the factory impl
+				try {
+					shouldHandle = (boolean) findShouldHandle(f.getClass()).invoke(f, stack);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+			if (shouldHandle) {
+				return f;
+			}
+		}
+		return null;
 	}
 
 	Method findShouldHandle(Class<?> clazz) throws NoSuchMethodException {
@@ -863,7 +879,7 @@ public final class PlurlImpl implements Plurl {
 		return shouldHandle;
 	}
 
-	private String getPackageName(Class<?> clazz) {
+	private static String getPackageName(Class<?> clazz) {
 		String name = clazz.getName();
 		int lastDot = name.lastIndexOf('.');
 		if (lastDot >= 0) {
@@ -872,10 +888,6 @@ public final class PlurlImpl implements Plurl {
 		return ""; //$NON-NLS-1$
 	}
 
-	private Class<?>[] getCallStack() {
-		return callStack.getClassContext();
-	}
-
 	class PlurlRootContentHandler extends ContentHandler {
 		private final String contentType;
 		private final ContentHandler fromParent;
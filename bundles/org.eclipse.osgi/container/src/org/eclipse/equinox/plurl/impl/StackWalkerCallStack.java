@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2025 IBM Corporation and others.
+ * Copyright (c) 2025, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,22 +13,28 @@
  *******************************************************************************/
 package org.eclipse.equinox.plurl.impl;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 class StackWalkerCallStack implements CallStack {
 
 	static final Class<?> stackWalkerClass;
 	static final Object stackWalker;
 	static final Method forEach;
+	static final Method walk;
 	static final Method getDeclaringClass;
 	static final CallStack fallback;
 	static {
 		Class<?> tmpStackWalkerClass = null;
 		Object tmpStackWalker = null;
 		Method tmpForEach = null;
+		Method tmpWalk = null;
 		Method tmpGetDeclaringClass = null;
 		CallStack tmpFallback = null;
 		try {
@@ -39,12 +45,14 @@ class StackWalkerCallStack implements CallStack {
 			tmpStackWalker = tmpStackWalkerClass.getMethod("getInstance", stackWalkerOptionClass).invoke(null, //$NON-NLS-1$
 					RETAIN_CLASS_REFERENCE);
 			tmpForEach = tmpStackWalkerClass.getMethod("forEach", Consumer.class); //$NON-NLS-1$
+			tmpWalk = tmpStackWalkerClass.getMethod("walk", Function.class); //$NON-NLS-1$
 			tmpGetDeclaringClass = Class.forName("java.lang.StackWalker$StackFrame").getMethod("getDeclaringClass"); //$NON-NLS-1$ //$NON-NLS-2$
 		} catch (Throwable t) {
 			// null all out
 			tmpStackWalkerClass = null;
 			tmpStackWalker = null;
 			tmpForEach = null;
+			tmpWalk = null;
 			tmpGetDeclaringClass = null;
 			// fallback to security manager
 			try {
@@ -57,6 +65,7 @@ class StackWalkerCallStack implements CallStack {
 		stackWalkerClass = tmpStackWalkerClass;
 		stackWalker = tmpStackWalker;
 		forEach = tmpForEach;
+		walk = tmpWalk;
 		getDeclaringClass = tmpGetDeclaringClass;
 		fallback = tmpFallback;
 	}
@@ -84,4 +93,42 @@ class StackWalkerCallStack implements CallStack {
 		}
 		return result.toArray(new Class<?>[0]);
 	}
+
+	@Override
+	public <T> T find(Function<Class<?>, T> resolver) {
+		if (fallback != null || stackWalker == null) {
+			return CallStack.super.find(resolver);
+		}
+		// walk the frames lazily so that the stack is only captured up to the
+		// first frame the resolver has a result for
+		Function<Stream<Object>, T> firstResult = frames -> frames.map(s -> {
+			Class<?> clazz;
+			try {
+				clazz = (Class<?>) getDeclaringClass.invoke(s);
+			} catch (Throwable t) {
+				// skip the frame like getClassContext()
+				t.printStackTrace();
+				return null;
+			}
+			return resolver.apply(clazz);
+		}).filter(Objects::nonNull).findFirst().orElse(null);
+		try {
+			@SuppressWarnings("unchecked")
+			T result = (T) walk.invoke(stackWalker, firstResult);
+			return result;
+		} catch (InvocationTargetException e) {
+			// let exceptions of the resolver pass through
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			cause.printStackTrace();
+		} catch (Throwable t) {
+			t.printStackTrace();
+		}
+		return null;
+	}
 }
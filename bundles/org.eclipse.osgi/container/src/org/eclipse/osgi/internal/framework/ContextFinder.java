@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2021 IBM Corporation and others.
+ * Copyright (c) 2005, 2026 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,11 +18,10 @@ import java.net.URL;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import org.eclipse.osgi.internal.loader.BundleLoader;
 import org.eclipse.osgi.internal.loader.ModuleClassLoader;
 
@@ -38,9 +37,10 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 
 	// This is used to detect cycle that could be caused while delegating the
 	// loading to other classloaders
-	// It keeps track on a thread basis of the set of requested classes and
-	// resources
-	private static ThreadLocal<Set<String>> cycleDetector = new ThreadLocal<>();
+	// It keeps track on a thread basis of the requested classes and resources.
+	// Requests are nested, so the names are kept as a stack in an array which is
+	// terminated by null and only replaced when it has to grow.
+	private static ThreadLocal<String[]> cycleDetector = new ThreadLocal<>();
 	static ClassLoader finderClassLoader;
 	static Finder contextFinder;
 	static {
@@ -72,14 +72,13 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 		Class<?>[] stack = contextFinder.getClassContext();
 		List<ClassLoader> result = new ArrayList<>(1);
 		ClassLoader previousLoader = null;
+		// skip the finder
 		for (int i = 1; i < stack.length; i++) {
 			ClassLoader tmp = stack[i].getClassLoader();
 			if (stack[i] != THIS && tmp != null && tmp != this) {
-				if (checkClassLoader(tmp)) {
-					if (previousLoader != tmp) {
-						result.add(tmp);
-						previousLoader = tmp;
-					}
+				if (previousLoader != tmp && checkClassLoader(tmp)) {
+					result.add(tmp);
+					previousLoader = tmp;
 				}
 				// stop at the framework classloader or the first bundle classloader
 				if (tmp == finderClassLoader || tmp instanceof ModuleClassLoader)
@@ -115,20 +114,29 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 	// Return whether the request for loading "name" should proceed.
 	// False is returned when a cycle is being detected
 	private boolean startLoading(String name) {
-		Set<String> classesAndResources = cycleDetector.get();
-		if (classesAndResources != null && classesAndResources.contains(name))
-			return false;
-
-		if (classesAndResources == null) {
-			classesAndResources = new HashSet<>(3);
+		String[] classesAndResources = cycleDetector.get();
+		int size = 0;
+		if (classesAndResources != null) {
+			for (; size < classesAndResources.length && classesAndResources[size] != null; size++) {
+				if (classesAndResources[size].equals(name))
+					return false;
+			}
+		}
+		if (classesAndResources == null || size == classesAndResources.length) {
+			classesAndResources = classesAndResources == null ? new String[4]
+					: Arrays.copyOf(classesAndResources, size * 2);
 			cycleDetector.set(classesAndResources);
 		}
-		classesAndResources.add(name);
+		classesAndResources[size] = name;
 		return true;
 	}
 
-	private void stopLoading(String name) {
-		cycleDetector.get().remove(name);
+	private void stopLoading() {
+		String[] classesAndResources = cycleDetector.get();
+		int last = classesAndResources.length - 1;
+		while (classesAndResources[last] == null)
+			last--;
+		classesAndResources[last] = null;
 	}
 
 	@Override
@@ -149,7 +157,7 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 			// 127963)
 			return parentContextClassLoader.loadClass(arg0);
 		} finally {
-			stopLoading(arg0);
+			stopLoading();
 		}
 	}
 
@@ -168,7 +176,7 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 			}
 			return super.getResource(arg0);
 		} finally {
-			stopLoading(arg0);
+			stopLoading();
 		}
 	}
 
@@ -192,7 +200,7 @@ public class ContextFinder extends ClassLoader implements PrivilegedAction<List<
 			}
 			return BundleLoader.compoundEnumerations(result, super.getResources(arg0));
 		} finally {
-			stopLoading(arg0);
+			stopLoading();
 		}
 	}
 }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.equinox.plurl.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class StackWalkerCallStackTest {
+	static class Outer {
+		static <T> T call(Supplier<T> action) {
+			return Inner.call(action);
+		}
+	}
+
+	static class Inner {
+		static <T> T call(Supplier<T> action) {
+			return action.get();
+		}
+	}
+
+	private final CallStack callStack = new StackWalkerCallStack();
+
+	@Test
+	public void testFindStopsAtFirstHandledClass() {
+		List<Class<?>> visited = new ArrayList<>();
+		List<Class<?>> handled = Arrays.asList(Outer.class, Inner.class);
+		String handler = Outer.call(() -> callStack.find(c -> {
+			visited.add(c);
+			return handled.contains(c) ? "handler for " + c.getSimpleName() : null;
+		}));
+		assertEquals("handler for Inner", handler);
+		assertTrue(visited.contains(Inner.class));
+		assertFalse("walked past the handled class", visited.contains(Outer.class));
+	}
+
+	@Test
+	public void testFindKeepsClassContextOrder() {
+		Function<Class<?>, Class<?>> resolver = c -> c == Outer.class || c == Inner.class ? c : null;
+		Class<?>[] context = Outer.call(() -> callStack.getClassContext());
+		Class<?> expected = null;
+		for (Class<?> c : context) {
+			expected = resolver.apply(c);
+			if (expected != null) {
+				break;
+			}
+		}
+		// the innermost caller comes first
+		assertSame(Inner.class, expected);
+		assertSame(expected, Outer.call(() -> callStack.find(resolver)));
+	}
+
+	@Test
+	public void testFindWithoutResult() {
+		assertNull(Outer.call(() -> callStack.find(c -> null)));
+	}
+
+	@Test
+	public void testResolverExceptionPassesThrough() {
+		IllegalArgumentException thrown = new IllegalArgumentException("resolver failure");
+		try {
+			Outer.call(() -> callStack.find(c -> {
+				throw thrown;
+			}));
+			fail("resolver failure was not thrown");
+		} catch (IllegalArgumentException e) {
+			assertSame(thrown, e);
+		}
+	}
+}